@@ -0,0 +1,80 @@
+package at.big5health.klimaatlas.benchmarks;
+
+import at.big5health.klimaatlas.grid.GridUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the keys of the weather caches for one request.
+ * <p>
+ * "weatherCache" is keyed by a SpEL expression over the request coordinates; its evaluation
+ * is measured next to the equivalent string concatenation. "dailyWeatherDataGrid" uses the
+ * default {@link SimpleKey} of cell and date, measured next to the string cell id.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheKeyBenchmark {
+
+    /**
+     * The key of {@code WeatherService#getWeather}.
+     */
+    private static final String WEATHER_CACHE_KEY = "#latitude + '_' + #longitude + '_' + #actualDate";
+
+    private Expression expression;
+    private Double latitude;
+    private Double longitude;
+    private LocalDate date;
+    private long cell;
+
+    @Setup
+    public void setUp() {
+        expression = new SpelExpressionParser().parseExpression(WEATHER_CACHE_KEY);
+        latitude = 48.2082;
+        longitude = 16.3738;
+        date = LocalDate.of(2025, 4, 21);
+        cell = GridUtil.cell(483, 625);
+    }
+
+    @Benchmark
+    public String weatherCacheKeySpel() {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setVariable("latitude", latitude);
+        context.setVariable("longitude", longitude);
+        context.setVariable("actualDate", date);
+        return expression.getValue(context, String.class);
+    }
+
+    @Benchmark
+    public String weatherCacheKeyConcatenated() {
+        return latitude + "_" + longitude + "_" + date;
+    }
+
+    @Benchmark
+    public SimpleKey gridCellKey() {
+        return new SimpleKey(cell, date);
+    }
+
+    @Benchmark
+    public String gridCellId() {
+        return GridUtil.cellId(cell);
+    }
+}
@@ -0,0 +1,56 @@
+package at.big5health.klimaatlas.benchmarks;
+
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeature;
+import at.big5health.klimaatlas.services.WeatherService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the pixel of a cell from a Spartacus response, for responses of a single cell up to
+ * a batched rectangle or a pre-cache tile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FindClosestFeatureBenchmark {
+
+    @Param({"1", "9", "256", "4096"})
+    private int featureCount;
+
+    private WeatherService weatherService;
+    private List<SpartacusFeature> features;
+
+    @Setup
+    public void setUp() {
+        // findClosestFeature uses none of the collaborators
+        weatherService = new WeatherService(null, null, null, null, null);
+        features = SpartacusPayloads.collection(featureCount).getFeatures();
+    }
+
+    @TearDown
+    public void tearDown() {
+        weatherService.stop();
+    }
+
+    @Benchmark
+    public Optional<SpartacusFeature> findClosestFeature() {
+        return weatherService.findClosestFeature(features, 48.2082, 16.3738);
+    }
+}
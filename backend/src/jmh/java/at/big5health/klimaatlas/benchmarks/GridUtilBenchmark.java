@@ -0,0 +1,69 @@
+package at.big5health.klimaatlas.benchmarks;
+
+import at.big5health.klimaatlas.grid.GridCellInfo;
+import at.big5health.klimaatlas.grid.GridUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps request coordinates to grid cells: the first step of every weather request.
+ * <p>
+ * Coordinates are spread over Austria and cycled, so the results are not constant-folded.
+ * {@code cellsAt} reports the time per coordinate of the bulk (vectorized) path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class GridUtilBenchmark {
+
+    private static final int POINTS = 1024;
+
+    private final GridUtil gridUtil = new GridUtil();
+    private final double[] latitudes = new double[POINTS];
+    private final double[] longitudes = new double[POINTS];
+    private final long[] cells = new long[POINTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = 46.4 + random.nextDouble() * 2.6;
+            longitudes[i] = 9.6 + random.nextDouble() * 7.5;
+        }
+    }
+
+    @Benchmark
+    public GridCellInfo getGridCellForCoordinates() {
+        int i = next++ & (POINTS - 1);
+        return gridUtil.getGridCellForCoordinates(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public long getCellForCoordinates() {
+        int i = next++ & (POINTS - 1);
+        return gridUtil.getCellForCoordinates(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public long[] cellsAt() {
+        GridUtil.cellsAt(latitudes, longitudes, cells);
+        return cells;
+    }
+}
@@ -0,0 +1,48 @@
+package at.big5health.klimaatlas.benchmarks;
+
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeatureCollection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes Spartacus GeoJSON responses as the WebClient does, from the raw response bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpartacusDecodingBenchmark {
+
+    @Param({"1", "256", "4096"})
+    private int featureCount;
+
+    private ObjectReader reader;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        reader = new ObjectMapper().readerFor(SpartacusFeatureCollection.class);
+        payload = SpartacusPayloads.json(featureCount);
+    }
+
+    @Benchmark
+    public SpartacusFeatureCollection decode() throws IOException {
+        return reader.readValue(payload);
+    }
+}
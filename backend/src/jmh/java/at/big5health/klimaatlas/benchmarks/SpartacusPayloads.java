@@ -0,0 +1,65 @@
+package at.big5health.klimaatlas.benchmarks;
+
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeatureCollection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Realistic Spartacus daily grid responses: square blocks of 1 km pixels around Vienna with
+ * the TN, TX, RR and SA parameters, shaped like the GeoJSON the API returns.
+ */
+final class SpartacusPayloads {
+
+    private static final double LAT_STEP = 0.009;
+    private static final double LON_STEP = 0.0134;
+
+    private SpartacusPayloads() {
+    }
+
+    /**
+     * @param featureCount the number of pixels
+     * @return the UTF-8 encoded GeoJSON
+     */
+    static byte[] json(int featureCount) {
+        Random random = new Random(42);
+        int side = (int) Math.ceil(Math.sqrt(featureCount));
+        StringBuilder json = new StringBuilder(featureCount * 420 + 256);
+        json.append("{\"type\":\"FeatureCollection\",\"timestamps\":[\"2025-04-21T00:00+00:00\"],\"features\":[");
+        for (int i = 0; i < featureCount; i++) {
+            double lat = 48.2082 + (i / side - side / 2) * LAT_STEP;
+            double lon = 16.3738 + (i % side - side / 2) * LON_STEP;
+            double minTemp = Math.round(random.nextGaussian() * 50) / 10.0;
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT,
+                    "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[%.6f,%.6f]},"
+                            + "\"properties\":{\"parameters\":{"
+                            + "\"TN\":{\"name\":\"minimum air temperature\",\"unit\":\"degree_Celsius\",\"data\":[%.1f]},"
+                            + "\"TX\":{\"name\":\"maximum air temperature\",\"unit\":\"degree_Celsius\",\"data\":[%.1f]},"
+                            + "\"RR\":{\"name\":\"precipitation sum\",\"unit\":\"kg m-2\",\"data\":[%.1f]},"
+                            + "\"SA\":{\"name\":\"sunshine duration\",\"unit\":\"s\",\"data\":[%d.0]}}}}",
+                    lon, lat, minTemp, minTemp + 8 + random.nextInt(80) / 10.0,
+                    random.nextInt(4) == 0 ? random.nextInt(200) / 10.0 : 0.0, random.nextInt(50000)));
+        }
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param featureCount the number of pixels
+     * @return the decoded response
+     */
+    static SpartacusFeatureCollection collection(int featureCount) {
+        try {
+            return new ObjectMapper().readValue(json(featureCount), SpartacusFeatureCollection.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package at.big5health.klimaatlas.benchmarks;
+
+import at.big5health.klimaatlas.dtos.Precipitation;
+import at.big5health.klimaatlas.dtos.WeatherReportDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes lists of weather reports, as returned by {@code /dailyweather/cached} for the
+ * population centers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeatherReportEncodingBenchmark {
+
+    @Param({"1", "100", "2000"})
+    private int reportCount;
+
+    private ObjectWriter writer;
+    private List<WeatherReportDTO> reports;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writerFor(new TypeReference<List<WeatherReportDTO>>() { });
+        Random random = new Random(42);
+        Precipitation[] precipitation = Precipitation.values();
+        reports = new ArrayList<>(reportCount);
+        for (int i = 0; i < reportCount; i++) {
+            double minTemp = Math.round(random.nextGaussian() * 50) / 10.0;
+            reports.add(new WeatherReportDTO(minTemp, minTemp + 8 + random.nextInt(80) / 10.0,
+                    precipitation[random.nextInt(precipitation.length)], random.nextInt(50000) * 1.0,
+                    46.4 + random.nextDouble() * 2.6, 9.6 + random.nextDouble() * 7.5, "Ort " + i));
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() throws JsonProcessingException {
+        return writer.writeValueAsBytes(reports);
+    }
+}
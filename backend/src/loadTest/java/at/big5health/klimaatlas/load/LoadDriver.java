@@ -0,0 +1,206 @@
+package at.big5health.klimaatlas.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Drives HTTP load against a running application and measures every request.
+ * <p>
+ * Requests are sent from virtual threads, so the driver itself is not the bottleneck.
+ * A closed-loop run keeps a fixed number of requests in flight; a burst run releases a wave
+ * of requests at the same instant, pauses, and repeats. The request paths are produced by
+ * the scenario from the request index.
+ */
+final class LoadDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final URI baseUri;
+    private final LongSupplier upstreamRequests;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    /**
+     * @param baseUrl          the application's base URL, e.g. {@code http://localhost:8080}
+     * @param upstreamRequests the running count of upstream requests, reported per scenario
+     */
+    LoadDriver(String baseUrl, LongSupplier upstreamRequests) {
+        this.baseUri = URI.create(baseUrl);
+        this.upstreamRequests = upstreamRequests;
+    }
+
+    /**
+     * Sends {@code requests} requests with {@code concurrency} of them in flight at any time.
+     *
+     * @param scenario    the scenario name for the report
+     * @param requests    the number of requests
+     * @param concurrency the number of concurrent requests
+     * @param paths       the path and query of the request with the given index
+     * @return the report
+     */
+    LoadReport closedLoop(String scenario, int requests, int concurrency, IntFunction<String> paths) {
+        Samples samples = new Samples(requests);
+        long upstreamBefore = upstreamRequests.getAsLong();
+        long start = System.nanoTime();
+        AtomicInteger next = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                executor.execute(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        send(i, paths.apply(i), samples);
+                    }
+                });
+            }
+        }
+        return samples.report(scenario, System.nanoTime() - start, upstreamRequests.getAsLong() - upstreamBefore);
+    }
+
+    /**
+     * Sends {@code waves} waves of {@code burstSize} simultaneous requests.
+     * Throughput is measured over the time the waves take, without the pauses between them.
+     *
+     * @param scenario  the scenario name for the report
+     * @param waves     the number of waves
+     * @param burstSize the number of requests per wave
+     * @param pause     the pause after each wave
+     * @param paths     the path and query of the request with the given index
+     * @return the report
+     */
+    LoadReport bursts(String scenario, int waves, int burstSize, Duration pause, IntFunction<String> paths) {
+        Samples samples = new Samples(waves * burstSize);
+        long upstreamBefore = upstreamRequests.getAsLong();
+        long active = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int wave = 0; wave < waves; wave++) {
+                CountDownLatch release = new CountDownLatch(1);
+                List<Future<?>> inFlight = new ArrayList<>(burstSize);
+                for (int j = 0; j < burstSize; j++) {
+                    int i = wave * burstSize + j;
+                    inFlight.add(executor.submit(() -> {
+                        release.await();
+                        send(i, paths.apply(i), samples);
+                        return null;
+                    }));
+                }
+                long start = System.nanoTime();
+                release.countDown();
+                for (Future<?> request : inFlight) {
+                    request.get();
+                }
+                active += System.nanoTime() - start;
+                Thread.sleep(pause.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during burst", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Burst request failed", e.getCause());
+        }
+        return samples.report(scenario, active, upstreamRequests.getAsLong() - upstreamBefore);
+    }
+
+    private void send(int index, String path, Samples samples) {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = -1;
+        }
+        samples.record(index, endpoint(path), status, System.nanoTime() - start);
+    }
+
+    private static String endpoint(String path) {
+        int query = path.indexOf('?');
+        return query >= 0 ? path.substring(0, query) : path;
+    }
+
+    /**
+     * The outcome of every request of a run, indexed by request.
+     */
+    private static final class Samples {
+
+        private final String[] endpoints;
+        private final int[] statuses;
+        private final long[] nanos;
+
+        Samples(int requests) {
+            endpoints = new String[requests];
+            statuses = new int[requests];
+            nanos = new long[requests];
+        }
+
+        void record(int index, String endpoint, int status, long elapsed) {
+            endpoints[index] = endpoint;
+            statuses[index] = status;
+            nanos[index] = elapsed;
+        }
+
+        LoadReport report(String scenario, long wallNanos, long upstreamRequests) {
+            Map<String, List<Integer>> byEndpoint = new TreeMap<>();
+            List<Integer> all = new ArrayList<>(nanos.length);
+            for (int i = 0; i < nanos.length; i++) {
+                if (endpoints[i] != null) {
+                    byEndpoint.computeIfAbsent(endpoints[i], e -> new ArrayList<>()).add(i);
+                    all.add(i);
+                }
+            }
+            List<LoadReport.Stats> endpointStats = new ArrayList<>();
+            byEndpoint.forEach((endpoint, indices) -> endpointStats.add(stats(endpoint, indices, wallNanos)));
+            return new LoadReport(scenario, stats("total", all, wallNanos), endpointStats, upstreamRequests);
+        }
+
+        private LoadReport.Stats stats(String endpoint, List<Integer> indices, long wallNanos) {
+            double[] millis = new double[indices.size()];
+            int errors = 0;
+            for (int j = 0; j < millis.length; j++) {
+                int i = indices.get(j);
+                millis[j] = nanos[i] / 1_000_000.0;
+                if (statuses[i] < 0 || statuses[i] >= 400) {
+                    errors++;
+                }
+            }
+            Arrays.sort(millis);
+            double seconds = Math.max(wallNanos, 1) / 1_000_000_000.0;
+            return new LoadReport.Stats(endpoint, millis.length, errors, percentile(millis, 0.50),
+                    percentile(millis, 0.99), millis.length > 0 ? millis[millis.length - 1] : 0, millis.length / seconds);
+        }
+
+        /**
+         * Nearest-rank percentile of sorted values.
+         */
+        private static double percentile(double[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package at.big5health.klimaatlas.load;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Latency and throughput of one load scenario, overall and per endpoint.
+ *
+ * @param scenario          the scenario name
+ * @param total             the statistics over all requests
+ * @param endpoints         the statistics per endpoint path
+ * @param upstreamRequests  the number of requests the scenario caused at the Spartacus stub
+ */
+record LoadReport(String scenario, Stats total, List<Stats> endpoints, long upstreamRequests) {
+
+    /**
+     * Statistics of a group of requests. Latencies are in milliseconds, throughput in requests
+     * per second of the scenario's wall-clock time.
+     *
+     * @param endpoint   the endpoint path, or {@code "total"}
+     * @param requests   the number of requests
+     * @param errors     the number of requests that failed or returned a status of 400 or above
+     * @param p50        the median latency
+     * @param p99        the 99th percentile latency
+     * @param max        the highest latency
+     * @param throughput the completed requests per second
+     */
+    record Stats(String endpoint, int requests, int errors, double p50, double p99, double max, double throughput) {
+    }
+
+    /**
+     * @return the report as a plain-text table
+     */
+    String toTable() {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+                "%n%s (%d upstream requests)%n%-24s %9s %7s %9s %9s %9s %10s%n", scenario, upstreamRequests,
+                "endpoint", "requests", "errors", "p50 ms", "p99 ms", "max ms", "req/s"));
+        for (Stats stats : endpoints) {
+            table.append(row(stats));
+        }
+        return table.append(row(total)).toString();
+    }
+
+    private static String row(Stats stats) {
+        return String.format(Locale.ROOT, "%-24s %9d %7d %9.1f %9.1f %9.1f %10.1f%n", stats.endpoint(),
+                stats.requests(), stats.errors(), stats.p50(), stats.p99(), stats.max(), stats.throughput());
+    }
+}
@@ -0,0 +1,219 @@
+package at.big5health.klimaatlas.load;
+
+import at.big5health.klimaatlas.grid.AustriaLambert;
+import at.big5health.klimaatlas.grid.GridUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.HttpUrl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Spartacus and GBIF APIs that replays recorded responses.
+ * <p>
+ * Spartacus requests ({@code /spartacus?bbox=...}) are answered with one feature per 1 km
+ * pixel whose center lies in the requested bounding box, exactly as the real API does. The
+ * parameters of each pixel are replayed from a recorded 16 x 16 pixel block around Vienna,
+ * tiled over the whole grid, so responses have realistic content and size for any area.
+ * GBIF occurrence searches ({@code /gbif/occurrence/search}) return a recorded page.
+ * <p>
+ * Every response is delayed by the configured latency, and the configured share of requests
+ * fails with {@code 503 Service Unavailable}.
+ */
+final class UpstreamStub implements Closeable {
+
+    private static final String SPARTACUS_RECORDING = "/recordings/spartacus-daily-grid.json";
+    private static final String GBIF_RECORDING = "/recordings/gbif-occurrence-search.json";
+    private static final int BLOCK = 16;
+
+    private final MockWebServer server = new MockWebServer();
+    private final Duration latency;
+    private final double errorRate;
+    private final String[] recordedParameters = new String[BLOCK * BLOCK];
+    private final int firstRow;
+    private final int firstColumn;
+    private final String gbifPage;
+    private final AtomicLong spartacusRequests = new AtomicLong();
+    private final AtomicLong gbifRequests = new AtomicLong();
+
+    private UpstreamStub(Duration latency, double errorRate) throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode features = mapper.readTree(read(SPARTACUS_RECORDING)).get("features");
+        int minRow = Integer.MAX_VALUE;
+        int minColumn = Integer.MAX_VALUE;
+        for (JsonNode feature : features) {
+            long cell = cellOf(feature);
+            minRow = Math.min(minRow, GridUtil.row(cell));
+            minColumn = Math.min(minColumn, GridUtil.column(cell));
+        }
+        this.firstRow = minRow;
+        this.firstColumn = minColumn;
+        for (JsonNode feature : features) {
+            long cell = cellOf(feature);
+            recordedParameters[slot(GridUtil.row(cell), GridUtil.column(cell))] =
+                    mapper.writeValueAsString(feature.get("properties"));
+        }
+        this.gbifPage = read(GBIF_RECORDING);
+    }
+
+    /**
+     * Starts a stub on a free local port.
+     *
+     * @param latency   the delay of every response
+     * @param errorRate the share of requests answered with 503, between 0 and 1
+     * @return the running stub
+     */
+    static UpstreamStub start(Duration latency, double errorRate) {
+        try {
+            UpstreamStub stub = new UpstreamStub(latency, errorRate);
+            stub.server.setDispatcher(stub.new Replay());
+            stub.server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the value for {@code spartacus.api.baseUrl}
+     */
+    String spartacusUrl() {
+        return server.url("/spartacus").toString();
+    }
+
+    /**
+     * @return the value for {@code gbif.api.base-url}
+     */
+    String gbifUrl() {
+        return server.url("/gbif").toString();
+    }
+
+    /**
+     * @return the number of Spartacus requests received so far
+     */
+    long spartacusRequests() {
+        return spartacusRequests.get();
+    }
+
+    /**
+     * @return the number of GBIF requests received so far
+     */
+    long gbifRequests() {
+        return gbifRequests.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private String spartacusResponse(String bbox) {
+        String[] bounds = bbox.split(",");
+        double minLat = Double.parseDouble(bounds[0]);
+        double minLon = Double.parseDouble(bounds[1]);
+        double maxLat = Double.parseDouble(bounds[2]);
+        double maxLon = Double.parseDouble(bounds[3]);
+        long[] corners = {
+            GridUtil.cellAt(minLat, minLon), GridUtil.cellAt(minLat, maxLon),
+            GridUtil.cellAt(maxLat, minLon), GridUtil.cellAt(maxLat, maxLon)
+        };
+        int minRow = Integer.MAX_VALUE;
+        int maxRow = Integer.MIN_VALUE;
+        int minColumn = Integer.MAX_VALUE;
+        int maxColumn = Integer.MIN_VALUE;
+        for (long corner : corners) {
+            minRow = Math.min(minRow, GridUtil.row(corner));
+            maxRow = Math.max(maxRow, GridUtil.row(corner));
+            minColumn = Math.min(minColumn, GridUtil.column(corner));
+            maxColumn = Math.max(maxColumn, GridUtil.column(corner));
+        }
+
+        StringBuilder json = new StringBuilder(512)
+                .append("{\"media_type\":\"application/json\",\"type\":\"FeatureCollection\",\"version\":\"v1\",")
+                .append("\"features\":[");
+        boolean first = true;
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                double[] center = AustriaLambert.unproject(column * 1000.0 + 500, row * 1000.0 + 500);
+                if (center[0] < minLat || center[0] > maxLat || center[1] < minLon || center[1] > maxLon) {
+                    continue;
+                }
+                json.append(first ? "" : ",")
+                        .append(String.format(Locale.ROOT,
+                                "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[%.6f,%.6f]},"
+                                        + "\"properties\":", center[1], center[0]))
+                        .append(recordedParameters[slot(row, column)])
+                        .append('}');
+                first = false;
+            }
+        }
+        return json.append("]}").toString();
+    }
+
+    private int slot(int row, int column) {
+        return Math.floorMod(row - firstRow, BLOCK) * BLOCK + Math.floorMod(column - firstColumn, BLOCK);
+    }
+
+    private static long cellOf(JsonNode feature) {
+        JsonNode coordinates = feature.get("geometry").get("coordinates");
+        return GridUtil.cellAt(coordinates.get(1).asDouble(), coordinates.get(0).asDouble());
+    }
+
+    private static String read(String resource) throws IOException {
+        try (InputStream in = UpstreamStub.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing recording " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Answers requests from the recordings, after the configured latency.
+     */
+    private final class Replay extends Dispatcher {
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            HttpUrl url = request.getRequestUrl();
+            String path = url != null ? url.encodedPath() : "";
+            MockResponse response = new MockResponse()
+                    .setHeadersDelay(latency.toMillis(), TimeUnit.MILLISECONDS)
+                    .addHeader("Content-Type", "application/json");
+            if (path.startsWith("/spartacus")) {
+                spartacusRequests.incrementAndGet();
+            } else if (path.startsWith("/gbif/occurrence/search")) {
+                gbifRequests.incrementAndGet();
+            } else {
+                return response.setResponseCode(404).setBody("{\"detail\":\"Not Found\"}");
+            }
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                return response.setResponseCode(503).setBody("{\"detail\":\"Service Unavailable\"}");
+            }
+            if (path.startsWith("/gbif")) {
+                return response.setBody(gbifPage);
+            }
+            String bbox = url.queryParameter("bbox");
+            if (bbox == null) {
+                return response.setResponseCode(400).setBody("{\"detail\":\"bbox is required\"}");
+            }
+            return response.setBody(spartacusResponse(bbox));
+        }
+    }
+}
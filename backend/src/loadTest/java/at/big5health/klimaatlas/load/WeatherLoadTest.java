@@ -0,0 +1,174 @@
+package at.big5health.klimaatlas.load;
+
+import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+import at.big5health.klimaatlas.services.MosquitoService;
+import at.big5health.klimaatlas.services.PopulationCenterService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load scenarios against the full application, with Spartacus and GBIF replaced by
+ * the local {@link UpstreamStub}.
+ * <p>
+ * Run with {@code ./gradlew loadTest}. Every scenario prints p50/p99 latency and throughput per
+ * endpoint and writes them to {@code build/reports/load/<scenario>.json}. The load is tuned with
+ * system properties:
+ * <ul>
+ *     <li>{@code load.requests} (2000): requests of the hit-heavy and miss-heavy scenarios</li>
+ *     <li>{@code load.concurrency} (32): requests in flight in those scenarios</li>
+ *     <li>{@code load.burst.size} (200) and {@code load.burst.waves} (5): the burst scenario</li>
+ *     <li>{@code load.stub.latency-ms} (40): the delay of every upstream response</li>
+ *     <li>{@code load.stub.error-rate} (0): the share of upstream requests failing with 503</li>
+ * </ul>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "mosquito.archive.path=build/load-test/mosquito-archive",
+    "mosquito.archive.first-year=9999",
+    "weather.backfill.path=build/load-test/weather-archive"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WeatherLoadTest {
+
+    private static final int REQUESTS = Integer.getInteger("load.requests", 2000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 32);
+    private static final int BURST_SIZE = Integer.getInteger("load.burst.size", 200);
+    private static final int BURST_WAVES = Integer.getInteger("load.burst.waves", 5);
+    private static final double STUB_ERROR_RATE = Double.parseDouble(System.getProperty("load.stub.error-rate", "0"));
+    private static final Path REPORTS = Path.of("build", "reports", "load");
+
+    private static final UpstreamStub STUB = UpstreamStub.start(
+            Duration.ofMillis(Long.getLong("load.stub.latency-ms", 40)), STUB_ERROR_RATE);
+
+    private static final String AUSTRIA = "minLat=46.35&minLon=9.5&maxLat=49.05&maxLon=17.2";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MosquitoService mosquitoService;
+
+    @Autowired
+    private PopulationCenterService populationCenterService;
+
+    private LoadDriver driver;
+    private List<AustrianPopulationCenter> centers;
+    private LocalDate yesterday;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) {
+        registry.add("spartacus.api.baseUrl", STUB::spartacusUrl);
+        registry.add("gbif.api.base-url", STUB::gbifUrl);
+    }
+
+    @BeforeAll
+    void setUp() {
+        driver = new LoadDriver("http://localhost:" + port, STUB::spartacusRequests);
+        centers = populationCenterService.getAllCenters();
+        yesterday = LocalDate.now().minusDays(1);
+        mosquitoService.refreshOccurrences();
+    }
+
+    @AfterAll
+    void tearDown() throws IOException {
+        STUB.close();
+    }
+
+    /**
+     * Mostly repeated requests for the population centers, as on the start page: after a
+     * warm-up pass every weather request is a cache hit.
+     */
+    @Test
+    void hitHeavy() throws IOException {
+        driver.closedLoop("warm-up", centers.size(), CONCURRENCY, i -> weatherAt(centers.get(i), yesterday));
+
+        LoadReport report = driver.closedLoop("hit-heavy", REQUESTS, CONCURRENCY, i -> {
+            Random random = new Random(i);
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                return "/dailyweather/cached?actualDate=" + yesterday;
+            }
+            if (kind == 1) {
+                return "/mosquitoes/clusters?" + AUSTRIA + "&zoom=7";
+            }
+            return weatherAt(centers.get(random.nextInt(centers.size())), yesterday);
+        });
+
+        verify(report, REQUESTS);
+    }
+
+    /**
+     * Random points and dates all over Austria, so nearly every weather request misses the
+     * caches and goes upstream.
+     */
+    @Test
+    void missHeavy() throws IOException {
+        LoadReport report = driver.closedLoop("miss-heavy", REQUESTS, CONCURRENCY, i -> {
+            Random random = new Random(1_000_000L + i);
+            if (random.nextInt(10) == 0) {
+                return "/mosquitoes?species=Aedes%20albopictus";
+            }
+            return weatherAt(46.5 + random.nextDouble() * 2.4, 9.7 + random.nextDouble() * 7.2,
+                    yesterday.minusDays(1 + random.nextInt(365)));
+        });
+
+        verify(report, REQUESTS);
+    }
+
+    /**
+     * Waves of simultaneous requests for nearby points around Graz, one new date per wave, as
+     * when many users open the map at once; the misses of a wave are batched upstream.
+     */
+    @Test
+    void burst() throws IOException {
+        LoadReport report = driver.bursts("burst", BURST_WAVES, BURST_SIZE, Duration.ofMillis(500), i -> {
+            Random random = new Random(2_000_000L + i);
+            if (random.nextInt(10) == 0) {
+                return "/dailyweather/cached?actualDate=" + yesterday;
+            }
+            LocalDate date = yesterday.minusDays(400 + i / BURST_SIZE);
+            return weatherAt(46.95 + random.nextDouble() * 0.25, 15.25 + random.nextDouble() * 0.4, date);
+        });
+
+        verify(report, BURST_SIZE * BURST_WAVES);
+    }
+
+    private void verify(LoadReport report, int expectedRequests) throws IOException {
+        System.out.print(report.toTable());
+        Files.createDirectories(REPORTS);
+        new ObjectMapper().writerWithDefaultPrettyPrinter()
+                .writeValue(REPORTS.resolve(report.scenario() + ".json").toFile(), report);
+
+        assertThat(report.total().requests()).isEqualTo(expectedRequests);
+        if (STUB_ERROR_RATE == 0) {
+            assertThat(report.total().errors()).isZero();
+        }
+    }
+
+    private static String weatherAt(AustrianPopulationCenter center, LocalDate date) {
+        return weatherAt(center.getRepresentativeLatitude(), center.getRepresentativeLongitude(), date);
+    }
+
+    private static String weatherAt(double latitude, double longitude, LocalDate date) {
+        return String.format(Locale.ROOT, "/dailyweather?cityName=load&latitude=%.4f&longitude=%.4f&actualDate=%s",
+                latitude, longitude, date);
+    }
+}
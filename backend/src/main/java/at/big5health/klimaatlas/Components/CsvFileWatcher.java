@@ -1,10 +1,13 @@
 package at.big5health.klimaatlas.Components;
 
+import at.big5health.klimaatlas.config.AustrianPopulationCenter;
 import at.big5health.klimaatlas.dtos.WeatherReportDTO;
 import at.big5health.klimaatlas.exceptions.CsvParseException;
 import at.big5health.klimaatlas.services.PopulationCenterService;
+import at.big5health.klimaatlas.services.TokenBucket;
 import at.big5health.klimaatlas.services.WeatherService;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
@@ -19,14 +22,31 @@ import java.nio.file.WatchService;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchEvent;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Component that watches the population center CSV file for changes.
- * If the file is modified, it triggers a reload of the data and selectively re-caches weather info
- * for any newly added centers.
+ * If the file is modified, it triggers a reload of the data, evicts cached weather info of removed
+ * centers and selectively re-caches weather info for centers at new representative points.
  * Parsing errors (e.g. invalid rows or duplicates) are logged and stored, but do not crash the app.
  * Starts automatically at application startup using a background daemon thread.
+ * <p>
+ * Editors typically emit several modify events per save, so events are debounced: a reload
+ * only starts once the file has been quiet for {@code csv.watcher.debounce}. Reloads run one at a
+ * time on a dedicated thread; events arriving during a reload collapse into a single follow-up
+ * reload. Moved centers are re-cached in parallel, at most {@code csv.watcher.recache.max-in-flight}
+ * at a time and paced by a {@link TokenBucket} ({@code csv.watcher.recache.rate-per-second},
+ * {@code csv.watcher.recache.burst}).
  */
 @Component
 @RequiredArgsConstructor
@@ -36,9 +56,26 @@ public class CsvFileWatcher {
     private final WeatherService weatherService;
     private final CacheManager cacheManager;
 
+    private final ScheduledExecutorService reloadExecutor =
+            Executors.newSingleThreadScheduledExecutor(daemonThreads("csv-reload"));
+
+    private ScheduledFuture<?> pendingReload;
+
     @Value("${population.centers.csv-path}")
     private String csvPath;
 
+    @Value("${csv.watcher.debounce:PT0.5S}")
+    private Duration debounce = Duration.ofMillis(500);
+
+    @Value("${csv.watcher.recache.rate-per-second:5}")
+    private double reCacheRatePerSecond = 5;
+
+    @Value("${csv.watcher.recache.burst:1}")
+    private int reCacheBurst = 1;
+
+    @Value("${csv.watcher.recache.max-in-flight:4}")
+    private int reCacheMaxInFlight = 4;
+
     /**
      * Initializes file watching on the configured CSV path.
      * Triggers population center refresh and re-caching if the file changes.
@@ -63,43 +100,7 @@ public class CsvFileWatcher {
 
                         if (event.kind() == StandardWatchEventKinds.ENTRY_MODIFY &&
                                 changed.getFileName().toString().equals(fileName)) {
-
-                            System.out.println("[CSV Watcher] Detected change in file: " + fileName);
-
-                            try {
-                                LocalDate targetDate = LocalDate.now().minusDays(1);
-                                Cache cache = cacheManager.getCache("weatherCache");
-
-                                if (cache == null) {
-                                    System.err.println("[CSV Watcher] Cache 'weatherCache' not found!");
-                                    continue;
-                                }
-
-                                populationCenterService.refreshAndReCache(targetDate, center -> {
-                                    try {
-                                        WeatherReportDTO report = weatherService.getWeather(
-                                                center.getDisplayName(),
-                                                center.getRepresentativeLongitude(),
-                                                center.getRepresentativeLatitude(),
-                                                targetDate
-                                        );
-                                        String keyStr = center.getRepresentativeLatitude() + "_" +
-                                                center.getRepresentativeLongitude() + "_" +
-                                                targetDate;
-                                        cache.put(keyStr, report);
-                                        System.out.println("[CSV Watcher] Re-cached weather for: " + center.getDisplayName());
-                                        Thread.sleep(1000);
-                                    } catch (InterruptedException e) {
-                                        Thread.currentThread().interrupt();
-                                        System.err.println("[CSV Watcher] Interrupted during delay.");
-                                    } catch (Exception ex) {
-                                        System.err.println("[CSV Watcher] Failed to re-cache: " + center.getDisplayName() + " → " + ex.getMessage());
-                                    }
-                                });
-
-                            } catch (CsvParseException ex) {
-                                System.err.println("[CSV Watcher] Parsing error: " + ex.getErrors());
-                            }
+                            requestReload();
                         }
                     }
                     key.reset();
@@ -113,4 +114,114 @@ public class CsvFileWatcher {
         watcherThread.setDaemon(true);
         watcherThread.start();
     }
-}
\ No newline at end of file
+
+    /**
+     * Stops pending reloads and re-cache tasks on shutdown.
+     */
+    @PreDestroy
+    public void stop() {
+        reloadExecutor.shutdownNow();
+    }
+
+    /**
+     * Schedules a reload after the debounce delay, replacing a reload that has not started yet.
+     * A reload that is already running is not interrupted; the new one runs after it.
+     */
+    synchronized void requestReload() {
+        if (pendingReload != null) {
+            pendingReload.cancel(false);
+        }
+        pendingReload = reloadExecutor.schedule(this::reload, debounce.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reloads the CSV and waits until all moved centers have been re-cached, so that
+     * consecutive reloads never overlap.
+     */
+    void reload() {
+        System.out.println("[CSV Watcher] Detected change in file: " + csvPath);
+
+        LocalDate targetDate = LocalDate.now().minusDays(1);
+        Cache cache = cacheManager.getCache("weatherCache");
+
+        if (cache == null) {
+            System.err.println("[CSV Watcher] Cache 'weatherCache' not found!");
+            return;
+        }
+
+        TokenBucket rateLimit = new TokenBucket(reCacheRatePerSecond, reCacheBurst);
+        Semaphore inFlight = new Semaphore(reCacheMaxInFlight);
+        AtomicInteger reCached = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            populationCenterService.refreshAndReCache(targetDate,
+                    center -> {
+                        try {
+                            inFlight.acquire();
+                            rateLimit.acquire();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            System.err.println("[CSV Watcher] Interrupted, skipping re-cache of: " + center.getDisplayName());
+                            return;
+                        }
+                        reCached.incrementAndGet();
+                        executor.execute(() -> {
+                            try {
+                                reCache(center, targetDate, cache);
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+                    },
+                    center -> evict(center, cache));
+        } catch (CsvParseException ex) {
+            System.err.println("[CSV Watcher] Parsing error: " + ex.getErrors());
+        } catch (RuntimeException ex) {
+            System.err.println("[CSV Watcher] Reload failed: " + ex.getMessage());
+        }
+
+        if (reCached.get() > 0) {
+            System.out.println("[CSV Watcher] Re-cache finished for " + reCached.get() + " population centers.");
+        }
+    }
+
+    /**
+     * Evicts all cached weather reports of a removed center. Cache keys have the form
+     * {@code lat_lon_date}; if the cache exposes its entries as a map, the entries for every
+     * date are removed, otherwise only the re-cached date.
+     */
+    private void evict(AustrianPopulationCenter center, Cache cache) {
+        String prefix = center.getRepresentativeLatitude() + "_" + center.getRepresentativeLongitude() + "_";
+        if (cache.getNativeCache() instanceof Map<?, ?> entries) {
+            entries.keySet().removeIf(key -> key instanceof String keyStr && keyStr.startsWith(prefix));
+        } else {
+            cache.evict(prefix + LocalDate.now().minusDays(1));
+        }
+        System.out.println("[CSV Watcher] Evicted cached weather for removed center: " + center.getDisplayName());
+    }
+
+    private void reCache(AustrianPopulationCenter center, LocalDate targetDate, Cache cache) {
+        try {
+            WeatherReportDTO report = weatherService.getWeather(
+                    center.getDisplayName(),
+                    center.getRepresentativeLongitude(),
+                    center.getRepresentativeLatitude(),
+                    targetDate
+            );
+            String keyStr = center.getRepresentativeLatitude() + "_" +
+                    center.getRepresentativeLongitude() + "_" +
+                    targetDate;
+            cache.put(keyStr, report);
+            System.out.println("[CSV Watcher] Re-cached weather for: " + center.getDisplayName());
+        } catch (Exception ex) {
+            System.err.println("[CSV Watcher] Failed to re-cache: " + center.getDisplayName() + " → " + ex.getMessage());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
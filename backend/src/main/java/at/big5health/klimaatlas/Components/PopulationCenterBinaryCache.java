@@ -0,0 +1,231 @@
+package at.big5health.klimaatlas.Components;
+
+import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Binary snapshot of a successfully parsed population center CSV, stored next to it as
+ * {@code <csv>.bin}.
+ * <p>
+ * Layout (little-endian): a header ({@code magic}, {@code version}, CSV size, CSV
+ * last-modified time, SHA-256 of the CSV content, {@code count}), six {@code double}
+ * columns of {@code count} entries (representative latitude and longitude, min latitude,
+ * min longitude, max latitude, max longitude) and a string table of display names
+ * ({@code count + 1} {@code int} offsets followed by the UTF-8 bytes).
+ * <p>
+ * A snapshot is used if the CSV still has the recorded size and modification time, or
+ * otherwise if its content hash still matches; in the latter case the header is refreshed
+ * so the next start takes the fast path again. Snapshots of another version or with a
+ * different hash are ignored and replaced after the next successful parse.
+ */
+final class PopulationCenterBinaryCache {
+
+    static final String SUFFIX = ".bin";
+
+    private static final int MAGIC = 0x4B4C5043; // "KLPC"
+    private static final int VERSION = 1;
+    private static final int HASH_BYTES = 32;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES + HASH_BYTES + Integer.BYTES;
+    private static final int COLUMNS = 6;
+    private static final int HASH_WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private final Path csv;
+    private final Path snapshot;
+    private final long csvSize;
+    private final long csvModified;
+    private byte[] csvHash;
+
+    /**
+     * Captures size and modification time of {@code csv} before it is read.
+     */
+    PopulationCenterBinaryCache(Path csv) throws IOException {
+        this.csv = csv;
+        this.snapshot = csv.resolveSibling(csv.getFileName() + SUFFIX);
+        this.csvSize = Files.size(csv);
+        this.csvModified = Files.getLastModifiedTime(csv).toMillis();
+    }
+
+    /**
+     * @return the centers stored in the snapshot, if it exists and matches the CSV
+     */
+    Optional<List<AustrianPopulationCenter>> read() throws IOException {
+        if (!Files.exists(snapshot)) {
+            return Optional.empty();
+        }
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return Optional.empty();
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (data.getInt(0) != MAGIC || data.getInt(Integer.BYTES) != VERSION) {
+            return Optional.empty();
+        }
+        long size = data.getLong(2 * Integer.BYTES);
+        long modified = data.getLong(2 * Integer.BYTES + Long.BYTES);
+        byte[] hash = new byte[HASH_BYTES];
+        data.get(2 * Integer.BYTES + 2 * Long.BYTES, hash);
+
+        boolean refreshHeader = false;
+        if (size != csvSize || modified != csvModified) {
+            if (size != csvSize || !Arrays.equals(hash, hash())) {
+                return Optional.empty();
+            }
+            refreshHeader = true;
+        }
+
+        Optional<List<AustrianPopulationCenter>> centers = decode(data);
+        if (centers.isPresent() && refreshHeader) {
+            writeHeader();
+        }
+        return centers;
+    }
+
+    /**
+     * Replaces the snapshot with the given centers, parsed from the CSV captured by this instance.
+     * Nothing is written if the CSV changed since it was captured.
+     */
+    void write(List<AustrianPopulationCenter> centers) throws IOException {
+        if (Files.size(csv) != csvSize || Files.getLastModifiedTime(csv).toMillis() != csvModified) {
+            return; // changed while being parsed; the next load parses it again
+        }
+        int count = centers.size();
+        byte[][] names = new byte[count][];
+        int nameBytes = 0;
+        for (int i = 0; i < count; i++) {
+            names[i] = centers.get(i).getDisplayName().getBytes(StandardCharsets.UTF_8);
+            nameBytes += names[i].length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * COLUMNS * Double.BYTES
+                + (count + 1) * Integer.BYTES + nameBytes).order(ByteOrder.LITTLE_ENDIAN);
+        putHeader(buffer, count);
+        for (AustrianPopulationCenter center : centers) {
+            buffer.putDouble(center.getRepresentativeLatitude());
+        }
+        for (AustrianPopulationCenter center : centers) {
+            buffer.putDouble(center.getRepresentativeLongitude());
+        }
+        for (AustrianPopulationCenter center : centers) {
+            buffer.putDouble(center.getMinLatitude());
+        }
+        for (AustrianPopulationCenter center : centers) {
+            buffer.putDouble(center.getMinLongitude());
+        }
+        for (AustrianPopulationCenter center : centers) {
+            buffer.putDouble(center.getMaxLatitude());
+        }
+        for (AustrianPopulationCenter center : centers) {
+            buffer.putDouble(center.getMaxLongitude());
+        }
+        int offset = 0;
+        for (byte[] name : names) {
+            buffer.putInt(offset);
+            offset += name.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] name : names) {
+            buffer.put(name);
+        }
+        buffer.flip();
+
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Optional<List<AustrianPopulationCenter>> decode(ByteBuffer data) {
+        int count = data.getInt(HEADER_BYTES - Integer.BYTES);
+        long columnsEnd = HEADER_BYTES + (long) count * COLUMNS * Double.BYTES;
+        long offsetsEnd = columnsEnd + (long) (count + 1) * Integer.BYTES;
+        if (count < 0 || offsetsEnd > data.limit()) {
+            return Optional.empty();
+        }
+        int columns = HEADER_BYTES;
+        int offsets = (int) columnsEnd;
+        int strings = (int) offsetsEnd;
+        if (strings + (long) data.getInt(offsets + count * Integer.BYTES) > data.limit()) {
+            return Optional.empty();
+        }
+
+        List<AustrianPopulationCenter> centers = new ArrayList<>(count);
+        byte[] name = new byte[64];
+        for (int i = 0; i < count; i++) {
+            int start = data.getInt(offsets + i * Integer.BYTES);
+            int length = data.getInt(offsets + (i + 1) * Integer.BYTES) - start;
+            if (length > name.length) {
+                name = new byte[Math.max(length, name.length * 2)];
+            }
+            data.get(strings + start, name, 0, length);
+            centers.add(new AustrianPopulationCenter(
+                    new String(name, 0, length, StandardCharsets.UTF_8),
+                    column(data, columns, count, 0, i),
+                    column(data, columns, count, 1, i),
+                    column(data, columns, count, 2, i),
+                    column(data, columns, count, 3, i),
+                    column(data, columns, count, 4, i),
+                    column(data, columns, count, 5, i)));
+        }
+        return Optional.of(centers);
+    }
+
+    private static double column(ByteBuffer data, int columns, int count, int column, int index) {
+        return data.getDouble(columns + (column * count + index) * Double.BYTES);
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES - Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(csvSize).putLong(csvModified).put(hash());
+        header.flip();
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+        }
+    }
+
+    private void putHeader(ByteBuffer buffer, int count) throws IOException {
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(csvSize).putLong(csvModified).put(hash()).putInt(count);
+    }
+
+    /**
+     * SHA-256 of the CSV content, computed at most once.
+     */
+    private byte[] hash() throws IOException {
+        if (csvHash == null) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+            try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+                long size = channel.size();
+                for (long position = 0; position < size; position += HASH_WINDOW_BYTES) {
+                    digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(HASH_WINDOW_BYTES, size - position)));
+                }
+            }
+            csvHash = digest.digest();
+        }
+        return csvHash;
+    }
+}
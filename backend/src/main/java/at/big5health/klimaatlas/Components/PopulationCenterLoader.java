@@ -1,25 +1,71 @@
 package at.big5health.klimaatlas.Components;
 
 import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+import at.big5health.klimaatlas.config.AustrianPostalCode;
 import at.big5health.klimaatlas.exceptions.CsvParseException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.*;
-import java.util.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Loads Austrian population centers from a CSV file defined by configuration.
  * Validates structure, checks for duplicates, and parses numeric values.
  * If the file contains invalid data or duplicates, a {@link CsvParseException} is thrown.
  * The CSV path must be configured via the {@code population.centers.csv-path} property.
+ * <p>
+ * The file is streamed through memory-mapped windows of at most {@value #WINDOW_BYTES} bytes
+ * and parsed in place: field boundaries are tracked as byte offsets, coordinates are parsed
+ * directly from the bytes and only the display name is decoded into a {@code String}. Memory
+ * use therefore grows with the number of centers, not with the size of the file. At most
+ * {@value #MAX_REPORTED_ERRORS} errors and as many duplicates are reported individually; any
+ * further ones are summarised in a final entry.
+ * <p>
+ * After a successful parse the centers are also written to a binary snapshot next to the
+ * CSV (see {@link PopulationCenterBinaryCache}). Later loads of the unchanged file read the
+ * snapshot instead of parsing; this can be disabled with
+ * {@code population.centers.binary-snapshot=false}.
+ * <p>
+ * An optional postal code dataset for the location search is read the same way, see
+ * {@link #loadPostalCodes()}.
  */
 @Component
 public class PopulationCenterLoader {
 
+    static final int WINDOW_BYTES = 64 * 1024 * 1024;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final int COLUMNS = 7;
+    private static final int POSTAL_CODE_COLUMNS = 4;
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
     @Value("${population.centers.csv-path}")
     private String csvFilePath;
 
+    @Value("${population.centers.binary-snapshot:true}")
+    private boolean binarySnapshotEnabled;
+
+    @Value("${population.postal-codes.csv-path:}")
+    private String postalCodesPath;
+
+    private int windowBytes = WINDOW_BYTES;
+
     /**
      * Reads and parses all population centers from the configured CSV file.
      * Skips the header, validates row format and numerical values.
@@ -29,64 +75,345 @@ public class PopulationCenterLoader {
      * @throws RuntimeException if file cannot be read
      */
     public List<AustrianPopulationCenter> loadFromCSV() {
-        File file = new File(csvFilePath);
-        if (!file.exists()) {
+        Path file = Paths.get(csvFilePath);
+        if (!Files.exists(file)) {
             throw new RuntimeException("CSV file not found at path: " + csvFilePath);
         }
 
-        List<AustrianPopulationCenter> centers = new ArrayList<>();
-        Set<String> uniqueKeys = new HashSet<>();
-        List<String> duplicates = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
+        PopulationCenterBinaryCache binaryCache = null;
+        if (binarySnapshotEnabled) {
+            try {
+                binaryCache = new PopulationCenterBinaryCache(file);
+                Optional<List<AustrianPopulationCenter>> cached = binaryCache.read();
+                if (cached.isPresent()) {
+                    return cached.get();
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[CSV WARNING] Ignoring binary snapshot of " + csvFilePath + ": " + e.getMessage());
+            }
+        }
+
+        RowParser parser = new RowParser();
+        try {
+            stream(file, parser);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load population center data from: " + csvFilePath, e);
+        }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            List<String> lines = reader.lines().skip(1).toList(); // skip header
+        List<String> errors = parser.errors();
+        if (!errors.isEmpty()) {
+            throw new CsvParseException(errors);
+        }
 
-            for (int i = 0; i < lines.size(); i++) {
-                String line = lines.get(i);
-                String[] parts = line.split(",");
+        if (binaryCache != null) {
+            try {
+                binaryCache.write(parser.centers);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[CSV WARNING] Failed to write binary snapshot of " + csvFilePath + ": " + e.getMessage());
+            }
+        }
+        return parser.centers;
+    }
+
+    /**
+     * Reads the optional postal code dataset configured via {@code population.postal-codes.csv-path}.
+     * Expected columns: {@code postalCode,placeName,latitude,longitude}, with a header row.
+     * The dataset only feeds the location search, so invalid rows are skipped and reported
+     * on stderr instead of failing the load.
+     *
+     * @return the postal codes, or an empty list if no dataset is configured or it cannot be read
+     */
+    public List<AustrianPostalCode> loadPostalCodes() {
+        if (postalCodesPath == null || postalCodesPath.isBlank()) {
+            return List.of();
+        }
+        Path file = Paths.get(postalCodesPath);
+        if (!Files.exists(file)) {
+            System.err.println("[CSV WARNING] Postal code file not found at path: " + postalCodesPath);
+            return List.of();
+        }
+
+        PostalCodeRowParser parser = new PostalCodeRowParser();
+        try {
+            stream(file, parser);
+        } catch (IOException e) {
+            System.err.println("[CSV WARNING] Failed to load postal codes from " + postalCodesPath + ": " + e.getMessage());
+            return List.of();
+        }
+        if (parser.invalidRows > 0) {
+            System.err.println("[CSV WARNING] Skipped " + parser.invalidRows + " invalid postal code rows, first at row "
+                    + parser.firstInvalidRow);
+        }
+        return parser.postalCodes;
+    }
 
-                if (parts.length < 7) {
-                    errors.add("Invalid line at row " + (i + 2) + ": Not enough columns");
-                    continue;
+    /**
+     * Feeds every line of {@code file} (without its line terminator) to {@code handler}.
+     */
+    private void stream(Path file, LineHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(windowBytes, size - position);
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        handler.accept(window, lineStart, trimCarriageReturn(window, lineStart, i));
+                        lineStart = i + 1;
+                    }
                 }
 
-                try {
-                    String displayName = parts[0];
-                    double repLat = Double.parseDouble(parts[1]);
-                    double repLon = Double.parseDouble(parts[2]);
-                    double minLat = Double.parseDouble(parts[3]);
-                    double minLon = Double.parseDouble(parts[4]);
-                    double maxLat = Double.parseDouble(parts[5]);
-                    double maxLon = Double.parseDouble(parts[6]);
-
-                    String key = displayName.trim().toLowerCase() + "_" + repLat + "_" + repLon;
-                    if (!uniqueKeys.add(key)) {
-                        duplicates.add("Duplicate at row " + (i + 2) + ": " + key);
-                        continue;
+                if (lastWindow) {
+                    if (lineStart < length) {
+                        handler.accept(window, lineStart, trimCarriageReturn(window, lineStart, length));
                     }
+                    position = size;
+                } else if (lineStart == 0) {
+                    throw new IOException("Line at byte " + position + " exceeds " + windowBytes + " bytes");
+                } else {
+                    // The incomplete last line is re-read at the start of the next window.
+                    position += lineStart;
+                }
+            }
+        }
+    }
+
+    private static int trimCarriageReturn(ByteBuffer buffer, int start, int end) {
+        return end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    /**
+     * Records the end offset of up to {@code fieldEnds.length} comma-separated fields of a line.
+     *
+     * @return the number of fields found
+     */
+    private static int split(ByteBuffer buffer, int start, int end, int[] fieldEnds) {
+        int fields = 0;
+        for (int i = start; i < end && fields < fieldEnds.length; i++) {
+            if (buffer.get(i) == ',') {
+                fieldEnds[fields++] = i;
+            }
+        }
+        if (fields < fieldEnds.length) {
+            fieldEnds[fields++] = end;
+        }
+        return fields;
+    }
+
+    /**
+     * Parses a decimal number from {@code buffer[from, to)} without creating a string.
+     * Plain decimals with up to {@value #MAX_EXACT_DIGITS} significant digits, which covers
+     * coordinates, are computed exactly with a single multiplication or division by a power
+     * of ten. Anything else falls back to {@link Double#parseDouble(String)}, so accepted
+     * syntax and error messages are the same as before.
+     */
+    static double parseDouble(ByteBuffer buffer, int from, int to) {
+        int start = from;
+        int end = to;
+        while (start < end && isBlank(buffer.get(start))) {
+            start++;
+        }
+        while (end > start && isBlank(buffer.get(end - 1))) {
+            end--;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                digits++;
+                if (mantissa != 0 || b != '0') {
+                    significantDigits++;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) {
+                    exponent--;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E') && digits > 0) {
+            int j = i + 1;
+            boolean negativeExponent = false;
+            if (j < end && (buffer.get(j) == '-' || buffer.get(j) == '+')) {
+                negativeExponent = buffer.get(j) == '-';
+                j++;
+            }
+            int value = 0;
+            int exponentDigits = 0;
+            while (j < end && buffer.get(j) >= '0' && buffer.get(j) <= '9' && exponentDigits < 4) {
+                value = value * 10 + (buffer.get(j) - '0');
+                exponentDigits++;
+                j++;
+            }
+            if (exponentDigits > 0) {
+                exponent += negativeExponent ? -value : value;
+                i = j;
+            }
+        }
+
+        if (i != end || digits == 0 || significantDigits > MAX_EXACT_DIGITS
+                || Math.abs(exponent) >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(decode(buffer, from, to));
+        }
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Receives one line of a streamed file as a byte range of the mapped window.
+     */
+    private interface LineHandler {
+
+        void accept(ByteBuffer buffer, int start, int end);
+    }
+
+    /**
+     * Parsing state of one load. Rows are numbered as in the file, the header being row 1.
+     */
+    private static final class RowParser implements LineHandler {
+
+        private final List<AustrianPopulationCenter> centers = new ArrayList<>();
+        private final Set<CenterKey> uniqueKeys = new HashSet<>();
+        private final List<String> errors = new ArrayList<>();
+        private final List<String> duplicates = new ArrayList<>();
+        private final int[] fieldEnds = new int[COLUMNS];
+        private int omittedErrors;
+        private int omittedDuplicates;
+        private int row;
+
+        @Override
+        public void accept(ByteBuffer buffer, int start, int end) {
+            row++;
+            if (row == 1) {
+                return; // skip header
+            }
+
+            if (split(buffer, start, end, fieldEnds) < COLUMNS) {
+                addError("Invalid line at row " + row + ": Not enough columns");
+                return;
+            }
 
-                    centers.add(new AustrianPopulationCenter(
-                            displayName, repLat, repLon, minLat, minLon, maxLat, maxLon));
+            try {
+                String displayName = decode(buffer, start, fieldEnds[0]);
+                double repLat = parseDouble(buffer, fieldEnds[0] + 1, fieldEnds[1]);
+                double repLon = parseDouble(buffer, fieldEnds[1] + 1, fieldEnds[2]);
+                double minLat = parseDouble(buffer, fieldEnds[2] + 1, fieldEnds[3]);
+                double minLon = parseDouble(buffer, fieldEnds[3] + 1, fieldEnds[4]);
+                double maxLat = parseDouble(buffer, fieldEnds[4] + 1, fieldEnds[5]);
+                double maxLon = parseDouble(buffer, fieldEnds[5] + 1, fieldEnds[6]);
 
-                } catch (NumberFormatException e) {
-                    errors.add("Invalid number format at row " + (i + 2) + ": " + e.getMessage());
+                CenterKey key = new CenterKey(displayName.trim().toLowerCase(), repLat, repLon);
+                if (!uniqueKeys.add(key)) {
+                    if (duplicates.size() < MAX_REPORTED_ERRORS) {
+                        duplicates.add("Duplicate at row " + row + ": " + key);
+                    } else {
+                        omittedDuplicates++;
+                    }
+                    return;
                 }
+
+                centers.add(new AustrianPopulationCenter(
+                        displayName, repLat, repLon, minLat, minLon, maxLat, maxLon));
+
+            } catch (NumberFormatException e) {
+                addError("Invalid number format at row " + row + ": " + e.getMessage());
             }
+        }
+
+        private void addError(String error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            } else {
+                omittedErrors++;
+            }
+        }
 
+        List<String> errors() {
+            List<String> result = new ArrayList<>(errors);
+            if (omittedErrors > 0) {
+                result.add("... and " + omittedErrors + " more invalid rows");
+            }
             if (!duplicates.isEmpty()) {
                 System.err.println("[CSV WARNING] Duplicate entries detected:");
-                errors.addAll(duplicates);
+                result.addAll(duplicates);
             }
-
-            if (!errors.isEmpty()) {
-                throw new CsvParseException(errors);
+            if (omittedDuplicates > 0) {
+                result.add("... and " + omittedDuplicates + " more duplicates");
             }
+            return result;
+        }
+    }
 
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load population center data from: " + csvFilePath, e);
+    /**
+     * Parsing state of one postal code load. Invalid rows are counted, not collected.
+     */
+    private static final class PostalCodeRowParser implements LineHandler {
+
+        private final List<AustrianPostalCode> postalCodes = new ArrayList<>();
+        private final int[] fieldEnds = new int[POSTAL_CODE_COLUMNS];
+        private int invalidRows;
+        private int firstInvalidRow;
+        private int row;
+
+        @Override
+        public void accept(ByteBuffer buffer, int start, int end) {
+            row++;
+            if (row == 1 || start == end) {
+                return; // skip header and blank lines
+            }
+            try {
+                if (split(buffer, start, end, fieldEnds) < POSTAL_CODE_COLUMNS) {
+                    throw new NumberFormatException("Not enough columns");
+                }
+                postalCodes.add(new AustrianPostalCode(
+                        decode(buffer, start, fieldEnds[0]).trim(),
+                        decode(buffer, fieldEnds[0] + 1, fieldEnds[1]).trim(),
+                        parseDouble(buffer, fieldEnds[1] + 1, fieldEnds[2]),
+                        parseDouble(buffer, fieldEnds[2] + 1, fieldEnds[3])));
+            } catch (NumberFormatException e) {
+                if (invalidRows++ == 0) {
+                    firstInvalidRow = row;
+                }
+            }
         }
+    }
+
+    /**
+     * Identity of a center for duplicate detection: normalized name and representative point.
+     */
+    private record CenterKey(String name, double latitude, double longitude) {
 
-        return centers;
+        @Override
+        public String toString() {
+            return name + "_" + latitude + "_" + longitude;
+        }
     }
-}
\ No newline at end of file
+}
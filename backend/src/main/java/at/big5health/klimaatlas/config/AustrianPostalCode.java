@@ -0,0 +1,17 @@
+package at.big5health.klimaatlas.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A postal code area from the optional postal code dataset, reduced to one point.
+ * Values: postalCode, placeName, latitude, longitude.
+ */
+@Data
+@AllArgsConstructor
+public class AustrianPostalCode {
+    private String postalCode;
+    private String placeName;
+    private double latitude;
+    private double longitude;
+}
@@ -36,12 +36,15 @@ public class CacheConfig {
      * This configuration creates a {@link ConcurrentMapCacheManager}, which uses
      * simple {@link java.util.concurrent.ConcurrentHashMap ConcurrentHashMaps} as
      * the underlying cache stores.
-     * It is configured with predefined cache names: "weatherCache" and "temperatureGrid".
+     * It is configured with predefined cache names: "weatherCache", "temperatureGrid" and
+     * "dailyWeatherDataGrid". Predefining names puts the manager in static mode, so every
+     * cache used by the application must be listed here.
      * Null values are not permitted in the cache ({@code setAllowNullValues(false)}).
      *
      * @return A configured {@link ConcurrentMapCacheManager} instance.
      * @see ConcurrentMapCacheManager
      * @see at.big5health.klimaatlas.services.WeatherService (uses "weatherCache")
+     * @see at.big5health.klimaatlas.services.GridCellCache (uses "dailyWeatherDataGrid")
      */
     @Bean
     public CacheManager cacheManager() {
@@ -52,11 +55,8 @@ public class CacheConfig {
 
         // Predefine the cache names used in the application.
         // This helps in managing and initializing caches.
-        manager.setCacheNames(Arrays.asList("weatherCache", "temperatureGrid"));
-        // Other caches: "dailyWeatherDataGrid" was also mentioned in WeatherService.
-        // Consider adding it here if it's a distinct cache managed by this CacheManager.
-        // If "dailyWeatherDataGrid" is intended to be the same as "weatherCache" or "temperatureGrid",
-        // ensure consistency in naming.
+        // "dailyWeatherDataGrid" holds exact grid cell values (see GridCellCache).
+        manager.setCacheNames(Arrays.asList("weatherCache", "temperatureGrid", "dailyWeatherDataGrid"));
 
         return manager;
     }
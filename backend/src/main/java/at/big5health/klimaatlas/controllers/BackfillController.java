@@ -0,0 +1,104 @@
+package at.big5health.klimaatlas.controllers;
+
+import at.big5health.klimaatlas.dtos.BackfillJobDTO;
+import at.big5health.klimaatlas.exceptions.ErrorMessages;
+import at.big5health.klimaatlas.exceptions.InvalidInputException;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.WeatherRaster;
+import at.big5health.klimaatlas.services.BackfillService;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * REST controller for the historical weather backfill job.
+ */
+@RestController
+@RequestMapping("/backfill")
+@CrossOrigin("*")
+@AllArgsConstructor
+@Tag(name = "Backfill", description = "API for backfilling historical weather grids")
+public class BackfillController {
+
+    /**
+     * The first day covered by the Spartacus dataset.
+     */
+    private static final LocalDate FIRST_AVAILABLE_DAY = LocalDate.of(1961, 1, 1);
+
+    private final BackfillService backfillService;
+
+    /**
+     * Handles HTTP GET requests for the progress of the backfill job.
+     *
+     * @return a {@link ResponseEntity} containing the progress and throughput of the current,
+     *         last or checkpointed job
+     */
+    @GetMapping
+    @ApiResponse(responseCode = "200", description = "Success status")
+    public ResponseEntity<BackfillJobDTO> getStatus() {
+        return ResponseEntity.ok(backfillService.getStatus());
+    }
+
+    /**
+     * Handles HTTP POST requests to start a backfill job, or to resume the checkpointed job
+     * with the same range and scope. Without a bounding box, all of Austria is backfilled.
+     *
+     * @param from   the first day to backfill (ISO format: YYYY-MM-DD)
+     * @param to     the last day to backfill, before today
+     * @param minLat the southern edge of the scope, optional
+     * @param minLon the western edge of the scope, optional
+     * @param maxLat the northern edge of the scope, optional
+     * @param maxLon the eastern edge of the scope, optional
+     * @return a {@link ResponseEntity} containing the progress of the started job
+     * @throws InvalidInputException if the range or scope is invalid or a job is already running
+     */
+    @PostMapping
+    @ApiResponse(responseCode = "200", description = "Success status")
+    public ResponseEntity<BackfillJobDTO> start(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLon,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLon) {
+        if (from.isBefore(FIRST_AVAILABLE_DAY) || to.isBefore(from) || !to.isBefore(LocalDate.now())) {
+            throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR,
+                    "from must not be after to, and the range must lie between " + FIRST_AVAILABLE_DAY + " and yesterday");
+        }
+        BoundingBox scope;
+        if (minLat == null && minLon == null && maxLat == null && maxLon == null) {
+            scope = WeatherRaster.extent();
+        } else if (minLat == null || minLon == null || maxLat == null || maxLon == null
+                || !(minLat >= -90 && minLat < maxLat && maxLat <= 90)
+                || !(minLon >= -180 && minLon < maxLon && maxLon <= 180)) {
+            throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR,
+                    "minLat, minLon, maxLat and maxLon must be given together and describe a valid bounding box");
+        } else {
+            scope = new BoundingBox(minLat, minLon, maxLat, maxLon);
+        }
+        return ResponseEntity.ok(backfillService.start(from, to, scope));
+    }
+
+    /**
+     * Handles HTTP DELETE requests to cancel the running backfill job. Its checkpoint is kept,
+     * so starting the same job again resumes it.
+     *
+     * @return a {@link ResponseEntity} containing the progress of the job
+     */
+    @DeleteMapping
+    @ApiResponse(responseCode = "200", description = "Success status")
+    public ResponseEntity<BackfillJobDTO> cancel() {
+        return ResponseEntity.ok(backfillService.cancel());
+    }
+}
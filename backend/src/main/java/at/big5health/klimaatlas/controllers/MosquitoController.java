@@ -1,22 +1,29 @@
 package at.big5health.klimaatlas.controllers;
 
+import at.big5health.klimaatlas.dtos.MosquitoClusterDTO;
 import at.big5health.klimaatlas.dtos.MosquitoOccurrenceDTO;
+import at.big5health.klimaatlas.exceptions.ErrorMessages;
+import at.big5health.klimaatlas.exceptions.InvalidInputException;
+import at.big5health.klimaatlas.grid.BoundingBox;
 import at.big5health.klimaatlas.services.MosquitoService;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
  * REST controller that provides endpoints for accessing mosquito occurrence data.
  * <p>
- * This controller exposes a single GET endpoint that returns a list of mosquito occurrences
- * in Austria for the current year.
+ * This controller exposes a GET endpoint that returns a list of mosquito occurrences
+ * in Austria (the current year, or a date range including archived years), and a clustered view of the same data for map rendering.
  */
 @RestController
 @RequestMapping("/mosquitoes")
@@ -25,21 +32,66 @@ import java.util.List;
 @Tag(name = "Mosquito occurrence", description = "API for accessing mosquito occurrence data")
 public class MosquitoController {
 
+    private static final int MAX_ZOOM = 22;
+
     private final MosquitoService mosquitoService;
 
     /**
      * Handles HTTP GET requests to retrieve all mosquito occurrences.
      * <p>
      * This method delegates the data fetching to {@link MosquitoService} and returns the results
-     * as a list of {@link MosquitoOccurrenceDTO} objects.
+     * as a list of {@link MosquitoOccurrenceDTO} objects. Without {@code from}/{@code to} the
+     * current year is returned; with a date range, archived past years are included.
      *
+     * @param from    optional first day to include (ISO date)
+     * @param to      optional last day to include (ISO date)
+     * @param species optional exact species name to filter by
      * @return a {@link ResponseEntity} containing the list of mosquito occurrences
+     * @throws InvalidInputException if {@code from} is after {@code to}
      */
     @GetMapping
     @ApiResponse(responseCode = "200", description = "Success status")
-    public ResponseEntity<List<MosquitoOccurrenceDTO>> getAllMosquitoOccurrences() {
-        List<MosquitoOccurrenceDTO> data = mosquitoService.getOccurrences();
+    public ResponseEntity<List<MosquitoOccurrenceDTO>> getAllMosquitoOccurrences(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String species) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR, "from must not be after to");
+        }
+        List<MosquitoOccurrenceDTO> data = mosquitoService.getOccurrences(from, to, species);
         return ResponseEntity.ok(data);
     }
 
+    /**
+     * Handles HTTP GET requests for pre-aggregated mosquito occurrence clusters.
+     * <p>
+     * Returns at most one cluster per screen-sized cell of the requested map area, so the
+     * payload depends on the viewport rather than on the number of occurrences.
+     *
+     * @param minLat the southern boundary of the visible map area
+     * @param minLon the western boundary of the visible map area
+     * @param maxLat the northern boundary of the visible map area
+     * @param maxLon the eastern boundary of the visible map area
+     * @param zoom   the Leaflet zoom level (0 to {@value #MAX_ZOOM})
+     * @return a {@link ResponseEntity} containing the list of clusters
+     * @throws InvalidInputException if the bounding box or zoom level is invalid
+     */
+    @GetMapping("/clusters")
+    @ApiResponse(responseCode = "200", description = "Success status")
+    public ResponseEntity<List<MosquitoClusterDTO>> getMosquitoClusters(
+            @RequestParam double minLat,
+            @RequestParam double minLon,
+            @RequestParam double maxLat,
+            @RequestParam double maxLon,
+            @RequestParam int zoom) {
+        if (minLat > maxLat || minLon > maxLon) {
+            throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR, "bounding box minimum must not exceed maximum");
+        }
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR, "zoom must be between 0 and " + MAX_ZOOM);
+        }
+        BoundingBox bbox = new BoundingBox(minLat, minLon, maxLat, maxLon);
+        return ResponseEntity.ok(mosquitoService.getClusters(bbox, zoom));
+    }
+
 }
@@ -0,0 +1,78 @@
+package at.big5health.klimaatlas.controllers;
+
+import at.big5health.klimaatlas.dtos.LocationSuggestionDTO;
+import at.big5health.klimaatlas.dtos.PopulationCenterLocationDTO;
+import at.big5health.klimaatlas.exceptions.ErrorMessages;
+import at.big5health.klimaatlas.exceptions.InvalidInputException;
+import at.big5health.klimaatlas.services.PopulationCenterService;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller that provides lookups over the configured Austrian population centers.
+ * <p>
+ * Used by the frontend to resolve map clicks to a named center and to autocomplete
+ * place names and postal codes in the search field.
+ */
+@RestController
+@RequestMapping("/centers")
+@CrossOrigin("*")
+@AllArgsConstructor
+@Tag(name = "Population centers", description = "API for looking up population centers")
+public class PopulationCenterController {
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final PopulationCenterService populationCenterService;
+
+    /**
+     * Handles HTTP GET requests to resolve a map position to population centers.
+     * <p>
+     * Returns every center whose bounding box contains the position (smallest first) and the
+     * center whose representative point is nearest, together with its distance.
+     *
+     * @param lat the latitude of the position (-90 to 90)
+     * @param lon the longitude of the position (-180 to 180)
+     * @return a {@link ResponseEntity} containing the {@link PopulationCenterLocationDTO}
+     * @throws InvalidInputException if the coordinates are out of range
+     */
+    @GetMapping("/locate")
+    @ApiResponse(responseCode = "200", description = "Success status")
+    public ResponseEntity<PopulationCenterLocationDTO> locate(@RequestParam double lat, @RequestParam double lon) {
+        if (!(lat >= -90 && lat <= 90) || !(lon >= -180 && lon <= 180)) {
+            throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR, "lat must be within [-90, 90] and lon within [-180, 180]");
+        }
+        return ResponseEntity.ok(populationCenterService.locate(lat, lon));
+    }
+
+    /**
+     * Handles HTTP GET requests for location autocomplete.
+     * <p>
+     * Matches the query as a prefix of center names, of any word within them, of postal codes
+     * and of postal code place names, ignoring case and accents.
+     *
+     * @param q     the text typed so far
+     * @param limit the maximum number of suggestions (1 to {@value #MAX_SUGGESTIONS}, default 10)
+     * @return a {@link ResponseEntity} containing the suggestions, best first
+     * @throws InvalidInputException if the limit is out of range
+     */
+    @GetMapping("/search")
+    @ApiResponse(responseCode = "200", description = "Success status")
+    public ResponseEntity<List<LocationSuggestionDTO>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR, "limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return ResponseEntity.ok(populationCenterService.search(q, limit));
+    }
+}
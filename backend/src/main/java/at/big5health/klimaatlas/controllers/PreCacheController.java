@@ -0,0 +1,60 @@
+package at.big5health.klimaatlas.controllers;
+
+import at.big5health.klimaatlas.dtos.PreCacheJobDTO;
+import at.big5health.klimaatlas.dtos.WarmUpStatusDTO;
+import at.big5health.klimaatlas.services.CacheWarmUpService;
+import at.big5health.klimaatlas.services.WeatherPreCacheService;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for monitoring the weather pre-cache jobs and the cache warm-up after startup.
+ */
+@RestController
+@RequestMapping("/precache")
+@CrossOrigin("*")
+@AllArgsConstructor
+@Tag(name = "Pre-cache", description = "API for monitoring weather pre-cache jobs")
+public class PreCacheController {
+
+    private final WeatherPreCacheService weatherPreCacheService;
+
+    private final CacheWarmUpService cacheWarmUpService;
+
+    /**
+     * Handles HTTP GET requests for the progress of recent pre-cache jobs.
+     *
+     * @return a {@link ResponseEntity} containing the most recent jobs, newest first,
+     *         each with its progress counters and per-center outcomes
+     */
+    @GetMapping("/jobs")
+    @ApiResponse(responseCode = "200", description = "Success status")
+    public ResponseEntity<List<PreCacheJobDTO>> getJobs() {
+        return ResponseEntity.ok(weatherPreCacheService.getJobs());
+    }
+
+    /**
+     * Handles HTTP GET requests for the cache warm-up of this instance. Responds with
+     * {@code 503 Service Unavailable} while the cache is still warming up, so the endpoint
+     * can serve as a readiness probe.
+     *
+     * @return a {@link ResponseEntity} containing the {@link WarmUpStatusDTO}
+     */
+    @GetMapping("/warmup")
+    @ApiResponse(responseCode = "200", description = "Success status")
+    @ApiResponse(responseCode = "503", description = "Cache is still warming up")
+    public ResponseEntity<WarmUpStatusDTO> getWarmUp() {
+        WarmUpStatusDTO status = cacheWarmUpService.getStatus();
+        return ResponseEntity.status(status.isAcceptingTraffic() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(status);
+    }
+}
@@ -1,8 +1,14 @@
 package at.big5health.klimaatlas.controllers;
 
 import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+import at.big5health.klimaatlas.dtos.WeatherAggregateDTO;
 import at.big5health.klimaatlas.dtos.WeatherReportDTO;
+import at.big5health.klimaatlas.exceptions.ErrorMessages;
+import at.big5health.klimaatlas.exceptions.InvalidInputException;
+import at.big5health.klimaatlas.grid.BoundingBox;
 import at.big5health.klimaatlas.grid.GridTemperature;
+import at.big5health.klimaatlas.grid.WeatherPyramid;
+import at.big5health.klimaatlas.grid.WeatherRaster;
 import at.big5health.klimaatlas.services.PopulationCenterService;
 import at.big5health.klimaatlas.services.WeatherService;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -128,4 +134,56 @@ public class WeatherController {
 
         return ResponseEntity.ok(results);
     }
+
+    /**
+     * Returns pre-aggregated min/mean/max weather values for the map tiles of a bounding box.
+     * <p>
+     * Zoomed-out map views request a coarse level and receive a few hundred tiles instead of
+     * every 1 km cell. Without a bounding box the whole raster extent is returned. A request
+     * may span at most {@value WeatherPyramid#MAX_TILES} tiles of the level, so the finer the
+     * level, the smaller the bounding box has to be.
+     *
+     * @param actualDate the date of the weather data (ISO format: YYYY-MM-DD)
+     * @param level      the pyramid level; a tile covers {@code 2^level x 2^level} km cells
+     * @param minLat     the southern boundary of the visible map area
+     * @param minLon     the western boundary of the visible map area
+     * @param maxLat     the northern boundary of the visible map area
+     * @param maxLon     the eastern boundary of the visible map area
+     * @return 200 OK with the tiles holding data,
+     *         or 404 Not Found if the date has not been pre-cached
+     * @throws InvalidInputException if the bounding box or level is invalid, or the bounding box
+     *                               spans too many tiles at the level
+     * @see WeatherService#getAggregates(LocalDate, BoundingBox, int)
+     */
+    @GetMapping("/aggregates")
+    @ApiResponse(responseCode = "200", description = "Success status")
+    public ResponseEntity<List<WeatherAggregateDTO>> getAggregates(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate actualDate,
+            @RequestParam int level,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLon,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLon) {
+        if (level < 0 || level > WeatherPyramid.MAX_LEVEL) {
+            throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR,
+                    "level must be between 0 and " + WeatherPyramid.MAX_LEVEL);
+        }
+        BoundingBox bbox = WeatherRaster.extent();
+        if (minLat != null || minLon != null || maxLat != null || maxLon != null) {
+            if (minLat == null || minLon == null || maxLat == null || maxLon == null) {
+                throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR, "bounding box must be given completely");
+            }
+            if (minLat > maxLat || minLon > maxLon) {
+                throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR,
+                        "bounding box minimum must not exceed maximum");
+            }
+            bbox = new BoundingBox(minLat, minLon, maxLat, maxLon);
+        }
+        if (WeatherPyramid.tileCount(bbox, level) > WeatherPyramid.MAX_TILES) {
+            throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR,
+                    "bounding box spans more than " + WeatherPyramid.MAX_TILES + " tiles at level " + level
+                            + "; use level " + WeatherPyramid.minLevel(bbox) + " or above");
+        }
+        return ResponseEntity.ok(weatherService.getAggregates(actualDate, bbox, level));
+    }
 }
@@ -0,0 +1,84 @@
+package at.big5health.klimaatlas.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) describing the progress and throughput of the historical
+ * weather backfill job.
+ *
+ * @see at.big5health.klimaatlas.services.BackfillService
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BackfillJobDTO {
+
+    /**
+     * {@code IDLE}, {@code RUNNING}, {@code PAUSED}, {@code COMPLETED}, {@code CANCELLED} or {@code FAILED}.
+     * A paused job has a checkpoint but is not running; starting it again resumes it.
+     */
+    private String status;
+
+    /**
+     * The first day to backfill.
+     */
+    private LocalDate from;
+
+    /**
+     * The last day to backfill (inclusive).
+     */
+    private LocalDate to;
+
+    /**
+     * The area to backfill as {@code minLat,minLon,maxLat,maxLon}.
+     */
+    private String scope;
+
+    /**
+     * The number of requests (tile and day range) the job consists of.
+     */
+    private int totalBatches;
+
+    /**
+     * The number of requests completed and checkpointed.
+     */
+    private int completedBatches;
+
+    /**
+     * The number of cell values per day written to the archive so far.
+     */
+    private long cellDays;
+
+    /**
+     * When the job was first started.
+     */
+    private Instant startedAt;
+
+    /**
+     * Completed requests per minute since the job was last started or resumed.
+     */
+    private Double batchesPerMinute;
+
+    /**
+     * Cell values per day written per second since the job was last started or resumed.
+     */
+    private Double cellDaysPerSecond;
+
+    /**
+     * Estimated seconds until the job completes, based on the current throughput.
+     */
+    private Long estimatedRemainingSeconds;
+
+    /**
+     * The reason the job failed, if it did.
+     */
+    private String error;
+
+}
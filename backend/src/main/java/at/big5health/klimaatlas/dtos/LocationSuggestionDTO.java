@@ -0,0 +1,45 @@
+package at.big5health.klimaatlas.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) representing one autocomplete suggestion of the location search.
+ * <p>
+ * A suggestion is either a population center or a postal code area. Postal code suggestions
+ * carry the postal code in addition to the place name.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LocationSuggestionDTO {
+
+    /**
+     * The kind of location: {@code CENTER} or {@code POSTAL_CODE}.
+     */
+    private String type;
+
+    /**
+     * The display name of the center or the place name of the postal code area.
+     */
+    private String name;
+
+    /**
+     * The postal code, {@code null} for population centers.
+     */
+    private String postalCode;
+
+    /**
+     * The latitude of the location (representative point for centers).
+     */
+    private double latitude;
+
+    /**
+     * The longitude of the location (representative point for centers).
+     */
+    private double longitude;
+
+}
@@ -0,0 +1,48 @@
+package at.big5health.klimaatlas.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) representing a cluster of mosquito occurrences on the map.
+ * <p>
+ * A cluster aggregates all occurrences that fall into the same screen-sized cell at the
+ * requested zoom level. Single-occurrence clusters additionally carry the species and
+ * event date of that occurrence, so the frontend can render them like an individual marker.
+ *
+ * @see at.big5health.klimaatlas.mosquito.OccurrenceClusterIndex
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MosquitoClusterDTO {
+
+    /**
+     * The latitude of the cluster centroid.
+     */
+    private double latitude;
+
+    /**
+     * The longitude of the cluster centroid.
+     */
+    private double longitude;
+
+    /**
+     * The number of occurrences aggregated in this cluster.
+     */
+    private int count;
+
+    /**
+     * The species of the occurrence if the cluster contains exactly one, otherwise {@code null}.
+     */
+    private String species;
+
+    /**
+     * The event date of the occurrence if the cluster contains exactly one, otherwise {@code null}.
+     */
+    private String eventDate;
+
+}
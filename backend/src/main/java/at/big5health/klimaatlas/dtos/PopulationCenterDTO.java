@@ -0,0 +1,56 @@
+package at.big5health.klimaatlas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) representing a population center as returned by the
+ * {@code /centers} endpoints.
+ * <p>
+ * Contains the display name, the representative point used for weather lookups and the
+ * bounding box approximating the extent of the center.
+ *
+ * @see at.big5health.klimaatlas.config.AustrianPopulationCenter
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PopulationCenterDTO {
+
+    /**
+     * The display name of the center.
+     */
+    private String displayName;
+
+    /**
+     * The latitude of the representative point.
+     */
+    private double latitude;
+
+    /**
+     * The longitude of the representative point.
+     */
+    private double longitude;
+
+    /**
+     * The southern edge of the bounding box.
+     */
+    private double minLatitude;
+
+    /**
+     * The western edge of the bounding box.
+     */
+    private double minLongitude;
+
+    /**
+     * The northern edge of the bounding box.
+     */
+    private double maxLatitude;
+
+    /**
+     * The eastern edge of the bounding box.
+     */
+    private double maxLongitude;
+
+}
@@ -0,0 +1,38 @@
+package at.big5health.klimaatlas.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) describing which population centers a map position belongs to.
+ * <p>
+ * {@code containing} lists all centers whose bounding box contains the position, the most
+ * specific (smallest) first. {@code nearest} is the center with the closest representative
+ * point, which is also set when the position lies outside every bounding box.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PopulationCenterLocationDTO {
+
+    /**
+     * The centers whose bounding box contains the position, smallest first.
+     */
+    private List<PopulationCenterDTO> containing;
+
+    /**
+     * The center with the closest representative point, or {@code null} if no centers are loaded.
+     */
+    private PopulationCenterDTO nearest;
+
+    /**
+     * The great-circle distance to the representative point of {@link #nearest}, in kilometres.
+     */
+    private Double nearestDistanceKm;
+
+}
@@ -0,0 +1,78 @@
+package at.big5health.klimaatlas.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) describing the progress of a weather pre-cache job.
+ *
+ * @see at.big5health.klimaatlas.services.WeatherPreCacheService
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PreCacheJobDTO {
+
+    /**
+     * The sequential id of the job.
+     */
+    private long id;
+
+    /**
+     * What started the job, e.g. {@code Startup} or {@code Scheduled}.
+     */
+    private String trigger;
+
+    /**
+     * The date weather data is pre-cached for.
+     */
+    private LocalDate date;
+
+    /**
+     * {@code RUNNING}, {@code COMPLETED} or {@code CANCELLED}.
+     */
+    private String status;
+
+    /**
+     * The number of centers to pre-cache.
+     */
+    private int total;
+
+    /**
+     * The number of centers processed so far.
+     */
+    private int completed;
+
+    /**
+     * The number of centers cached successfully.
+     */
+    private int succeeded;
+
+    /**
+     * The number of centers that could not be cached.
+     */
+    private int failed;
+
+    /**
+     * When the job started.
+     */
+    private Instant startedAt;
+
+    /**
+     * When the job finished, {@code null} while running.
+     */
+    private Instant finishedAt;
+
+    /**
+     * The per-center results, in completion order.
+     */
+    private List<PreCacheOutcomeDTO> outcomes;
+
+}
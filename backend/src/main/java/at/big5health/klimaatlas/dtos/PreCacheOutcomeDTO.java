@@ -0,0 +1,37 @@
+package at.big5health.klimaatlas.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) describing the pre-cache result for one population center.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PreCacheOutcomeDTO {
+
+    /**
+     * The display name of the population center.
+     */
+    private String center;
+
+    /**
+     * The result: {@code SUCCESS}, {@code NOT_FOUND}, {@code API_ERROR}, {@code FAILED} or {@code CANCELLED}.
+     */
+    private String status;
+
+    /**
+     * The error message for failed fetches, otherwise {@code null}.
+     */
+    private String message;
+
+    /**
+     * How long the weather fetch took, in milliseconds.
+     */
+    private long durationMs;
+
+}
@@ -0,0 +1,56 @@
+package at.big5health.klimaatlas.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object (DTO) describing the cache warm-up of this instance after startup.
+ *
+ * @see at.big5health.klimaatlas.services.CacheWarmUpService
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WarmUpStatusDTO {
+
+    /**
+     * {@code WARMING}, {@code READY}, {@code TIMED_OUT} or {@code DISABLED}.
+     */
+    private String state;
+
+    /**
+     * Whether the instance accepts traffic.
+     */
+    private boolean acceptingTraffic;
+
+    /**
+     * The number of population centers cached by the startup pre-cache so far.
+     */
+    private int cached;
+
+    /**
+     * The number of population centers to cache.
+     */
+    private int total;
+
+    /**
+     * The fraction of centers that must be cached before traffic is accepted.
+     */
+    private double threshold;
+
+    /**
+     * When the warm-up started.
+     */
+    private Instant startedAt;
+
+    /**
+     * When the warm-up ended, {@code null} while warming.
+     */
+    private Instant finishedAt;
+
+}
@@ -0,0 +1,97 @@
+package at.big5health.klimaatlas.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) representing the aggregated daily weather of one map tile.
+ * <p>
+ * A tile at level {@code k} covers {@code 2^k x 2^k} cells of the 1 km weather raster.
+ * Aggregates of a variable are {@code null} if no cell of the tile holds a value for it.
+ *
+ * @see at.big5health.klimaatlas.grid.WeatherPyramid
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WeatherAggregateDTO {
+
+    /**
+     * The pyramid level of the tile; 0 is a single raster cell.
+     */
+    private int level;
+
+    /**
+     * The southern boundary of the tile.
+     */
+    private double minLat;
+
+    /**
+     * The western boundary of the tile.
+     */
+    private double minLon;
+
+    /**
+     * The northern boundary of the tile.
+     */
+    private double maxLat;
+
+    /**
+     * The eastern boundary of the tile.
+     */
+    private double maxLon;
+
+    /**
+     * The lowest minimum temperature in the tile, in &deg;C.
+     */
+    private Double minTempMin;
+
+    /**
+     * The mean minimum temperature over the cells of the tile, in &deg;C.
+     */
+    private Double minTempMean;
+
+    /**
+     * The highest minimum temperature in the tile, in &deg;C.
+     */
+    private Double minTempMax;
+
+    /**
+     * The lowest maximum temperature in the tile, in &deg;C.
+     */
+    private Double maxTempMin;
+
+    /**
+     * The mean maximum temperature over the cells of the tile, in &deg;C.
+     */
+    private Double maxTempMean;
+
+    /**
+     * The highest maximum temperature in the tile, in &deg;C.
+     */
+    private Double maxTempMax;
+
+    /**
+     * The lowest precipitation in the tile, in mm.
+     */
+    private Double precipitationMin;
+
+    /**
+     * The mean precipitation over the cells of the tile, in mm.
+     */
+    private Double precipitationMean;
+
+    /**
+     * The highest precipitation in the tile, in mm.
+     */
+    private Double precipitationMax;
+
+    /**
+     * The number of raster cells in the tile holding data.
+     */
+    private int cells;
+
+}
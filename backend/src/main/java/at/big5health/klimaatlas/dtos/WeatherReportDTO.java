@@ -1,6 +1,7 @@
 package at.big5health.klimaatlas.dtos;
 
 import at.big5health.klimaatlas.models.WeatherReport;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -67,4 +68,27 @@ public class WeatherReportDTO {
      * This is an optional field primarily used for display purposes.
      */
     private String cityName;
+
+    /**
+     * {@code true} if the values were interpolated from neighbouring grid cells while the
+     * exact cell is fetched in the background; {@code null} (and omitted) for exact values.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean estimated;
+
+    /**
+     * Creates a report with exact values.
+     *
+     * @param minTemp     the minimum temperature in degrees Celsius
+     * @param maxTemp     the maximum temperature in degrees Celsius
+     * @param precip      the type of precipitation
+     * @param sunDuration the duration of sunshine
+     * @param latitude    the latitude of the location
+     * @param longitude   the longitude of the location
+     * @param cityName    the name of the city, may be {@code null}
+     */
+    public WeatherReportDTO(Double minTemp, Double maxTemp, Precipitation precip, Double sunDuration,
+                            Double latitude, Double longitude, String cityName) {
+        this(minTemp, maxTemp, precip, sunDuration, latitude, longitude, cityName, null);
+    }
 }
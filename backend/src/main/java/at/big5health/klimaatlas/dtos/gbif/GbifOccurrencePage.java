@@ -0,0 +1,19 @@
+package at.big5health.klimaatlas.dtos.gbif;
+
+import at.big5health.klimaatlas.mosquito.OccurrenceBatch;
+
+import java.time.Instant;
+
+/**
+ * One decoded page of a GBIF {@code /occurrence/search} response.
+ *
+ * @param occurrences     the decoded occurrences of this page (records without coordinates are dropped)
+ * @param recordCount     the number of entries in the page's {@code results} array, including dropped ones
+ * @param endOfRecords    whether GBIF reported this page as the last one
+ * @param lastInterpreted the latest {@code lastInterpreted} timestamp of the page's records,
+ *                        or {@code null} if none carried one
+ * @see at.big5health.klimaatlas.httpclients.GbifOccurrenceDecoder
+ */
+public record GbifOccurrencePage(OccurrenceBatch occurrences, int recordCount, boolean endOfRecords,
+                                 Instant lastInterpreted) {
+}
@@ -16,6 +16,7 @@ public enum ErrorMessages {
     // External Service Errors (5xx - often 503 or 502)
     EXTERNAL_API_FAILURE("Failed to retrieve weather data from the external service."),
     EXTERNAL_API_TIMEOUT("External weather service timed out."),
+    OCCURRENCE_API_FAILURE("Failed to retrieve mosquito occurrence data from the external service."),
 
     // Internal Server Errors (500)
     UNEXPECTED_ERROR("An internal server error occurred."),
@@ -0,0 +1,121 @@
+package at.big5health.klimaatlas.grid;
+
+/**
+ * The projected coordinate reference system of the Spartacus grid, ETRS89 / Austria Lambert
+ * (EPSG:3416), a Lambert Conformal Conic projection with two standard parallels on GRS 1980.
+ * <p>
+ * Projected coordinates are easting and northing in meters from the false origin. The formulas
+ * are the ones of the EPSG guidance note 7-2; within Austria the round trip is exact to well
+ * below a millimeter.
+ */
+public final class AustriaLambert {
+
+    static final double SEMI_MAJOR_AXIS = 6378137.0;
+    private static final double FLATTENING = 1 / 298.257222101;
+    static final double ECCENTRICITY = Math.sqrt(2 * FLATTENING - FLATTENING * FLATTENING);
+
+    private static final double FIRST_PARALLEL = Math.toRadians(49.0);
+    private static final double SECOND_PARALLEL = Math.toRadians(46.0);
+    private static final double ORIGIN_LATITUDE = Math.toRadians(47.5);
+    static final double ORIGIN_LONGITUDE = Math.toRadians(13.0 + 20.0 / 60.0);
+    static final double FALSE_EASTING = 400000.0;
+    static final double FALSE_NORTHING = 400000.0;
+
+    static final double CONE;
+    static final double SCALE;
+    static final double ORIGIN_RADIUS;
+
+    static {
+        double m1 = m(FIRST_PARALLEL);
+        double m2 = m(SECOND_PARALLEL);
+        double t1 = t(FIRST_PARALLEL);
+        double t2 = t(SECOND_PARALLEL);
+        CONE = (Math.log(m1) - Math.log(m2)) / (Math.log(t1) - Math.log(t2));
+        SCALE = m1 / (CONE * Math.pow(t1, CONE));
+        ORIGIN_RADIUS = radius(ORIGIN_LATITUDE);
+    }
+
+    private AustriaLambert() {
+    }
+
+    /**
+     * Projects geographic coordinates.
+     *
+     * @param latitude  the latitude in decimal degrees
+     * @param longitude the longitude in decimal degrees
+     * @return {@code {easting, northing}} in meters
+     */
+    public static double[] project(double latitude, double longitude) {
+        double radius = coneRadius(latitude);
+        double angle = coneAngle(longitude);
+        return new double[] {easting(radius, angle), northing(radius, angle)};
+    }
+
+    /**
+     * The distance of a latitude from the apex of the cone, in meters. Together with
+     * {@link #coneAngle(double)} these allow projecting without allocating a result array.
+     *
+     * @param latitude the latitude in decimal degrees
+     * @return the radius of the parallel in the projection
+     */
+    static double coneRadius(double latitude) {
+        return radius(Math.toRadians(latitude));
+    }
+
+    /**
+     * @param longitude the longitude in decimal degrees
+     * @return the angle of the meridian in the projection, in radians
+     */
+    static double coneAngle(double longitude) {
+        return CONE * (Math.toRadians(longitude) - ORIGIN_LONGITUDE);
+    }
+
+    static double easting(double radius, double angle) {
+        return FALSE_EASTING + radius * Math.sin(angle);
+    }
+
+    static double northing(double radius, double angle) {
+        return FALSE_NORTHING + ORIGIN_RADIUS - radius * Math.cos(angle);
+    }
+
+    /**
+     * Converts projected coordinates back to geographic coordinates.
+     *
+     * @param easting  the easting in meters
+     * @param northing the northing in meters
+     * @return {@code {latitude, longitude}} in decimal degrees
+     */
+    public static double[] unproject(double easting, double northing) {
+        double dx = easting - FALSE_EASTING;
+        double dy = ORIGIN_RADIUS - (northing - FALSE_NORTHING);
+        double r = Math.hypot(dx, dy);
+        double theta = Math.atan2(dx, dy);
+        double t = Math.pow(r / (SEMI_MAJOR_AXIS * SCALE), 1 / CONE);
+        double latitude = Math.PI / 2 - 2 * Math.atan(t);
+        for (int i = 0; i < 10; i++) {
+            double esin = ECCENTRICITY * Math.sin(latitude);
+            double next = Math.PI / 2
+                    - 2 * Math.atan(t * Math.pow((1 - esin) / (1 + esin), ECCENTRICITY / 2));
+            if (Math.abs(next - latitude) < 1e-12) {
+                latitude = next;
+                break;
+            }
+            latitude = next;
+        }
+        return new double[] {Math.toDegrees(latitude), Math.toDegrees(theta / CONE + ORIGIN_LONGITUDE)};
+    }
+
+    private static double radius(double latitude) {
+        return SEMI_MAJOR_AXIS * SCALE * Math.pow(t(latitude), CONE);
+    }
+
+    private static double m(double latitude) {
+        double esin = ECCENTRICITY * Math.sin(latitude);
+        return Math.cos(latitude) / Math.sqrt(1 - esin * esin);
+    }
+
+    private static double t(double latitude) {
+        double esin = ECCENTRICITY * Math.sin(latitude);
+        return Math.tan(Math.PI / 4 - latitude / 2) / Math.pow((1 - esin) / (1 + esin), ECCENTRICITY / 2);
+    }
+}
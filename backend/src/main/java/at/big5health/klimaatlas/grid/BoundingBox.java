@@ -2,6 +2,9 @@ package at.big5health.klimaatlas.grid;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -59,4 +62,26 @@ public class BoundingBox {
         // which is common for APIs.
         return String.format(Locale.US, "%.6f,%.6f,%.6f,%.6f", minLat, minLon, maxLat, maxLon);
     }
+
+    /**
+     * Splits the bounding box into {@code rows x columns} equally sized tiles.
+     *
+     * @param rows    the number of tiles from south to north
+     * @param columns the number of tiles from west to east
+     * @return the tiles, row by row, starting in the south-west corner
+     */
+    public List<BoundingBox> split(int rows, int columns) {
+        List<BoundingBox> tiles = new ArrayList<>(rows * columns);
+        double latSize = (maxLat - minLat) / rows;
+        double lonSize = (maxLon - minLon) / columns;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                tiles.add(new BoundingBox(
+                        minLat + row * latSize, minLon + column * lonSize,
+                        row == rows - 1 ? maxLat : minLat + (row + 1) * latSize,
+                        column == columns - 1 ? maxLon : minLon + (column + 1) * lonSize));
+            }
+        }
+        return tiles;
+    }
 }
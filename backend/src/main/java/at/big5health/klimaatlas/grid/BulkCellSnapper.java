@@ -0,0 +1,20 @@
+package at.big5health.klimaatlas.grid;
+
+/**
+ * Snaps batches of coordinates to encoded grid cells, see
+ * {@link GridUtil#cellsAt(double[], double[], long[])}.
+ */
+interface BulkCellSnapper {
+
+    /**
+     * Snaps {@code count} coordinates from the start of the arrays and returns the number of
+     * coordinates handled; the remaining tail is left to the caller.
+     *
+     * @param latitudes  the latitudes, in decimal degrees
+     * @param longitudes the longitudes, in decimal degrees
+     * @param cells      receives the encoded cells
+     * @param count      the number of coordinates to snap
+     * @return the number of coordinates snapped
+     */
+    int cellsAt(double[] latitudes, double[] longitudes, long[] cells, int count);
+}
@@ -21,8 +21,8 @@ public class GridCellInfo {
 
     /**
      * A unique identifier for this grid cell.
-     * Often generated based on its target coordinates.
-     * Example: {@code "cell_48.208170_16.373820"}.
+     * Generated from the row and column of the grid cell.
+     * Example: {@code "cell_483_625"}.
      */
     private String cellId;
 
@@ -46,4 +46,16 @@ public class GridCellInfo {
      * or data sampling.
      */
     private double targetLongitude;
+
+    /**
+     * The row of this grid cell in the Spartacus grid, counted northwards from the
+     * false origin of the projection.
+     */
+    private int row;
+
+    /**
+     * The column of this grid cell in the Spartacus grid, counted eastwards from the
+     * false origin of the projection.
+     */
+    private int column;
 }
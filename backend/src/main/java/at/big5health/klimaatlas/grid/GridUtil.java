@@ -1,109 +1,234 @@
 package at.big5health.klimaatlas.grid;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
-
 /**
  * Utility class providing methods for geographical grid calculations.
  * <p>
- * This component offers functionalities such as determining a grid cell
- * for specific coordinates and generating a list of grid cells within a
- * given bounding box. It uses approximate calculations for grid spacing
- * based on a defined cell size.
+ * The grid is the one of the Spartacus dataset itself: square cells of
+ * {@value #CELL_SIZE_METERS} meters in the {@link AustriaLambert} projection, with edges on
+ * whole kilometers of easting and northing. A coordinate is projected and identified by the
+ * integer (row, column) of the pixel it falls into, so every upstream pixel maps to exactly
+ * one grid cell, and therefore one cache entry, and nearby coordinates share it.
  *
  * @see GridCellInfo
  * @see BoundingBox
+ * @see AustriaLambert
  */
 @Component
 public class GridUtil {
 
     /**
-     * Approximate meters per degree of latitude. This value is relatively constant.
+     * The size of each grid cell, in meters of the projected grid.
      */
-    private static final double METERS_PER_DEGREE_LATITUDE = 111132.954;
+    static final double CELL_SIZE_METERS = 1000.0;
+
     /**
-     * Approximate meters per degree of longitude at the Earth's equator.
-     * This value varies with latitude.
+     * The Vector API implementation of {@link #cellsAt(double[], double[], long[])}, or {@code null}
+     * unless the JVM was started with {@code --add-modules jdk.incubator.vector}.
      */
-    private static final double METERS_PER_DEGREE_LONGITUDE_AT_EQUATOR = 111319.488;
+    private static final BulkCellSnapper VECTOR_SNAPPER = loadVectorSnapper();
+
     /**
-     * The target size for each grid cell, in meters (e.g., 1000.0 for 1km x 1km cells).
+     * Returns the grid cell containing a pair of coordinates, encoded as a {@code long}.
+     * <p>
+     * The row is stored in the upper and the column in the lower 32 bits, see
+     * {@link #cell(int, int)}. Nothing is allocated, which keeps this cheap enough for the
+     * path of every weather request; the {@link GridCellInfo} with the bounding box is only
+     * derived by {@link #getGridCellInfo(long)} when the cell's data has to be fetched.
+     *
+     * @param latitude  The input geographical latitude, in decimal degrees.
+     * @param longitude The input geographical longitude, in decimal degrees.
+     * @return the encoded cell
      */
-    private static final double CELL_SIZE_METERS = 1000.0;
+    public long getCellForCoordinates(double latitude, double longitude) {
+        return cellAt(latitude, longitude);
+    }
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(GridUtil.class);
+    /**
+     * Static form of {@link #getCellForCoordinates(double, double)}.
+     *
+     * @param latitude  The input geographical latitude, in decimal degrees.
+     * @param longitude The input geographical longitude, in decimal degrees.
+     * @return the encoded cell
+     */
+    public static long cellAt(double latitude, double longitude) {
+        double radius = AustriaLambert.coneRadius(latitude);
+        double angle = AustriaLambert.coneAngle(longitude);
+        int column = (int) Math.floor(AustriaLambert.easting(radius, angle) / CELL_SIZE_METERS);
+        int row = (int) Math.floor(AustriaLambert.northing(radius, angle) / CELL_SIZE_METERS);
+        return cell(row, column);
+    }
 
     /**
-     * Calculates the grid cell information for a given pair of latitude and longitude coordinates.
+     * Bulk form of {@link #cellAt(double, double)} for large batches of coordinates, such as
+     * occurrence records or district rasters.
      * <p>
-     * The method performs the following steps:
-     * <ol>
-     *   <li>Calculates approximate 1km grid spacing in degrees at the given latitude.</li>
-     *   <li>Snaps the input coordinates to the center of the nearest conceptual grid cell.
-     *       These snapped coordinates become the target latitude/longitude for the cell.</li>
-     *   <li>Generates a unique cell ID based on these target coordinates.</li>
-     *   <li>Calculates a bounding box around the target coordinates, representing the cell's extent.
-     *       A small buffer (10%) is added to this bounding box to help ensure that API calls
-     *       using this box reliably capture data for the target point, accounting for potential
-     *       minor discrepancies in grid definitions or coordinate precision between systems.</li>
-     * </ol>
-     * Note: The grid is conceptualized as cells of {@value #CELL_SIZE_METERS} meters.
+     * If the JVM runs with {@code --add-modules jdk.incubator.vector}, the projection is evaluated
+     * for as many coordinates at once as the CPU's vector registers hold; otherwise, and for the
+     * remainder that does not fill a vector, the coordinates are snapped one by one.
+     *
+     * @param latitudes  the latitudes, in decimal degrees
+     * @param longitudes the longitudes, in decimal degrees, of the same length
+     * @param cells      receives the encoded cells, at least as long as the coordinate arrays
+     * @throws IllegalArgumentException if the array lengths do not fit
+     */
+    public static void cellsAt(double[] latitudes, double[] longitudes, long[] cells) {
+        if (latitudes.length != longitudes.length || cells.length < latitudes.length) {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        int i = VECTOR_SNAPPER != null ? VECTOR_SNAPPER.cellsAt(latitudes, longitudes, cells, latitudes.length) : 0;
+        for (; i < latitudes.length; i++) {
+            cells[i] = cellAt(latitudes[i], longitudes[i]);
+        }
+    }
+
+    /**
+     * @return whether {@link #cellsAt(double[], double[], long[])} uses the Vector API
+     */
+    public static boolean isVectorized() {
+        return VECTOR_SNAPPER != null;
+    }
+
+    /**
+     * Loads the Vector API snapper by name, so that only its own source set is compiled against
+     * the incubator module and nothing references it when the module is absent.
+     */
+    private static BulkCellSnapper loadVectorSnapper() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (BulkCellSnapper) Class.forName(GridUtil.class.getPackageName() + ".VectorCellSnapper")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Calculates the grid cell information for a given pair of latitude and longitude coordinates.
      *
      * @param latitude  The input geographical latitude, in decimal degrees.
      * @param longitude The input geographical longitude, in decimal degrees.
      * @return A {@link GridCellInfo} object containing the cell ID, its bounding box,
-     *         and the target (snapped center) coordinates.
+     *         the target (pixel center) coordinates and the row and column of the pixel.
+     * @see #getCellForCoordinates(double, double)
+     * @see #getGridCellInfo(long)
      */
     public GridCellInfo getGridCellForCoordinates(double latitude, double longitude) {
-        // 1. Calculate approximate 1km spacing in degrees at this latitude
-        double latitudeRadians = Math.toRadians(latitude);
-        double metersPerDegreeLongitude = METERS_PER_DEGREE_LONGITUDE_AT_EQUATOR * Math.cos(latitudeRadians);
-
-        if (metersPerDegreeLongitude < 1.0) { // Avoid division by zero near poles
-            metersPerDegreeLongitude = 1.0;
-        }
-
-        double latSpacingDegrees = CELL_SIZE_METERS / METERS_PER_DEGREE_LATITUDE;
-        double lonSpacingDegrees = CELL_SIZE_METERS / metersPerDegreeLongitude;
+        return getGridCellInfo(getCellForCoordinates(latitude, longitude));
+    }
 
-        // 2. Snap input coordinates to the nearest grid center
-        double snappedCenterLat = Math.round(latitude / latSpacingDegrees) * latSpacingDegrees;
-        double snappedCenterLon = Math.round(longitude / lonSpacingDegrees) * lonSpacingDegrees;
+    /**
+     * Derives the full grid cell information of an encoded cell.
+     * <p>
+     * The method performs the following steps:
+     * <ol>
+     *   <li>Generates a unique cell ID from the row and column.</li>
+     *   <li>Converts the pixel center back to latitude/longitude; these become the target
+     *       coordinates of the cell.</li>
+     *   <li>Calculates the latitude/longitude envelope of the pixel's corners. It contains the
+     *       center of this pixel and of no other, so an API call with it returns exactly the
+     *       pixel.</li>
+     * </ol>
+     *
+     * @param cell the cell, as returned by {@link #getCellForCoordinates(double, double)}
+     * @return A {@link GridCellInfo} object containing the cell ID, its bounding box,
+     *         the target (pixel center) coordinates and the row and column of the pixel.
+     */
+    public GridCellInfo getGridCellInfo(long cell) {
+        int row = row(cell);
+        int column = column(cell);
 
-        double targetLatitude = snappedCenterLat;
-        double targetLongitude = snappedCenterLon;
+        double minEasting = column * CELL_SIZE_METERS;
+        double minNorthing = row * CELL_SIZE_METERS;
+        double[] center = AustriaLambert.unproject(minEasting + CELL_SIZE_METERS / 2, minNorthing + CELL_SIZE_METERS / 2);
 
-        // 3. Generate Cell ID
-        String cellId = String.format(Locale.US, "cell_%.6f_%.6f", targetLatitude, targetLongitude);
+        BoundingBox bbox = getBoundingBox(row, column, row, column);
 
-        // 4. Calculate Bbox corners
-        double centerLatRadians = Math.toRadians(targetLatitude);
-        double metersPerDegreeLonAtCenter = METERS_PER_DEGREE_LONGITUDE_AT_EQUATOR * Math.cos(centerLatRadians);
-        if (metersPerDegreeLonAtCenter < 1.0) metersPerDegreeLonAtCenter = 1.0;
+        return new GridCellInfo(cellId(cell), bbox, center[0], center[1], row, column);
+    }
 
-        double halfLatSpacing = (CELL_SIZE_METERS / 2.0) / METERS_PER_DEGREE_LATITUDE;
-        double halfLonSpacing = (CELL_SIZE_METERS / 2.0) / metersPerDegreeLonAtCenter;
+    /**
+     * Calculates the latitude/longitude envelope of a rectangle of grid cells.
+     * <p>
+     * The envelope is the one of the rectangle's outer corners. The rectangle's edges are
+     * straight in the projection and bend by a few meters at most in latitude/longitude, far
+     * less than the half cell between an edge and the nearest pixel center, so the envelope
+     * contains the centers of all cells of the rectangle.
+     *
+     * @param minRow    the first row
+     * @param minColumn the first column
+     * @param maxRow    the last row (inclusive)
+     * @param maxColumn the last column (inclusive)
+     * @return the bounding box of the rectangle
+     */
+    public BoundingBox getBoundingBox(int minRow, int minColumn, int maxRow, int maxColumn) {
+        return boundingBox(minRow, minColumn, maxRow, maxColumn);
+    }
 
-        double bufferFactor = 1.1; // 10% buffer
-        double bufferedHalfLat = halfLatSpacing * bufferFactor;
-        double bufferedHalfLon = halfLonSpacing * bufferFactor;
+    /**
+     * Static form of {@link #getBoundingBox(int, int, int, int)}.
+     *
+     * @param minRow    the first row
+     * @param minColumn the first column
+     * @param maxRow    the last row (inclusive)
+     * @param maxColumn the last column (inclusive)
+     * @return the bounding box of the rectangle
+     */
+    public static BoundingBox boundingBox(int minRow, int minColumn, int maxRow, int maxColumn) {
+        double[] eastings = {minColumn * CELL_SIZE_METERS, (maxColumn + 1) * CELL_SIZE_METERS};
+        double[] northings = {minRow * CELL_SIZE_METERS, (maxRow + 1) * CELL_SIZE_METERS};
+        double minLat = Double.POSITIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (double easting : eastings) {
+            for (double northing : northings) {
+                double[] geographic = AustriaLambert.unproject(easting, northing);
+                minLat = Math.min(minLat, geographic[0]);
+                maxLat = Math.max(maxLat, geographic[0]);
+                minLon = Math.min(minLon, geographic[1]);
+                maxLon = Math.max(maxLon, geographic[1]);
+            }
+        }
+        return new BoundingBox(minLat, minLon, maxLat, maxLon);
+    }
 
-        double minLat = targetLatitude - bufferedHalfLat;
-        double maxLat = targetLatitude + bufferedHalfLat;
-        double minLon = targetLongitude - bufferedHalfLon;
-        double maxLon = targetLongitude + bufferedHalfLon;
+    /**
+     * Encodes a row and column of the grid as a single {@code long}.
+     *
+     * @param row    the row, counted northwards from the false origin
+     * @param column the column, counted eastwards from the false origin
+     * @return the encoded cell
+     */
+    public static long cell(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
 
-        BoundingBox bbox = new BoundingBox(minLat, minLon, maxLat, maxLon);
+    /**
+     * @param cell an encoded cell
+     * @return the row of the cell
+     */
+    public static int row(long cell) {
+        return (int) (cell >> 32);
+    }
 
-        // Logging for debugging (consider removing or reducing for production)
-        // System.out.printf("Input: (%.6f, %.6f)\n", latitude, longitude);
-        // System.out.printf("Snapped Center: (%.6f, %.6f)\n", targetLatitude, targetLongitude);
-        // System.out.printf("BBox: %s\n", bbox.toApiString());
-        // System.out.printf("CellID: %s\n", cellId);
+    /**
+     * @param cell an encoded cell
+     * @return the column of the cell
+     */
+    public static int column(long cell) {
+        return (int) cell;
+    }
 
-        return new GridCellInfo(cellId, bbox, targetLatitude, targetLongitude);
+    /**
+     * @param cell an encoded cell
+     * @return the readable ID of the cell, e.g. {@code "cell_483_625"}
+     */
+    public static String cellId(long cell) {
+        return "cell_" + row(cell) + "_" + column(cell);
     }
 }
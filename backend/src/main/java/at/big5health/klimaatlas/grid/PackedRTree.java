@@ -0,0 +1,259 @@
+package at.big5health.klimaatlas.grid;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable, packed R-tree over latitude/longitude rectangles.
+ * <p>
+ * The tree is bulk-loaded once: items are sorted along a Hilbert curve through the centres
+ * of their rectangles and grouped into nodes of {@value #NODE_SIZE} entries, level by level,
+ * until a single level fits the root. All rectangles (items first, then the nodes of each
+ * level) are stored in one flat {@code double[]}, so a query walks plain arrays without
+ * pointer chasing or per-node objects.
+ * <p>
+ * Points are indexed as degenerate rectangles. Items are identified by their index in the
+ * arrays passed to {@link #build}.
+ */
+public final class PackedRTree {
+
+    private static final int NODE_SIZE = 16;
+    private static final int HILBERT_BITS = 15;
+    private static final int HILBERT_MAX = (1 << HILBERT_BITS) - 1;
+
+    private final int size;
+    private final double[] boxes;
+    private final int[] indices;
+    private final int[] levelBounds;
+
+    private PackedRTree(int size, double[] boxes, int[] indices, int[] levelBounds) {
+        this.size = size;
+        this.boxes = boxes;
+        this.indices = indices;
+        this.levelBounds = levelBounds;
+    }
+
+    /**
+     * Builds a tree over the given rectangles. All arrays must have the same length.
+     *
+     * @param minLat southern edges
+     * @param minLon western edges
+     * @param maxLat northern edges
+     * @param maxLon eastern edges
+     * @return the packed tree
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public static PackedRTree build(double[] minLat, double[] minLon, double[] maxLat, double[] maxLon) {
+        int n = minLat.length;
+        if (minLon.length != n || maxLat.length != n || maxLon.length != n) {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+
+        int entries = n;
+        int levels = 1;
+        for (int count = n; count > 1; count = (count + NODE_SIZE - 1) / NODE_SIZE) {
+            entries += (count + NODE_SIZE - 1) / NODE_SIZE;
+            levels++;
+        }
+        double[] boxes = new double[entries * 4];
+        int[] indices = new int[entries];
+        int[] levelBounds = new int[levels];
+
+        double south = Double.POSITIVE_INFINITY;
+        double west = Double.POSITIVE_INFINITY;
+        double north = Double.NEGATIVE_INFINITY;
+        double east = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            south = Math.min(south, minLat[i]);
+            west = Math.min(west, minLon[i]);
+            north = Math.max(north, maxLat[i]);
+            east = Math.max(east, maxLon[i]);
+        }
+        double latScale = north > south ? HILBERT_MAX / (north - south) : 0;
+        double lonScale = east > west ? HILBERT_MAX / (east - west) : 0;
+
+        // Hilbert value in the upper 32 bits, item index in the lower: one primitive sort.
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            int x = (int) (((minLon[i] + maxLon[i]) / 2 - west) * lonScale);
+            int y = (int) (((minLat[i] + maxLat[i]) / 2 - south) * latScale);
+            keys[i] = hilbert(x, y) << 32 | i;
+        }
+        Arrays.sort(keys);
+        for (int position = 0; position < n; position++) {
+            int item = (int) keys[position];
+            indices[position] = item;
+            setBox(boxes, position, minLat[item], minLon[item], maxLat[item], maxLon[item]);
+        }
+
+        int level = 0;
+        int levelStart = 0;
+        int levelEnd = n;
+        levelBounds[level++] = levelEnd;
+        int next = n;
+        while (levelEnd - levelStart > 1) {
+            for (int child = levelStart; child < levelEnd; child += NODE_SIZE) {
+                int childEnd = Math.min(child + NODE_SIZE, levelEnd);
+                double nodeMinLat = Double.POSITIVE_INFINITY;
+                double nodeMinLon = Double.POSITIVE_INFINITY;
+                double nodeMaxLat = Double.NEGATIVE_INFINITY;
+                double nodeMaxLon = Double.NEGATIVE_INFINITY;
+                for (int c = child; c < childEnd; c++) {
+                    nodeMinLat = Math.min(nodeMinLat, boxes[c * 4]);
+                    nodeMinLon = Math.min(nodeMinLon, boxes[c * 4 + 1]);
+                    nodeMaxLat = Math.max(nodeMaxLat, boxes[c * 4 + 2]);
+                    nodeMaxLon = Math.max(nodeMaxLon, boxes[c * 4 + 3]);
+                }
+                indices[next] = child;
+                setBox(boxes, next++, nodeMinLat, nodeMinLon, nodeMaxLat, nodeMaxLon);
+            }
+            levelStart = levelEnd;
+            levelEnd = next;
+            levelBounds[level++] = levelEnd;
+        }
+        return new PackedRTree(n, boxes, indices, Arrays.copyOf(levelBounds, level));
+    }
+
+    /**
+     * @return the number of indexed items
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Reports every item whose rectangle contains the given point (edges inclusive).
+     *
+     * @param lat    the latitude of the point
+     * @param lon    the longitude of the point
+     * @param action receives the index of each containing item
+     */
+    public void search(double lat, double lon, IntConsumer action) {
+        if (size == 0) {
+            return;
+        }
+        int[] stack = new int[levelBounds.length * NODE_SIZE];
+        int depth = 0;
+        int topStart = levelBounds.length > 1 ? levelBounds[levelBounds.length - 2] : 0;
+        for (int position = topStart; position < entries(); position++) {
+            stack[depth++] = position;
+        }
+        while (depth > 0) {
+            int position = stack[--depth];
+            if (!contains(position, lat, lon)) {
+                continue;
+            }
+            if (position < size) {
+                action.accept(indices[position]);
+                continue;
+            }
+            int child = indices[position];
+            int childEnd = Math.min(child + NODE_SIZE, levelEnd(child));
+            if (depth + (childEnd - child) > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2 + NODE_SIZE);
+            }
+            for (int c = child; c < childEnd; c++) {
+                stack[depth++] = c;
+            }
+        }
+    }
+
+    /**
+     * Finds the item closest to the given point, measured to the nearest edge of its
+     * rectangle. Distances use an equirectangular approximation around the query latitude,
+     * which is exact enough to rank candidates within a country.
+     *
+     * @param lat the latitude of the point
+     * @param lon the longitude of the point
+     * @return the index of the nearest item, or {@code -1} if the tree is empty
+     */
+    public int nearest(double lat, double lon) {
+        if (size == 0) {
+            return -1;
+        }
+        double lonFactor = Math.cos(Math.toRadians(lat));
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        int topStart = levelBounds.length > 1 ? levelBounds[levelBounds.length - 2] : 0;
+        for (int position = topStart; position < entries(); position++) {
+            queue.add(new Candidate(position, distanceSquared(position, lat, lon, lonFactor)));
+        }
+        while (!queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            if (candidate.position() < size) {
+                return indices[candidate.position()];
+            }
+            int child = indices[candidate.position()];
+            int childEnd = Math.min(child + NODE_SIZE, levelEnd(child));
+            for (int c = child; c < childEnd; c++) {
+                queue.add(new Candidate(c, distanceSquared(c, lat, lon, lonFactor)));
+            }
+        }
+        return -1;
+    }
+
+    private int entries() {
+        return indices.length;
+    }
+
+    private int levelEnd(int position) {
+        for (int bound : levelBounds) {
+            if (position < bound) {
+                return bound;
+            }
+        }
+        return entries();
+    }
+
+    private boolean contains(int position, double lat, double lon) {
+        int offset = position * 4;
+        return lat >= boxes[offset] && lon >= boxes[offset + 1]
+                && lat <= boxes[offset + 2] && lon <= boxes[offset + 3];
+    }
+
+    private double distanceSquared(int position, double lat, double lon, double lonFactor) {
+        int offset = position * 4;
+        double dLat = Math.max(0, Math.max(boxes[offset] - lat, lat - boxes[offset + 2]));
+        double dLon = Math.max(0, Math.max(boxes[offset + 1] - lon, lon - boxes[offset + 3])) * lonFactor;
+        return dLat * dLat + dLon * dLon;
+    }
+
+    private static void setBox(double[] boxes, int position, double minLat, double minLon,
+                               double maxLat, double maxLon) {
+        int offset = position * 4;
+        boxes[offset] = minLat;
+        boxes[offset + 1] = minLon;
+        boxes[offset + 2] = maxLat;
+        boxes[offset + 3] = maxLon;
+    }
+
+    /**
+     * Position of (x, y) along a Hilbert curve filling a 2^15 x 2^15 grid.
+     */
+    private static long hilbert(int x, int y) {
+        long d = 0;
+        for (int s = 1 << (HILBERT_BITS - 1); s > 0; s >>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = HILBERT_MAX - x;
+                    y = HILBERT_MAX - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    private record Candidate(int position, double distance) implements Comparable<Candidate> {
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(distance, other.distance);
+        }
+    }
+}
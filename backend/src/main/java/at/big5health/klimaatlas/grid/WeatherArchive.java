@@ -0,0 +1,346 @@
+package at.big5health.klimaatlas.grid;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local, append-only columnar archive of historical daily 1 km grid values, filled by the
+ * backfill job.
+ * <p>
+ * The archive is a single file {@value #ARCHIVE_FILE} in the directory configured by
+ * {@code weather.backfill.path}. It is a sequence of segments, each holding the cells of one
+ * tile on one day: a header ({@code magic}, {@code epochDay}, {@code count}) followed by five
+ * little-endian {@code float} columns of {@code count} entries each: latitude, longitude,
+ * minimum temperature, maximum temperature and precipitation ({@code NaN} if missing).
+ * <p>
+ * Writers pass the position to append at, so a job that resumes from a checkpoint overwrites
+ * whatever an interrupted batch left behind the last checkpointed position. A segment left
+ * incomplete at the end of the file is ignored by readers.
+ * <p>
+ * The segment headers are scanned once at startup into an in-memory index from day to segment
+ * positions, which {@link #append(long, List)} keeps up to date; reading a day only touches the
+ * segments of that day. The last {@value #RECENT_RASTERS} rasters read are kept, so that
+ * consecutive point lookups for the same past day do not re-read it.
+ *
+ * @see at.big5health.klimaatlas.services.BackfillService
+ */
+@Component
+public class WeatherArchive {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WeatherArchive.class);
+
+    static final String ARCHIVE_FILE = "weather.col";
+
+    private static final int SEGMENT_MAGIC = 0x4B4C5731; // "KLW1"
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int COLUMNS = 5;
+    private static final int RECENT_RASTERS = 8;
+
+    private final Path file;
+
+    /**
+     * Segment positions by epoch day, {@code null} until the file has been scanned. The arrays
+     * are replaced, never modified, so readers need no lock.
+     */
+    private volatile Map<Integer, long[]> index;
+    private long end;
+
+    private final Map<LocalDate, WeatherRaster> recent = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocalDate, WeatherRaster> eldest) {
+            return size() > RECENT_RASTERS;
+        }
+    };
+    private long generation;
+
+    /**
+     * Constructs a {@code WeatherArchive}.
+     *
+     * @param directory the archive directory, injected from {@code weather.backfill.path}
+     */
+    public WeatherArchive(@Value("${weather.backfill.path:data/weather-archive}") Path directory) {
+        this.file = directory.resolve(ARCHIVE_FILE);
+    }
+
+    /**
+     * The cells of one tile on one day, collected column by column. Not thread-safe.
+     */
+    public static final class Day {
+
+        private final LocalDate date;
+        private float[] values = new float[COLUMNS * 256];
+        private int size;
+
+        /**
+         * @param date the day the values belong to
+         */
+        public Day(LocalDate date) {
+            this.date = date;
+        }
+
+        /**
+         * Adds one cell; {@code null} values are stored as missing.
+         *
+         * @param latitude      the latitude of the cell
+         * @param longitude     the longitude of the cell
+         * @param minTemp       minimum temperature, may be {@code null}
+         * @param maxTemp       maximum temperature, may be {@code null}
+         * @param precipitation precipitation, may be {@code null}
+         */
+        public void add(double latitude, double longitude, Double minTemp, Double maxTemp, Double precipitation) {
+            if (values.length < (size + 1) * COLUMNS) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            int offset = size * COLUMNS;
+            values[offset] = (float) latitude;
+            values[offset + 1] = (float) longitude;
+            values[offset + 2] = minTemp != null ? minTemp.floatValue() : Float.NaN;
+            values[offset + 3] = maxTemp != null ? maxTemp.floatValue() : Float.NaN;
+            values[offset + 4] = precipitation != null ? precipitation.floatValue() : Float.NaN;
+            size++;
+        }
+
+        /**
+         * @return the day the values belong to
+         */
+        public LocalDate getDate() {
+            return date;
+        }
+
+        /**
+         * @return the number of cells
+         */
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Scans the archive and builds the index of archived days.
+     *
+     * @throws UncheckedIOException if the archive cannot be read
+     */
+    @PostConstruct
+    public void open() {
+        long bytes = validBytes();
+        LOG.info("Opened weather archive {} with {} days in {} bytes.", file, index.size(), bytes);
+    }
+
+    /**
+     * @return the end of the last complete segment, i.e. where a new job starts appending
+     * @throws UncheckedIOException if the archive cannot be read
+     */
+    public synchronized long validBytes() {
+        if (index != null) {
+            return end;
+        }
+        Map<Integer, long[]> segments = new ConcurrentHashMap<>();
+        long position = 0;
+        try (FileChannel channel = openForReading()) {
+            if (channel != null) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                while (readHeader(channel, position, header)) {
+                    addSegment(segments, header.getInt(Integer.BYTES), position);
+                    position = segmentEnd(position, header.getInt(2 * Integer.BYTES));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read weather archive " + file, e);
+        }
+        end = position;
+        index = segments;
+        return end;
+    }
+
+    /**
+     * Writes one segment per day at the given position, discarding anything stored behind it,
+     * and forces the data to disk.
+     *
+     * @param position the position to write at, normally the end of the last complete segment
+     * @param days     the days to write
+     * @return the position after the written segments
+     * @throws UncheckedIOException if the archive cannot be written
+     */
+    public synchronized long append(long position, List<Day> days) {
+        Map<Integer, long[]> segments = index();
+        long bytes = 0;
+        for (Day day : days) {
+            bytes += HEADER_BYTES + (long) day.size() * COLUMNS * Float.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(bytes)).order(ByteOrder.LITTLE_ENDIAN);
+        for (Day day : days) {
+            buffer.putInt(SEGMENT_MAGIC).putInt((int) day.getDate().toEpochDay()).putInt(day.size());
+            for (int column = 0; column < COLUMNS; column++) {
+                for (int i = 0; i < day.size(); i++) {
+                    buffer.putFloat(day.values[i * COLUMNS + column]);
+                }
+            }
+        }
+        buffer.flip();
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+                long offset = position;
+                while (buffer.hasRemaining()) {
+                    offset += channel.write(buffer, offset);
+                }
+                channel.force(true);
+                reindex(segments, position, days);
+                end = offset;
+                return offset;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to weather archive " + file, e);
+        }
+    }
+
+    /**
+     * Builds a raster from all archived cells of one day.
+     *
+     * @param date the day to read
+     * @return the raster, empty if the day has not been archived
+     * @throws UncheckedIOException if the archive cannot be read
+     */
+    public Optional<WeatherRaster> raster(LocalDate date) {
+        long[] positions = index().get((int) date.toEpochDay());
+        if (positions == null) {
+            return Optional.empty();
+        }
+        long readGeneration;
+        synchronized (recent) {
+            WeatherRaster cached = recent.get(date);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            readGeneration = generation;
+        }
+        WeatherRaster raster = read(date, positions);
+        synchronized (recent) {
+            if (generation == readGeneration) {
+                recent.put(date, raster);
+            }
+        }
+        return Optional.of(raster);
+    }
+
+    private WeatherRaster read(LocalDate date, long[] positions) {
+        WeatherRaster.Builder builder = WeatherRaster.builder(date);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (long position : positions) {
+                readFully(channel, position, header.clear());
+                int count = header.getInt(2 * Integer.BYTES);
+                ByteBuffer columns = ByteBuffer.allocate(count * COLUMNS * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, position + HEADER_BYTES, columns);
+                for (int i = 0; i < count; i++) {
+                    builder.add(
+                            columns.getFloat(i * Float.BYTES),
+                            columns.getFloat((count + i) * Float.BYTES),
+                            value(columns.getFloat((2 * count + i) * Float.BYTES)),
+                            value(columns.getFloat((3 * count + i) * Float.BYTES)),
+                            value(columns.getFloat((4 * count + i) * Float.BYTES)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read weather archive " + file, e);
+        }
+        return builder.build();
+    }
+
+    private Map<Integer, long[]> index() {
+        Map<Integer, long[]> current = index;
+        if (current == null) {
+            validBytes();
+            current = index;
+        }
+        return current;
+    }
+
+    /**
+     * Drops the segments overwritten at and behind {@code position} and adds the written ones.
+     */
+    private void reindex(Map<Integer, long[]> segments, long position, List<Day> days) {
+        if (position < end) {
+            segments.replaceAll((day, positions) -> Arrays.stream(positions).filter(p -> p < position).toArray());
+            segments.values().removeIf(positions -> positions.length == 0);
+        }
+        long offset = position;
+        for (Day day : days) {
+            addSegment(segments, (int) day.getDate().toEpochDay(), offset);
+            offset += HEADER_BYTES + (long) day.size() * COLUMNS * Float.BYTES;
+        }
+        synchronized (recent) {
+            generation++;
+            recent.clear();
+        }
+    }
+
+    private static void addSegment(Map<Integer, long[]> segments, int epochDay, long position) {
+        segments.merge(epochDay, new long[] {position}, (positions, added) -> {
+            long[] merged = Arrays.copyOf(positions, positions.length + 1);
+            merged[positions.length] = position;
+            return merged;
+        });
+    }
+
+    private FileChannel openForReading() throws IOException {
+        return Files.exists(file) ? FileChannel.open(file, StandardOpenOption.READ) : null;
+    }
+
+    /**
+     * Reads the header at {@code position} and checks that the whole segment is present.
+     */
+    private boolean readHeader(FileChannel channel, long position, ByteBuffer header) throws IOException {
+        long size = channel.size();
+        if (size - position < HEADER_BYTES) {
+            return false;
+        }
+        header.clear();
+        readFully(channel, position, header);
+        int count = header.getInt(2 * Integer.BYTES);
+        if (header.getInt(0) != SEGMENT_MAGIC || count < 0 || segmentEnd(position, count) > size) {
+            LOG.warn("Ignoring incomplete weather archive segment at byte {} of {}.", position, file);
+            return false;
+        }
+        return true;
+    }
+
+    private static void readFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new IOException("Unexpected end of weather archive");
+            }
+            offset += read;
+        }
+    }
+
+    private static long segmentEnd(long position, int count) {
+        return position + HEADER_BYTES + (long) count * COLUMNS * Float.BYTES;
+    }
+
+    private static Double value(float value) {
+        return Float.isNaN(value) ? null : (double) value;
+    }
+}
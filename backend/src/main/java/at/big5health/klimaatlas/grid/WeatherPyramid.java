@@ -0,0 +1,267 @@
+package at.big5health.klimaatlas.grid;
+
+import at.big5health.klimaatlas.dtos.WeatherAggregateDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable pyramid of min/mean/max aggregates over a {@link WeatherRaster}, for map views
+ * that do not need 1 km detail.
+ * <p>
+ * At level {@code k} a tile covers {@code 2^k x 2^k} raster cells, i.e. native Spartacus
+ * pixels: level 0 is the raster itself and level {@value #MAX_LEVEL} a single tile for the
+ * whole country. Tiles are aligned with the raster's first row and column, so every tile is
+ * a rectangle of {@link GridUtil} cells. Every level
+ * above 0 is aggregated from the four child tiles of the level below, so building the
+ * pyramid is linear in the number of raster cells. Means are weighted by the number of
+ * cells holding a value, which makes them the plain mean over all cells of the tile.
+ * <p>
+ * Each level is stored as dense {@code float} columns per variable, indexed like the raster
+ * by {@code row * columns + column} with rows counted from the south. A bounding box query
+ * reads only the tiles it overlaps, e.g. a few hundred at level 5 for the whole country
+ * instead of about 170,000 cells. Callers limit a query to {@value #MAX_TILES} tiles.
+ *
+ * @see WeatherAggregateDTO
+ */
+public final class WeatherPyramid {
+
+    /**
+     * Coarsest level, whose single tile of {@code 1024 x 1024} cells covers the whole raster.
+     */
+    public static final int MAX_LEVEL = 10;
+
+    /**
+     * The most tiles a single query may span, so that a response stays a few hundred kilobytes.
+     * Larger areas have to be requested at a coarser level, see {@link #minLevel(BoundingBox)}.
+     */
+    public static final int MAX_TILES = 2_000;
+
+    private final Level[] levels;
+
+    private WeatherPyramid(Level[] levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * Builds the pyramid over the value columns of a raster. Level 0 shares the columns.
+     */
+    static WeatherPyramid build(float[] minTemp, float[] maxTemp, float[] precipitation) {
+        Level[] levels = new Level[MAX_LEVEL + 1];
+        levels[0] = new Level(0, WeatherRaster.ROWS, WeatherRaster.COLUMNS,
+                Band.leaf(minTemp), Band.leaf(maxTemp), Band.leaf(precipitation), null);
+        for (int level = 1; level <= MAX_LEVEL; level++) {
+            levels[level] = Level.fromChildren(levels[level - 1]);
+        }
+        return new WeatherPyramid(levels);
+    }
+
+    /**
+     * Returns the aggregates of the tiles at the given level that overlap the bounding box
+     * and hold data.
+     *
+     * @param bbox  the visible map area
+     * @param level the pyramid level, 0 to {@value #MAX_LEVEL}
+     * @return the tiles, row by row from the south
+     * @throws IllegalArgumentException if the level is out of range
+     */
+    public List<WeatherAggregateDTO> query(BoundingBox bbox, int level) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("level must be between 0 and " + MAX_LEVEL);
+        }
+        Level tiles = levels[level];
+        int[] range = tileRange(bbox, level);
+        List<WeatherAggregateDTO> result = new ArrayList<>();
+        for (int row = range[0]; row <= range[2]; row++) {
+            for (int column = range[1]; column <= range[3]; column++) {
+                int index = row * tiles.columns + column;
+                if (tiles.filled(index) > 0) {
+                    result.add(toAggregate(tiles, row, column, index));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param bbox  the visible map area
+     * @param level the pyramid level, 0 to {@value #MAX_LEVEL}
+     * @return the number of tiles of the level the bounding box overlaps, with or without data
+     */
+    public static long tileCount(BoundingBox bbox, int level) {
+        int[] range = tileRange(bbox, level);
+        return (long) Math.max(0, range[2] - range[0] + 1) * Math.max(0, range[3] - range[1] + 1);
+    }
+
+    /**
+     * @param bbox the visible map area
+     * @return the finest level at which the bounding box spans at most {@value #MAX_TILES} tiles
+     */
+    public static int minLevel(BoundingBox bbox) {
+        int level = 0;
+        while (level < MAX_LEVEL && tileCount(bbox, level) > MAX_TILES) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * The tiles of a level overlapping a bounding box, as {@code minRow, minColumn, maxRow,
+     * maxColumn} clamped to the level; empty if {@code min > max}.
+     */
+    private static int[] tileRange(BoundingBox bbox, int level) {
+        int rows = (WeatherRaster.ROWS + (1 << level) - 1) >> level;
+        int columns = (WeatherRaster.COLUMNS + (1 << level) - 1) >> level;
+        int[] cells = WeatherRaster.cellRange(bbox);
+        return new int[] {
+                Math.max(0, (cells[0] - WeatherRaster.FIRST_ROW) >> level),
+                Math.max(0, (cells[1] - WeatherRaster.FIRST_COLUMN) >> level),
+                Math.min(rows - 1, (cells[2] - WeatherRaster.FIRST_ROW) >> level),
+                Math.min(columns - 1, (cells[3] - WeatherRaster.FIRST_COLUMN) >> level)};
+    }
+
+    private static WeatherAggregateDTO toAggregate(Level tiles, int row, int column, int index) {
+        int size = 1 << tiles.level;
+        int firstRow = WeatherRaster.FIRST_ROW + row * size;
+        int firstColumn = WeatherRaster.FIRST_COLUMN + column * size;
+        int lastRow = WeatherRaster.FIRST_ROW + Math.min((row + 1) * size, WeatherRaster.ROWS) - 1;
+        int lastColumn = WeatherRaster.FIRST_COLUMN + Math.min((column + 1) * size, WeatherRaster.COLUMNS) - 1;
+        BoundingBox bounds = GridUtil.boundingBox(firstRow, firstColumn, lastRow, lastColumn);
+        return new WeatherAggregateDTO(tiles.level, bounds.getMinLat(), bounds.getMinLon(),
+                bounds.getMaxLat(), bounds.getMaxLon(),
+                tiles.minTemp.min(index), tiles.minTemp.mean(index), tiles.minTemp.max(index),
+                tiles.maxTemp.min(index), tiles.maxTemp.mean(index), tiles.maxTemp.max(index),
+                tiles.precipitation.min(index), tiles.precipitation.mean(index), tiles.precipitation.max(index),
+                tiles.filled(index));
+    }
+
+    /**
+     * The tiles of one level.
+     */
+    private static final class Level {
+
+        private final int level;
+        private final int rows;
+        private final int columns;
+        private final Band minTemp;
+        private final Band maxTemp;
+        private final Band precipitation;
+        private final int[] filled;
+
+        private Level(int level, int rows, int columns, Band minTemp, Band maxTemp, Band precipitation, int[] filled) {
+            this.level = level;
+            this.rows = rows;
+            this.columns = columns;
+            this.minTemp = minTemp;
+            this.maxTemp = maxTemp;
+            this.precipitation = precipitation;
+            this.filled = filled;
+        }
+
+        static Level fromChildren(Level child) {
+            int rows = (child.rows + 1) / 2;
+            int columns = (child.columns + 1) / 2;
+            int[] filled = new int[rows * columns];
+            for (int r = 0; r < child.rows; r++) {
+                for (int c = 0; c < child.columns; c++) {
+                    filled[(r / 2) * columns + c / 2] += child.filled(r * child.columns + c);
+                }
+            }
+            return new Level(child.level + 1, rows, columns,
+                    Band.fromChildren(child.minTemp, child.rows, child.columns, rows, columns),
+                    Band.fromChildren(child.maxTemp, child.rows, child.columns, rows, columns),
+                    Band.fromChildren(child.precipitation, child.rows, child.columns, rows, columns),
+                    filled);
+        }
+
+        /**
+         * The number of raster cells of a tile holding any value.
+         */
+        int filled(int index) {
+            if (filled == null) {
+                boolean any = minTemp.count(index) + maxTemp.count(index) + precipitation.count(index) > 0;
+                return any ? 1 : 0;
+            }
+            return filled[index];
+        }
+    }
+
+    /**
+     * Aggregates of one variable over the tiles of one level; {@code NaN} where a tile has
+     * no value. Level 0 shares the raster column for min, mean and max and has no counts.
+     */
+    private static final class Band {
+
+        private final float[] min;
+        private final float[] mean;
+        private final float[] max;
+        private final int[] counts;
+
+        private Band(float[] min, float[] mean, float[] max, int[] counts) {
+            this.min = min;
+            this.mean = mean;
+            this.max = max;
+            this.counts = counts;
+        }
+
+        static Band leaf(float[] values) {
+            return new Band(values, values, values, null);
+        }
+
+        static Band fromChildren(Band child, int childRows, int childColumns, int rows, int columns) {
+            float[] min = new float[rows * columns];
+            float[] mean = new float[rows * columns];
+            float[] max = new float[rows * columns];
+            int[] counts = new int[rows * columns];
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    float tileMin = Float.POSITIVE_INFINITY;
+                    float tileMax = Float.NEGATIVE_INFINITY;
+                    double sum = 0;
+                    int count = 0;
+                    for (int r = 2 * row; r <= Math.min(2 * row + 1, childRows - 1); r++) {
+                        for (int c = 2 * column; c <= Math.min(2 * column + 1, childColumns - 1); c++) {
+                            int index = r * childColumns + c;
+                            int childCount = child.count(index);
+                            if (childCount > 0) {
+                                tileMin = Math.min(tileMin, child.min[index]);
+                                tileMax = Math.max(tileMax, child.max[index]);
+                                sum += (double) child.mean[index] * childCount;
+                                count += childCount;
+                            }
+                        }
+                    }
+                    int index = row * columns + column;
+                    min[index] = count > 0 ? tileMin : Float.NaN;
+                    mean[index] = count > 0 ? (float) (sum / count) : Float.NaN;
+                    max[index] = count > 0 ? tileMax : Float.NaN;
+                    counts[index] = count;
+                }
+            }
+            return new Band(min, mean, max, counts);
+        }
+
+        int count(int index) {
+            if (counts == null) {
+                return Float.isNaN(mean[index]) ? 0 : 1;
+            }
+            return counts[index];
+        }
+
+        Double min(int index) {
+            return value(min[index]);
+        }
+
+        Double mean(int index) {
+            return value(mean[index]);
+        }
+
+        Double max(int index) {
+            return value(max[index]);
+        }
+
+        private static Double value(float value) {
+            return Float.isNaN(value) ? null : (double) value;
+        }
+    }
+}
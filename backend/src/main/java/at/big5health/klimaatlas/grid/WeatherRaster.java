@@ -0,0 +1,234 @@
+package at.big5health.klimaatlas.grid;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable 1 km raster of daily weather values covering Austria for one date.
+ * <p>
+ * The raster consists of the native Spartacus pixels, i.e. the {@link GridUtil} cells, whose
+ * rows and columns cover the area {@link #MIN_LAT}..{@link #MAX_LAT} x
+ * {@link #MIN_LON}..{@link #MAX_LON}. Values are stored as {@code float} columns (minimum
+ * temperature, maximum temperature, precipitation) indexed by
+ * {@code (row - FIRST_ROW) * COLUMNS + (column - FIRST_COLUMN)}; {@code NaN} marks missing
+ * data. The whole country takes about 2 MB per date, plus about 3 MB for the
+ * {@link WeatherPyramid} of coarser aggregates built with it.
+ * <p>
+ * Spartacus delivers one point per pixel, at the pixel center. Each point is stored in the
+ * cell that contains it, so a lookup returns the same pixel as the per-cell path of
+ * {@link GridUtil#cellAt(double, double)} and its cache entry for the same coordinates.
+ *
+ * @see WeatherRasterStore
+ */
+public final class WeatherRaster {
+
+    public static final double MIN_LAT = 46.35;
+    public static final double MAX_LAT = 49.05;
+    public static final double MIN_LON = 9.50;
+    public static final double MAX_LON = 17.20;
+
+    static final int FIRST_ROW;
+    static final int FIRST_COLUMN;
+    static final int ROWS;
+    static final int COLUMNS;
+
+    static {
+        int[] range = cellRange(extent());
+        FIRST_ROW = range[0];
+        FIRST_COLUMN = range[1];
+        ROWS = range[2] - range[0] + 1;
+        COLUMNS = range[3] - range[1] + 1;
+    }
+
+    private final LocalDate date;
+    private final float[] minTemp;
+    private final float[] maxTemp;
+    private final float[] precipitation;
+    private final int filledCells;
+    private final WeatherPyramid pyramid;
+
+    private WeatherRaster(LocalDate date, float[] minTemp, float[] maxTemp, float[] precipitation, int filledCells) {
+        this.date = date;
+        this.minTemp = minTemp;
+        this.maxTemp = maxTemp;
+        this.precipitation = precipitation;
+        this.filledCells = filledCells;
+        this.pyramid = WeatherPyramid.build(minTemp, maxTemp, precipitation);
+    }
+
+    /**
+     * Daily values of one raster cell; {@code null} where the source had no value.
+     *
+     * @param minTemp       minimum temperature in &deg;C
+     * @param maxTemp       maximum temperature in &deg;C
+     * @param precipitation precipitation in mm
+     */
+    public record Cell(Double minTemp, Double maxTemp, Double precipitation) {
+    }
+
+    /**
+     * @param date the date the raster is built for
+     * @return a builder for an empty raster
+     */
+    public static Builder builder(LocalDate date) {
+        return new Builder(date);
+    }
+
+    /**
+     * Splits the raster extent into {@code rows x columns} bounding boxes for bulk downloads.
+     *
+     * @param rows    the number of tiles from south to north
+     * @param columns the number of tiles from west to east
+     * @return the tiles, row by row
+     */
+    public static List<BoundingBox> tiles(int rows, int columns) {
+        return extent().split(rows, columns);
+    }
+
+    /**
+     * @return the area covered by the raster
+     */
+    public static BoundingBox extent() {
+        return new BoundingBox(MIN_LAT, MIN_LON, MAX_LAT, MAX_LON);
+    }
+
+    /**
+     * @return the date the values belong to
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * @return the number of cells holding data
+     */
+    public int getFilledCells() {
+        return filledCells;
+    }
+
+    /**
+     * @return the min/mean/max aggregates of this raster for zoomed-out map views
+     */
+    public WeatherPyramid getPyramid() {
+        return pyramid;
+    }
+
+    /**
+     * Looks up the values for a point.
+     *
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return the values of the grid cell containing the point, empty if the point lies outside
+     *         the raster or the cell holds no data
+     */
+    public Optional<Cell> lookup(double latitude, double longitude) {
+        int index = index(GridUtil.cellAt(latitude, longitude));
+        if (index < 0 || !filled(index)) {
+            return Optional.empty();
+        }
+        return Optional.of(new Cell(value(minTemp[index]), value(maxTemp[index]), value(precipitation[index])));
+    }
+
+    /**
+     * The rectangle of grid cells overlapping a bounding box.
+     * <p>
+     * Meridians are straight in the projection, so the columns are bounded by the corners.
+     * Parallels are arcs bulging south, so the lowest row of the southern edge lies on the
+     * projection's central meridian if it crosses the box.
+     *
+     * @param bbox the bounding box
+     * @return {@code {minRow, minColumn, maxRow, maxColumn}}
+     */
+    static int[] cellRange(BoundingBox bbox) {
+        double centralLon = Math.clamp(Math.toDegrees(AustriaLambert.ORIGIN_LONGITUDE), bbox.getMinLon(),
+                bbox.getMaxLon());
+        long[] cells = {
+            GridUtil.cellAt(bbox.getMinLat(), bbox.getMinLon()), GridUtil.cellAt(bbox.getMinLat(), bbox.getMaxLon()),
+            GridUtil.cellAt(bbox.getMaxLat(), bbox.getMinLon()), GridUtil.cellAt(bbox.getMaxLat(), bbox.getMaxLon()),
+            GridUtil.cellAt(bbox.getMinLat(), centralLon)
+        };
+        int[] range = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        for (long cell : cells) {
+            range[0] = Math.min(range[0], GridUtil.row(cell));
+            range[1] = Math.min(range[1], GridUtil.column(cell));
+            range[2] = Math.max(range[2], GridUtil.row(cell));
+            range[3] = Math.max(range[3], GridUtil.column(cell));
+        }
+        return range;
+    }
+
+    private boolean filled(int index) {
+        return !Float.isNaN(minTemp[index]) || !Float.isNaN(maxTemp[index]) || !Float.isNaN(precipitation[index]);
+    }
+
+    private static Double value(float value) {
+        return Float.isNaN(value) ? null : (double) value;
+    }
+
+    /**
+     * The position of a grid cell in the value columns, or -1 if it lies outside the raster.
+     */
+    private static int index(long cell) {
+        int row = GridUtil.row(cell) - FIRST_ROW;
+        int column = GridUtil.column(cell) - FIRST_COLUMN;
+        return row >= 0 && row < ROWS && column >= 0 && column < COLUMNS ? row * COLUMNS + column : -1;
+    }
+
+    /**
+     * Collects points for one date. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private final LocalDate date;
+        private final float[] minTemp = nanArray();
+        private final float[] maxTemp = nanArray();
+        private final float[] precipitation = nanArray();
+        private final boolean[] filled = new boolean[ROWS * COLUMNS];
+        private int filledCells;
+
+        private Builder(LocalDate date) {
+            this.date = date;
+        }
+
+        /**
+         * Adds one source point, replacing the values of its cell if it already holds any.
+         * Points outside the raster are ignored.
+         *
+         * @param latitude      the latitude of the point
+         * @param longitude     the longitude of the point
+         * @param minTemp       minimum temperature, may be {@code null}
+         * @param maxTemp       maximum temperature, may be {@code null}
+         * @param precipitation precipitation, may be {@code null}
+         * @return this builder
+         */
+        public Builder add(double latitude, double longitude, Double minTemp, Double maxTemp, Double precipitation) {
+            int index = index(GridUtil.cellAt(latitude, longitude));
+            if (index < 0 || (minTemp == null && maxTemp == null && precipitation == null)) {
+                return this;
+            }
+            if (!filled[index]) {
+                filled[index] = true;
+                filledCells++;
+            }
+            this.minTemp[index] = minTemp != null ? minTemp.floatValue() : Float.NaN;
+            this.maxTemp[index] = maxTemp != null ? maxTemp.floatValue() : Float.NaN;
+            this.precipitation[index] = precipitation != null ? precipitation.floatValue() : Float.NaN;
+            return this;
+        }
+
+        /**
+         * @return the raster; the builder must not be used afterwards
+         */
+        public WeatherRaster build() {
+            return new WeatherRaster(date, minTemp, maxTemp, precipitation, filledCells);
+        }
+
+        private static float[] nanArray() {
+            float[] values = new float[ROWS * COLUMNS];
+            Arrays.fill(values, Float.NaN);
+            return values;
+        }
+    }
+}
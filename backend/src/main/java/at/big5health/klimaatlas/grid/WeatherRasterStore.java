@@ -0,0 +1,58 @@
+package at.big5health.klimaatlas.grid;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory store of the full-Austria {@link WeatherRaster}s built by the grid pre-cache.
+ * <p>
+ * Only the most recent {@code weather.grid-precache.retention-days} dates are kept; storing
+ * a newer raster drops the oldest ones. Rasters are immutable, so lookups never lock.
+ *
+ * @see at.big5health.klimaatlas.services.GridPreCacheService
+ */
+@Component
+public class WeatherRasterStore {
+
+    private final ConcurrentSkipListMap<LocalDate, WeatherRaster> rasters = new ConcurrentSkipListMap<>();
+
+    @Value("${weather.grid-precache.retention-days:3}")
+    private int retentionDays = 3;
+
+    /**
+     * Stores a raster, replacing any raster for the same date.
+     *
+     * @param raster the raster to store
+     */
+    public void put(WeatherRaster raster) {
+        rasters.put(raster.getDate(), raster);
+        while (rasters.size() > Math.max(1, retentionDays)) {
+            rasters.pollFirstEntry();
+        }
+    }
+
+    /**
+     * @param date the date to look up
+     * @return the raster for the date, if it has been pre-cached
+     */
+    public Optional<WeatherRaster> get(LocalDate date) {
+        return Optional.ofNullable(rasters.get(date));
+    }
+
+    /**
+     * Looks up the pre-cached values for a point and date.
+     *
+     * @param date      the date
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return the cell values, empty if the date is not pre-cached or the point has no data
+     */
+    public Optional<WeatherRaster.Cell> lookup(LocalDate date, double latitude, double longitude) {
+        WeatherRaster raster = rasters.get(date);
+        return raster != null ? raster.lookup(latitude, longitude) : Optional.empty();
+    }
+}
@@ -41,12 +41,23 @@ import java.util.function.Function;
 public class ExternalWeatherApiClient {
 
     private static final Logger LOG = LoggerFactory.getLogger(ExternalWeatherApiClient.class);
+
+    /**
+     * Timeout of single-cell requests.
+     */
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(15);
+
+    /**
+     * Maximum size of a buffered response; bulk requests for large regions return several megabytes.
+     */
+    private static final int MAX_RESPONSE_BYTES = 64 * 1024 * 1024;
+
     private final WebClient webClient;
     private final String spartacusBaseUrl;
 
     /**
      * Holds the most recently constructed URI, primarily for logging purposes within error handlers.
-     * This field is updated before each API call in {@link #fetchGridData(BoundingBox, LocalDate)}.
+     * This field is updated before each API call in {@link #fetchGridData(BoundingBox, LocalDate, LocalDate, Duration)}.
      */
     private String lastConstructedUri;
 
@@ -60,7 +71,9 @@ public class ExternalWeatherApiClient {
     public ExternalWeatherApiClient(
             WebClient.Builder webClientBuilder,
             @Value("${spartacus.api.baseUrl}") String spartacusBaseUrl) {
-        this.webClient = webClientBuilder.baseUrl(spartacusBaseUrl).build();
+        this.webClient = webClientBuilder.baseUrl(spartacusBaseUrl)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_RESPONSE_BYTES))
+                .build();
         this.spartacusBaseUrl = spartacusBaseUrl; // Also store for URI construction if needed elsewhere
     }
 
@@ -88,19 +101,36 @@ public class ExternalWeatherApiClient {
      *                              or an unexpected issue occurs during the reactive flow.
      */
     public Mono<SpartacusFeatureCollection> fetchGridData(BoundingBox bbox, LocalDate date) {
-        String dateString = date.format(DateTimeFormatter.ISO_DATE);
+        return fetchGridData(bbox, date, date, REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Fetches grid-based weather data for a bounding box and a range of days in one request.
+     * <p>
+     * Used by bulk jobs that download whole regions; each parameter of a returned feature
+     * carries one value per day, in date order. Responses may be large, so the caller
+     * chooses the timeout.
+     *
+     * @param bbox    The {@link BoundingBox} defining the geographical area of interest.
+     * @param start   The first day to fetch.
+     * @param end     The last day to fetch (inclusive).
+     * @param timeout How long to wait for the complete response.
+     * @return A {@link Mono} emitting the {@link SpartacusFeatureCollection}, or an
+     *         {@link ExternalApiException} error if the call fails or times out.
+     */
+    public Mono<SpartacusFeatureCollection> fetchGridData(BoundingBox bbox, LocalDate start, LocalDate end, Duration timeout) {
         String parameters = "TX,TN,RR"; // Max/Min Temp, Precipitation
 
-        // Store URI in the field for access in the handler
-        this.lastConstructedUri = UriComponentsBuilder.fromHttpUrl(spartacusBaseUrl)
-                .queryParam("start", dateString)
-                .queryParam("end", dateString)
+        String uri = UriComponentsBuilder.fromHttpUrl(spartacusBaseUrl)
+                .queryParam("start", start.format(DateTimeFormatter.ISO_DATE))
+                .queryParam("end", end.format(DateTimeFormatter.ISO_DATE))
                 .queryParam("bbox", bbox.toApiString())
                 .queryParam("parameters", parameters)
                 .queryParam("response_format", "geojson")
                 .toUriString();
+        this.lastConstructedUri = uri;
 
-        LOG.debug("Calling Spartacus API: {}", lastConstructedUri);
+        LOG.debug("Calling Spartacus API: {}", uri);
 
         // Define the error handling function
         Function<ClientResponse, Mono<? extends Throwable>> errorHandler = clientResponse ->
@@ -108,20 +138,20 @@ public class ExternalWeatherApiClient {
                         .defaultIfEmpty("[Empty or Unreadable Error Body from API]")
                         .flatMap(errorBody -> {
                             String errorMsg = String.format("Spartacus API Error %s for URI %s: %s",
-                                    clientResponse.statusCode(), this.lastConstructedUri, errorBody);
+                                    clientResponse.statusCode(), uri, errorBody);
                             LOG.error(errorMsg);
                             // Ensure the ExternalApiException uses a message from ErrorMessages
                             return Mono.error(new ExternalApiException(ErrorMessages.EXTERNAL_API_FAILURE));
                         });
 
         return this.webClient.get()
-                .uri(this.lastConstructedUri)
+                .uri(uri)
                 .retrieve()
                 .onStatus(HttpStatusCode::isError, errorHandler)
                 .bodyToMono(SpartacusFeatureCollection.class)
-                .timeout(Duration.ofSeconds(15), Mono.error(new ExternalApiException(ErrorMessages.EXTERNAL_API_TIMEOUT)))
+                .timeout(timeout, Mono.error(new ExternalApiException(ErrorMessages.EXTERNAL_API_TIMEOUT)))
                 .doOnError(e -> !(e instanceof ExternalApiException), ex -> // Log non-ExternalApiExceptions that might occur before onErrorMap
-                        LOG.error("Unexpected error during WebClient call to {}: {}", this.lastConstructedUri, ex.getMessage(), ex))
+                        LOG.error("Unexpected error during WebClient call to {}: {}", uri, ex.getMessage(), ex))
                 .onErrorMap(e -> !(e instanceof ExternalApiException), // Map other exceptions to ExternalApiException
                         e -> new ExternalApiException(ErrorMessages.EXTERNAL_API_FAILURE, e));
     }
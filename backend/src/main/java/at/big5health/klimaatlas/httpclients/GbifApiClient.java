@@ -0,0 +1,214 @@
+package at.big5health.klimaatlas.httpclients;
+
+import at.big5health.klimaatlas.dtos.gbif.GbifOccurrencePage;
+import at.big5health.klimaatlas.exceptions.ErrorMessages;
+import at.big5health.klimaatlas.exceptions.ExternalApiException;
+import at.big5health.klimaatlas.mosquito.OccurrenceBatch;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.function.Function;
+
+/**
+ * Client component for the GBIF occurrence search API.
+ * <p>
+ * Responses are not bound to a generic {@link java.util.Map}. Instead, the raw body is
+ * streamed chunk by chunk into a {@link GbifOccurrenceDecoder}, which extracts the
+ * fields needed by the application into an {@link OccurrenceBatch}. The base URL is
+ * injected from the {@code gbif.api.base-url} application property.
+ * <p>
+ * Larger result sets are harvested page by page ({@value #PAGE_SIZE} records per request,
+ * the maximum GBIF allows) until GBIF reports {@code endOfRecords}. An incremental harvest
+ * restricts the search to records GBIF has (re-)interpreted since a given watermark, so
+ * its cost depends on the change volume rather than on the total number of records.
+ * <p>
+ * HTTP errors, timeouts and malformed payloads are mapped to {@link ExternalApiException}.
+ *
+ * @see GbifOccurrenceDecoder
+ * @see OccurrenceBatch
+ */
+@Component
+public class GbifApiClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GbifApiClient.class);
+
+    /**
+     * GBIF taxon key of the Aedes genus.
+     */
+    private static final int AEDES_TAXON_KEY = 3346;
+
+    /**
+     * Maximum page size accepted by the GBIF occurrence search.
+     */
+    private static final int PAGE_SIZE = 300;
+
+    /**
+     * GBIF refuses search requests with an offset beyond this value.
+     */
+    private static final int MAX_OFFSET = 100_000;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final WebClient webClient;
+    private final String gbifBaseUrl;
+
+    /**
+     * Constructs a {@code GbifApiClient}.
+     *
+     * @param webClientBuilder The Spring {@link WebClient.Builder} used to construct the WebClient instance.
+     * @param gbifBaseUrl      The base URL of the GBIF API, injected from {@code gbif.api.base-url}.
+     */
+    public GbifApiClient(
+            WebClient.Builder webClientBuilder,
+            @Value("${gbif.api.base-url}") String gbifBaseUrl) {
+        this.webClient = webClientBuilder.build();
+        this.gbifBaseUrl = gbifBaseUrl;
+    }
+
+    /**
+     * Fetches all Aedes occurrences with coordinates in Austria for the given year,
+     * following GBIF's paging until the last page has been read.
+     *
+     * @param year the year the occurrences were recorded in
+     * @return a {@link Mono} emitting the decoded occurrences of all pages, or an
+     *         {@link ExternalApiException} if a request fails, times out or a payload
+     *         cannot be decoded
+     */
+    public Mono<OccurrenceBatch> fetchOccurrences(int year) {
+        return fetchOccurrences(year, null).map(GbifOccurrencePage::occurrences);
+    }
+
+    /**
+     * Fetches the Aedes occurrences with coordinates in Austria for the given year that
+     * GBIF has interpreted since the given watermark, following GBIF's paging until the
+     * last page has been read.
+     * <p>
+     * GBIF filters {@code lastInterpreted} by day, so records interpreted earlier on the
+     * watermark's day are returned again. Callers merge the result by GBIF occurrence key,
+     * which makes this overlap harmless.
+     *
+     * @param year          the year the occurrences were recorded in
+     * @param modifiedSince the sync watermark, or {@code null} to fetch all occurrences
+     * @return a {@link Mono} emitting all pages combined into one, carrying the latest
+     *         {@code lastInterpreted} timestamp seen, or an {@link ExternalApiException}
+     *         if a request fails, times out or a payload cannot be decoded
+     */
+    public Mono<GbifOccurrencePage> fetchOccurrences(int year, Instant modifiedSince) {
+        return fetchOccurrencePage(year, modifiedSince, 0)
+                .expand(page -> isLastPage(page)
+                        ? Mono.empty()
+                        : fetchOccurrencePage(year, modifiedSince, page.offset() + PAGE_SIZE))
+                .map(OffsetPage::page)
+                .reduce(GbifApiClient::combine);
+    }
+
+    private Mono<OffsetPage> fetchOccurrencePage(int year, Instant modifiedSince, int offset) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(gbifBaseUrl)
+                .path("/occurrence/search")
+                .queryParam("country", "AT")
+                .queryParam("taxon_key", AEDES_TAXON_KEY)
+                .queryParam("hasCoordinate", true)
+                .queryParam("limit", PAGE_SIZE)
+                .queryParam("offset", offset)
+                .queryParam("year", year);
+        if (modifiedSince != null) {
+            LocalDate since = LocalDate.ofInstant(modifiedSince, ZoneOffset.UTC);
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            builder.queryParam("lastInterpreted", since + "," + (since.isAfter(today) ? since : today));
+        }
+        String uri = builder.toUriString();
+
+        return fetchPage(uri).map(page -> new OffsetPage(offset, page));
+    }
+
+    private Mono<GbifOccurrencePage> fetchPage(String uri) {
+        LOG.debug("Calling GBIF API: {}", uri);
+
+        Function<ClientResponse, Mono<? extends Throwable>> errorHandler = clientResponse ->
+                clientResponse.bodyToMono(String.class)
+                        .defaultIfEmpty("[Empty or Unreadable Error Body from API]")
+                        .flatMap(errorBody -> {
+                            LOG.error("GBIF API Error {} for URI {}: {}", clientResponse.statusCode(), uri, errorBody);
+                            return Mono.error(new ExternalApiException(ErrorMessages.OCCURRENCE_API_FAILURE));
+                        });
+
+        return webClient.get()
+                .uri(uri)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, errorHandler)
+                .bodyToFlux(DataBuffer.class)
+                .reduceWith(GbifApiClient::newDecoder, GbifApiClient::decodeChunk)
+                .map(GbifApiClient::finish)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .timeout(Duration.ofSeconds(30), Mono.error(new ExternalApiException(ErrorMessages.EXTERNAL_API_TIMEOUT)))
+                .onErrorMap(e -> !(e instanceof ExternalApiException),
+                        e -> new ExternalApiException(ErrorMessages.OCCURRENCE_API_FAILURE, e));
+    }
+
+    private static boolean isLastPage(OffsetPage page) {
+        return page.page().endOfRecords()
+                || page.page().recordCount() < PAGE_SIZE
+                || page.offset() + PAGE_SIZE >= MAX_OFFSET;
+    }
+
+    private static GbifOccurrencePage combine(GbifOccurrencePage first, GbifOccurrencePage next) {
+        first.occurrences().addAll(next.occurrences());
+        Instant lastInterpreted = first.lastInterpreted();
+        if (lastInterpreted == null
+                || (next.lastInterpreted() != null && next.lastInterpreted().isAfter(lastInterpreted))) {
+            lastInterpreted = next.lastInterpreted();
+        }
+        return new GbifOccurrencePage(first.occurrences(), first.recordCount() + next.recordCount(),
+                next.endOfRecords(), lastInterpreted);
+    }
+
+    private static GbifOccurrenceDecoder newDecoder() {
+        try {
+            return new GbifOccurrenceDecoder(JSON_FACTORY);
+        } catch (IOException e) {
+            throw new ExternalApiException(ErrorMessages.OCCURRENCE_API_FAILURE, e);
+        }
+    }
+
+    private static GbifOccurrenceDecoder decodeChunk(GbifOccurrenceDecoder decoder, DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+            while (chunks.hasNext()) {
+                decoder.feed(chunks.next());
+            }
+        } catch (IOException e) {
+            throw new ExternalApiException(ErrorMessages.OCCURRENCE_API_FAILURE, e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        return decoder;
+    }
+
+    private static GbifOccurrencePage finish(GbifOccurrenceDecoder decoder) {
+        try {
+            return decoder.finish();
+        } catch (IOException e) {
+            throw new ExternalApiException(ErrorMessages.OCCURRENCE_API_FAILURE, e);
+        }
+    }
+
+    /**
+     * A decoded page together with the offset it was requested at.
+     */
+    private record OffsetPage(int offset, GbifOccurrencePage page) {
+    }
+}
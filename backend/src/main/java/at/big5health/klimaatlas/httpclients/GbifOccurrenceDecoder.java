@@ -0,0 +1,240 @@
+package at.big5health.klimaatlas.httpclients;
+
+import at.big5health.klimaatlas.dtos.gbif.GbifOccurrencePage;
+import at.big5health.klimaatlas.mosquito.OccurrenceBatch;
+import at.big5health.klimaatlas.mosquito.OccurrenceDates;
+import at.big5health.klimaatlas.mosquito.SpeciesDictionary;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Incremental, typed decoder for GBIF {@code /occurrence/search} responses.
+ * <p>
+ * The decoder drives Jackson's non-blocking parser directly over the raw response bytes
+ * as they arrive and only picks the fields the application needs
+ * ({@code key}, {@code decimalLatitude}, {@code decimalLongitude}, {@code species},
+ * {@code eventDate} and {@code lastInterpreted}) out of every entry of the {@code results} array. All other fields,
+ * including nested objects and arrays, are skipped at token level without being
+ * materialised. Decoded values are written straight into the primitive columns of an
+ * {@link OccurrenceBatch}; event dates are converted to epoch days from the parser's
+ * character buffer without creating a string. The paging flag {@code endOfRecords} is read from the
+ * top-level object, and the latest {@code lastInterpreted} timestamp of the page is
+ * reported as the page's sync watermark.
+ * <p>
+ * Coordinates are read with {@link JsonParser#getDoubleValue()}, so integral values such
+ * as {@code "decimalLatitude": 47} are accepted. Records without both coordinates are
+ * dropped.
+ * <p>
+ * A decoder instance handles exactly one response and is not thread-safe.
+ *
+ * @see OccurrenceBatch
+ * @see GbifApiClient
+ */
+public class GbifOccurrenceDecoder {
+
+    private static final String RESULTS = "results";
+    private static final String KEY = "key";
+    private static final String LAST_INTERPRETED = "lastInterpreted";
+    private static final String END_OF_RECORDS = "endOfRecords";
+    private static final String LATITUDE = "decimalLatitude";
+    private static final String LONGITUDE = "decimalLongitude";
+    private static final String SPECIES = "species";
+    private static final String EVENT_DATE = "eventDate";
+
+    /**
+     * Structural position of the parser within the response document.
+     */
+    private enum State { BEFORE_ROOT, ROOT, RESULTS, RECORD, DONE }
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final OccurrenceBatch batch = new OccurrenceBatch();
+
+    private State state = State.BEFORE_ROOT;
+    private int skipDepth;
+    private String rootField;
+    private String recordField;
+    private int recordCount;
+    private boolean endOfRecords;
+    private Instant lastInterpreted;
+
+    private long gbifId;
+    private boolean hasLatitude;
+    private boolean hasLongitude;
+    private double latitude;
+    private double longitude;
+    private String species;
+    private int eventDay;
+
+    /**
+     * Creates a decoder for a single response.
+     *
+     * @param jsonFactory the factory used to create the non-blocking parser
+     * @throws IOException if the parser cannot be created
+     */
+    public GbifOccurrenceDecoder(JsonFactory jsonFactory) throws IOException {
+        this.parser = jsonFactory.createNonBlockingByteBufferParser();
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Feeds the next chunk of the response body and decodes every token that is
+     * complete so far. The buffer is fully consumed when this method returns.
+     *
+     * @param chunk the next chunk of the response body
+     * @throws IOException if the content is not valid JSON
+     */
+    public void feed(ByteBuffer chunk) throws IOException {
+        feeder.feedInput(chunk);
+        drain();
+    }
+
+    /**
+     * Signals the end of the response body and returns the decoded page.
+     *
+     * @return the decoded page; without occurrences if the body was empty
+     * @throws IOException if the body ended before the document was complete
+     */
+    public GbifOccurrencePage finish() throws IOException {
+        feeder.endOfInput();
+        drain();
+        if (state != State.DONE && state != State.BEFORE_ROOT) {
+            throw new JsonParseException(parser, "Unexpected end of GBIF occurrence response");
+        }
+        parser.close();
+        return new GbifOccurrencePage(batch, recordCount, endOfRecords, lastInterpreted);
+    }
+
+    private void drain() throws IOException {
+        JsonToken token = parser.nextToken();
+        while (token != null && token != JsonToken.NOT_AVAILABLE) {
+            handle(token);
+            token = parser.nextToken();
+        }
+    }
+
+    private void handle(JsonToken token) throws IOException {
+        if (skipDepth > 0) {
+            if (token.isStructStart()) {
+                skipDepth++;
+            } else if (token.isStructEnd()) {
+                skipDepth--;
+            }
+            return;
+        }
+
+        switch (state) {
+            case BEFORE_ROOT -> handleBeforeRoot(token);
+            case ROOT -> handleRoot(token);
+            case RESULTS -> handleResults(token);
+            case RECORD -> handleRecord(token);
+            case DONE -> throw new JsonParseException(parser, "Unexpected content after GBIF occurrence response");
+        }
+    }
+
+    private void handleBeforeRoot(JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "GBIF occurrence response must be a JSON object");
+        }
+        state = State.ROOT;
+    }
+
+    private void handleRoot(JsonToken token) throws IOException {
+        if (token == JsonToken.FIELD_NAME) {
+            rootField = parser.currentName();
+        } else if (token == JsonToken.START_ARRAY && RESULTS.equals(rootField)) {
+            state = State.RESULTS;
+        } else if (token.isStructStart()) {
+            skipDepth = 1;
+        } else if (token.isBoolean() && END_OF_RECORDS.equals(rootField)) {
+            endOfRecords = token == JsonToken.VALUE_TRUE;
+        } else if (token == JsonToken.END_OBJECT) {
+            state = State.DONE;
+        }
+    }
+
+    private void handleResults(JsonToken token) {
+        if (token == JsonToken.START_OBJECT) {
+            startRecord();
+        } else if (token == JsonToken.START_ARRAY) {
+            skipDepth = 1;
+        } else if (token == JsonToken.END_ARRAY) {
+            state = State.ROOT;
+        }
+    }
+
+    private void handleRecord(JsonToken token) throws IOException {
+        switch (token) {
+            case FIELD_NAME -> recordField = parser.currentName();
+            case START_OBJECT, START_ARRAY -> skipDepth = 1;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> readNumber();
+            case VALUE_STRING -> readString();
+            case END_OBJECT -> endRecord();
+            default -> {
+                // booleans and nulls carry nothing we need
+            }
+        }
+    }
+
+    private void readNumber() throws IOException {
+        if (KEY.equals(recordField)) {
+            gbifId = parser.getLongValue();
+        } else if (LATITUDE.equals(recordField)) {
+            latitude = parser.getDoubleValue();
+            hasLatitude = true;
+        } else if (LONGITUDE.equals(recordField)) {
+            longitude = parser.getDoubleValue();
+            hasLongitude = true;
+        }
+    }
+
+    private void readString() throws IOException {
+        if (SPECIES.equals(recordField)) {
+            species = parser.getText();
+        } else if (EVENT_DATE.equals(recordField)) {
+            eventDay = OccurrenceDates.toEventDay(
+                    CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()));
+        } else if (LAST_INTERPRETED.equals(recordField)) {
+            readLastInterpreted(parser.getText());
+        }
+    }
+
+    private void readLastInterpreted(String text) {
+        try {
+            Instant interpreted = OffsetDateTime.parse(text).toInstant();
+            if (lastInterpreted == null || interpreted.isAfter(lastInterpreted)) {
+                lastInterpreted = interpreted;
+            }
+        } catch (DateTimeParseException e) {
+            // an unreadable timestamp only means the watermark does not advance
+        }
+    }
+
+    private void startRecord() {
+        state = State.RECORD;
+        recordCount++;
+        recordField = null;
+        gbifId = OccurrenceBatch.UNKNOWN_ID;
+        hasLatitude = false;
+        hasLongitude = false;
+        species = null;
+        eventDay = OccurrenceDates.UNKNOWN;
+    }
+
+    private void endRecord() {
+        if (hasLatitude && hasLongitude) {
+            batch.add(gbifId, latitude, longitude, SpeciesDictionary.shared().encode(species), eventDay);
+        }
+        state = State.RESULTS;
+    }
+}
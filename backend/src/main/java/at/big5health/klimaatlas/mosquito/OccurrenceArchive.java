@@ -0,0 +1,346 @@
+package at.big5health.klimaatlas.mosquito;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Local, append-only columnar archive of mosquito occurrences from past years.
+ * <p>
+ * Past years do not change anymore, so they are harvested from GBIF once and sealed
+ * into the archive instead of being downloaded again. The archive consists of two files
+ * in the directory configured by {@code mosquito.archive.path}:
+ * <ul>
+ *     <li>{@code species.dict}: the species dictionary, one UTF-8 name per line. The line
+ *     number is the species code used in the occurrence columns.</li>
+ *     <li>{@code occurrences.col}: a sequence of segments, one per year. A segment starts
+ *     with a header ({@code magic}, {@code year}, {@code count}) followed by four
+ *     little-endian columns of {@code count} entries each: latitude ({@code float}),
+ *     longitude ({@code float}), species code ({@code int}, {@code -1} if unknown) and
+ *     event date as epoch day ({@code int}, see {@link OccurrenceDates}).</li>
+ * </ul>
+ * The occurrence file is memory-mapped read-only, so queries scan the columns directly
+ * without deserialising anything. Segments whose year lies outside the requested range
+ * are skipped without being touched. A segment left incomplete by an interrupted write
+ * is ignored and overwritten by the next append.
+ * <p>
+ * Appends are serialised; every append publishes a new immutable view with a single
+ * volatile write, so queries never lock.
+ *
+ * @see OccurrenceDates
+ * @see at.big5health.klimaatlas.services.MosquitoService
+ */
+@Component
+public class OccurrenceArchive {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OccurrenceArchive.class);
+
+    static final String OCCURRENCE_FILE = "occurrences.col";
+    static final String SPECIES_FILE = "species.dict";
+
+    private static final int SEGMENT_MAGIC = 0x4B4C4D31; // "KLM1"
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int RECORD_BYTES = 2 * Float.BYTES + 2 * Integer.BYTES;
+    private static final int UNKNOWN_SPECIES = -1;
+
+    private final Path directory;
+
+    private volatile View view = View.EMPTY;
+
+    /**
+     * Constructs an {@code OccurrenceArchive}.
+     *
+     * @param directory the archive directory, injected from {@code mosquito.archive.path}
+     */
+    public OccurrenceArchive(@Value("${mosquito.archive.path:data/mosquito-archive}") Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Maps the archive files, if present. A missing archive is treated as empty.
+     *
+     * @throws UncheckedIOException if the archive exists but cannot be read
+     */
+    @PostConstruct
+    public synchronized void open() {
+        try {
+            view = load();
+            LOG.info("Opened mosquito occurrence archive at {} with years {}.", directory, view.years());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open mosquito occurrence archive at " + directory, e);
+        }
+    }
+
+    /**
+     * @return the years contained in the archive, in ascending order
+     */
+    public SortedSet<Integer> years() {
+        return Collections.unmodifiableSortedSet(view.years());
+    }
+
+    /**
+     * Seals the occurrences of one year into the archive. Years that are already
+     * archived are left untouched.
+     *
+     * @param year        the year the occurrences were recorded in
+     * @param occurrences the complete occurrences of that year
+     * @return {@code true} if the year was appended, {@code false} if it was already archived
+     * @throws UncheckedIOException if the archive cannot be written
+     */
+    public synchronized boolean append(int year, OccurrenceBatch occurrences) {
+        View current = view;
+        if (current.years().contains(year)) {
+            return false;
+        }
+        try {
+            Files.createDirectories(directory);
+            int[] speciesCodes = encodeSpecies(current, occurrences);
+            writeSegment(current.validBytes(), year, occurrences, speciesCodes);
+            view = load();
+            LOG.info("Archived {} mosquito occurrences for {}.", occurrences.size(), year);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append year " + year + " to the mosquito occurrence archive", e);
+        }
+    }
+
+    /**
+     * Scans the archive for occurrences within the given date range.
+     * <p>
+     * Occurrences without a usable event date are only returned if neither bound is
+     * given. Event dates are returned as ISO dates ({@code yyyy-MM-dd}).
+     *
+     * @param from    the first day to include, or {@code null} for no lower bound
+     * @param to      the last day to include, or {@code null} for no upper bound
+     * @param species the exact species name to filter by, or {@code null} for all species
+     * @return the matching occurrences
+     */
+    public OccurrenceBatch query(LocalDate from, LocalDate to, String species) {
+        View current = view;
+        OccurrenceBatch result = new OccurrenceBatch();
+        int speciesCode = UNKNOWN_SPECIES;
+        if (species != null) {
+            Integer code = current.speciesCodes().get(species);
+            if (code == null) {
+                return result;
+            }
+            speciesCode = code;
+        }
+        boolean dateFilter = from != null || to != null;
+        int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+        int fromYear = from != null ? from.getYear() : Integer.MIN_VALUE;
+        int toYear = to != null ? to.getYear() : Integer.MAX_VALUE;
+
+        // Archive codes are translated to the shared in-memory dictionary once per query.
+        int[] sharedCodes = new int[current.speciesNames().length];
+        for (int code = 0; code < sharedCodes.length; code++) {
+            sharedCodes[code] = SpeciesDictionary.shared().encode(current.speciesNames()[code]);
+        }
+
+        ByteBuffer data = current.data();
+        for (Segment segment : current.segments()) {
+            if (segment.year() < fromYear || segment.year() > toYear) {
+                continue;
+            }
+            int count = segment.count();
+            int latitudes = segment.offset();
+            int longitudes = latitudes + count * Float.BYTES;
+            int codes = longitudes + count * Float.BYTES;
+            int days = codes + count * Integer.BYTES;
+            for (int i = 0; i < count; i++) {
+                int day = data.getInt(days + i * Integer.BYTES);
+                if (dateFilter && !OccurrenceDates.overlaps(day, fromDay, toDay)) {
+                    continue;
+                }
+                int code = data.getInt(codes + i * Integer.BYTES);
+                if (species != null && code != speciesCode) {
+                    continue;
+                }
+                result.add(OccurrenceBatch.UNKNOWN_ID,
+                        data.getFloat(latitudes + i * Float.BYTES),
+                        data.getFloat(longitudes + i * Float.BYTES),
+                        code >= 0 && code < sharedCodes.length ? sharedCodes[code] : SpeciesDictionary.UNKNOWN,
+                        day);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Encodes the species of a batch with the codes of the dictionary file, appending the
+     * names it does not contain yet.
+     * <p>
+     * Codes are only assigned from the dictionary as read back after the write, so they
+     * always match the line numbers on disk, even if an earlier write failed halfway.
+     */
+    private int[] encodeSpecies(View current, OccurrenceBatch occurrences) throws IOException {
+        Set<String> added = new LinkedHashSet<>();
+        for (int i = 0; i < occurrences.size(); i++) {
+            String key = speciesKey(occurrences.species(i));
+            if (key != null && !current.speciesCodes().containsKey(key)) {
+                added.add(key);
+            }
+        }
+        Map<String, Integer> codes = current.speciesCodes();
+        if (!added.isEmpty()) {
+            // The dictionary is written before the segment referencing it, so a crash in
+            // between only leaves unused names behind.
+            appendSpecies(added);
+            codes = speciesCodes(readSpecies());
+        }
+        int[] result = new int[occurrences.size()];
+        for (int i = 0; i < occurrences.size(); i++) {
+            String key = speciesKey(occurrences.species(i));
+            Integer code = key != null ? codes.get(key) : null;
+            if (key != null && code == null) {
+                throw new IOException("Species '" + key + "' is missing from " + SPECIES_FILE + " after writing it");
+            }
+            result[i] = code != null ? code : UNKNOWN_SPECIES;
+        }
+        return result;
+    }
+
+    /**
+     * Appends names to the dictionary, starting on a new line if an interrupted write left
+     * the last line incomplete; the incomplete line remains as an unused name.
+     */
+    private void appendSpecies(Collection<String> names) throws IOException {
+        Path file = directory.resolve(SPECIES_FILE);
+        StringBuilder lines = new StringBuilder();
+        if (Files.exists(file) && Files.size(file) > 0) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer last = ByteBuffer.allocate(1);
+                channel.read(last, channel.size() - 1);
+                if (last.get(0) != '\n') {
+                    lines.append('\n');
+                }
+            }
+        }
+        for (String name : names) {
+            lines.append(name).append('\n');
+        }
+        Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String speciesKey(String name) {
+        return name == null || name.isBlank() ? null : name.replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static Map<String, Integer> speciesCodes(String[] names) {
+        Map<String, Integer> codes = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            codes.putIfAbsent(names[i], i);
+        }
+        return codes;
+    }
+
+    private void writeSegment(long position, int year, OccurrenceBatch occurrences, int[] speciesCodes)
+            throws IOException {
+        int count = occurrences.size();
+        ByteBuffer segment = ByteBuffer.allocate(HEADER_BYTES + count * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        segment.putInt(SEGMENT_MAGIC).putInt(year).putInt(count);
+        for (int i = 0; i < count; i++) {
+            segment.putFloat((float) occurrences.latitude(i));
+        }
+        for (int i = 0; i < count; i++) {
+            segment.putFloat((float) occurrences.longitude(i));
+        }
+        for (int code : speciesCodes) {
+            segment.putInt(code);
+        }
+        for (int i = 0; i < count; i++) {
+            segment.putInt(occurrences.eventDay(i));
+        }
+        segment.flip();
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(OCCURRENCE_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(position);
+            long offset = position;
+            while (segment.hasRemaining()) {
+                offset += channel.write(segment, offset);
+            }
+            channel.force(true);
+        }
+    }
+
+    private View load() throws IOException {
+        String[] names = readSpecies();
+        Map<String, Integer> codes = speciesCodes(names);
+
+        Path file = directory.resolve(OCCURRENCE_FILE);
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            return new View(ByteBuffer.allocate(0), new Segment[0], new TreeSet<>(), names, codes, 0);
+        }
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        SortedSet<Integer> years = new TreeSet<>();
+        int position = 0;
+        while (data.limit() - position >= HEADER_BYTES) {
+            int magic = data.getInt(position);
+            int year = data.getInt(position + Integer.BYTES);
+            int count = data.getInt(position + 2 * Integer.BYTES);
+            long end = position + HEADER_BYTES + (long) count * RECORD_BYTES;
+            if (magic != SEGMENT_MAGIC || count < 0 || end > data.limit()) {
+                LOG.warn("Ignoring incomplete mosquito archive segment at byte {} of {}.", position, file);
+                break;
+            }
+            segments.add(new Segment(year, count, position + HEADER_BYTES));
+            years.add(year);
+            position = (int) end;
+        }
+        return new View(data, segments.toArray(new Segment[0]), years, names, codes, position);
+    }
+
+    private String[] readSpecies() throws IOException {
+        Path file = directory.resolve(SPECIES_FILE);
+        if (!Files.exists(file)) {
+            return new String[0];
+        }
+        return Files.readAllLines(file, StandardCharsets.UTF_8).toArray(new String[0]);
+    }
+
+    /**
+     * Location of one year's columns within the mapped occurrence file.
+     */
+    private record Segment(int year, int count, int offset) {
+    }
+
+    /**
+     * Immutable view of the archive as of the last open or append.
+     */
+    private record View(ByteBuffer data, Segment[] segments, SortedSet<Integer> years,
+                        String[] speciesNames, Map<String, Integer> speciesCodes, long validBytes) {
+
+        static final View EMPTY = new View(ByteBuffer.allocate(0), new Segment[0], new TreeSet<>(),
+                new String[0], Map.of(), 0);
+    }
+}
@@ -0,0 +1,240 @@
+package at.big5health.klimaatlas.mosquito;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Column-oriented container for decoded mosquito occurrence records.
+ * <p>
+ * Instead of materialising one object (or one {@link java.util.Map}) per GBIF record,
+ * each field is appended to its own primitive array. Species names are stored as codes
+ * of the {@link SpeciesDictionary#shared() shared species dictionary} and event dates as
+ * event days, epoch days that also keep the precision of the date (see {@link OccurrenceDates}),
+ * so a record occupies 32 bytes regardless of how long its species name or date string is. Strings are only produced by
+ * {@link #species(int)} and {@link #eventDate(int)}, i.e. when a record is serialised.
+ * <p>
+ * Each record may carry its GBIF occurrence key ({@code gbifID}), which allows an
+ * incremental harvest to be {@linkplain #mergeById(OccurrenceBatch) merged} into an
+ * existing batch.
+ * <p>
+ * Instances are filled by {@link at.big5health.klimaatlas.httpclients.GbifOccurrenceDecoder}
+ * and are not thread-safe while being filled.
+ *
+ * @see at.big5health.klimaatlas.httpclients.GbifOccurrenceDecoder
+ */
+public class OccurrenceBatch {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Marker for a record without a GBIF occurrence key.
+     */
+    public static final long UNKNOWN_ID = -1L;
+
+    private final SpeciesDictionary dictionary = SpeciesDictionary.shared();
+
+    private long[] gbifIds;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int[] speciesCodes;
+    private int[] eventDays;
+    private int size;
+
+    /**
+     * Creates an empty batch with a small default capacity.
+     */
+    public OccurrenceBatch() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty batch with the given initial capacity.
+     *
+     * @param initialCapacity the number of records the columns can hold before growing
+     */
+    public OccurrenceBatch(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.gbifIds = new long[capacity];
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.speciesCodes = new int[capacity];
+        this.eventDays = new int[capacity];
+    }
+
+    /**
+     * Appends a single occurrence to the batch.
+     *
+     * @param latitude  the latitude in decimal degrees
+     * @param longitude the longitude in decimal degrees
+     * @param speciesName the species name, or {@code null} if unknown
+     * @param eventDate the event date as reported by GBIF, or {@code null} if unknown
+     */
+    public void add(double latitude, double longitude, String speciesName, String eventDate) {
+        add(UNKNOWN_ID, latitude, longitude, speciesName, eventDate);
+    }
+
+    /**
+     * Appends a single occurrence with its GBIF occurrence key to the batch.
+     *
+     * @param gbifId      the GBIF occurrence key, or {@link #UNKNOWN_ID}
+     * @param latitude    the latitude in decimal degrees
+     * @param longitude   the longitude in decimal degrees
+     * @param speciesName the species name, or {@code null} if unknown
+     * @param eventDate   the event date as reported by GBIF, or {@code null} if unknown
+     */
+    public void add(long gbifId, double latitude, double longitude, String speciesName, String eventDate) {
+        add(gbifId, latitude, longitude, dictionary.encode(speciesName), OccurrenceDates.toEventDay(eventDate));
+    }
+
+    /**
+     * Appends a single, already encoded occurrence to the batch.
+     *
+     * @param gbifId      the GBIF occurrence key, or {@link #UNKNOWN_ID}
+     * @param latitude    the latitude in decimal degrees
+     * @param longitude   the longitude in decimal degrees
+     * @param speciesCode the code of the species in the shared {@link SpeciesDictionary}
+     * @param eventDay    the event date as event day (see {@link OccurrenceDates}), or {@link OccurrenceDates#UNKNOWN}
+     */
+    public void add(long gbifId, double latitude, double longitude, int speciesCode, int eventDay) {
+        if (size == latitudes.length) {
+            grow();
+        }
+        gbifIds[size] = gbifId;
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        speciesCodes[size] = speciesCode;
+        eventDays[size] = eventDay;
+        size++;
+    }
+
+    /**
+     * Appends all records of another batch to this one.
+     *
+     * @param other the batch to copy records from
+     */
+    public void addAll(OccurrenceBatch other) {
+        for (int i = 0; i < other.size; i++) {
+            copy(other, i);
+        }
+    }
+
+    /**
+     * Appends a single record of another batch to this one.
+     *
+     * @param other the batch to copy the record from
+     * @param index the index of the record in {@code other}
+     */
+    public void add(OccurrenceBatch other, int index) {
+        copy(other, other.checkIndex(index));
+    }
+
+    /**
+     * Returns a new batch in which the records of {@code changes} replace the records of
+     * this batch with the same GBIF occurrence key. Records of this batch that were not
+     * changed are kept in their original order, followed by all changed records.
+     * Neither batch is modified.
+     *
+     * @param changes the changed or added records
+     * @return the merged batch
+     */
+    public OccurrenceBatch mergeById(OccurrenceBatch changes) {
+        Set<Long> changedIds = new HashSet<>(changes.size * 2);
+        for (int i = 0; i < changes.size; i++) {
+            if (changes.gbifIds[i] != UNKNOWN_ID) {
+                changedIds.add(changes.gbifIds[i]);
+            }
+        }
+        OccurrenceBatch merged = new OccurrenceBatch(size + changes.size);
+        for (int i = 0; i < size; i++) {
+            if (gbifIds[i] == UNKNOWN_ID || !changedIds.contains(gbifIds[i])) {
+                merged.copy(this, i);
+            }
+        }
+        merged.addAll(changes);
+        return merged;
+    }
+
+    /**
+     * @return the number of records in this batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if the batch holds no records
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index the record index
+     * @return the GBIF occurrence key, or {@link #UNKNOWN_ID} if the record did not carry one
+     */
+    public long gbifId(int index) {
+        return gbifIds[checkIndex(index)];
+    }
+
+    public double latitude(int index) {
+        return latitudes[checkIndex(index)];
+    }
+
+    public double longitude(int index) {
+        return longitudes[checkIndex(index)];
+    }
+
+    /**
+     * @param index the record index
+     * @return the species name, or {@code null} if the record did not carry one
+     */
+    public String species(int index) {
+        return dictionary.decode(speciesCodes[checkIndex(index)]);
+    }
+
+    /**
+     * @param index the record index
+     * @return the species code in the shared {@link SpeciesDictionary}, or {@link SpeciesDictionary#UNKNOWN}
+     */
+    public int speciesCode(int index) {
+        return speciesCodes[checkIndex(index)];
+    }
+
+    /**
+     * @param index the record index
+     * @return the event date as ISO date in the precision GBIF reported it ({@code yyyy-MM-dd},
+     *         {@code yyyy-MM} or {@code yyyy}), or {@code null} if the record did not carry a usable one
+     */
+    public String eventDate(int index) {
+        return OccurrenceDates.format(eventDays[checkIndex(index)]);
+    }
+
+    /**
+     * @param index the record index
+     * @return the event date as event day (see {@link OccurrenceDates}), or {@link OccurrenceDates#UNKNOWN}
+     */
+    public int eventDay(int index) {
+        return eventDays[checkIndex(index)];
+    }
+
+    private void copy(OccurrenceBatch other, int i) {
+        add(other.gbifIds[i], other.latitudes[i], other.longitudes[i], other.speciesCodes[i], other.eventDays[i]);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+    private void grow() {
+        int capacity = latitudes.length * 2;
+        gbifIds = Arrays.copyOf(gbifIds, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        speciesCodes = Arrays.copyOf(speciesCodes, capacity);
+        eventDays = Arrays.copyOf(eventDays, capacity);
+    }
+}
@@ -0,0 +1,174 @@
+package at.big5health.klimaatlas.mosquito;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Persists the current year's harvest together with its sync watermark.
+ * <p>
+ * Without a checkpoint every restart would have to download the whole year again before
+ * an incremental harvest is possible. The checkpoint is written to
+ * {@code current.bin} in the directory configured by {@code mosquito.archive.path}
+ * after every refresh. Last year's harvest, while it is not sealed into the
+ * {@link OccurrenceArchive} yet, is kept the same way in {@code previous.bin}. Both are
+ * first written to a temporary file and then moved into place, so a crash never leaves a
+ * half-written checkpoint behind.
+ *
+ * @see OccurrenceStore
+ * @see at.big5health.klimaatlas.services.MosquitoService
+ */
+@Component
+public class OccurrenceCheckpoint {
+
+    static final String CHECKPOINT_FILE = "current.bin";
+    static final String PREVIOUS_SEASON_FILE = "previous.bin";
+
+    private static final int MAGIC = 0x4B4C4D44; // "KLMD"
+    private static final long NO_WATERMARK = Long.MIN_VALUE;
+
+    private final Path directory;
+
+    /**
+     * Restored checkpoint contents.
+     *
+     * @param year        the year the occurrences were recorded in
+     * @param occurrences the occurrences
+     * @param syncedUpTo  the sync watermark, or {@code null} if unknown
+     */
+    public record State(int year, OccurrenceBatch occurrences, Instant syncedUpTo) {
+    }
+
+    /**
+     * Constructs an {@code OccurrenceCheckpoint}.
+     *
+     * @param directory the directory to store the checkpoint in, injected from {@code mosquito.archive.path}
+     */
+    public OccurrenceCheckpoint(@Value("${mosquito.archive.path:data/mosquito-archive}") Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Writes the given snapshot as the new checkpoint.
+     *
+     * @param snapshot the snapshot to persist
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     */
+    public synchronized void save(OccurrenceStore.Snapshot snapshot) {
+        write(CHECKPOINT_FILE, new State(snapshot.year(), snapshot.occurrences(), snapshot.syncedUpTo()));
+    }
+
+    /**
+     * Reads the checkpoint, if one exists.
+     *
+     * @return the restored state, or an empty {@link Optional} if there is no checkpoint
+     * @throws UncheckedIOException if the checkpoint exists but cannot be read
+     */
+    public synchronized Optional<State> load() {
+        return read(CHECKPOINT_FILE);
+    }
+
+    /**
+     * Writes last year's harvest, which is not sealed yet, as the previous season checkpoint.
+     *
+     * @param season the harvest to persist
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     */
+    public synchronized void savePreviousSeason(State season) {
+        write(PREVIOUS_SEASON_FILE, season);
+    }
+
+    /**
+     * Reads the previous season checkpoint, if one exists.
+     *
+     * @return the restored state, or an empty {@link Optional} if there is no checkpoint
+     * @throws UncheckedIOException if the checkpoint exists but cannot be read
+     */
+    public synchronized Optional<State> loadPreviousSeason() {
+        return read(PREVIOUS_SEASON_FILE);
+    }
+
+    /**
+     * Deletes the previous season checkpoint once the season has been sealed.
+     *
+     * @throws UncheckedIOException if the checkpoint cannot be deleted
+     */
+    public synchronized void deletePreviousSeason() {
+        try {
+            Files.deleteIfExists(directory.resolve(PREVIOUS_SEASON_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete mosquito previous season checkpoint in " + directory, e);
+        }
+    }
+
+    private void write(String fileName, State state) {
+        OccurrenceBatch batch = state.occurrences();
+        try {
+            Files.createDirectories(directory);
+            Path temporary = directory.resolve(fileName + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(state.year());
+                out.writeLong(state.syncedUpTo() != null ? state.syncedUpTo().toEpochMilli() : NO_WATERMARK);
+                out.writeInt(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    out.writeLong(batch.gbifId(i));
+                    out.writeDouble(batch.latitude(i));
+                    out.writeDouble(batch.longitude(i));
+                    writeNullable(out, batch.species(i));
+                    out.writeInt(batch.eventDay(i));
+                }
+            }
+            Files.move(temporary, directory.resolve(fileName),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write mosquito occurrence checkpoint to " + directory, e);
+        }
+    }
+
+    private Optional<State> read(String fileName) {
+        Path file = directory.resolve(fileName);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a mosquito occurrence checkpoint: " + file);
+            }
+            int year = in.readInt();
+            long watermark = in.readLong();
+            int count = in.readInt();
+            OccurrenceBatch batch = new OccurrenceBatch(count);
+            for (int i = 0; i < count; i++) {
+                batch.add(in.readLong(), in.readDouble(), in.readDouble(),
+                        SpeciesDictionary.shared().encode(readNullable(in)), in.readInt());
+            }
+            Instant syncedUpTo = watermark != NO_WATERMARK ? Instant.ofEpochMilli(watermark) : null;
+            return Optional.of(new State(year, batch, syncedUpTo));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read mosquito occurrence checkpoint " + file, e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,281 @@
+package at.big5health.klimaatlas.mosquito;
+
+import at.big5health.klimaatlas.dtos.MosquitoClusterDTO;
+import at.big5health.klimaatlas.grid.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, hierarchical grid index that pre-aggregates mosquito occurrences into
+ * map clusters for every zoom level.
+ * <p>
+ * Occurrences are projected to Web Mercator, the projection used by Leaflet. At zoom
+ * level {@code z} the world is divided into {@code 2^z * 256 / }{@value #CELL_SIZE_PX}
+ * cells per axis, i.e. one cell covers {@value #CELL_SIZE_PX}x{@value #CELL_SIZE_PX}
+ * screen pixels. The finest level ({@value #MAX_CLUSTER_ZOOM}) is aggregated from the
+ * points, every coarser level from its four child cells, so building the whole pyramid
+ * is linear in the number of occurrences.
+ * <p>
+ * Each level is stored as a sorted array of cell keys ({@code column << 32 | row})
+ * with parallel arrays for count and centroid. A bounding box query therefore returns
+ * at most one cluster per visible cell, which keeps the response size proportional to
+ * the screen resolution instead of the number of occurrences. Above
+ * {@value #MAX_CLUSTER_ZOOM} the individual occurrences are returned.
+ *
+ * @see MosquitoClusterDTO
+ * @see OccurrenceStore
+ */
+public final class OccurrenceClusterIndex {
+
+    /**
+     * Highest zoom level for which clusters are pre-aggregated.
+     */
+    public static final int MAX_CLUSTER_ZOOM = 16;
+
+    /**
+     * Edge length of a cluster cell in screen pixels.
+     */
+    private static final int CELL_SIZE_PX = 64;
+
+    /**
+     * log2(256 / CELL_SIZE_PX): number of extra subdivisions of a map tile.
+     */
+    private static final int CELLS_PER_TILE_SHIFT = 2;
+
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+
+    private final OccurrenceBatch occurrences;
+    private final Level[] levels;
+
+    private OccurrenceClusterIndex(OccurrenceBatch occurrences, Level[] levels) {
+        this.occurrences = occurrences;
+        this.levels = levels;
+    }
+
+    /**
+     * Builds the cluster pyramid for the given occurrences.
+     *
+     * @param occurrences the occurrences to index; must not be modified afterwards
+     * @return the index
+     */
+    public static OccurrenceClusterIndex build(OccurrenceBatch occurrences) {
+        Level[] levels = new Level[MAX_CLUSTER_ZOOM + 1];
+        levels[MAX_CLUSTER_ZOOM] = Level.fromPoints(occurrences, MAX_CLUSTER_ZOOM);
+        for (int zoom = MAX_CLUSTER_ZOOM - 1; zoom >= 0; zoom--) {
+            levels[zoom] = Level.fromChildren(levels[zoom + 1]);
+        }
+        return new OccurrenceClusterIndex(occurrences, levels);
+    }
+
+    /**
+     * Returns the clusters visible in the given bounding box at the given zoom level.
+     * <p>
+     * Clusters containing a single occurrence carry its species and event date.
+     *
+     * @param bbox the visible map area
+     * @param zoom the map zoom level (0 or greater)
+     * @return the clusters whose cells intersect the bounding box
+     */
+    public List<MosquitoClusterDTO> query(BoundingBox bbox, int zoom) {
+        if (zoom > MAX_CLUSTER_ZOOM) {
+            return queryPoints(bbox);
+        }
+        Level level = levels[Math.max(0, zoom)];
+        int cells = 1 << (level.zoom + CELLS_PER_TILE_SHIFT);
+        int minColumn = cell(mercatorX(bbox.getMinLon()), cells);
+        int maxColumn = cell(mercatorX(bbox.getMaxLon()), cells);
+        int minRow = cell(mercatorY(bbox.getMaxLat()), cells);
+        int maxRow = cell(mercatorY(bbox.getMinLat()), cells);
+
+        List<MosquitoClusterDTO> result = new ArrayList<>();
+        long columns = (long) maxColumn - minColumn + 1;
+        if (columns > level.keys.length) {
+            // Very wide box at a deep zoom level: scanning all cells is cheaper.
+            for (int i = 0; i < level.keys.length; i++) {
+                int column = (int) (level.keys[i] >>> 32);
+                int row = (int) level.keys[i];
+                if (column >= minColumn && column <= maxColumn && row >= minRow && row <= maxRow) {
+                    result.add(toCluster(level, i));
+                }
+            }
+            return result;
+        }
+
+        for (int column = minColumn; column <= maxColumn; column++) {
+            long upper = key(column, maxRow);
+            int i = lowerBound(level.keys, key(column, minRow));
+            while (i < level.keys.length && level.keys[i] <= upper) {
+                result.add(toCluster(level, i));
+                i++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of indexed occurrences
+     */
+    public int size() {
+        return occurrences.size();
+    }
+
+    private List<MosquitoClusterDTO> queryPoints(BoundingBox bbox) {
+        List<MosquitoClusterDTO> result = new ArrayList<>();
+        for (int i = 0; i < occurrences.size(); i++) {
+            double lat = occurrences.latitude(i);
+            double lon = occurrences.longitude(i);
+            if (lat >= bbox.getMinLat() && lat <= bbox.getMaxLat()
+                    && lon >= bbox.getMinLon() && lon <= bbox.getMaxLon()) {
+                result.add(new MosquitoClusterDTO(lat, lon, 1, occurrences.species(i), occurrences.eventDate(i)));
+            }
+        }
+        return result;
+    }
+
+    private MosquitoClusterDTO toCluster(Level level, int i) {
+        int count = level.counts[i];
+        double lat = level.sumLatitudes[i] / count;
+        double lon = level.sumLongitudes[i] / count;
+        if (count == 1) {
+            int point = level.firstPoints[i];
+            return new MosquitoClusterDTO(lat, lon, 1, occurrences.species(point), occurrences.eventDate(point));
+        }
+        return new MosquitoClusterDTO(lat, lon, count, null, null);
+    }
+
+    private static int lowerBound(long[] keys, long key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static long key(int column, int row) {
+        return ((long) column << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    private static int cell(double normalized, int cells) {
+        int cell = (int) Math.floor(normalized * cells);
+        return Math.max(0, Math.min(cells - 1, cell));
+    }
+
+    private static double mercatorX(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    private static double mercatorY(double latitude) {
+        double lat = Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude));
+        double sin = Math.sin(Math.toRadians(lat));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    /**
+     * Aggregated cells of one zoom level, sorted by key.
+     */
+    private static final class Level {
+
+        private final int zoom;
+        private final long[] keys;
+        private final int[] counts;
+        private final double[] sumLatitudes;
+        private final double[] sumLongitudes;
+        private final int[] firstPoints;
+
+        private Level(int zoom, long[] keys, int[] counts, double[] sumLatitudes,
+                      double[] sumLongitudes, int[] firstPoints) {
+            this.zoom = zoom;
+            this.keys = keys;
+            this.counts = counts;
+            this.sumLatitudes = sumLatitudes;
+            this.sumLongitudes = sumLongitudes;
+            this.firstPoints = firstPoints;
+        }
+
+        static Level fromPoints(OccurrenceBatch occurrences, int zoom) {
+            int cells = 1 << (zoom + CELLS_PER_TILE_SHIFT);
+            Builder builder = new Builder(zoom, occurrences.size());
+            for (int i = 0; i < occurrences.size(); i++) {
+                double lat = occurrences.latitude(i);
+                double lon = occurrences.longitude(i);
+                long key = key(cell(mercatorX(lon), cells), cell(mercatorY(lat), cells));
+                builder.add(key, 1, lat, lon, i);
+            }
+            return builder.build();
+        }
+
+        static Level fromChildren(Level child) {
+            Builder builder = new Builder(child.zoom - 1, child.keys.length);
+            for (int i = 0; i < child.keys.length; i++) {
+                int column = (int) (child.keys[i] >>> 32);
+                int row = (int) child.keys[i];
+                builder.add(key(column >> 1, row >> 1), child.counts[i],
+                        child.sumLatitudes[i], child.sumLongitudes[i], child.firstPoints[i]);
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Accumulates cell aggregates in insertion order and sorts them on {@link #build()}.
+     */
+    private static final class Builder {
+
+        private final int zoom;
+        private final Map<Long, Integer> slots;
+        private final long[] keys;
+        private final int[] counts;
+        private final double[] sumLatitudes;
+        private final double[] sumLongitudes;
+        private final int[] firstPoints;
+        private int size;
+
+        Builder(int zoom, int expected) {
+            int capacity = Math.max(16, expected);
+            this.zoom = zoom;
+            this.slots = new HashMap<>(capacity * 2);
+            this.keys = new long[capacity];
+            this.counts = new int[capacity];
+            this.sumLatitudes = new double[capacity];
+            this.sumLongitudes = new double[capacity];
+            this.firstPoints = new int[capacity];
+        }
+
+        void add(long key, int count, double sumLatitude, double sumLongitude, int firstPoint) {
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                slot = size++;
+                slots.put(key, slot);
+                keys[slot] = key;
+                firstPoints[slot] = firstPoint;
+            }
+            counts[slot] += count;
+            sumLatitudes[slot] += sumLatitude;
+            sumLongitudes[slot] += sumLongitude;
+        }
+
+        Level build() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+            long[] sortedKeys = new long[size];
+            int[] sortedCounts = new int[size];
+            double[] sortedLatitudes = new double[size];
+            double[] sortedLongitudes = new double[size];
+            int[] sortedFirstPoints = new int[size];
+            for (int i = 0; i < size; i++) {
+                int slot = order[i];
+                sortedKeys[i] = keys[slot];
+                sortedCounts[i] = counts[slot];
+                sortedLatitudes[i] = sumLatitudes[slot];
+                sortedLongitudes[i] = sumLongitudes[slot];
+                sortedFirstPoints[i] = firstPoints[slot];
+            }
+            return new Level(zoom, sortedKeys, sortedCounts, sortedLatitudes, sortedLongitudes, sortedFirstPoints);
+        }
+    }
+}
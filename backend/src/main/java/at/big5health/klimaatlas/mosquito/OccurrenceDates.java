@@ -0,0 +1,135 @@
+package at.big5health.klimaatlas.mosquito;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Conversion between GBIF event dates and the event day integers stored in
+ * {@link OccurrenceBatch} and the {@link OccurrenceArchive}.
+ * <p>
+ * GBIF reports {@code eventDate} as a (possibly partial) ISO 8601 date, date-time or
+ * interval, e.g. {@code 2023}, {@code 2023-06}, {@code 2023-06-15T10:00:00} or
+ * {@code 2023-06-01/2023-06-30}. Only the leading date is used, and its precision is kept:
+ * a full date is stored as its epoch day, a year-month or year-only date as the epoch day
+ * of the start of the period shifted into a reserved range ({@link #MONTH_OFFSET},
+ * {@link #YEAR_OFFSET}). A partial date is therefore never mistaken for its first day; it is
+ * {@linkplain #format(int) formatted} back as {@code yyyy-MM} or {@code yyyy} and
+ * {@linkplain #overlaps(int, long, long) matches} a date range if any day of its period does.
+ */
+public final class OccurrenceDates {
+
+    /**
+     * Marker for a missing or unparseable event date.
+     */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    /**
+     * Added to the epoch day of the first of the month for a year-month date.
+     */
+    static final int MONTH_OFFSET = 1 << 28;
+
+    /**
+     * Added to the epoch day of January 1st for a year-only date.
+     */
+    static final int YEAR_OFFSET = 1 << 29;
+
+    // Four digit years lie within +/- 3 million epoch days, far below half an offset.
+    private static final int HALF_OFFSET = MONTH_OFFSET / 2;
+
+    private OccurrenceDates() {
+    }
+
+    /**
+     * @param eventDate the event date as reported by GBIF, may be {@code null}
+     * @return the event day encoding the (start of the) event and its precision, or {@link #UNKNOWN}
+     */
+    public static int toEventDay(CharSequence eventDate) {
+        if (eventDate == null || eventDate.length() < 4) {
+            return UNKNOWN;
+        }
+        try {
+            int year = digits(eventDate, 0, 4);
+            if (eventDate.length() < 7 || eventDate.charAt(4) != '-') {
+                return YEAR_OFFSET + (int) LocalDate.of(year, 1, 1).toEpochDay();
+            }
+            int month = digits(eventDate, 5, 7);
+            if (eventDate.length() < 10 || eventDate.charAt(7) != '-') {
+                return MONTH_OFFSET + (int) LocalDate.of(year, month, 1).toEpochDay();
+            }
+            return (int) LocalDate.of(year, month, digits(eventDate, 8, 10)).toEpochDay();
+        } catch (NumberFormatException | DateTimeException e) {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * @param eventDay an event day or {@link #UNKNOWN}
+     * @return the epoch day of the first day of the event's period
+     */
+    public static long firstDay(int eventDay) {
+        return eventDay - offset(eventDay);
+    }
+
+    /**
+     * @param eventDay an event day or {@link #UNKNOWN}
+     * @return the epoch day of the last day of the event's period
+     */
+    public static long lastDay(int eventDay) {
+        int offset = offset(eventDay);
+        if (offset == 0) {
+            return eventDay;
+        }
+        LocalDate first = LocalDate.ofEpochDay(eventDay - offset);
+        LocalDate last = offset == YEAR_OFFSET
+                ? first.withDayOfYear(first.lengthOfYear())
+                : first.withDayOfMonth(first.lengthOfMonth());
+        return last.toEpochDay();
+    }
+
+    /**
+     * @param eventDay an event day or {@link #UNKNOWN}
+     * @param fromDay  the first epoch day of the range (inclusive)
+     * @param toDay    the last epoch day of the range (inclusive)
+     * @return {@code true} if the event is known and any day of its period lies within the range
+     */
+    public static boolean overlaps(int eventDay, long fromDay, long toDay) {
+        return eventDay != UNKNOWN && firstDay(eventDay) <= toDay && lastDay(eventDay) >= fromDay;
+    }
+
+    /**
+     * @param eventDay an event day or {@link #UNKNOWN}
+     * @return the ISO date in the precision GBIF reported it ({@code yyyy-MM-dd}, {@code yyyy-MM}
+     *         or {@code yyyy}), or {@code null} for {@link #UNKNOWN}
+     */
+    public static String format(int eventDay) {
+        if (eventDay == UNKNOWN) {
+            return null;
+        }
+        int offset = offset(eventDay);
+        LocalDate first = LocalDate.ofEpochDay(eventDay - offset);
+        if (offset == YEAR_OFFSET) {
+            return String.valueOf(first.getYear());
+        }
+        return offset == MONTH_OFFSET ? YearMonth.from(first).toString() : first.toString();
+    }
+
+    private static int offset(int eventDay) {
+        if (eventDay >= YEAR_OFFSET - HALF_OFFSET) {
+            return YEAR_OFFSET;
+        }
+        return eventDay >= MONTH_OFFSET - HALF_OFFSET ? MONTH_OFFSET : 0;
+    }
+
+    private static int digits(CharSequence value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not a digit in '" + value + "' at " + i);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
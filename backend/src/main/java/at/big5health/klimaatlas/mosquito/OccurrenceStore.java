@@ -0,0 +1,58 @@
+package at.big5health.klimaatlas.mosquito;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * In-memory holder of the most recently harvested mosquito occurrences.
+ * <p>
+ * Every refresh publishes a new, immutable {@link Snapshot} consisting of the decoded
+ * occurrences and the {@link OccurrenceClusterIndex} built over them. The snapshot is
+ * swapped in with a single volatile write, so readers never observe a half-built index
+ * and never need to lock.
+ *
+ * @see at.big5health.klimaatlas.services.MosquitoService
+ */
+@Component
+public class OccurrenceStore {
+
+    /**
+     * Immutable view of one harvest.
+     *
+     * @param year        the year the occurrences were recorded in
+     * @param occurrences the decoded occurrences
+     * @param clusters    the cluster index built over {@code occurrences}
+     * @param syncedUpTo  the latest GBIF {@code lastInterpreted} timestamp contained in the
+     *                    snapshot, used as watermark for the next incremental harvest;
+     *                    {@code null} if unknown
+     * @param refreshedAt the time the snapshot was published
+     */
+    public record Snapshot(int year, OccurrenceBatch occurrences, OccurrenceClusterIndex clusters,
+                           Instant syncedUpTo, Instant refreshedAt) {
+    }
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Builds the cluster index for the given occurrences and publishes them as the current snapshot.
+     *
+     * @param year        the year the occurrences were recorded in
+     * @param occurrences the freshly harvested occurrences; must not be modified afterwards
+     * @param syncedUpTo  the sync watermark of the harvest, or {@code null} if unknown
+     * @return the published snapshot
+     */
+    public Snapshot publish(int year, OccurrenceBatch occurrences, Instant syncedUpTo) {
+        Snapshot next = new Snapshot(year, occurrences, OccurrenceClusterIndex.build(occurrences),
+                syncedUpTo, Instant.now());
+        this.snapshot = next;
+        return next;
+    }
+
+    /**
+     * @return the current snapshot, or {@code null} if nothing has been published yet
+     */
+    public Snapshot current() {
+        return snapshot;
+    }
+}
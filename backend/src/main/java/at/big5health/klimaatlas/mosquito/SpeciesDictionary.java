@@ -0,0 +1,95 @@
+package at.big5health.klimaatlas.mosquito;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary that maps species names to small integer codes.
+ * <p>
+ * GBIF reports only a few dozen distinct Aedes species, but every record repeats the
+ * name. {@link OccurrenceBatch} therefore stores a 4-byte code per record and resolves
+ * it through this dictionary, so every name exists exactly once on the heap no matter
+ * how many occurrences are cached.
+ * <p>
+ * Codes are assigned in order of first appearance and are never reused or removed. They
+ * are only valid within the running process; the {@link OccurrenceArchive} keeps its own
+ * persistent dictionary. Lookups are lock-free, only new names take a lock.
+ */
+public final class SpeciesDictionary {
+
+    /**
+     * Code of a record without a species name.
+     */
+    public static final int UNKNOWN = -1;
+
+    private static final SpeciesDictionary SHARED = new SpeciesDictionary();
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+
+    SpeciesDictionary() {
+    }
+
+    /**
+     * @return the dictionary shared by all occurrence batches
+     */
+    public static SpeciesDictionary shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the code of the given name, assigning a new one if the name is not known yet.
+     *
+     * @param name the species name, may be {@code null}
+     * @return the code, or {@link #UNKNOWN} for {@code null}
+     */
+    public int encode(String name) {
+        if (name == null) {
+            return UNKNOWN;
+        }
+        Integer code = codes.get(name);
+        return code != null ? code : register(name);
+    }
+
+    /**
+     * Returns the code of the given name without assigning a new one.
+     *
+     * @param name the species name, may be {@code null}
+     * @return the code, or {@link #UNKNOWN} if the name has never been encoded
+     */
+    public int lookup(String name) {
+        Integer code = name != null ? codes.get(name) : null;
+        return code != null ? code : UNKNOWN;
+    }
+
+    /**
+     * @param code a code returned by {@link #encode(String)} or {@link #UNKNOWN}
+     * @return the canonical name instance, or {@code null} for {@link #UNKNOWN}
+     */
+    public String decode(int code) {
+        String[] current = names;
+        return code >= 0 && code < current.length ? current[code] : null;
+    }
+
+    /**
+     * @return the number of distinct names encoded so far
+     */
+    public int size() {
+        return names.length;
+    }
+
+    private synchronized int register(String name) {
+        Integer existing = codes.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        String[] next = Arrays.copyOf(names, names.length + 1);
+        int code = names.length;
+        next[code] = name;
+        // Publish the name before the code, so a code is never handed out undecodable.
+        names = next;
+        codes.put(name, code);
+        return code;
+    }
+}
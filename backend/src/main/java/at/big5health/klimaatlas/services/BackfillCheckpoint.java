@@ -0,0 +1,138 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.grid.BoundingBox;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Persistent progress of a backfill job.
+ * <p>
+ * The checkpoint fully defines the job: the date range and scope, how they are cut into
+ * batches, the index of the next batch to fetch and the archive position to write it at.
+ * Batches are ordered by date chunk, then by tile, so the index alone determines what comes
+ * next. The checkpoint is written atomically after every batch; resuming from it repeats at
+ * most the batch that was in flight.
+ *
+ * @param from          the first day to backfill
+ * @param to            the last day to backfill (inclusive)
+ * @param scope         the area to backfill
+ * @param daysPerBatch  the number of days fetched per request
+ * @param tileDegrees   the maximum tile edge length in degrees
+ * @param nextBatch     the index of the next batch to fetch
+ * @param archiveBytes  the archive position after the last completed batch
+ * @param cellDays      the number of cell values per day written so far
+ * @param startedAt     when the job was first started
+ */
+record BackfillCheckpoint(LocalDate from, LocalDate to, BoundingBox scope, int daysPerBatch, double tileDegrees,
+                          int nextBatch, long archiveBytes, long cellDays, Instant startedAt) {
+
+    static BackfillCheckpoint start(LocalDate from, LocalDate to, BoundingBox scope, int daysPerBatch,
+                                    double tileDegrees, long archiveBytes) {
+        return new BackfillCheckpoint(from, to, scope, daysPerBatch, tileDegrees, 0, archiveBytes, 0, Instant.now());
+    }
+
+    /**
+     * @return the tiles the scope is cut into
+     */
+    List<BoundingBox> tiles() {
+        int rows = Math.max(1, (int) Math.ceil((scope.getMaxLat() - scope.getMinLat()) / tileDegrees - 1e-9));
+        int columns = Math.max(1, (int) Math.ceil((scope.getMaxLon() - scope.getMinLon()) / tileDegrees - 1e-9));
+        return scope.split(rows, columns);
+    }
+
+    int totalBatches() {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        return Math.toIntExact((days + daysPerBatch - 1) / daysPerBatch * tiles().size());
+    }
+
+    boolean isComplete() {
+        return nextBatch >= totalBatches();
+    }
+
+    /**
+     * @return whether this checkpoint belongs to a job over the same range and scope
+     */
+    boolean sameJob(LocalDate otherFrom, LocalDate otherTo, BoundingBox otherScope) {
+        return from.equals(otherFrom) && to.equals(otherTo)
+                && scope.toApiString().equals(otherScope.toApiString());
+    }
+
+    BackfillCheckpoint advance(long newArchiveBytes, long newCellDays) {
+        return new BackfillCheckpoint(from, to, scope, daysPerBatch, tileDegrees,
+                nextBatch + 1, newArchiveBytes, cellDays + newCellDays, startedAt);
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file and atomically replaces {@code file} with it.
+     *
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     */
+    void save(Path file) {
+        Properties properties = new Properties();
+        properties.setProperty("from", from.toString());
+        properties.setProperty("to", to.toString());
+        properties.setProperty("scope", scope.toApiString());
+        properties.setProperty("daysPerBatch", Integer.toString(daysPerBatch));
+        properties.setProperty("tileDegrees", Double.toString(tileDegrees));
+        properties.setProperty("nextBatch", Integer.toString(nextBatch));
+        properties.setProperty("archiveBytes", Long.toString(archiveBytes));
+        properties.setProperty("cellDays", Long.toString(cellDays));
+        properties.setProperty("startedAt", startedAt.toString());
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Weather backfill checkpoint");
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write backfill checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * @return the checkpoint stored in {@code file}, empty if there is none
+     * @throws UncheckedIOException if the file exists but cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    static Optional<BackfillCheckpoint> load(Path file) {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read backfill checkpoint " + file, e);
+        }
+        try {
+            String[] scope = properties.getProperty("scope").split(",");
+            return Optional.of(new BackfillCheckpoint(
+                    LocalDate.parse(properties.getProperty("from")),
+                    LocalDate.parse(properties.getProperty("to")),
+                    new BoundingBox(Double.parseDouble(scope[0]), Double.parseDouble(scope[1]),
+                            Double.parseDouble(scope[2]), Double.parseDouble(scope[3])),
+                    Integer.parseInt(properties.getProperty("daysPerBatch")),
+                    Double.parseDouble(properties.getProperty("tileDegrees")),
+                    Integer.parseInt(properties.getProperty("nextBatch")),
+                    Long.parseLong(properties.getProperty("archiveBytes")),
+                    Long.parseLong(properties.getProperty("cellDays")),
+                    Instant.parse(properties.getProperty("startedAt"))));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed backfill checkpoint " + file, e);
+        }
+    }
+}
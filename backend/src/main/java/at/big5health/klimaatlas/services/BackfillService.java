@@ -0,0 +1,346 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.dtos.BackfillJobDTO;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeature;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeatureCollection;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusParameter;
+import at.big5health.klimaatlas.exceptions.ErrorMessages;
+import at.big5health.klimaatlas.exceptions.InvalidInputException;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.WeatherArchive;
+import at.big5health.klimaatlas.httpclients.ExternalWeatherApiClient;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backfills historical daily 1 km grid values for a date range and area into the local
+ * {@link WeatherArchive}, e.g. to build a multi-year climatology in one unattended run.
+ * <p>
+ * The area is cut into tiles of at most {@code weather.backfill.tile-degrees} and the date
+ * range into chunks of {@code weather.backfill.days-per-batch} days; every tile and chunk is
+ * fetched with a single request. After each batch the cells are appended to the archive and a
+ * {@link BackfillCheckpoint} is written, so after a crash or restart the job continues with the
+ * batch that was in flight. An unfinished job is resumed automatically when the application
+ * starts. Requests are limited to {@code weather.backfill.rate-per-second}; a failing request
+ * is retried up to {@code weather.backfill.max-attempts} times before the job stops as failed,
+ * keeping its checkpoint.
+ * <p>
+ * Only one job runs at a time; starting a job with the same range and scope as the
+ * checkpointed one resumes it, any other job replaces the checkpoint.
+ */
+@Service
+public class BackfillService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BackfillService.class);
+
+    static final String CHECKPOINT_FILE = "backfill.checkpoint";
+
+    private final ExternalWeatherApiClient externalClient;
+    private final WeatherArchive archive;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "weather-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${weather.backfill.path:data/weather-archive}")
+    private Path directory = Path.of("data/weather-archive");
+
+    @Value("${weather.backfill.days-per-batch:31}")
+    private int daysPerBatch = 31;
+
+    @Value("${weather.backfill.tile-degrees:1.0}")
+    private double tileDegrees = 1.0;
+
+    @Value("${weather.backfill.rate-per-second:0.5}")
+    private double ratePerSecond = 0.5;
+
+    @Value("${weather.backfill.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${weather.backfill.retry-delay:PT10S}")
+    private Duration retryDelay = Duration.ofSeconds(10);
+
+    @Value("${weather.backfill.batch-timeout:PT5M}")
+    private Duration batchTimeout = Duration.ofMinutes(5);
+
+    private volatile Run run;
+
+    public BackfillService(ExternalWeatherApiClient externalClient, WeatherArchive archive) {
+        this.externalClient = externalClient;
+        this.archive = archive;
+    }
+
+    /**
+     * Resumes an unfinished job left behind by a previous run of the application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void resumeOnStartup() {
+        try {
+            Optional<BackfillCheckpoint> checkpoint = BackfillCheckpoint.load(checkpointFile());
+            if (checkpoint.isPresent() && !checkpoint.get().isComplete()) {
+                LOG.info("Resuming weather backfill {} to {} at batch {} of {}.", checkpoint.get().from(),
+                        checkpoint.get().to(), checkpoint.get().nextBatch(), checkpoint.get().totalBatches());
+                launch(checkpoint.get());
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Could not resume weather backfill: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops the running job; its checkpoint is kept.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a backfill job, or resumes the checkpointed one if it covers the same range and scope.
+     *
+     * @param from  the first day to backfill
+     * @param to    the last day to backfill (inclusive)
+     * @param scope the area to backfill
+     * @return the progress of the started job
+     * @throws InvalidInputException if a job is already running
+     */
+    public synchronized BackfillJobDTO start(LocalDate from, LocalDate to, BoundingBox scope) {
+        Run current = run;
+        if (current != null && current.status == Status.RUNNING) {
+            throw new InvalidInputException(ErrorMessages.VALIDATION_ERROR, "A backfill job is already running");
+        }
+        BackfillCheckpoint checkpoint = BackfillCheckpoint.load(checkpointFile())
+                .filter(existing -> existing.sameJob(from, to, scope) && !existing.isComplete())
+                .orElseGet(() -> BackfillCheckpoint.start(from, to, scope, daysPerBatch, tileDegrees, archive.validBytes()));
+        checkpoint.save(checkpointFile());
+        LOG.info("Starting weather backfill {} to {} for {} at batch {} of {}.", from, to, scope.toApiString(),
+                checkpoint.nextBatch(), checkpoint.totalBatches());
+        return launch(checkpoint).toDto();
+    }
+
+    /**
+     * Cancels the running job; the batch in flight is abandoned. The checkpoint is kept, so
+     * starting the same job again resumes it with that batch.
+     *
+     * @return the progress of the job
+     */
+    public synchronized BackfillJobDTO cancel() {
+        Run current = run;
+        if (current != null && current.status == Status.RUNNING) {
+            current.cancelled = true;
+            Thread worker = current.worker;
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+        return getStatus();
+    }
+
+    /**
+     * @return the progress of the current or last job, or of the checkpointed job if none ran
+     *         since the application started
+     */
+    public BackfillJobDTO getStatus() {
+        Run current = run;
+        if (current != null) {
+            return current.toDto();
+        }
+        return BackfillCheckpoint.load(checkpointFile())
+                .map(checkpoint -> new Run(checkpoint, checkpoint.isComplete() ? Status.COMPLETED : Status.PAUSED).toDto())
+                .orElseGet(() -> new BackfillJobDTO(Status.IDLE.name(), null, null, null, 0, 0, 0,
+                        null, null, null, null, null));
+    }
+
+    private Run launch(BackfillCheckpoint checkpoint) {
+        Run next = new Run(checkpoint, Status.RUNNING);
+        run = next;
+        executor.execute(() -> execute(next));
+        return next;
+    }
+
+    private void execute(Run job) {
+        job.worker = Thread.currentThread();
+        List<BoundingBox> tiles = job.checkpoint.tiles();
+        TokenBucket rateLimit = new TokenBucket(ratePerSecond, 1);
+        try {
+            while (!job.checkpoint.isComplete()) {
+                if (job.cancelled) {
+                    throw new InterruptedException();
+                }
+                BackfillCheckpoint checkpoint = job.checkpoint;
+                int batch = checkpoint.nextBatch();
+                BoundingBox tile = tiles.get(batch % tiles.size());
+                LocalDate start = checkpoint.from().plusDays((long) (batch / tiles.size()) * checkpoint.daysPerBatch());
+                LocalDate end = start.plusDays(checkpoint.daysPerBatch() - 1L);
+                if (end.isAfter(checkpoint.to())) {
+                    end = checkpoint.to();
+                }
+
+                SpartacusFeatureCollection collection = fetch(tile, start, end, rateLimit);
+                List<WeatherArchive.Day> days = toDays(collection, tile, checkpoint.scope(), start, end);
+                long cellDays = days.stream().mapToLong(WeatherArchive.Day::size).sum();
+                long archiveBytes = archive.append(checkpoint.archiveBytes(), days);
+                BackfillCheckpoint advanced = checkpoint.advance(archiveBytes, cellDays);
+                advanced.save(checkpointFile());
+                job.checkpoint = advanced;
+                LOG.debug("Weather backfill batch {} of {} ({} to {}, {}) stored {} cell values.",
+                        batch + 1, advanced.totalBatches(), start, end, tile.toApiString(), cellDays);
+            }
+            job.status = Status.COMPLETED;
+            LOG.info("Weather backfill {} to {} completed: {} cell values.",
+                    job.checkpoint.from(), job.checkpoint.to(), job.checkpoint.cellDays());
+        } catch (InterruptedException e) {
+            job.status = Status.CANCELLED;
+            LOG.info("Weather backfill cancelled at batch {} of {}.", job.checkpoint.nextBatch(), job.checkpoint.totalBatches());
+        } catch (Exception e) {
+            if (job.cancelled) {
+                job.status = Status.CANCELLED;
+                return;
+            }
+            job.error = e.getMessage();
+            job.status = Status.FAILED;
+            LOG.error("Weather backfill failed at batch {} of {}: {}",
+                    job.checkpoint.nextBatch(), job.checkpoint.totalBatches(), e.getMessage(), e);
+        } finally {
+            job.worker = null;
+            Thread.interrupted(); // a late cancel must not interrupt the next job on this thread
+        }
+    }
+
+    private SpartacusFeatureCollection fetch(BoundingBox tile, LocalDate start, LocalDate end, TokenBucket rateLimit)
+            throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            rateLimit.acquire();
+            try {
+                return externalClient.fetchGridData(tile, start, end, batchTimeout).block();
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                long delayMs = retryDelay.toMillis() << (attempt - 1);
+                LOG.warn("Weather backfill request {} to {} for {} failed (attempt {} of {}), retrying in {} ms: {}",
+                        start, end, tile.toApiString(), attempt, maxAttempts, delayMs, e.getMessage());
+                TimeUnit.MILLISECONDS.sleep(delayMs);
+            }
+        }
+    }
+
+    /**
+     * Splits a multi-day response into one archive segment per day. Cells on a tile edge are
+     * returned for both neighbouring tiles, so only cells inside the half-open tile (closed at
+     * the edges of the scope) are kept.
+     */
+    static List<WeatherArchive.Day> toDays(SpartacusFeatureCollection collection, BoundingBox tile,
+                                           BoundingBox scope, LocalDate start, LocalDate end) {
+        int dayCount = (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+        List<WeatherArchive.Day> days = new ArrayList<>(dayCount);
+        for (int d = 0; d < dayCount; d++) {
+            days.add(new WeatherArchive.Day(start.plusDays(d)));
+        }
+        if (collection == null || collection.getFeatures() == null) {
+            return days;
+        }
+        for (SpartacusFeature feature : collection.getFeatures()) {
+            if (feature.getGeometry() == null || feature.getGeometry().getCoordinates() == null
+                    || feature.getGeometry().getCoordinates().size() < 2 || feature.getProperties() == null
+                    || feature.getProperties().getParameters() == null) {
+                continue;
+            }
+            double lat = feature.getGeometry().getCoordinates().get(1); // latitude is index 1
+            double lon = feature.getGeometry().getCoordinates().getFirst();
+            if (!inTile(lat, tile.getMinLat(), tile.getMaxLat(), scope.getMaxLat())
+                    || !inTile(lon, tile.getMinLon(), tile.getMaxLon(), scope.getMaxLon())) {
+                continue;
+            }
+            Map<String, SpartacusParameter> params = feature.getProperties().getParameters();
+            for (int d = 0; d < dayCount; d++) {
+                Double minTemp = value(params, "TN", d);
+                Double maxTemp = value(params, "TX", d);
+                Double precipitation = value(params, "RR", d);
+                if (minTemp != null || maxTemp != null || precipitation != null) {
+                    days.get(d).add(lat, lon, minTemp, maxTemp, precipitation);
+                }
+            }
+        }
+        return days;
+    }
+
+    private static boolean inTile(double value, double min, double max, double scopeMax) {
+        return value >= min && (value < max || (max == scopeMax && value <= max));
+    }
+
+    private static Double value(Map<String, SpartacusParameter> params, String name, int dayIndex) {
+        SpartacusParameter param = params.get(name);
+        if (param == null || param.getData() == null || param.getData().size() <= dayIndex) {
+            return null;
+        }
+        return param.getData().get(dayIndex);
+    }
+
+    private Path checkpointFile() {
+        return directory.resolve(CHECKPOINT_FILE);
+    }
+
+    enum Status { IDLE, RUNNING, PAUSED, COMPLETED, CANCELLED, FAILED }
+
+    /**
+     * State of the job since it was last started or resumed.
+     */
+    private static final class Run {
+
+        private final long startedNanos = System.nanoTime();
+        private final int batchesAtStart;
+        private final long cellDaysAtStart;
+
+        private volatile BackfillCheckpoint checkpoint;
+        private volatile Status status;
+        private volatile boolean cancelled;
+        private volatile String error;
+        private volatile Thread worker;
+
+        Run(BackfillCheckpoint checkpoint, Status status) {
+            this.checkpoint = checkpoint;
+            this.status = status;
+            this.batchesAtStart = checkpoint.nextBatch();
+            this.cellDaysAtStart = checkpoint.cellDays();
+        }
+
+        BackfillJobDTO toDto() {
+            // The worker publishes the checkpoint before the final status, so read them in reverse.
+            Status currentStatus = status;
+            BackfillCheckpoint current = checkpoint;
+            int total = current.totalBatches();
+            Double batchesPerMinute = null;
+            Double cellDaysPerSecond = null;
+            Long remainingSeconds = null;
+            double seconds = (System.nanoTime() - startedNanos) / 1e9;
+            int batches = current.nextBatch() - batchesAtStart;
+            if (currentStatus == Status.RUNNING && batches > 0 && seconds > 0) {
+                batchesPerMinute = batches * 60 / seconds;
+                cellDaysPerSecond = (current.cellDays() - cellDaysAtStart) / seconds;
+                remainingSeconds = Math.round((total - current.nextBatch()) * seconds / batches);
+            }
+            return new BackfillJobDTO(currentStatus.name(), current.from(), current.to(), current.scope().toApiString(),
+                    total, Math.min(current.nextBatch(), total), current.cellDays(), current.startedAt(),
+                    batchesPerMinute, cellDaysPerSecond, remainingSeconds, error);
+        }
+    }
+}
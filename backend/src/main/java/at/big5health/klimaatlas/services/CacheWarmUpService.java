@@ -0,0 +1,129 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.dtos.WarmUpStatusDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Keeps a freshly started instance out of the load balancer until its weather cache is warm.
+ * <p>
+ * Spring Boot marks the application as {@link ReadinessState#ACCEPTING_TRAFFIC accepting
+ * traffic} as soon as it is ready, while the startup pre-cache is still running. This service
+ * immediately switches the readiness state back to {@link ReadinessState#REFUSING_TRAFFIC} and
+ * only accepts traffic once at least {@code weather.warmup.threshold} of the population centers
+ * have been cached, or {@code weather.warmup.timeout} has passed since startup, so that an
+ * outage of the weather API cannot keep the instance out of service forever.
+ * <p>
+ * The readiness state is the one reported by the {@code /actuator/health/readiness} probe when
+ * Actuator is present; {@code GET /precache/warmup} exposes it as well.
+ */
+@Service
+public class CacheWarmUpService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    /**
+     * The phases of the warm-up. Traffic is accepted in every phase but {@link #WARMING}.
+     */
+    public enum State { WARMING, READY, TIMED_OUT, DISABLED }
+
+    private final ApplicationEventPublisher publisher;
+    private final Instant startedAt = Instant.now();
+
+    @Value("${weather.warmup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${weather.warmup.threshold:0.95}")
+    private double threshold = 0.95;
+
+    @Value("${weather.warmup.timeout:PT10M}")
+    private Duration timeout = Duration.ofMinutes(10);
+
+    private volatile State state = State.WARMING;
+    private volatile int cached;
+    private volatile int total = -1;
+    private volatile Instant finishedAt;
+
+    public CacheWarmUpService(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * Refuses traffic while the cache is still warming up.
+     *
+     * @param event a change of the readiness state
+     */
+    @EventListener
+    public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC && getState() == State.WARMING) {
+            LOG.info("Refusing traffic until the weather cache is warm ({}% of centers, at most {}).",
+                    Math.round(threshold * 100), timeout);
+            AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+        }
+    }
+
+    /**
+     * Records the progress of the startup pre-cache and accepts traffic once the threshold is reached.
+     *
+     * @param cachedCenters the number of centers cached so far
+     * @param totalCenters  the number of centers to cache
+     */
+    public void recordProgress(int cachedCenters, int totalCenters) {
+        cached = cachedCenters;
+        total = totalCenters;
+        if (cachedCenters >= threshold * totalCenters) {
+            finish(State.READY);
+        }
+    }
+
+    /**
+     * Accepts traffic once the warm-up timeout has passed, however cold the cache is.
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void checkTimeout() {
+        if (getState() == State.WARMING && Instant.now().isAfter(startedAt.plus(timeout))) {
+            LOG.warn("Weather cache warm-up timed out after {} with {} of {} centers cached; accepting traffic.",
+                    timeout, cached, Math.max(total, 0));
+            finish(State.TIMED_OUT);
+        }
+    }
+
+    /**
+     * @return the current phase of the warm-up
+     */
+    public State getState() {
+        return enabled ? state : State.DISABLED;
+    }
+
+    /**
+     * @return the warm-up progress
+     */
+    public WarmUpStatusDTO getStatus() {
+        State current = getState();
+        return new WarmUpStatusDTO(current.name(), current != State.WARMING, cached, Math.max(total, 0),
+                threshold, startedAt, finishedAt);
+    }
+
+    private synchronized void finish(State result) {
+        if (state != State.WARMING) {
+            return;
+        }
+        state = result;
+        finishedAt = Instant.now();
+        if (result == State.READY) {
+            LOG.info("Weather cache warm: {} of {} centers cached after {} ms; accepting traffic.",
+                    cached, total, Duration.between(startedAt, finishedAt).toMillis());
+        }
+        AvailabilityChangeEvent.publish(publisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+}
@@ -0,0 +1,145 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.dtos.Precipitation;
+import at.big5health.klimaatlas.dtos.WeatherReportDTO;
+import at.big5health.klimaatlas.grid.GridCellInfo;
+import at.big5health.klimaatlas.grid.GridUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Direct access to the "dailyWeatherDataGrid" cache of exact grid cell values, shared with
+ * {@link WeatherService#getOrFetchGridCellData(long, LocalDate)}.
+ * <p>
+ * Entries use the same {@link SimpleKey} of cell and date as the {@code @Cacheable} method,
+ * so values cached either way are found by both. Besides plain lookups, this class estimates
+ * an uncached cell by inverse-distance weighting of its cached neighbours.
+ */
+@Component
+public class GridCellCache {
+
+    static final String CACHE_NAME = "dailyWeatherDataGrid";
+
+    private final CacheManager cacheManager;
+    private final GridUtil gridUtil;
+
+    @Value("${weather.estimation.min-neighbours:3}")
+    private int minNeighbours = 3;
+
+    public GridCellCache(CacheManager cacheManager, GridUtil gridUtil) {
+        this.cacheManager = cacheManager;
+        this.gridUtil = gridUtil;
+    }
+
+    /**
+     * @param cell the grid cell
+     * @param date the date
+     * @return the cached exact values of the cell, if any
+     */
+    public Optional<WeatherReportDTO> get(long cell, LocalDate date) {
+        return Optional.ofNullable(cache().get(new SimpleKey(cell, date), WeatherReportDTO.class));
+    }
+
+    /**
+     * Caches the exact values of a cell.
+     *
+     * @param cell   the grid cell
+     * @param date   the date
+     * @param report the values, without coordinates
+     */
+    public void put(long cell, LocalDate date, WeatherReportDTO report) {
+        cache().put(new SimpleKey(cell, date), report);
+    }
+
+    /**
+     * Estimates the values at a point from the cached cells around the cell containing it.
+     * <p>
+     * Temperatures and sunshine duration are weighted by the inverse squared distance from the
+     * point to each neighbour's center; the precipitation class is taken from the nearest one.
+     *
+     * @param cell      the cell containing the point
+     * @param date      the date
+     * @param latitude  the latitude of the point
+     * @param longitude the longitude of the point
+     * @return the estimate, flagged as estimated and without coordinates, or empty if fewer than
+     *         {@code weather.estimation.min-neighbours} of the eight neighbours are cached
+     */
+    public Optional<WeatherReportDTO> estimate(long cell, LocalDate date, double latitude, double longitude) {
+        Cache cache = cache();
+        double lonScale = Math.cos(Math.toRadians(latitude));
+        Weighted minTemp = new Weighted();
+        Weighted maxTemp = new Weighted();
+        Weighted sunDuration = new Weighted();
+        Precipitation precip = null;
+        double nearest = Double.MAX_VALUE;
+        int neighbours = 0;
+        for (int dRow = -1; dRow <= 1; dRow++) {
+            for (int dColumn = -1; dColumn <= 1; dColumn++) {
+                if (dRow == 0 && dColumn == 0) {
+                    continue;
+                }
+                long neighbour = GridUtil.cell(GridUtil.row(cell) + dRow, GridUtil.column(cell) + dColumn);
+                WeatherReportDTO report = cache.get(new SimpleKey(neighbour, date), WeatherReportDTO.class);
+                if (report == null) {
+                    continue;
+                }
+                GridCellInfo info = gridUtil.getGridCellInfo(neighbour);
+                double latDiff = info.getTargetLatitude() - latitude;
+                double lonDiff = (info.getTargetLongitude() - longitude) * lonScale;
+                double distance = latDiff * latDiff + lonDiff * lonDiff;
+                double weight = 1.0 / Math.max(distance, 1e-12);
+                minTemp.add(report.getMinTemp(), weight);
+                maxTemp.add(report.getMaxTemp(), weight);
+                sunDuration.add(report.getSunDuration(), weight);
+                if (distance < nearest) {
+                    nearest = distance;
+                    precip = report.getPrecip();
+                }
+                neighbours++;
+            }
+        }
+        if (neighbours < Math.max(1, minNeighbours)) {
+            return Optional.empty();
+        }
+        return Optional.of(new WeatherReportDTO(minTemp.value(), maxTemp.value(), precip, sunDuration.value(),
+                null, null, null, true));
+    }
+
+    /**
+     * @return the cell cache
+     * @throws IllegalStateException if the cache manager does not provide it
+     */
+    private Cache cache() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            throw new IllegalStateException("Cache '" + CACHE_NAME + "' is not configured");
+        }
+        return cache;
+    }
+
+    /**
+     * Running inverse-distance weighted mean of one value, skipping missing values.
+     */
+    private static final class Weighted {
+
+        private double sum;
+        private double weights;
+
+        void add(Double value, double weight) {
+            if (value != null) {
+                sum += value * weight;
+                weights += weight;
+            }
+        }
+
+        Double value() {
+            return weights > 0 ? sum / weights : null;
+        }
+    }
+}
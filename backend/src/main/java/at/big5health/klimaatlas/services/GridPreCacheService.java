@@ -0,0 +1,132 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeature;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeatureCollection;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusParameter;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.WeatherRaster;
+import at.big5health.klimaatlas.grid.WeatherRasterStore;
+import at.big5health.klimaatlas.httpclients.ExternalWeatherApiClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional daily job that downloads the complete 1 km Spartacus grid of Austria for one day.
+ * <p>
+ * Instead of one request per grid cell, the country is split into
+ * {@code weather.grid-precache.tile-rows x weather.grid-precache.tile-columns} large bounding
+ * boxes that are fetched one after another. The roughly 84,000 returned cells are loaded into
+ * a {@link WeatherRaster} and published in the {@link WeatherRasterStore}, from which
+ * {@link WeatherService} answers any point in Austria without calling the API.
+ * <p>
+ * The job is disabled by default ({@code weather.grid-precache.enabled}). The
+ * {@link PreCacheScheduler} runs it before the population center pre-cache so that the latter
+ * is served from the raster. A failing tile is
+ * logged and skipped; points in it fall back to per-cell requests.
+ */
+@Service
+public class GridPreCacheService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GridPreCacheService.class);
+
+    private final ExternalWeatherApiClient externalClient;
+    private final WeatherRasterStore rasterStore;
+
+    @Value("${weather.grid-precache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${weather.grid-precache.tile-rows:3}")
+    private int tileRows = 3;
+
+    @Value("${weather.grid-precache.tile-columns:4}")
+    private int tileColumns = 4;
+
+    @Value("${weather.grid-precache.tile-timeout:PT2M}")
+    private Duration tileTimeout = Duration.ofMinutes(2);
+
+    public GridPreCacheService(ExternalWeatherApiClient externalClient, WeatherRasterStore rasterStore) {
+        this.externalClient = externalClient;
+        this.rasterStore = rasterStore;
+    }
+
+    /**
+     * @return whether the daily grid pre-cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Downloads all tiles for a date and publishes the resulting raster.
+     *
+     * @param date the date to pre-cache
+     * @return the published raster
+     */
+    public WeatherRaster preCacheGrid(LocalDate date) {
+        long started = System.nanoTime();
+        List<BoundingBox> tiles = WeatherRaster.tiles(tileRows, tileColumns);
+        WeatherRaster.Builder builder = WeatherRaster.builder(date);
+        int failedTiles = 0;
+        int features = 0;
+        for (BoundingBox tile : tiles) {
+            try {
+                SpartacusFeatureCollection collection =
+                        externalClient.fetchGridData(tile, date, date, tileTimeout).block();
+                if (collection == null || collection.getFeatures() == null) {
+                    LOG.warn("Grid pre-cache for {}: tile {} returned no features.", date, tile.toApiString());
+                    continue;
+                }
+                for (SpartacusFeature feature : collection.getFeatures()) {
+                    addFeature(builder, feature, 0);
+                }
+                features += collection.getFeatures().size();
+            } catch (Exception e) {
+                failedTiles++;
+                LOG.error("Grid pre-cache for {}: tile {} failed: {}", date, tile.toApiString(), e.getMessage());
+            }
+        }
+        WeatherRaster raster = builder.build();
+        rasterStore.put(raster);
+        LOG.info("Grid pre-cache for {} finished in {} ms: {} features in {} cells, {} of {} tiles failed.",
+                date, Duration.ofNanos(System.nanoTime() - started).toMillis(),
+                features, raster.getFilledCells(), failedTiles, tiles.size());
+        return raster;
+    }
+
+    /**
+     * Adds the values of one day of a feature to a raster builder.
+     *
+     * @param builder  the builder to add to
+     * @param feature  the Spartacus feature
+     * @param dayIndex the index of the day within the feature's parameter data
+     */
+    static void addFeature(WeatherRaster.Builder builder, SpartacusFeature feature, int dayIndex) {
+        if (feature.getGeometry() == null || feature.getGeometry().getCoordinates() == null
+                || feature.getGeometry().getCoordinates().size() < 2 || feature.getProperties() == null
+                || feature.getProperties().getParameters() == null) {
+            return;
+        }
+        Map<String, SpartacusParameter> params = feature.getProperties().getParameters();
+        builder.add(
+                feature.getGeometry().getCoordinates().get(1), // latitude is index 1
+                feature.getGeometry().getCoordinates().getFirst(),
+                value(params, "TN", dayIndex),
+                value(params, "TX", dayIndex),
+                value(params, "RR", dayIndex));
+    }
+
+    private static Double value(Map<String, SpartacusParameter> params, String name, int dayIndex) {
+        SpartacusParameter param = params.get(name);
+        if (param == null || param.getData() == null || param.getData().size() <= dayIndex) {
+            return null;
+        }
+        return param.getData().get(dayIndex);
+    }
+}
@@ -0,0 +1,198 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeatureCollection;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.GridUtil;
+import at.big5health.klimaatlas.httpclients.ExternalWeatherApiClient;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent single-cell requests to the Spartacus API.
+ * <p>
+ * When many users look at nearby points at once, every cache miss used to send its own bounding
+ * box of one grid cell upstream. Instead, this batcher collects the cells requested per date for
+ * {@code weather.batch.window}, covers them exactly with as few rectangles of adjacent cells as
+ * the greedy row-then-column merge finds, and issues one request per rectangle. Every caller
+ * waiting for a cell of a rectangle receives the shared response and picks its own pixel from it.
+ * <p>
+ * A rectangle holds at most {@code weather.batch.max-cells} cells to bound the response size; a
+ * window of zero disables batching.
+ */
+@Component
+public class GridRequestBatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GridRequestBatcher.class);
+
+    private final ExternalWeatherApiClient externalClient;
+    private final GridUtil gridUtil;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "weather-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${weather.batch.window:5ms}")
+    private Duration window = Duration.ofMillis(5);
+
+    @Value("${weather.batch.max-cells:256}")
+    private int maxCells = 256;
+
+    /**
+     * The cells waiting for the next flush, per date; guarded by {@code this}.
+     */
+    private final Map<LocalDate, Map<Long, CompletableFuture<SpartacusFeatureCollection>>> pending = new HashMap<>();
+
+    public GridRequestBatcher(ExternalWeatherApiClient externalClient, GridUtil gridUtil) {
+        this.externalClient = externalClient;
+        this.gridUtil = gridUtil;
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdownNow();
+    }
+
+    /**
+     * Fetches the data of the rectangle containing a grid cell, together with all other cells
+     * requested for the same date within the batch window.
+     *
+     * @param cell the grid cell, as returned by {@link GridUtil#getCellForCoordinates(double, double)}
+     * @param date the date to fetch
+     * @return a {@link Mono} emitting a feature collection that contains the cell's pixel, or an
+     *         error if the upstream call fails
+     */
+    public Mono<SpartacusFeatureCollection> fetchGridData(long cell, LocalDate date) {
+        if (window.isZero()) {
+            return externalClient.fetchGridData(gridUtil.getGridCellInfo(cell).getBbox(), date);
+        }
+        CompletableFuture<SpartacusFeatureCollection> future;
+        synchronized (this) {
+            Map<Long, CompletableFuture<SpartacusFeatureCollection>> cells = pending.get(date);
+            if (cells == null) {
+                cells = new HashMap<>();
+                pending.put(date, cells);
+                flusher.schedule(() -> flush(date), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            future = cells.computeIfAbsent(cell, c -> new CompletableFuture<>());
+        }
+        return Mono.fromFuture(future, true);
+    }
+
+    private void flush(LocalDate date) {
+        Map<Long, CompletableFuture<SpartacusFeatureCollection>> cells;
+        synchronized (this) {
+            cells = pending.remove(date);
+        }
+        if (cells == null || cells.isEmpty()) {
+            return;
+        }
+        List<Rectangle> rectangles = coalesce(cells.keySet(), maxCells);
+        LOG.debug("Fetching {} requested grid cells for {} in {} request(s).", cells.size(), date, rectangles.size());
+        for (Rectangle rectangle : rectangles) {
+            List<CompletableFuture<SpartacusFeatureCollection>> waiting = new ArrayList<>();
+            for (int row = rectangle.minRow(); row <= rectangle.maxRow(); row++) {
+                for (int column = rectangle.minColumn(); column <= rectangle.maxColumn(); column++) {
+                    waiting.add(cells.get(GridUtil.cell(row, column)));
+                }
+            }
+            try {
+                BoundingBox bbox = gridUtil.getBoundingBox(
+                        rectangle.minRow(), rectangle.minColumn(), rectangle.maxRow(), rectangle.maxColumn());
+                externalClient.fetchGridData(bbox, date).subscribe(
+                        collection -> waiting.forEach(future -> future.complete(collection)),
+                        error -> waiting.forEach(future -> future.completeExceptionally(error)),
+                        () -> waiting.forEach(future -> future.complete(null)));
+            } catch (RuntimeException e) {
+                waiting.forEach(future -> future.completeExceptionally(e));
+            }
+        }
+    }
+
+    /**
+     * Covers a set of cells exactly with rectangles of adjacent cells. Each row is split into
+     * runs of consecutive columns, and runs spanning the same columns in consecutive rows are
+     * stacked, as long as a rectangle stays within {@code maxCells}.
+     *
+     * @param cells    the encoded cells to cover
+     * @param maxCells the largest number of cells in one rectangle
+     * @return the rectangles, disjoint and together containing exactly the given cells
+     */
+    static List<Rectangle> coalesce(Iterable<Long> cells, int maxCells) {
+        // sorted by row, then column, since the row is in the upper bits
+        TreeSet<Long> sorted = new TreeSet<>();
+        cells.forEach(sorted::add);
+
+        List<Rectangle> rectangles = new ArrayList<>();
+        // the rectangles ending in the previous row, by their column range, still able to grow
+        Map<Long, Integer> open = new HashMap<>();
+        Map<Long, Integer> next = new HashMap<>();
+        int currentRow = Integer.MIN_VALUE;
+        Rectangle run = null;
+        for (long cell : sorted) {
+            int row = GridUtil.row(cell);
+            int column = GridUtil.column(cell);
+            if (run != null && (row != run.maxRow() || column != run.maxColumn() + 1 || run.size() >= maxCells)) {
+                stack(run, rectangles, open, next, maxCells);
+                run = null;
+            }
+            if (row != currentRow) {
+                open = row == currentRow + 1 ? next : new HashMap<>();
+                next = new HashMap<>();
+                currentRow = row;
+            }
+            run = run == null ? new Rectangle(row, column, row, column) : run.withMaxColumn(column);
+        }
+        if (run != null) {
+            stack(run, rectangles, open, next, maxCells);
+        }
+        return rectangles;
+    }
+
+    private static void stack(Rectangle run, List<Rectangle> rectangles, Map<Long, Integer> open,
+                              Map<Long, Integer> next, int maxCells) {
+        long columns = GridUtil.cell(run.minColumn(), run.maxColumn()); // the column range, packed like a cell
+        Integer below = open.remove(columns);
+        if (below != null && rectangles.get(below).size() + run.size() <= maxCells) {
+            rectangles.set(below, rectangles.get(below).withMaxRow(run.maxRow()));
+            next.put(columns, below);
+        } else {
+            rectangles.add(run);
+            next.put(columns, rectangles.size() - 1);
+        }
+    }
+
+    /**
+     * A rectangle of grid cells, with inclusive bounds.
+     */
+    record Rectangle(int minRow, int minColumn, int maxRow, int maxColumn) {
+
+        int size() {
+            return (maxRow - minRow + 1) * (maxColumn - minColumn + 1);
+        }
+
+        Rectangle withMaxColumn(int column) {
+            return new Rectangle(minRow, minColumn, maxRow, column);
+        }
+
+        Rectangle withMaxRow(int row) {
+            return new Rectangle(minRow, minColumn, row, maxColumn);
+        }
+    }
+}
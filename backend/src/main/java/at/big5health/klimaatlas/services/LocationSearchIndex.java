@@ -0,0 +1,207 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+import at.big5health.klimaatlas.config.AustrianPostalCode;
+import at.big5health.klimaatlas.dtos.LocationSuggestionDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable prefix index for the location autocomplete over population centers and
+ * postal codes.
+ * <p>
+ * Every location contributes several search keys: its folded name, the folded name
+ * starting at each later word (so "pölten" finds "St. Pölten") and, for postal codes,
+ * the code itself. Folding lower-cases, strips accents, maps {@code ß} to {@code ss}
+ * and collapses punctuation to single spaces; names with umlauts are additionally
+ * indexed with the {@code ae/oe/ue} spelling.
+ * <p>
+ * Matches are ranked: whole center names first, then later words of center names and
+ * postal codes, then postal code place names. The keys of each rank are kept in their own
+ * sorted array, so the keys sharing a prefix form a contiguous range found by two binary
+ * searches, which gives the lookup cost of a trie without any per-node objects. A search
+ * walks the ranges rank by rank and stops as soon as {@code limit} locations are found, so
+ * even a one-letter prefix matching tens of thousands of keys only touches a few keys per
+ * suggestion. Each location is returned at most once.
+ */
+public final class LocationSearchIndex {
+
+    static final LocationSearchIndex EMPTY = build(List.of(), List.of());
+
+    private static final String CENTER = "CENTER";
+    private static final String POSTAL_CODE = "POSTAL_CODE";
+    private static final int RANKS = 3;
+
+    private final LocationSuggestionDTO[] locations;
+    private final String[][] keys;
+    private final int[][] keyLocations;
+
+    private LocationSearchIndex(LocationSuggestionDTO[] locations, String[][] keys, int[][] keyLocations) {
+        this.locations = locations;
+        this.keys = keys;
+        this.keyLocations = keyLocations;
+    }
+
+    /**
+     * Builds the index.
+     *
+     * @param centers     the population centers
+     * @param postalCodes the postal codes, may be empty
+     * @return the index
+     */
+    public static LocationSearchIndex build(List<AustrianPopulationCenter> centers, List<AustrianPostalCode> postalCodes) {
+        List<LocationSuggestionDTO> locations = new ArrayList<>(centers.size() + postalCodes.size());
+        List<Key> keys = new ArrayList<>();
+        for (AustrianPopulationCenter center : centers) {
+            int location = locations.size();
+            locations.add(new LocationSuggestionDTO(CENTER, center.getDisplayName(), null,
+                    center.getRepresentativeLatitude(), center.getRepresentativeLongitude()));
+            addNameKeys(keys, center.getDisplayName(), location, 0, 1);
+        }
+        for (AustrianPostalCode postalCode : postalCodes) {
+            int location = locations.size();
+            locations.add(new LocationSuggestionDTO(POSTAL_CODE, postalCode.getPlaceName(), postalCode.getPostalCode(),
+                    postalCode.getLatitude(), postalCode.getLongitude()));
+            String code = fold(postalCode.getPostalCode());
+            if (!code.isEmpty()) {
+                keys.add(new Key(code, location, 1));
+            }
+            addNameKeys(keys, postalCode.getPlaceName(), location, 2, 2);
+        }
+
+        keys.sort(Comparator.comparingInt(Key::rank).thenComparing(Key::text));
+        String[][] texts = new String[RANKS][];
+        int[][] keyLocations = new int[RANKS][];
+        int start = 0;
+        for (int rank = 0; rank < RANKS; rank++) {
+            int end = start;
+            while (end < keys.size() && keys.get(end).rank() == rank) {
+                end++;
+            }
+            texts[rank] = new String[end - start];
+            keyLocations[rank] = new int[end - start];
+            for (int i = start; i < end; i++) {
+                texts[rank][i - start] = keys.get(i).text();
+                keyLocations[rank][i - start] = keys.get(i).location();
+            }
+            start = end;
+        }
+        return new LocationSearchIndex(locations.toArray(new LocationSuggestionDTO[0]), texts, keyLocations);
+    }
+
+    /**
+     * Returns the best matching locations for a search prefix.
+     *
+     * @param query the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return up to {@code limit} suggestions, best first
+     */
+    public List<LocationSuggestionDTO> search(String query, int limit) {
+        return search(query, limit, null);
+    }
+
+    /**
+     * As {@link #search(String, int)}, additionally counting the keys looked at in
+     * {@code visitedKeys[0]} if it is not {@code null}.
+     */
+    List<LocationSuggestionDTO> search(String query, int limit, int[] visitedKeys) {
+        String prefix = query == null ? "" : fold(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<LocationSuggestionDTO> result = new ArrayList<>(Math.min(limit, 16));
+        int[] picked = new int[Math.min(limit, locations.length)];
+        for (int rank = 0; rank < RANKS && result.size() < limit; rank++) {
+            String[] rankKeys = keys[rank];
+            int[] rankLocations = keyLocations[rank];
+            int to = lowerBound(rankKeys, prefix + Character.MAX_VALUE);
+            for (int i = lowerBound(rankKeys, prefix); i < to && result.size() < limit; i++) {
+                if (visitedKeys != null) {
+                    visitedKeys[0]++;
+                }
+                if (!contains(picked, result.size(), rankLocations[i])) {
+                    picked[result.size()] = rankLocations[i];
+                    result.add(locations[rankLocations[i]]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Folds text for matching: lower case, accents stripped, {@code ß} as {@code ss},
+     * and every run of non-alphanumeric characters as a single space.
+     */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'ß') {
+                folded.append("ss");
+            } else if (Character.isLetterOrDigit(c)) {
+                folded.append(Character.toLowerCase(c));
+            } else if (!folded.isEmpty() && folded.charAt(folded.length() - 1) != ' ') {
+                folded.append(' ');
+            }
+        }
+        int length = folded.length();
+        if (length > 0 && folded.charAt(length - 1) == ' ') {
+            folded.setLength(length - 1);
+        }
+        return folded.toString();
+    }
+
+    private static void addNameKeys(List<Key> keys, String name, int location, int nameRank, int wordRank) {
+        if (name == null) {
+            return;
+        }
+        String composed = Normalizer.normalize(name.toLowerCase(Locale.ROOT), Normalizer.Form.NFC);
+        String umlauts = composed.replace("ä", "ae").replace("ö", "oe").replace("ü", "ue");
+        addWordKeys(keys, fold(composed), location, nameRank, wordRank);
+        if (!umlauts.equals(composed)) {
+            addWordKeys(keys, fold(umlauts), location, nameRank, wordRank);
+        }
+    }
+
+    private static void addWordKeys(List<Key> keys, String folded, int location, int nameRank, int wordRank) {
+        if (folded.isEmpty()) {
+            return;
+        }
+        keys.add(new Key(folded, location, nameRank));
+        for (int space = folded.indexOf(' '); space >= 0; space = folded.indexOf(' ', space + 1)) {
+            keys.add(new Key(folded.substring(space + 1), location, wordRank));
+        }
+    }
+
+    private static int lowerBound(String[] keys, String value) {
+        int index = Arrays.binarySearch(keys, value);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && keys[index - 1].equals(value)) {
+            index--;
+        }
+        return index;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Key(String text, int location, int rank) {
+    }
+}
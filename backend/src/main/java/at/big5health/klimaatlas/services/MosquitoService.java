@@ -1,32 +1,109 @@
 package at.big5health.klimaatlas.services;
 
+import at.big5health.klimaatlas.dtos.MosquitoClusterDTO;
 import at.big5health.klimaatlas.dtos.MosquitoOccurrenceDTO;
+import at.big5health.klimaatlas.dtos.gbif.GbifOccurrencePage;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.httpclients.GbifApiClient;
+import at.big5health.klimaatlas.mosquito.OccurrenceArchive;
+import at.big5health.klimaatlas.mosquito.OccurrenceBatch;
+import at.big5health.klimaatlas.mosquito.OccurrenceCheckpoint;
+import at.big5health.klimaatlas.mosquito.OccurrenceDates;
+import at.big5health.klimaatlas.mosquito.OccurrenceStore;
+import at.big5health.klimaatlas.mosquito.SpeciesDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.Period;
+import java.util.AbstractList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.RandomAccess;
 
 /**
  * Service class responsible for retrieving mosquito occurrence data from the GBIF API.
  * <p>
  * This service fetches data for Austria (country code "AT") and for a specific taxon (Aedes genus, taxon key 3346),
  * returning a list of mosquito occurrence records for the current year.
+ * <p>
+ * Harvested occurrences are kept in the {@link OccurrenceStore} together with a
+ * pre-aggregated cluster index. The store is filled on first access and refreshed
+ * periodically (property {@code mosquito.refresh-interval}, default six hours), so
+ * regular requests are answered from memory. Occurrence lists are returned as views over
+ * the stored columns; species names and dates are only expanded to strings while the
+ * response is serialised.
+ * <p>
+ * After the first full harvest, refreshes are incremental: only records GBIF has
+ * interpreted since the snapshot's watermark are fetched and merged by GBIF occurrence
+ * key. The snapshot and its watermark are checkpointed via {@link OccurrenceCheckpoint},
+ * so a restart resumes incrementally as well.
+ * <p>
+ * Past years are sealed once into the local {@link OccurrenceArchive} (starting at
+ * {@code mosquito.archive.first-year}), so date-range queries spanning several seasons
+ * are answered locally without calling GBIF again. GBIF keeps interpreting records of a
+ * season for months after it ended, so last year is only sealed once
+ * {@code mosquito.archive.grace-period} (default four months, i.e. in May) has passed since
+ * New Year. Until then it is kept in memory, checkpointed next to the current year and
+ * refreshed incrementally from its own watermark with every archive run.
  */
 @Service
 public class MosquitoService {
 
-    private final WebClient webClient;
+    private static final Logger LOG = LoggerFactory.getLogger(MosquitoService.class);
+
+    private static final String UNKNOWN = "Unknown";
+
+    private final GbifApiClient gbifApiClient;
+
+    private final OccurrenceStore occurrenceStore;
+
+    private final OccurrenceArchive occurrenceArchive;
+
+    private final OccurrenceCheckpoint occurrenceCheckpoint;
+
+    private final int firstArchiveYear;
+
+    @Value("${mosquito.archive.grace-period:P4M}")
+    private Period archiveGracePeriod = Period.ofMonths(4);
+
+    private Clock clock = Clock.systemDefaultZone();
 
     /**
-     * Constructs a new {@code MosquitoService} with the given {@link WebClient}.
+     * Guards every update of {@link #previousSeason}, which the year turnover in
+     * {@link #refreshOccurrences()} and the archive run both write.
+     */
+    private final Object seasonLock = new Object();
+
+    /**
+     * Last year's occurrences while the year is still within the grace period and therefore
+     * not yet sealed; {@code null} if there is none. Restored from its checkpoint on first use.
+     */
+    private volatile Season previousSeason;
+    private volatile boolean previousSeasonRestored;
+
+    /**
+     * Constructs a new {@code MosquitoService}.
      *
-     * @param webClient the WebClient used to perform HTTP requests
+     * @param gbifApiClient     the client used to query and decode GBIF occurrences
+     * @param occurrenceStore   the store holding the latest harvest and its cluster index
+     * @param occurrenceArchive    the archive holding the occurrences of past years
+     * @param occurrenceCheckpoint the checkpoint of the current year's harvest
+     * @param firstArchiveYear     the oldest year to archive, injected from {@code mosquito.archive.first-year}
      */
-    public MosquitoService(WebClient webClient) {
-        this.webClient = webClient;
+    public MosquitoService(GbifApiClient gbifApiClient, OccurrenceStore occurrenceStore,
+                           OccurrenceArchive occurrenceArchive, OccurrenceCheckpoint occurrenceCheckpoint,
+                           @Value("${mosquito.archive.first-year:2016}") int firstArchiveYear) {
+        this.gbifApiClient = gbifApiClient;
+        this.occurrenceStore = occurrenceStore;
+        this.occurrenceArchive = occurrenceArchive;
+        this.occurrenceCheckpoint = occurrenceCheckpoint;
+        this.firstArchiveYear = firstArchiveYear;
     }
 
     /**
@@ -38,34 +115,350 @@ public class MosquitoService {
      *     <li>Taxon Key: 3346 (representing Aedes mosquitoes)</li>
      *     <li>Presence of coordinates</li>
      *     <li>Current year</li>
-     *     <li>Maximum of 1000 records</li>
+     *     <li>All result pages (harvested 300 records at a time)</li>
      * </ul>
      * <p>
-     * If no results are found or if the API call fails, an empty list is returned.
+     * The occurrences are served from the {@link OccurrenceStore}; the GBIF API is only
+     * called if nothing has been harvested yet. Missing species or event dates are
+     * reported as "Unknown". If no results are found, an empty list is returned.
      *
      * @return a list of {@link MosquitoOccurrenceDTO} representing the found mosquito occurrences
+     * @throws at.big5health.klimaatlas.exceptions.ExternalApiException if the initial GBIF call fails
      */
     public List<MosquitoOccurrenceDTO> getOccurrences() {
+        return getOccurrences(null, null, null);
+    }
+
+    /**
+     * Retrieves mosquito occurrences in Austria, optionally restricted to a date range
+     * and a species.
+     * <p>
+     * Without a date range only the current year is returned, as by {@link #getOccurrences()}.
+     * With a date range the matching past years are scanned in the {@link OccurrenceArchive}
+     * and combined with the current year's occurrences if the range reaches into it.
+     * Occurrences without a usable event date are excluded from date-range queries; occurrences
+     * GBIF only dated to a month or year match if any day of that period lies within the range.
+     *
+     * @param from    the first day to include, or {@code null} for no lower bound
+     * @param to      the last day to include, or {@code null} for no upper bound
+     * @param species the exact species name to filter by, or {@code null} for all species
+     * @return a list of {@link MosquitoOccurrenceDTO} representing the matching occurrences
+     * @throws at.big5health.klimaatlas.exceptions.ExternalApiException if the initial GBIF call fails
+     */
+    public List<MosquitoOccurrenceDTO> getOccurrences(LocalDate from, LocalDate to, String species) {
+        boolean dateFilter = from != null || to != null;
+        int currentYear = today().getYear();
+        boolean includeCurrentYear = !dateFilter || to == null || to.getYear() >= currentYear;
 
-        String url = "https://api.gbif.org/v1/occurrence/search?country=AT&taxon_key=3346&hasCoordinate=true&limit=1000&year=" + LocalDate.now().getYear();
+        if (!dateFilter && species == null) {
+            return occurrenceView(currentSnapshot().occurrences());
+        }
 
-        Map response = webClient.get()
-                .uri(url)
-                .retrieve()
-                .bodyToMono(Map.class)
+        OccurrenceBatch result = dateFilter ? occurrenceArchive.query(from, to, species) : new OccurrenceBatch();
+        Season season = dateFilter ? previousSeason() : null;
+        if (season != null && !occurrenceArchive.years().contains(season.year())
+                && (from == null || from.getYear() <= season.year()) && (to == null || to.getYear() >= season.year())) {
+            addMatching(result, season.occurrences(), from, to, species);
+        }
+        if (includeCurrentYear) {
+            addMatching(result, currentSnapshot().occurrences(), from, to, species);
+        }
+        return occurrenceView(result);
+    }
+
+    /**
+     * Returns the pre-aggregated occurrence clusters visible in the given bounding box.
+     * <p>
+     * The number of returned clusters is bounded by the number of screen-sized cells in
+     * the bounding box at the given zoom level, not by the number of occurrences.
+     *
+     * @param bbox the visible map area
+     * @param zoom the Leaflet zoom level
+     * @return the clusters in the bounding box
+     * @see at.big5health.klimaatlas.mosquito.OccurrenceClusterIndex#query(BoundingBox, int)
+     */
+    public List<MosquitoClusterDTO> getClusters(BoundingBox bbox, int zoom) {
+        return currentSnapshot().clusters().query(bbox, zoom);
+    }
+
+    /**
+     * Harvests the current year's occurrences from GBIF and publishes them, together with
+     * a freshly built cluster index, to the {@link OccurrenceStore}.
+     * <p>
+     * If the store already holds this year's occurrences with a sync watermark, only the
+     * records GBIF has interpreted since then are fetched and merged by GBIF occurrence
+     * key; if nothing changed, the current snapshot is kept. Otherwise the whole year is
+     * harvested. The published snapshot is checkpointed.
+     *
+     * @return the published snapshot
+     * @throws at.big5health.klimaatlas.exceptions.ExternalApiException if the GBIF call fails
+     */
+    public synchronized OccurrenceStore.Snapshot refreshOccurrences() {
+        int year = today().getYear();
+        OccurrenceStore.Snapshot current = occurrenceStore.current();
+        if (current != null && current.year() == year - 1) {
+            // the year has turned over: last year continues on its own watermark until it is sealed
+            synchronized (seasonLock) {
+                if (previousSeason() == null && !occurrenceArchive.years().contains(current.year())) {
+                    setPreviousSeason(new Season(current.year(), current.occurrences(), current.syncedUpTo()));
+                }
+            }
+        }
+        boolean incremental = current != null && current.year() == year && current.syncedUpTo() != null;
+
+        GbifOccurrencePage harvest = gbifApiClient.fetchOccurrences(year, incremental ? current.syncedUpTo() : null)
                 .block();
+        OccurrenceBatch changes = harvest != null ? harvest.occurrences() : new OccurrenceBatch();
+        Instant lastInterpreted = harvest != null ? harvest.lastInterpreted() : null;
+
+        OccurrenceStore.Snapshot snapshot;
+        if (incremental) {
+            if (changes.isEmpty()) {
+                LOG.info("No mosquito occurrences changed since {}.", current.syncedUpTo());
+                return current;
+            }
+            snapshot = occurrenceStore.publish(year, current.occurrences().mergeById(changes),
+                    later(current.syncedUpTo(), lastInterpreted));
+            LOG.info("Merged {} changed mosquito occurrences; the store now holds {}.",
+                    changes.size(), snapshot.occurrences().size());
+        } else {
+            snapshot = occurrenceStore.publish(year, changes, lastInterpreted);
+            LOG.info("Published {} mosquito occurrences to the occurrence store.", snapshot.occurrences().size());
+        }
+        saveCheckpoint(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Periodically refreshes the occurrence store. Failures are logged and the previous
+     * snapshot is kept.
+     */
+    @Scheduled(fixedDelayString = "${mosquito.refresh-interval:PT6H}",
+            initialDelayString = "${mosquito.refresh-interval:PT6H}")
+    public void scheduledRefresh() {
+        try {
+            refreshOccurrences();
+        } catch (RuntimeException e) {
+            LOG.error("Scheduled refresh of mosquito occurrences failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Seals all past years from {@code mosquito.archive.first-year} up to last year that
+     * are not yet archived. Each year is harvested from GBIF once; failures are logged and
+     * the year is retried on the next run. A year still within
+     * {@code mosquito.archive.grace-period} is not sealed but refreshed incrementally instead.
+     */
+    @Scheduled(fixedDelayString = "${mosquito.archive.sync-interval:PT24H}", initialDelayString = "PT1M")
+    public void archivePastYears() {
+        LocalDate today = today();
+        int lastYear = today.getYear() - 1;
+        for (int year = firstArchiveYear; year <= lastYear; year++) {
+            if (occurrenceArchive.years().contains(year)) {
+                continue;
+            }
+            try {
+                if (today.isBefore(LocalDate.of(year + 1, 1, 1).plus(archiveGracePeriod))) {
+                    refreshPreviousSeason(year);
+                    continue;
+                }
+                OccurrenceBatch batch = gbifApiClient.fetchOccurrences(year).block();
+                occurrenceArchive.append(year, batch != null ? batch : new OccurrenceBatch());
+            } catch (RuntimeException e) {
+                LOG.error("Archiving mosquito occurrences for {} failed: {}", year, e.getMessage());
+            }
+        }
+        synchronized (seasonLock) {
+            Season season = previousSeason();
+            if (season != null && occurrenceArchive.years().contains(season.year())) {
+                setPreviousSeason(null);
+            }
+        }
+    }
+
+    /**
+     * Harvests a past year that is not sealed yet, incrementally since its watermark if it
+     * is already held in memory.
+     */
+    private void refreshPreviousSeason(int year) {
+        synchronized (seasonLock) {
+            Season season = previousSeason();
+            boolean incremental = season != null && season.year() == year && season.syncedUpTo() != null;
+            GbifOccurrencePage harvest = gbifApiClient.fetchOccurrences(year, incremental ? season.syncedUpTo() : null)
+                    .block();
+            OccurrenceBatch changes = harvest != null ? harvest.occurrences() : new OccurrenceBatch();
+            Instant lastInterpreted = harvest != null ? harvest.lastInterpreted() : null;
+            if (occurrenceArchive.years().contains(year)) {
+                return;
+            }
+            if (!incremental) {
+                setPreviousSeason(new Season(year, changes, lastInterpreted));
+            } else if (!changes.isEmpty()) {
+                setPreviousSeason(new Season(year, season.occurrences().mergeById(changes),
+                        later(season.syncedUpTo(), lastInterpreted)));
+                LOG.info("Merged {} late mosquito occurrences for {}, which is not sealed yet.", changes.size(), year);
+            }
+        }
+    }
+
+    /**
+     * @return last year's occurrences if they are not sealed yet, restored from the checkpoint
+     *         on first use
+     */
+    private Season previousSeason() {
+        if (!previousSeasonRestored) {
+            synchronized (seasonLock) {
+                if (!previousSeasonRestored) {
+                    previousSeason = restorePreviousSeason();
+                    previousSeasonRestored = true;
+                }
+            }
+        }
+        return previousSeason;
+    }
+
+    /**
+     * Replaces the previous season and its checkpoint; {@code null} once it has been sealed.
+     * Must be called while holding {@link #seasonLock}.
+     */
+    private void setPreviousSeason(Season season) {
+        previousSeason = season;
+        previousSeasonRestored = true;
+        try {
+            if (season != null) {
+                occurrenceCheckpoint.savePreviousSeason(
+                        new OccurrenceCheckpoint.State(season.year(), season.occurrences(), season.syncedUpTo()));
+            } else {
+                occurrenceCheckpoint.deletePreviousSeason();
+            }
+        } catch (UncheckedIOException e) {
+            LOG.warn("Could not checkpoint last year's mosquito occurrences: {}", e.getMessage());
+        }
+    }
+
+    private Season restorePreviousSeason() {
+        int lastYear = today().getYear() - 1;
+        try {
+            return occurrenceCheckpoint.loadPreviousSeason()
+                    .filter(state -> state.year() == lastYear && !occurrenceArchive.years().contains(state.year()))
+                    .map(state -> new Season(state.year(), state.occurrences(), state.syncedUpTo()))
+                    .orElse(null);
+        } catch (UncheckedIOException e) {
+            LOG.warn("Ignoring unreadable mosquito previous season checkpoint: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Adds the occurrences of a batch matching the date range and species to the result.
+     */
+    private static void addMatching(OccurrenceBatch result, OccurrenceBatch batch, LocalDate from, LocalDate to,
+                                    String species) {
+        int speciesCode = species != null ? SpeciesDictionary.shared().lookup(species) : SpeciesDictionary.UNKNOWN;
+        if (species != null && speciesCode == SpeciesDictionary.UNKNOWN) {
+            return;
+        }
+        boolean dateFilter = from != null || to != null;
+        long fromDay = from != null ? from.toEpochDay() : Long.MIN_VALUE;
+        long toDay = to != null ? to.toEpochDay() : Long.MAX_VALUE;
+        for (int i = 0; i < batch.size(); i++) {
+            if (species != null && batch.speciesCode(i) != speciesCode) {
+                continue;
+            }
+            if (dateFilter && !OccurrenceDates.overlaps(batch.eventDay(i), fromDay, toDay)) {
+                continue;
+            }
+            result.add(batch, i);
+        }
+    }
+
+    private OccurrenceStore.Snapshot currentSnapshot() {
+        OccurrenceStore.Snapshot snapshot = occurrenceStore.current();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = occurrenceStore.current();
+            if (snapshot == null) {
+                snapshot = restoreCheckpoint();
+            }
+            return snapshot != null ? snapshot : refreshOccurrences();
+        }
+    }
+
+    private OccurrenceStore.Snapshot restoreCheckpoint() {
+        try {
+            return occurrenceCheckpoint.load()
+                    .filter(state -> state.year() == today().getYear())
+                    .map(state -> occurrenceStore.publish(state.year(), state.occurrences(), state.syncedUpTo()))
+                    .orElse(null);
+        } catch (UncheckedIOException e) {
+            LOG.warn("Ignoring unreadable mosquito occurrence checkpoint: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveCheckpoint(OccurrenceStore.Snapshot snapshot) {
+        try {
+            occurrenceCheckpoint.save(snapshot);
+        } catch (UncheckedIOException e) {
+            LOG.warn("Could not checkpoint mosquito occurrences: {}", e.getMessage());
+        }
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+
+    /**
+     * Wraps the batch in a read-only list whose DTOs are created on access, i.e. while the
+     * response is serialised, instead of being materialised up front.
+     */
+    private static List<MosquitoOccurrenceDTO> occurrenceView(OccurrenceBatch batch) {
+        if (batch.isEmpty()) return Collections.emptyList();
+
+        return new OccurrenceView(batch);
+    }
+
+    private static String orUnknown(String value) {
+        return value != null ? value : UNKNOWN;
+    }
+
+    /**
+     * The occurrences of a past year that is not sealed yet, with their sync watermark.
+     */
+    private record Season(int year, OccurrenceBatch occurrences, Instant syncedUpTo) {
+    }
+
+    private static final class OccurrenceView extends AbstractList<MosquitoOccurrenceDTO> implements RandomAccess {
+
+        private final OccurrenceBatch batch;
+
+        OccurrenceView(OccurrenceBatch batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public MosquitoOccurrenceDTO get(int index) {
+            return new MosquitoOccurrenceDTO(
+                    batch.latitude(index),
+                    batch.longitude(index),
+                    orUnknown(batch.species(index)),
+                    orUnknown(batch.eventDate(index))
+            );
+        }
 
-        List<Map<String, Object>> results = (List<Map<String, Object>>) response.get("results");
-        if (results == null) return Collections.emptyList();
-
-        return results.stream()
-                .map(entry -> new MosquitoOccurrenceDTO(
-                        (Double) entry.get("decimalLatitude"),
-                        (Double) entry.get("decimalLongitude"),
-                        (String) entry.getOrDefault("species", "Unknown"),
-                        (String) entry.getOrDefault("eventDate", "Unknown")
-                ))
-                .collect(Collectors.toList());
+        @Override
+        public int size() {
+            return batch.size();
+        }
     }
 
 }
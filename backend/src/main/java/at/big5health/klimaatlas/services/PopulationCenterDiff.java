@@ -0,0 +1,82 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Difference between two versions of the population center list.
+ * <p>
+ * Centers are matched on their representative coordinates rounded to six decimal places
+ * (about 0.1 m), the point the weather cache is keyed on. A center whose representative
+ * point moved therefore shows up as removed at its old position and added at its new one,
+ * which are the only cases where cached weather data has to be evicted or fetched. Centers
+ * at the same point whose name, spelling or bounding box differ are reported as changed;
+ * these are metadata-only changes that leave the cached weather data valid. If several
+ * centers share a point, an identical one is matched first. The diff is computed with one
+ * hash lookup per center, i.e. in linear time.
+ *
+ * @param added   centers at points not present in the old list
+ * @param removed centers of the old list without a counterpart at their point in the new list
+ * @param changed centers present at the same point in both lists whose other attributes
+ *                differ (new version)
+ */
+public record PopulationCenterDiff(List<AustrianPopulationCenter> added,
+                                   List<AustrianPopulationCenter> removed,
+                                   List<AustrianPopulationCenter> changed) {
+
+    /**
+     * Computes the difference between two center lists.
+     *
+     * @param previous the previously loaded centers
+     * @param current  the freshly loaded centers
+     * @return the diff from {@code previous} to {@code current}
+     */
+    public static PopulationCenterDiff between(List<AustrianPopulationCenter> previous,
+                                               List<AustrianPopulationCenter> current) {
+        Map<Key, List<AustrianPopulationCenter>> remaining = new HashMap<>(previous.size() * 2);
+        for (AustrianPopulationCenter center : previous) {
+            remaining.computeIfAbsent(Key.of(center), key -> new ArrayList<>(1)).add(center);
+        }
+
+        List<AustrianPopulationCenter> added = new ArrayList<>();
+        List<AustrianPopulationCenter> changed = new ArrayList<>();
+        for (AustrianPopulationCenter center : current) {
+            List<AustrianPopulationCenter> candidates = remaining.get(Key.of(center));
+            if (candidates == null || candidates.isEmpty()) {
+                added.add(center);
+                continue;
+            }
+            int identical = candidates.indexOf(center);
+            AustrianPopulationCenter old = candidates.remove(Math.max(identical, 0));
+            if (!old.equals(center)) {
+                changed.add(center);
+            }
+        }
+        List<AustrianPopulationCenter> removed = new ArrayList<>();
+        remaining.values().forEach(removed::addAll);
+        return new PopulationCenterDiff(added, removed, changed);
+    }
+
+    /**
+     * @return {@code true} if both lists contain the same centers
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    /**
+     * Normalized representative point of a population center.
+     */
+    private record Key(long latitude, long longitude) {
+
+        static Key of(AustrianPopulationCenter center) {
+            return new Key(
+                    PopulationCenterSnapshot.scaleCoordinate(center.getRepresentativeLatitude()),
+                    PopulationCenterSnapshot.scaleCoordinate(center.getRepresentativeLongitude()));
+        }
+    }
+}
@@ -2,27 +2,33 @@ package at.big5health.klimaatlas.services;
 
 import at.big5health.klimaatlas.config.AustrianPopulationCenter;
 import at.big5health.klimaatlas.Components.PopulationCenterLoader;
+import at.big5health.klimaatlas.dtos.LocationSuggestionDTO;
+import at.big5health.klimaatlas.dtos.PopulationCenterDTO;
+import at.big5health.klimaatlas.dtos.PopulationCenterLocationDTO;
 import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * Service responsible for managing Austrian population center data.
  * Loads and keeps in memory the list of centers defined in an external CSV file.
  * Provides access to these centers and supports reloading and selective re-caching
  * of weather data when changes are detected.
+ * <p>
+ * The centers, their lookup indexes and the errors of the last reload are held in one
+ * immutable {@link PopulationCenterSnapshot}, which a reload replaces with a single volatile
+ * write. Request threads read it without locking while the CSV watcher reloads.
  */
 @Service
 public class PopulationCenterService {
 
-    private List<AustrianPopulationCenter> centers = new ArrayList<>();
+    private static final double EARTH_RADIUS_KM = 6371.0088;
 
-    private List<String> lastCsvErrors = new ArrayList<>();
+    private volatile PopulationCenterSnapshot snapshot = PopulationCenterSnapshot.EMPTY;
 
     private final PopulationCenterLoader populationCenterLoader;
 
@@ -37,7 +43,8 @@ public class PopulationCenterService {
     @PostConstruct
     public void init() {
         try {
-            this.centers = populationCenterLoader.loadFromCSV();
+            this.snapshot = PopulationCenterSnapshot.of(populationCenterLoader.loadFromCSV(),
+                    populationCenterLoader.loadPostalCodes());
         } catch (RuntimeException e) {
             System.err.println("Failed to load centers: " + e.getMessage());
         }
@@ -51,46 +58,146 @@ public class PopulationCenterService {
      * @throws at.big5health.klimaatlas.exceptions.CsvParseException if previous load had errors
      */
     public List<AustrianPopulationCenter> getAllCenters() {
-        if (!lastCsvErrors.isEmpty()) {
-            throw new at.big5health.klimaatlas.exceptions.CsvParseException(lastCsvErrors);
+        PopulationCenterSnapshot current = snapshot;
+        if (!current.errors().isEmpty()) {
+            throw new at.big5health.klimaatlas.exceptions.CsvParseException(current.errors());
         }
 
-        return centers;
+        return current.centers();
     }
 
     /**
-     * Reloads the CSV and re-caches weather data for any newly added population centers.
+     * Looks up population centers by display name, ignoring case and surrounding whitespace.
+     *
+     * @param name the display name
+     * @return the matching centers, empty if there are none
+     */
+    public List<AustrianPopulationCenter> findByName(String name) {
+        return snapshot.findByName(name);
+    }
+
+    /**
+     * Looks up the population center whose representative point lies at the given coordinates.
+     *
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return the center at that point, if any
+     */
+    public Optional<AustrianPopulationCenter> findByCoordinates(double latitude, double longitude) {
+        return snapshot.findByCoordinates(latitude, longitude);
+    }
+
+    /**
+     * Resolves a map position to the population centers it belongs to.
+     * Lookups use the last successfully loaded centers, even if a later reload failed.
+     *
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return the containing centers and the center with the nearest representative point
+     */
+    public PopulationCenterLocationDTO locate(double latitude, double longitude) {
+        PopulationCenterSnapshot current = snapshot;
+        List<PopulationCenterDTO> containing = current.findContaining(latitude, longitude).stream()
+                .map(PopulationCenterService::toDto)
+                .toList();
+        return current.findNearest(latitude, longitude)
+                .map(center -> new PopulationCenterLocationDTO(containing, toDto(center),
+                        distanceKm(latitude, longitude,
+                                center.getRepresentativeLatitude(), center.getRepresentativeLongitude())))
+                .orElseGet(() -> new PopulationCenterLocationDTO(containing, null, null));
+    }
+
+    /**
+     * Returns autocomplete suggestions over population centers and postal codes.
+     * Like {@link #locate}, this uses the last successfully loaded centers.
+     *
+     * @param query the text typed so far; case and accents are ignored
+     * @param limit the maximum number of suggestions
+     * @return the suggestions, best first
+     */
+    public List<LocationSuggestionDTO> search(String query, int limit) {
+        return snapshot.search(query, limit);
+    }
+
+    /**
+     * @return the currently published snapshot of centers and indexes
+     */
+    public PopulationCenterSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Reloads the CSV and re-caches weather data for population centers at new representative points.
      * In case of parsing errors, the previously loaded list is kept and error messages are stored.
      *
      * @param actualDate the date for which to re-cache weather data
      * @param reCacheFunction function that re-caches one {@link AustrianPopulationCenter}
+     * @return the difference between the previous and the reloaded centers
      */
-    public void refreshAndReCache(LocalDate actualDate, Consumer<AustrianPopulationCenter> reCacheFunction) {
-        try {
-            List<AustrianPopulationCenter> newCenters = populationCenterLoader.loadFromCSV();
+    public PopulationCenterDiff refreshAndReCache(LocalDate actualDate, Consumer<AustrianPopulationCenter> reCacheFunction) {
+        return refreshAndReCache(actualDate, reCacheFunction, center -> { });
+    }
 
-            List<AustrianPopulationCenter> toBeReCached = newCenters.stream()
-                    .filter(newCenter ->
-                            centers.stream().noneMatch(old ->
-                                    old.getDisplayName().equalsIgnoreCase(newCenter.getDisplayName())
-                                            && old.getRepresentativeLatitude() == newCenter.getRepresentativeLatitude()
-                                            && old.getRepresentativeLongitude() == newCenter.getRepresentativeLongitude()
-                            )
-                    )
-                    .collect(Collectors.toList());
+    /**
+     * Reloads the CSV, evicts cached data of removed centers and re-caches weather data for
+     * centers at new representative points. Centers whose point is unchanged are left alone,
+     * including those whose name or bounding box changed, since the weather cache is keyed on
+     * the point only. Cached data at a point still used by another center is not evicted.
+     * In case of parsing errors, the previously loaded list is kept and error messages are stored.
+     *
+     * @param actualDate the date for which to re-cache weather data
+     * @param reCacheFunction function that re-caches one {@link AustrianPopulationCenter}
+     * @param evictFunction function that evicts the cached data of one removed {@link AustrianPopulationCenter}
+     * @return the difference between the previous and the reloaded centers
+     * @see PopulationCenterDiff
+     */
+    public PopulationCenterDiff refreshAndReCache(LocalDate actualDate,
+                                                  Consumer<AustrianPopulationCenter> reCacheFunction,
+                                                  Consumer<AustrianPopulationCenter> evictFunction) {
+        try {
+            PopulationCenterSnapshot next = PopulationCenterSnapshot.of(
+                    populationCenterLoader.loadFromCSV(), snapshot.postalCodes());
+            PopulationCenterDiff diff = PopulationCenterDiff.between(snapshot.centers(), next.centers());
 
-            this.centers = newCenters;
-            this.lastCsvErrors = List.of();
+            this.snapshot = next;
 
-            toBeReCached.forEach(reCacheFunction);
+            diff.removed().stream()
+                    .filter(center -> next.findByCoordinates(center.getRepresentativeLatitude(),
+                            center.getRepresentativeLongitude()).isEmpty())
+                    .forEach(evictFunction);
+            diff.added().forEach(reCacheFunction);
+            return diff;
 
         } catch (RuntimeException e) {
             if (e instanceof at.big5health.klimaatlas.exceptions.CsvParseException csvEx) {
-                this.lastCsvErrors = csvEx.getErrors();
+                this.snapshot = snapshot.withErrors(csvEx.getErrors());
             } else {
-                this.lastCsvErrors = List.of(e.getMessage());
+                this.snapshot = snapshot.withErrors(List.of(String.valueOf(e.getMessage())));
             }
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    static PopulationCenterDTO toDto(AustrianPopulationCenter center) {
+        return new PopulationCenterDTO(
+                center.getDisplayName(),
+                center.getRepresentativeLatitude(),
+                center.getRepresentativeLongitude(),
+                center.getMinLatitude(),
+                center.getMinLongitude(),
+                center.getMaxLatitude(),
+                center.getMaxLongitude());
+    }
+
+    /**
+     * Haversine distance between two points in kilometres.
+     */
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,230 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+import at.big5health.klimaatlas.config.AustrianPostalCode;
+import at.big5health.klimaatlas.dtos.LocationSuggestionDTO;
+import at.big5health.klimaatlas.grid.PackedRTree;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable view of the loaded population centers together with their lookup indexes.
+ * <p>
+ * A snapshot is fully built before it is handed to {@link PopulationCenterService}, which
+ * publishes it with a single volatile write. Readers therefore always see a consistent set
+ * of centers, indexes and load errors without taking a lock, while a reload builds the next
+ * snapshot on the side.
+ * <p>
+ * Two hash indexes are kept: one on the trimmed, lower-case display name and one on the
+ * representative coordinates rounded to six decimal places. Both use the same
+ * normalization as {@link PopulationCenterDiff}. Two {@link PackedRTree}s index the
+ * bounding boxes and the representative points for map lookups, and a
+ * {@link LocationSearchIndex} serves the autocomplete over centers and postal codes.
+ */
+public final class PopulationCenterSnapshot {
+
+    static final PopulationCenterSnapshot EMPTY = of(List.of(), List.of());
+
+    private static final double COORDINATE_SCALE = 1e6;
+
+    private final List<AustrianPopulationCenter> centers;
+    private final List<String> errors;
+    private final Map<String, List<AustrianPopulationCenter>> byName;
+    private final Map<Coordinates, AustrianPopulationCenter> byCoordinates;
+    private final PackedRTree extents;
+    private final PackedRTree points;
+    private final List<AustrianPostalCode> postalCodes;
+    private final LocationSearchIndex searchIndex;
+
+    private PopulationCenterSnapshot(List<AustrianPopulationCenter> centers, List<String> errors,
+                                     Map<String, List<AustrianPopulationCenter>> byName,
+                                     Map<Coordinates, AustrianPopulationCenter> byCoordinates,
+                                     PackedRTree extents, PackedRTree points,
+                                     List<AustrianPostalCode> postalCodes, LocationSearchIndex searchIndex) {
+        this.centers = centers;
+        this.errors = errors;
+        this.byName = byName;
+        this.byCoordinates = byCoordinates;
+        this.extents = extents;
+        this.points = points;
+        this.postalCodes = postalCodes;
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Builds a snapshot of successfully loaded centers without postal codes.
+     *
+     * @param centers the loaded centers
+     * @return a snapshot indexing a copy of {@code centers}
+     */
+    public static PopulationCenterSnapshot of(List<AustrianPopulationCenter> centers) {
+        return of(centers, List.of());
+    }
+
+    /**
+     * Builds a snapshot of successfully loaded centers and postal codes.
+     *
+     * @param centers     the loaded centers
+     * @param postalCodes the loaded postal codes, only used for the location search
+     * @return a snapshot indexing copies of both lists
+     */
+    public static PopulationCenterSnapshot of(List<AustrianPopulationCenter> centers,
+                                              List<AustrianPostalCode> postalCodes) {
+        List<AustrianPopulationCenter> copy = List.copyOf(centers);
+        Map<String, List<AustrianPopulationCenter>> byName = new HashMap<>(copy.size() * 2);
+        Map<Coordinates, AustrianPopulationCenter> byCoordinates = new HashMap<>(copy.size() * 2);
+        for (AustrianPopulationCenter center : copy) {
+            byName.computeIfAbsent(normalizeName(center.getDisplayName()), name -> new ArrayList<>(1)).add(center);
+            byCoordinates.putIfAbsent(Coordinates.of(
+                    center.getRepresentativeLatitude(), center.getRepresentativeLongitude()), center);
+        }
+        byName.replaceAll((name, matches) -> List.copyOf(matches));
+
+        int n = copy.size();
+        double[] minLat = new double[n];
+        double[] minLon = new double[n];
+        double[] maxLat = new double[n];
+        double[] maxLon = new double[n];
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            AustrianPopulationCenter center = copy.get(i);
+            minLat[i] = Math.min(center.getMinLatitude(), center.getMaxLatitude());
+            minLon[i] = Math.min(center.getMinLongitude(), center.getMaxLongitude());
+            maxLat[i] = Math.max(center.getMinLatitude(), center.getMaxLatitude());
+            maxLon[i] = Math.max(center.getMinLongitude(), center.getMaxLongitude());
+            lat[i] = center.getRepresentativeLatitude();
+            lon[i] = center.getRepresentativeLongitude();
+        }
+        List<AustrianPostalCode> postalCodesCopy = List.copyOf(postalCodes);
+        return new PopulationCenterSnapshot(copy, List.of(), byName, byCoordinates,
+                PackedRTree.build(minLat, minLon, maxLat, maxLon), PackedRTree.build(lat, lon, lat, lon),
+                postalCodesCopy, LocationSearchIndex.build(copy, postalCodesCopy));
+    }
+
+    /**
+     * Returns a snapshot with the same centers and indexes that records a failed reload.
+     *
+     * @param loadErrors the errors of the failed reload
+     * @return the new snapshot
+     */
+    public PopulationCenterSnapshot withErrors(List<String> loadErrors) {
+        return new PopulationCenterSnapshot(centers, List.copyOf(loadErrors), byName, byCoordinates,
+                extents, points, postalCodes, searchIndex);
+    }
+
+    /**
+     * @return the centers, in file order (unmodifiable)
+     */
+    public List<AustrianPopulationCenter> centers() {
+        return centers;
+    }
+
+    /**
+     * @return the errors of the last reload, empty if it succeeded
+     */
+    public List<String> errors() {
+        return errors;
+    }
+
+    /**
+     * Looks up centers by display name, ignoring case and surrounding whitespace.
+     *
+     * @param name the display name
+     * @return the matching centers, empty if there are none
+     */
+    public List<AustrianPopulationCenter> findByName(String name) {
+        if (name == null) {
+            return List.of();
+        }
+        return byName.getOrDefault(normalizeName(name), List.of());
+    }
+
+    /**
+     * Looks up the center whose representative point lies at the given coordinates
+     * (compared to six decimal places).
+     *
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return the center at that point, if any
+     */
+    public Optional<AustrianPopulationCenter> findByCoordinates(double latitude, double longitude) {
+        return Optional.ofNullable(byCoordinates.get(Coordinates.of(latitude, longitude)));
+    }
+
+    /**
+     * Finds all centers whose bounding box contains the given point.
+     *
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return the containing centers, smallest bounding box first
+     */
+    public List<AustrianPopulationCenter> findContaining(double latitude, double longitude) {
+        List<AustrianPopulationCenter> result = new ArrayList<>(2);
+        extents.search(latitude, longitude, index -> result.add(centers.get(index)));
+        if (result.size() > 1) {
+            result.sort(Comparator.comparingDouble(PopulationCenterSnapshot::area));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the center whose representative point is closest to the given point.
+     *
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return the nearest center, empty if no centers are loaded
+     */
+    public Optional<AustrianPopulationCenter> findNearest(double latitude, double longitude) {
+        int index = points.nearest(latitude, longitude);
+        return index < 0 ? Optional.empty() : Optional.of(centers.get(index));
+    }
+
+    /**
+     * @return the postal codes the search index was built with
+     */
+    public List<AustrianPostalCode> postalCodes() {
+        return postalCodes;
+    }
+
+    /**
+     * Returns autocomplete suggestions for a search prefix.
+     *
+     * @param query the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return the suggestions, best first
+     * @see LocationSearchIndex#search(String, int)
+     */
+    public List<LocationSuggestionDTO> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    private static double area(AustrianPopulationCenter center) {
+        return Math.abs((center.getMaxLatitude() - center.getMinLatitude())
+                * (center.getMaxLongitude() - center.getMinLongitude()));
+    }
+
+    static String normalizeName(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static long scaleCoordinate(double degrees) {
+        return Math.round(degrees * COORDINATE_SCALE);
+    }
+
+    /**
+     * Representative point in units of 10<sup>-6</sup> degrees.
+     */
+    private record Coordinates(long latitude, long longitude) {
+
+        static Coordinates of(double latitude, double longitude) {
+            return new Coordinates(scaleCoordinate(latitude), scaleCoordinate(longitude));
+        }
+    }
+}
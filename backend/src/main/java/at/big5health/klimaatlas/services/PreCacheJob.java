@@ -0,0 +1,76 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.dtos.PreCacheJobDTO;
+import at.big5health.klimaatlas.dtos.PreCacheOutcomeDTO;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of one pre-cache run. Outcomes are recorded concurrently by the fetch tasks;
+ * {@link #toDto()} returns a consistent-enough view for monitoring at any time.
+ */
+final class PreCacheJob {
+
+    enum Outcome { SUCCESS, NOT_FOUND, API_ERROR, FAILED, CANCELLED }
+
+    private final long id;
+    private final String trigger;
+    private final LocalDate date;
+    private final int total;
+    private final Instant startedAt = Instant.now();
+    private final ConcurrentLinkedQueue<PreCacheOutcomeDTO> outcomes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private volatile boolean cancelled;
+    private volatile Instant finishedAt;
+
+    PreCacheJob(long id, String trigger, LocalDate date, int total) {
+        this.id = id;
+        this.trigger = trigger;
+        this.date = date;
+        this.total = total;
+    }
+
+    void record(String center, Outcome outcome, String message, long durationMs) {
+        if (outcome == Outcome.SUCCESS) {
+            succeeded.incrementAndGet();
+        } else if (outcome != Outcome.CANCELLED) {
+            failed.incrementAndGet();
+        }
+        outcomes.add(new PreCacheOutcomeDTO(center, outcome.name(), message, durationMs));
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    void finish() {
+        finishedAt = Instant.now();
+    }
+
+    int total() {
+        return total;
+    }
+
+    int succeeded() {
+        return succeeded.get();
+    }
+
+    int failed() {
+        return failed.get();
+    }
+
+    PreCacheJobDTO toDto() {
+        Instant finished = finishedAt;
+        String status = finished == null ? "RUNNING" : cancelled ? "CANCELLED" : "COMPLETED";
+        List<PreCacheOutcomeDTO> results = List.copyOf(outcomes);
+        int done = succeeded.get() + failed.get();
+        return new PreCacheJobDTO(id, trigger, date, status, total, done, succeeded.get(), failed.get(),
+                startedAt, finished, results);
+    }
+}
@@ -0,0 +1,177 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeature;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeatureCollection;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusParameter;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.GridUtil;
+import at.big5health.klimaatlas.httpclients.ExternalWeatherApiClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * Starts the daily pre-cache as soon as the previous day's data has been published.
+ * <p>
+ * The Spartacus dataset for a day appears some time in the morning of the next day, but not at
+ * a fixed time. Instead of a fixed cron, this scheduler probes a single reference cell for
+ * yesterday, starting at {@code weather.availability.earliest-probe} (CET). While the day is
+ * missing it backs off exponentially from {@code weather.availability.initial-backoff} up to
+ * {@code weather.availability.max-backoff}. Once the data is there, the optional grid pre-cache
+ * and then the population center pre-cache run, once per day.
+ * <p>
+ * The startup pre-cache runs through this scheduler as well, once the application is ready.
+ * Polls are skipped until it has finished, and a date it pre-cached is not crawled again, so the
+ * two never fetch the same centers side by side with separate rate limits. Because nothing
+ * else is remembered across restarts, an instance that was down when the data was published
+ * catches up at startup or on its first poll after it.
+ */
+@Service
+public class PreCacheScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PreCacheScheduler.class);
+    private static final ZoneId CET = ZoneId.of("CET");
+
+    private final ExternalWeatherApiClient externalClient;
+    private final GridUtil gridUtil;
+    private final WeatherPreCacheService weatherPreCacheService;
+    private final GridPreCacheService gridPreCacheService;
+
+    private Clock clock = Clock.system(CET);
+
+    @Value("${weather.availability.reference-latitude:48.2082}")
+    private double referenceLatitude = 48.2082;
+
+    @Value("${weather.availability.reference-longitude:16.3738}")
+    private double referenceLongitude = 16.3738;
+
+    @Value("${weather.availability.earliest-probe:06:00}")
+    private String earliestProbe = "06:00";
+
+    @Value("${weather.availability.initial-backoff:PT5M}")
+    private Duration initialBackoff = Duration.ofMinutes(5);
+
+    @Value("${weather.availability.max-backoff:PT30M}")
+    private Duration maxBackoff = Duration.ofMinutes(30);
+
+    private volatile LocalDate lastPreCached;
+    private volatile boolean startupDone;
+    private volatile Instant nextProbe = Instant.MIN;
+    private volatile int failedProbes;
+
+    public PreCacheScheduler(ExternalWeatherApiClient externalClient, GridUtil gridUtil,
+                             WeatherPreCacheService weatherPreCacheService, GridPreCacheService gridPreCacheService) {
+        this.externalClient = externalClient;
+        this.gridUtil = gridUtil;
+        this.weatherPreCacheService = weatherPreCacheService;
+        this.gridPreCacheService = gridPreCacheService;
+    }
+
+    /**
+     * Runs the startup pre-cache for the latest published date once the application is ready.
+     * <p>
+     * If yesterday's data has been published, the grid is pre-cached as well and the daily run is
+     * considered done for that date. Otherwise, e.g. for an early-morning deploy, the centers are
+     * warmed with the day before, the latest date Spartacus can answer, instead of crawling a
+     * date that only returns "not found" and keeping the instance out of service until the
+     * warm-up times out. Yesterday is then pre-cached by {@link #poll()} once it is published.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Async
+    public void preCacheOnStartup() {
+        LocalDate yesterday = ZonedDateTime.now(clock.withZone(CET)).toLocalDate().minusDays(1);
+        try {
+            if (isAvailable(yesterday)) {
+                if (gridPreCacheService.isEnabled()) {
+                    gridPreCacheService.preCacheGrid(yesterday);
+                }
+                weatherPreCacheService.startupPreCache(yesterday);
+                lastPreCached = yesterday;
+            } else {
+                LOG.info("Weather data for {} is not published yet; warming the cache with {}.",
+                        yesterday, yesterday.minusDays(1));
+                weatherPreCacheService.startupPreCache(yesterday.minusDays(1));
+            }
+        } finally {
+            startupDone = true;
+        }
+    }
+
+    /**
+     * Probes for yesterday's data, if it is due, and pre-caches it once it is available.
+     * While the startup pre-cache is running, this returns immediately instead of holding a
+     * scheduler thread until it has finished.
+     */
+    @Scheduled(fixedDelayString = "${weather.availability.poll-interval:PT1M}")
+    public void poll() {
+        ZonedDateTime now = ZonedDateTime.now(clock.withZone(CET));
+        LocalDate target = now.toLocalDate().minusDays(1);
+        if (!startupDone || target.equals(lastPreCached) || now.toLocalTime().isBefore(LocalTime.parse(earliestProbe))
+                || now.toInstant().isBefore(nextProbe)) {
+            return;
+        }
+        if (!isAvailable(target)) {
+            Duration backoff = backoff(failedProbes++);
+            nextProbe = now.toInstant().plus(backoff);
+            LOG.info("Weather data for {} is not published yet; probing again in {}.", target, backoff);
+            return;
+        }
+        LOG.info("Weather data for {} is available after {} unsuccessful probe(s); starting the daily pre-cache.",
+                target, failedProbes);
+        if (gridPreCacheService.isEnabled()) {
+            gridPreCacheService.preCacheGrid(target);
+        }
+        weatherPreCacheService.scheduledPreCache(target);
+        lastPreCached = target;
+        failedProbes = 0;
+        nextProbe = Instant.MIN;
+    }
+
+    /**
+     * Checks whether the reference cell has any value for a date. The request bypasses the
+     * caches, so that an empty answer is not remembered.
+     *
+     * @param date the date to check
+     * @return {@code true} if the data for the date has been published
+     */
+    boolean isAvailable(LocalDate date) {
+        BoundingBox bbox = gridUtil.getGridCellForCoordinates(referenceLatitude, referenceLongitude).getBbox();
+        try {
+            SpartacusFeatureCollection collection = externalClient.fetchGridData(bbox, date).block();
+            return collection != null && collection.getFeatures() != null
+                    && collection.getFeatures().stream().anyMatch(PreCacheScheduler::hasValue);
+        } catch (Exception e) {
+            LOG.debug("Availability probe for {} failed: {}", date, e.getMessage());
+            return false;
+        }
+    }
+
+    private Duration backoff(int attempt) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempt, 16));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private static boolean hasValue(SpartacusFeature feature) {
+        if (feature.getProperties() == null || feature.getProperties().getParameters() == null) {
+            return false;
+        }
+        return feature.getProperties().getParameters().values().stream()
+                .map(SpartacusParameter::getData)
+                .filter(Objects::nonNull)
+                .anyMatch(data -> data.stream().anyMatch(Objects::nonNull));
+    }
+}
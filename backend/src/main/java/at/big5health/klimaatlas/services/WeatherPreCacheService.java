@@ -1,117 +1,208 @@
 package at.big5health.klimaatlas.services; // Ensure this package matches yours
 
 import at.big5health.klimaatlas.config.AustrianPopulationCenter; // Ensure this import is correct
+import at.big5health.klimaatlas.dtos.PreCacheJobDTO;
 import at.big5health.klimaatlas.exceptions.ExternalApiException;
 import at.big5health.klimaatlas.exceptions.WeatherDataNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service responsible for pre-caching weather data for all configured Austrian population centers.
  * Weather data is fetched from the external API and cached during application startup
- * and as a scheduled daily job. Pre-caching ensures that common queries (e.g. for the previous day)
+ * and as a scheduled daily job, both started by the {@link PreCacheScheduler}. Pre-caching ensures that common queries (e.g. for the previous day)
  * are fast and avoid unnecessary API calls from the frontend.
  * This class depends on {@link WeatherService} for data retrieval and
  * {@link PopulationCenterService} for loading the list of cities.
+ * <p>
+ * Each run is tracked as a job with progress and per-center outcomes; the last
+ * {@value #MAX_JOB_HISTORY} jobs are kept for {@link #getJobs()}. Progress of the startup run
+ * is reported to the {@link CacheWarmUpService}, which holds back traffic until the cache is warm.
  */
 @Service
 public class WeatherPreCacheService {
 
     private static final Logger LOG = LoggerFactory.getLogger(WeatherPreCacheService.class);
 
+    private static final int MAX_JOB_HISTORY = 10;
+    private static final String STARTUP_TRIGGER = "Startup";
+
     private final WeatherService weatherService;
 
     private final PopulationCenterService populationCenterService;
 
+    private final CacheWarmUpService cacheWarmUpService;
+
+    private final AtomicLong jobIds = new AtomicLong();
+    private final Deque<PreCacheJob> jobs = new ConcurrentLinkedDeque<>();
+
+    @Value("${weather.precache.rate-per-second:4}")
+    private double ratePerSecond = 4;
+
+    @Value("${weather.precache.burst:4}")
+    private int burst = 4;
+
+    @Value("${weather.precache.max-in-flight:4}")
+    private int maxInFlight = 4;
+
     public WeatherPreCacheService(
             WeatherService weatherService,
-            PopulationCenterService populationCenterService) {
+            PopulationCenterService populationCenterService,
+            CacheWarmUpService cacheWarmUpService) {
         this.weatherService = weatherService;
         this.populationCenterService = populationCenterService;
+        this.cacheWarmUpService = cacheWarmUpService;
     }
 
     /**
-     * Triggers the pre-caching process once the application is fully started.
-     * This runs asynchronously to avoid blocking application startup.
+     * Pre-caches weather data for all population centers once the application is fully started,
+     * triggered by the {@link PreCacheScheduler}. Progress is reported to the
+     * {@link CacheWarmUpService}.
+     *
+     * @param date the day to pre-cache
+     * @return the progress and per-center outcomes of the run
      */
-    @EventListener(ApplicationReadyEvent.class)
-    @Async
-    public void preCacheOnStartup() {
-        LOG.info("Application ready. Starting initial pre-cache of weather data for population centers (asynchronously)...");
-        performPreCaching("Startup");
-        LOG.info("Initial pre-cache task submitted/completed (asynchronously).");
+    public PreCacheJobDTO startupPreCache(LocalDate date) {
+        LOG.info("Application ready. Starting initial pre-cache of weather data for population centers for {}...", date);
+        PreCacheJobDTO job = performPreCaching(STARTUP_TRIGGER, date);
+        LOG.info("Initial pre-cache completed.");
+        return job;
     }
 
     /**
-     * Runs daily at 10:00 CET and pre-caches weather data for all population centers.
-     * Intended to refresh cached data with up-to-date results.
+     * Pre-caches weather data for all population centers once a day, triggered by the
+     * {@link PreCacheScheduler} as soon as the data for {@code date} has been published.
+     *
+     * @param date the day to pre-cache
      */
-    @Scheduled(cron = "0 0 10 * * *", zone = "CET")
-    public void scheduledPreCache() {
+    public void scheduledPreCache(LocalDate date) {
         ZonedDateTime cetTime = ZonedDateTime.now(ZoneId.of("CET"));
-        LOG.info("Scheduled pre-cache triggered at {} CET. Starting daily pre-cache of weather data...", cetTime);
-        performPreCaching("Scheduled");
+        LOG.info("Scheduled pre-cache triggered at {} CET. Starting daily pre-cache of weather data for {}...", cetTime, date);
+        performPreCaching("Scheduled", date);
         LOG.info("Daily pre-cache completed at {} CET.", ZonedDateTime.now(ZoneId.of("CET")));
     }
 
+    /**
+     * Pre-caches weather data for all centers for the previous day.
+     *
+     * @param triggerSource a label indicating whether this was called by "Startup", "Scheduled", etc.
+     * @return the progress and per-center outcomes of the run
+     * @see #performPreCaching(String, LocalDate)
+     */
+    public PreCacheJobDTO performPreCaching(String triggerSource) {
+        return performPreCaching(triggerSource, LocalDate.now().minusDays(1));
+    }
+
     /**
      * Internal method that performs the actual pre-caching logic.
-     * Fetches weather data for all centers for the previous day and stores results in the cache.
+     * Fetches weather data for all centers for the given day and stores results in the cache.
+     * <p>
+     * Fetches run concurrently, at most {@code weather.precache.max-in-flight} at a time and
+     * started at no more than {@code weather.precache.rate-per-second} (with bursts of up to
+     * {@code weather.precache.burst}). The call returns once every fetch has finished; if the
+     * calling thread is interrupted, no further fetches are started and the remaining centers
+     * are recorded as cancelled.
      *
      * @param triggerSource a label indicating whether this was called by "Startup", "Scheduled", etc.
+     * @param dateToFetch   the day to pre-cache
+     * @return the progress and per-center outcomes of the run
      */
-    public void performPreCaching(String triggerSource) {
-        LocalDate dateToFetch = LocalDate.now().minusDays(1);
+    public PreCacheJobDTO performPreCaching(String triggerSource, LocalDate dateToFetch) {
         LOG.info("[{}] Pre-caching weather data for date: {}", triggerSource, dateToFetch);
 
-        int successCount = 0;
-        int failureCount = 0;
-        long delayBetweenRequestsMs = 250;
-
         List<AustrianPopulationCenter> centers = populationCenterService.getAllCenters();
+        PreCacheJob job = new PreCacheJob(jobIds.incrementAndGet(), triggerSource, dateToFetch, centers.size());
+        jobs.addFirst(job);
+        while (jobs.size() > MAX_JOB_HISTORY) {
+            jobs.pollLast();
+        }
+        reportWarmUp(triggerSource, job);
 
-        for (AustrianPopulationCenter center : centers) {
-            LOG.debug("[{}] Attempting to pre-cache data for: {} using representative point (Lat:{}, Lon:{}) on {}",
-                    triggerSource, center.getDisplayName(), center.getRepresentativeLatitude(), center.getRepresentativeLongitude(), dateToFetch);
-            try {
-                // USE THE NEW REPRESENTATIVE COORDINATES
-                weatherService.getWeather(
-                        center.getDisplayName(),
-                        center.getRepresentativeLongitude(), // Use representative longitude
-                        center.getRepresentativeLatitude(),  // Use representative latitude
-                        dateToFetch
-                );
-                LOG.info("[{}] Successfully pre-cached data for: {}", triggerSource, center.getDisplayName());
-                successCount++;
-            } catch (WeatherDataNotFoundException e) {
-                LOG.warn("[{}] Weather data not found during pre-cache for {}: {}", triggerSource, center.getDisplayName(), e.getMessage());
-                failureCount++;
-            } catch (ExternalApiException e) {
-                LOG.error("[{}] External API error pre-caching data for {}: {}", triggerSource, center.getDisplayName(), e.getMessage());
-                failureCount++;
-            } catch (Exception e) {
-                LOG.error("[{}] Unexpected error pre-caching data for {}: {}", triggerSource, center.getDisplayName(), e.getMessage(), e);
-                failureCount++;
+        TokenBucket rateLimit = new TokenBucket(ratePerSecond, burst);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < centers.size(); i++) {
+                AustrianPopulationCenter center = centers.get(i);
+                try {
+                    inFlight.acquire();
+                    rateLimit.acquire();
+                } catch (InterruptedException e) {
+                    LOG.warn("[{}] Pre-cache thread interrupted. Stopping pre-cache.", triggerSource);
+                    Thread.currentThread().interrupt();
+                    job.cancel();
+                    centers.subList(i, centers.size())
+                            .forEach(skipped -> job.record(skipped.getDisplayName(), PreCacheJob.Outcome.CANCELLED, null, 0));
+                    break;
+                }
+                executor.execute(() -> {
+                    try {
+                        preCache(center, dateToFetch, triggerSource, job);
+                    } finally {
+                        inFlight.release();
+                        reportWarmUp(triggerSource, job);
+                    }
+                });
             }
+        }
+        job.finish();
+        LOG.info("[{}] Pre-caching summary: {} successes, {} failures.", triggerSource, job.succeeded(), job.failed());
+        return job.toDto();
+    }
 
-            try {
-                Thread.sleep(delayBetweenRequestsMs);
-            } catch (InterruptedException e) {
-                LOG.warn("[{}] Pre-cache thread interrupted. Stopping pre-cache.", triggerSource);
-                Thread.currentThread().interrupt();
-                break;
-            }
+    /**
+     * @return the most recent pre-cache jobs, newest first
+     */
+    public List<PreCacheJobDTO> getJobs() {
+        return jobs.stream().map(PreCacheJob::toDto).toList();
+    }
+
+    private void preCache(AustrianPopulationCenter center, LocalDate dateToFetch, String triggerSource, PreCacheJob job) {
+        LOG.debug("[{}] Attempting to pre-cache data for: {} using representative point (Lat:{}, Lon:{}) on {}",
+                triggerSource, center.getDisplayName(), center.getRepresentativeLatitude(), center.getRepresentativeLongitude(), dateToFetch);
+        long started = System.nanoTime();
+        try {
+            // USE THE NEW REPRESENTATIVE COORDINATES
+            weatherService.getWeather(
+                    center.getDisplayName(),
+                    center.getRepresentativeLongitude(), // Use representative longitude
+                    center.getRepresentativeLatitude(),  // Use representative latitude
+                    dateToFetch
+            );
+            LOG.info("[{}] Successfully pre-cached data for: {}", triggerSource, center.getDisplayName());
+            job.record(center.getDisplayName(), PreCacheJob.Outcome.SUCCESS, null, elapsedMs(started));
+        } catch (WeatherDataNotFoundException e) {
+            LOG.warn("[{}] Weather data not found during pre-cache for {}: {}", triggerSource, center.getDisplayName(), e.getMessage());
+            job.record(center.getDisplayName(), PreCacheJob.Outcome.NOT_FOUND, e.getMessage(), elapsedMs(started));
+        } catch (ExternalApiException e) {
+            LOG.error("[{}] External API error pre-caching data for {}: {}", triggerSource, center.getDisplayName(), e.getMessage());
+            job.record(center.getDisplayName(), PreCacheJob.Outcome.API_ERROR, e.getMessage(), elapsedMs(started));
+        } catch (Exception e) {
+            LOG.error("[{}] Unexpected error pre-caching data for {}: {}", triggerSource, center.getDisplayName(), e.getMessage(), e);
+            job.record(center.getDisplayName(), PreCacheJob.Outcome.FAILED, e.getMessage(), elapsedMs(started));
         }
-        LOG.info("[{}] Pre-caching summary: {} successes, {} failures.", triggerSource, successCount, failureCount);
+    }
+
+    private void reportWarmUp(String triggerSource, PreCacheJob job) {
+        if (STARTUP_TRIGGER.equals(triggerSource)) {
+            cacheWarmUpService.recordProgress(job.succeeded(), job.total());
+        }
+    }
+
+    private static long elapsedMs(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
     }
 }
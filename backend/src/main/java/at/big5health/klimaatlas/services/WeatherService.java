@@ -2,6 +2,7 @@ package at.big5health.klimaatlas.services;
 
 import at.big5health.klimaatlas.httpclients.ExternalWeatherApiClient;
 import at.big5health.klimaatlas.dtos.Precipitation;
+import at.big5health.klimaatlas.dtos.WeatherAggregateDTO;
 import at.big5health.klimaatlas.dtos.WeatherReportDTO;
 import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeature;
 import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeatureCollection;
@@ -12,9 +13,14 @@ import at.big5health.klimaatlas.exceptions.WeatherDataNotFoundException;
 import at.big5health.klimaatlas.grid.BoundingBox;
 import at.big5health.klimaatlas.grid.GridCellInfo;
 import at.big5health.klimaatlas.grid.GridUtil;
+import at.big5health.klimaatlas.grid.WeatherArchive;
+import at.big5health.klimaatlas.grid.WeatherRaster;
+import at.big5health.klimaatlas.grid.WeatherRasterStore;
 import at.big5health.klimaatlas.models.WeatherReport;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
@@ -23,16 +29,30 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Service layer responsible for fetching, processing, and caching weather data.
  * <p>
- * This service orchestrates interactions with the {@link ExternalWeatherApiClient}
- * to retrieve raw weather data and uses {@link GridUtil} to map geographical
+ * This service orchestrates interactions with the {@link ExternalWeatherApiClient},
+ * through the {@link GridRequestBatcher}, to retrieve raw weather data and uses {@link GridUtil} to map geographical
  * coordinates to specific grid cells. It employs caching mechanisms
  * (e.g., "weatherCache", "dailyWeatherDataGrid") to optimize performance and
  * reduce external API calls. The service primarily returns weather data
  * as {@link WeatherReportDTO} objects.
+ * <p>
+ * If the full-Austria grid for the requested date has been pre-cached into the
+ * {@link WeatherRasterStore}, reports are answered from it without calling the API. Past dates
+ * the store does not hold are answered from the {@link WeatherArchive} if they have been backfilled.
+ * <p>
+ * With {@code weather.estimation.enabled}, a cell that is not cached yet but has enough
+ * cached neighbours is answered immediately with an estimate interpolated from them, flagged
+ * as {@link WeatherReportDTO#getEstimated() estimated}, while the exact cell is fetched in
+ * the background. Estimates are not stored in "weatherCache", so the next request for the
+ * same point receives the exact values once they have arrived.
  *
  * @see ExternalWeatherApiClient
  * @see GridUtil
@@ -46,32 +66,68 @@ public class WeatherService {
 
     private static final Logger LOG = LoggerFactory.getLogger(WeatherService.class);
 
-    private final ExternalWeatherApiClient externalClient;
+    /**
+     * Background fetches after an estimate run concurrently, so that the request batcher can merge them.
+     */
+    private static final int REFRESH_THREADS = 4;
+
+    private final GridRequestBatcher requestBatcher;
     private final GridUtil gridUtil;
+    private final WeatherRasterStore rasterStore;
+    private final GridCellCache cellCache;
+    private final WeatherArchive archive;
+    private final ExecutorService refresher = Executors.newFixedThreadPool(REFRESH_THREADS, task -> {
+        Thread thread = new Thread(task, "weather-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The cells being fetched in the background after an estimate, keyed by {@link GridUtil#cellId(long)} and date.
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    @Value("${weather.estimation.enabled:false}")
+    private boolean estimationEnabled = false;
 
     /**
      * Constructs a {@code WeatherService} with the necessary dependencies.
      *
-     * @param externalClient The client for fetching data from the external weather API.
+     * @param requestBatcher The batcher through which grid cells are fetched from the external weather API.
      * @param gridUtil       The utility for grid-based calculations.
+     * @param rasterStore    The store of pre-cached full-Austria grids.
+     * @param cellCache      The cache of exact grid cell values, also used for estimates.
+     * @param archive        The archive of backfilled historical grids.
      */
-    public WeatherService(ExternalWeatherApiClient externalClient, GridUtil gridUtil) {
-        this.externalClient = externalClient;
+    public WeatherService(GridRequestBatcher requestBatcher, GridUtil gridUtil, WeatherRasterStore rasterStore,
+                          GridCellCache cellCache, WeatherArchive archive) {
+        this.requestBatcher = requestBatcher;
         this.gridUtil = gridUtil;
+        this.rasterStore = rasterStore;
+        this.cellCache = cellCache;
+        this.archive = archive;
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
     }
 
     /**
      * Retrieves a weather report for the given coordinates and date.
      * <p>
-     * This method first maps the provided latitude and longitude to a specific
-     * {@link GridCellInfo} using {@link GridUtil}. It then attempts to fetch
-     * or retrieve from cache the weather data for this grid cell's target coordinates
-     * via {@link #getOrFetchGridCellData(String, BoundingBox, LocalDate, double, double)}.
+     * If the date has been pre-cached as a {@link WeatherRaster} or backfilled into the
+     * {@link WeatherArchive}, the report is built from the raster cell containing the
+     * coordinates. Otherwise this method maps the provided
+     * latitude and longitude to a grid cell, encoded as a {@code long}, using {@link GridUtil}. It then
+     * attempts to fetch or retrieve from cache the weather data for this grid cell
+     * via {@link #getOrFetchGridCellData(long, LocalDate)}.
      * The final {@link WeatherReportDTO} returned will have its latitude and longitude
      * fields set to the original input coordinates, while other weather data
      * pertains to the determined grid cell.
      * <p>
-     * Results are cached under "weatherCache" based on the input latitude, longitude, and date.
+     * Results are cached under "weatherCache" based on the input latitude, longitude, and date,
+     * except for estimates from neighbouring cells.
      *
      * @param cityName   The name of the city (currently unused in core logic but logged).
      *                   Can be {@code null}.
@@ -83,33 +139,50 @@ public class WeatherService {
      *                                      determined grid cell and date.
      * @throws ExternalApiException         if an error occurs during grid calculation or
      *                                      while interacting with the external API.
-     * @see GridUtil#getGridCellForCoordinates(double, double)
-     * @see #getOrFetchGridCellData(String, BoundingBox, LocalDate, double, double)
+     * @see GridUtil#getCellForCoordinates(double, double)
+     * @see #getOrFetchGridCellData(long, LocalDate)
      * @see Cacheable
      */
-    @Cacheable(value = "weatherCache", key = "#latitude + '_' + #longitude + '_' + #actualDate", unless = "#result == null")
+    @Cacheable(value = "weatherCache", key = "#latitude + '_' + #longitude + '_' + #actualDate",
+            unless = "#result == null || #result.estimated == true")
     public WeatherReportDTO getWeather(String cityName, Double longitude, Double latitude, LocalDate actualDate) {
         LOG.info("Request received for city: {}, lat: {}, lon: {}, date: {}", cityName, latitude, longitude, actualDate);
 
-        GridCellInfo gridCell;
+        Optional<WeatherRaster.Cell> rasterCell = latitude != null && longitude != null
+                ? rasterStore.lookup(actualDate, latitude, longitude)
+                        .or(() -> archive.raster(actualDate).flatMap(raster -> raster.lookup(latitude, longitude)))
+                : Optional.empty();
+        if (rasterCell.isPresent()) {
+            WeatherRaster.Cell cell = rasterCell.get();
+            LOG.debug("Answered from pre-cached grid for lat: {}, lon: {}, date: {}", latitude, longitude, actualDate);
+            return new WeatherReportDTO(cell.minTemp(), cell.maxTemp(), mapPrecipitation(cell.precipitation()),
+                    null, latitude, longitude, cityName);
+        }
+
+        long cell;
         try {
             // Pass the original lat/lon to GridUtil
-            gridCell = gridUtil.getGridCellForCoordinates(latitude, longitude);
-            LOG.debug("Mapped to grid cell: {} with target center ({}, {})",
-                    gridCell.getCellId(), gridCell.getTargetLatitude(), gridCell.getTargetLongitude());
+            cell = gridUtil.getCellForCoordinates(latitude, longitude);
         } catch (Exception e) {
             LOG.error("Error calculating grid cell for lat={}, lon={}: {}", latitude, longitude, e.getMessage(), e);
             throw new ExternalApiException(ErrorMessages.GRID_UTIL_ERROR, e);
         }
 
-        // Pass the target coordinates from GridCellInfo to the fetching method
-        Optional<WeatherReportDTO> cellDataOpt = getOrFetchGridCellData(
-                gridCell.getCellId(),
-                gridCell.getBbox(),
-                actualDate,
-                gridCell.getTargetLatitude(), // Pass target lat
-                gridCell.getTargetLongitude() // Pass target lon
-        );
+        Optional<WeatherReportDTO> cellDataOpt = cellCache.get(cell, actualDate);
+        if (cellDataOpt.isEmpty() && estimationEnabled) {
+            Optional<WeatherReportDTO> estimate = cellCache.estimate(cell, actualDate, latitude, longitude);
+            if (estimate.isPresent()) {
+                refreshInBackground(cell, actualDate);
+                WeatherReportDTO cellData = estimate.get();
+                return new WeatherReportDTO(cellData.getMinTemp(), cellData.getMaxTemp(), cellData.getPrecip(),
+                        cellData.getSunDuration(), latitude, longitude, cityName, true);
+            }
+        }
+        if (cellDataOpt.isEmpty()) {
+            // The bounding box and target coordinates are only derived on a cache miss
+            cellDataOpt = getOrFetchGridCellData(cell, actualDate);
+            cellDataOpt.ifPresent(cellData -> cellCache.put(cell, actualDate, cellData));
+        }
 
         if (cellDataOpt.isPresent()) {
             WeatherReportDTO cellData = cellDataOpt.get();
@@ -118,11 +191,54 @@ public class WeatherService {
                     cellData.getSunDuration(), latitude, longitude, cityName // Use original request lat/lon for final response
             );
         } else {
-            LOG.warn("No weather data found for grid cell {} on date {}", gridCell.getCellId(), actualDate);
+            LOG.warn("No weather data found for grid cell {} on date {}", GridUtil.cellId(cell), actualDate);
             throw new WeatherDataNotFoundException(ErrorMessages.WEATHER_DATA_NOT_FOUND);
         }
     }
 
+    /**
+     * Fetches the exact values of a cell into the cell cache without blocking the caller.
+     * A cell already being fetched is not requested twice.
+     */
+    private void refreshInBackground(long cell, LocalDate actualDate) {
+        String key = GridUtil.cellId(cell) + "_" + actualDate;
+        if (!refreshing.add(key)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                getOrFetchGridCellData(cell, actualDate)
+                        .ifPresent(cellData -> cellCache.put(cell, actualDate, cellData));
+            } catch (RuntimeException e) {
+                LOG.warn("Background fetch of grid {} for {} failed: {}", GridUtil.cellId(cell), actualDate, e.getMessage());
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Returns the pre-aggregated weather of the map tiles overlapping a bounding box.
+     * <p>
+     * Only dates pre-cached into the {@link WeatherRasterStore} or backfilled into the
+     * {@link WeatherArchive} can be aggregated; the tiles are read from the raster's
+     * {@link at.big5health.klimaatlas.grid.WeatherPyramid}.
+     *
+     * @param actualDate the date of the weather data
+     * @param bbox       the visible map area
+     * @param level      the pyramid level, 0 (1 km cells) to
+     *                   {@value at.big5health.klimaatlas.grid.WeatherPyramid#MAX_LEVEL}
+     * @return the tiles holding data
+     * @throws WeatherDataNotFoundException if the date has neither been pre-cached nor backfilled
+     * @see at.big5health.klimaatlas.grid.WeatherPyramid#query(BoundingBox, int)
+     */
+    public List<WeatherAggregateDTO> getAggregates(LocalDate actualDate, BoundingBox bbox, int level) {
+        WeatherRaster raster = rasterStore.get(actualDate)
+                .or(() -> archive.raster(actualDate))
+                .orElseThrow(() -> new WeatherDataNotFoundException(ErrorMessages.WEATHER_DATA_NOT_FOUND));
+        return raster.getPyramid().query(bbox, level);
+    }
+
     /**
      * Retrieves a {@link WeatherReport} model object for the given coordinates for today's date.
      * <p>
@@ -162,38 +278,36 @@ public class WeatherService {
     }
 
     /**
-     * Retrieves or fetches weather data for a specific grid cell identified by its ID,
-     * bounding box, date, and target coordinates.
+     * Retrieves or fetches weather data for a specific grid cell and date.
      * <p>
-     * This method attempts to retrieve data from the "dailyWeatherDataGrid" cache.
-     * If a cache miss occurs ({@code sync = true} ensures only one thread fetches),
-     * it calls the {@link ExternalWeatherApiClient#fetchGridData(BoundingBox, LocalDate)}
-     * method. From the returned {@link SpartacusFeatureCollection}, it finds the feature
-     * closest to the {@code targetLat} and {@code targetLon} and extracts weather data
+     * This method attempts to retrieve data from the "dailyWeatherDataGrid" cache, keyed by the
+     * encoded cell and the date. If a cache miss occurs ({@code sync = true} ensures only one
+     * thread fetches), it requests the cell through
+     * {@link GridRequestBatcher#fetchGridData(long, LocalDate)}, which may merge it with other
+     * cells requested at the same time. From the returned {@link SpartacusFeatureCollection}, it
+     * finds the feature closest to the cell's target coordinates and extracts weather data
      * using {@link #extractWeatherDataFromFeature(SpartacusFeature)}.
      *
-     * @param cellId     The unique ID of the grid cell. Used as part of the cache key.
-     * @param bbox       The {@link BoundingBox} of the grid cell, passed to the external client.
+     * @param cell       The grid cell, as returned by {@link GridUtil#getCellForCoordinates(double, double)}.
      * @param actualDate The date for which data is requested.
-     * @param targetLat  The target latitude within the cell, used for finding the closest feature.
-     * @param targetLon  The target longitude within the cell, used for finding the closest feature.
      * @return An {@link Optional} containing the {@link WeatherReportDTO} if data is found
      *         and processed successfully, or an empty {@link Optional} otherwise.
      * @throws ExternalApiException if an error occurs during interaction with the external API
      *                              or during data processing.
      * @see Cacheable
-     * @see ExternalWeatherApiClient#fetchGridData(BoundingBox, LocalDate)
+     * @see GridRequestBatcher#fetchGridData(long, LocalDate)
      * @see #findClosestFeature(List, double, double)
      * @see #extractWeatherDataFromFeature(SpartacusFeature)
      */
-    @Cacheable(value = "dailyWeatherDataGrid", key = "#cellId + '_' + #actualDate", sync = true)
-    public Optional<WeatherReportDTO> getOrFetchGridCellData(
-            String cellId, BoundingBox bbox, LocalDate actualDate, double targetLat, double targetLon) {
+    @Cacheable(value = "dailyWeatherDataGrid", sync = true)
+    public Optional<WeatherReportDTO> getOrFetchGridCellData(long cell, LocalDate actualDate) {
+        GridCellInfo gridCell = gridUtil.getGridCellInfo(cell);
+        String cellId = gridCell.getCellId();
 
         LOG.info("CACHE MISS for grid: {}, Date: {}. Calling external API.", cellId, actualDate);
 
         try {
-            SpartacusFeatureCollection featureCollection = externalClient.fetchGridData(bbox, actualDate).block();
+            SpartacusFeatureCollection featureCollection = requestBatcher.fetchGridData(cell, actualDate).block();
 
             if (featureCollection == null || featureCollection.getFeatures() == null || featureCollection.getFeatures().isEmpty()) {
                 LOG.warn("External API returned no features for grid: {}, Date: {}", cellId, actualDate);
@@ -202,7 +316,7 @@ public class WeatherService {
 
             // --- Find the feature closest to the target coordinates ---
             Optional<SpartacusFeature> closestFeatureOpt = findClosestFeature(
-                    featureCollection.getFeatures(), targetLat, targetLon
+                    featureCollection.getFeatures(), gridCell.getTargetLatitude(), gridCell.getTargetLongitude()
             );
 
             if (closestFeatureOpt.isEmpty()) {
@@ -7,13 +7,31 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.after;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class CsvFileWatcherTest {
 
@@ -21,13 +39,15 @@ class CsvFileWatcherTest {
     private WeatherService weatherService;
     private CacheManager cacheManager;
     private CsvFileWatcher watcher;
+    private Cache cache;
 
     @BeforeEach
     void setUp() {
         populationCenterService = mock(PopulationCenterService.class);
         weatherService = mock(WeatherService.class);
         cacheManager = mock(CacheManager.class);
-        Cache cache = mock(Cache.class);
+        cache = mock(Cache.class);
+        when(cacheManager.getCache("weatherCache")).thenReturn(cache);
 
         watcher = new CsvFileWatcher(populationCenterService, weatherService, cacheManager);
 
@@ -83,4 +103,96 @@ class CsvFileWatcherTest {
 
         assertThat(true).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void requestReload_burstOfEvents_shouldReloadOnce() {
+        for (int i = 0; i < 5; i++) {
+            watcher.requestReload();
+        }
+
+        verify(populationCenterService, timeout(2000).times(1)).refreshAndReCache(any(), any(), any());
+        verify(populationCenterService, after(1000).times(1)).refreshAndReCache(any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reload_shouldReCacheAllChangedCenters() {
+        List<AustrianPopulationCenter> changed = List.of(
+                new AustrianPopulationCenter("Wien", 48.2, 16.37, 48.1, 16.2, 48.3, 16.5),
+                new AustrianPopulationCenter("Graz", 47.07, 15.44, 47.0, 15.3, 47.1, 15.5),
+                new AustrianPopulationCenter("Linz", 48.31, 14.29, 48.2, 14.2, 48.4, 14.4));
+        doAnswer(invocation -> {
+            changed.forEach(invocation.getArgument(1, Consumer.class));
+            return null;
+        }).when(populationCenterService).refreshAndReCache(any(), any(), any());
+
+        watcher.reload();
+
+        verify(weatherService, times(3)).getWeather(anyString(), any(), any(), any());
+        verify(cache).put(eq("48.2_16.37_" + LocalDate.now().minusDays(1)), any());
+        verify(cache, times(3)).put(any(), any());
+    }
+
+    @Test
+    void requestReload_shouldWaitForConfiguredDebounce() {
+        ReflectionTestUtils.setField(watcher, "debounce", Duration.ofSeconds(1));
+
+        watcher.requestReload();
+
+        verify(populationCenterService, after(500).never()).refreshAndReCache(any(), any(), any());
+        verify(populationCenterService, timeout(2000).times(1)).refreshAndReCache(any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reload_shouldPaceAndBoundReCacheRequests() {
+        ReflectionTestUtils.setField(watcher, "reCacheRatePerSecond", 20.0);
+        ReflectionTestUtils.setField(watcher, "reCacheBurst", 1);
+        ReflectionTestUtils.setField(watcher, "reCacheMaxInFlight", 2);
+        List<AustrianPopulationCenter> moved = List.of(
+                new AustrianPopulationCenter("Wien", 48.2, 16.37, 48.1, 16.2, 48.3, 16.5),
+                new AustrianPopulationCenter("Graz", 47.07, 15.44, 47.0, 15.3, 47.1, 15.5),
+                new AustrianPopulationCenter("Linz", 48.31, 14.29, 48.2, 14.2, 48.4, 14.4),
+                new AustrianPopulationCenter("Salzburg", 47.8, 13.04, 47.7, 12.9, 47.9, 13.1),
+                new AustrianPopulationCenter("Innsbruck", 47.26, 11.39, 47.2, 11.3, 47.3, 11.5));
+        doAnswer(invocation -> {
+            moved.forEach(invocation.getArgument(1, Consumer.class));
+            return null;
+        }).when(populationCenterService).refreshAndReCache(any(), any(), any());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(weatherService.getWeather(anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            TimeUnit.MILLISECONDS.sleep(100);
+            running.decrementAndGet();
+            return null;
+        });
+
+        long start = System.nanoTime();
+        watcher.reload();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        verify(cache, times(5)).put(any(), any());
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(200);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reload_shouldEvictAllCachedDatesOfRemovedCenters() {
+        AustrianPopulationCenter removed = new AustrianPopulationCenter("Wien", 48.2, 16.37, 48.1, 16.2, 48.3, 16.5);
+        Map<Object, Object> entries = new ConcurrentHashMap<>(Map.of(
+                "48.2_16.37_2025-05-01", "a",
+                "48.2_16.37_2025-05-02", "b",
+                "47.07_15.44_2025-05-01", "c"));
+        when(cache.getNativeCache()).thenReturn(entries);
+        doAnswer(invocation -> {
+            invocation.getArgument(2, Consumer.class).accept(removed);
+            return null;
+        }).when(populationCenterService).refreshAndReCache(any(), any(), any());
+
+        watcher.reload();
+
+        assertThat(entries).containsOnlyKeys("47.07_15.44_2025-05-01");
+    }
+}
@@ -1,10 +1,17 @@
 package at.big5health.klimaatlas.Components;
 
 import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+import at.big5health.klimaatlas.config.AustrianPostalCode;
 import at.big5health.klimaatlas.exceptions.CsvParseException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -13,16 +20,31 @@ import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
 
 class PopulationCenterLoaderTest {
 
+    private static final String HEADER = "displayName,repLat,repLon,minLat,minLon,maxLat,maxLon";
+
+    @TempDir
+    Path tempDir;
+
     private PopulationCenterLoader prepareLoaderWithPath(String path) {
         PopulationCenterLoader loader = new PopulationCenterLoader();
+        setField(loader, "csvFilePath", path);
+        return loader;
+    }
+
+    private void setField(PopulationCenterLoader loader, String name, Object value) {
         try {
-            Field field = PopulationCenterLoader.class.getDeclaredField("csvFilePath");
+            Field field = PopulationCenterLoader.class.getDeclaredField(name);
             field.setAccessible(true);
-            field.set(loader, path);
+            field.set(loader, value);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to set test CSV path", e);
+            throw new RuntimeException("Failed to set test field " + name, e);
         }
-        return loader;
+    }
+
+    private String writeCsv(String content) throws IOException {
+        Path file = tempDir.resolve("centers.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file.toString();
     }
 
     @Test
@@ -93,4 +115,104 @@ class PopulationCenterLoaderTest {
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("CSV file not found");
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadFromCSV_shouldReadRowsAcrossWindowsWithCrlfAndNoTrailingNewline() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER).append("\r\n");
+        for (int i = 0; i < 500; i++) {
+            csv.append("Ort ").append(i).append(" Wörth,").append(46 + i / 1000.0).append(",")
+                    .append(9.5 + i / 100.0).append(",46.0,9.0,49.0,17.0");
+            if (i < 499) {
+                csv.append("\r\n");
+            }
+        }
+        PopulationCenterLoader loader = prepareLoaderWithPath(writeCsv(csv.toString()));
+        setField(loader, "windowBytes", 256);
+
+        List<AustrianPopulationCenter> result = loader.loadFromCSV();
+
+        assertThat(result).hasSize(500);
+        assertThat(result.get(123).getDisplayName()).isEqualTo("Ort 123 Wörth");
+        assertThat(result.get(123).getRepresentativeLatitude()).isEqualTo(46 + 123 / 1000.0);
+        assertThat(result.get(499).getRepresentativeLongitude()).isEqualTo(9.5 + 499 / 100.0);
+        assertThat(result.get(499).getMaxLongitude()).isEqualTo(17.0);
+    }
+
+    @Test
+    void loadFromCSV_shouldBoundReportedErrors() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER).append("\n");
+        for (int i = 0; i < 250; i++) {
+            csv.append("Ort,x,16.3,48.1,16.1,48.3,16.5\n");
+        }
+        PopulationCenterLoader loader = prepareLoaderWithPath(writeCsv(csv.toString()));
+
+        Throwable thrown = catchThrowable(loader::loadFromCSV);
+
+        assertThat(thrown).isInstanceOf(CsvParseException.class);
+        List<String> errors = ((CsvParseException) thrown).getErrors();
+        assertThat(errors).hasSize(PopulationCenterLoader.MAX_REPORTED_ERRORS + 1);
+        assertThat(errors.getFirst()).isEqualTo("Invalid number format at row 2: For input string: \"x\"");
+        assertThat(errors.getLast()).isEqualTo("... and 150 more invalid rows");
+    }
+
+    @Test
+    void parseDouble_shouldMatchDoubleParseDouble() {
+        for (String value : List.of("48.2082", "-16.3738", " 9.7471 ", "+0.5", "0", "-0.0", "1.", ".25",
+                "47.80950000000001", "123456789012345.6", "1e3", "2.5E-4", "1.5d", "0.1000000000000000055511")) {
+            ByteBuffer bytes = ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+
+            assertThat(PopulationCenterLoader.parseDouble(bytes, 0, bytes.limit()))
+                    .as(value)
+                    .isEqualTo(Double.parseDouble(value));
+        }
+        ByteBuffer invalid = ByteBuffer.wrap("4x".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> PopulationCenterLoader.parseDouble(invalid, 0, invalid.limit()))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void loadPostalCodes_shouldSkipInvalidRowsAndTolerateMissingConfiguration() throws IOException {
+        PopulationCenterLoader loader = prepareLoaderWithPath("unused.csv");
+        assertThat(loader.loadPostalCodes()).isEmpty();
+
+        setField(loader, "postalCodesPath", writeCsv("postalCode,placeName,latitude,longitude\n"
+                + "1010,Wien,48.2085,16.3721\n"
+                + "3100,St. Pölten,n/a,15.6256\n"
+                + "8010,Graz,47.0707,15.4395"));
+
+        List<AustrianPostalCode> result = loader.loadPostalCodes();
+
+        assertThat(result).extracting(AustrianPostalCode::getPostalCode).containsExactly("1010", "8010");
+        assertThat(result.getLast().getLatitude()).isEqualTo(47.0707);
+    }
+
+    @Test
+    void loadFromCSV_shouldReuseBinarySnapshotUntilContentChanges() throws IOException {
+        String path = writeCsv(HEADER + "\nWien,48.2,16.3,48.1,16.1,48.3,16.5\nSt. Pölten,48.2047,15.6256,48.15,15.55,48.25,15.7\n");
+        PopulationCenterLoader loader = prepareLoaderWithPath(path);
+        setField(loader, "binarySnapshotEnabled", true);
+
+        List<AustrianPopulationCenter> parsed = loader.loadFromCSV();
+        Path snapshot = tempDir.resolve("centers.csv.bin");
+        assertThat(snapshot).exists();
+
+        // Same content, new modification time: served from the snapshot after a hash check.
+        Files.setLastModifiedTime(Path.of(path), java.nio.file.attribute.FileTime.fromMillis(1_000_000L));
+        assertThat(loader.loadFromCSV()).isEqualTo(parsed);
+        assertThat(loader.loadFromCSV()).isEqualTo(parsed);
+
+        Files.writeString(Path.of(path), HEADER + "\nGraz,47.1,15.4,47.0,15.3,47.2,15.5\n", StandardCharsets.UTF_8);
+        assertThat(loader.loadFromCSV()).extracting(AustrianPopulationCenter::getDisplayName).containsExactly("Graz");
+    }
+
+    @Test
+    void loadFromCSV_shouldIgnoreCorruptBinarySnapshot() throws IOException {
+        String path = writeCsv(HEADER + "\nWien,48.2,16.3,48.1,16.1,48.3,16.5\n");
+        Files.write(tempDir.resolve("centers.csv.bin"), new byte[]{1, 2, 3});
+        PopulationCenterLoader loader = prepareLoaderWithPath(path);
+        setField(loader, "binarySnapshotEnabled", true);
+
+        assertThat(loader.loadFromCSV()).extracting(AustrianPopulationCenter::getDisplayName).containsExactly("Wien");
+        assertThat(loader.loadFromCSV()).extracting(AustrianPopulationCenter::getDisplayName).containsExactly("Wien");
+    }
+}
@@ -0,0 +1,152 @@
+package at.big5health.klimaatlas;
+
+import at.big5health.klimaatlas.dtos.gbif.GbifOccurrencePage;
+import at.big5health.klimaatlas.httpclients.GbifOccurrenceDecoder;
+import at.big5health.klimaatlas.mosquito.OccurrenceBatch;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GbifOccurrenceDecoderTest {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String RESPONSE = """
+            {
+              "offset": 0,
+              "limit": 2,
+              "endOfRecords": true,
+              "results": [
+                {
+                  "key": 4011867321,
+                  "decimalLatitude": 47.062592,
+                  "decimalLongitude": 15.448713,
+                  "species": "Aedes albopictus",
+                  "eventDate": "2025-02-27T15:55:05",
+                  "lastInterpreted": "2025-03-01T08:15:00.000+00:00",
+                  "identifiers": [{"identifier": "x", "nested": {"species": "Wrong"}}],
+                  "extensions": {"decimalLatitude": 0}
+                },
+                {
+                  "decimalLatitude": 48,
+                  "decimalLongitude": 16,
+                  "species": null,
+                  "lastInterpreted": "2025-02-28T23:00:00.000+01:00"
+                },
+                {
+                  "decimalLongitude": 16.5,
+                  "species": "No latitude"
+                }
+              ],
+              "facets": [{"field": "species"}]
+            }
+            """;
+
+    @Test
+    void decode_wholeBody_shouldExtractTypedColumns() throws IOException {
+        OccurrenceBatch batch = decode(RESPONSE.getBytes(StandardCharsets.UTF_8), Integer.MAX_VALUE);
+
+        assertThat(batch.size()).isEqualTo(2);
+        assertThat(batch.latitude(0)).isEqualTo(47.062592);
+        assertThat(batch.longitude(0)).isEqualTo(15.448713);
+        assertThat(batch.species(0)).isEqualTo("Aedes albopictus");
+        assertThat(batch.eventDate(0)).isEqualTo("2025-02-27");
+
+        assertThat(batch.latitude(1)).isEqualTo(48.0);
+        assertThat(batch.longitude(1)).isEqualTo(16.0);
+        assertThat(batch.species(1)).isNull();
+        assertThat(batch.eventDate(1)).isNull();
+    }
+
+    @Test
+    void decode_byteByByte_shouldGiveSameResultAsWholeBody() throws IOException {
+        OccurrenceBatch batch = decode(RESPONSE.getBytes(StandardCharsets.UTF_8), 1);
+
+        assertThat(batch.size()).isEqualTo(2);
+        assertThat(batch.species(0)).isEqualTo("Aedes albopictus");
+        assertThat(batch.latitude(1)).isEqualTo(48.0);
+    }
+
+    @Test
+    void decode_manyRecords_shouldGrowColumns() throws IOException {
+        StringBuilder json = new StringBuilder("{\"results\":[");
+        for (int i = 0; i < 500; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"decimalLatitude\":").append(47 + i / 1000.0)
+                    .append(",\"decimalLongitude\":15.1,\"species\":\"Aedes vexans\"}");
+        }
+        json.append("]}");
+
+        OccurrenceBatch batch = decode(json.toString().getBytes(StandardCharsets.UTF_8), 4096);
+
+        assertThat(batch.size()).isEqualTo(500);
+        assertThat(batch.latitude(499)).isEqualTo(47.499);
+    }
+
+    @Test
+    void decode_partialEventDates_shouldKeepTheirPrecision() throws IOException {
+        byte[] body = ("{\"results\":["
+                + "{\"decimalLatitude\":47,\"decimalLongitude\":15,\"eventDate\":\"2023\"},"
+                + "{\"decimalLatitude\":47,\"decimalLongitude\":15,\"eventDate\":\"2023-06\"},"
+                + "{\"decimalLatitude\":47,\"decimalLongitude\":15,\"eventDate\":\"2023-06-01/2023-06-30\"}"
+                + "]}").getBytes(StandardCharsets.UTF_8);
+
+        OccurrenceBatch batch = decode(body, 7);
+
+        assertThat(batch.eventDate(0)).isEqualTo("2023");
+        assertThat(batch.eventDate(1)).isEqualTo("2023-06");
+        assertThat(batch.eventDate(2)).isEqualTo("2023-06-01");
+    }
+
+    @Test
+    void decode_shouldReportPagingMetadata() throws IOException {
+        GbifOccurrencePage page = decodePage(RESPONSE.getBytes(StandardCharsets.UTF_8), 16);
+
+        assertThat(page.recordCount()).isEqualTo(3);
+        assertThat(page.endOfRecords()).isTrue();
+        assertThat(page.lastInterpreted()).isEqualTo(Instant.parse("2025-03-01T08:15:00Z"));
+        assertThat(page.occurrences().gbifId(0)).isEqualTo(4011867321L);
+        assertThat(page.occurrences().gbifId(1)).isEqualTo(OccurrenceBatch.UNKNOWN_ID);
+
+        GbifOccurrencePage open = decodePage("{\"endOfRecords\":false,\"results\":[{}]}"
+                .getBytes(StandardCharsets.UTF_8), 16);
+        assertThat(open.recordCount()).isEqualTo(1);
+        assertThat(open.endOfRecords()).isFalse();
+        assertThat(open.occurrences().isEmpty()).isTrue();
+        assertThat(open.lastInterpreted()).isNull();
+    }
+
+    @Test
+    void decode_emptyBody_shouldReturnEmptyBatch() throws IOException {
+        assertThat(decode(new byte[0], 1).isEmpty()).isTrue();
+    }
+
+    @Test
+    void decode_truncatedBody_shouldFail() {
+        byte[] truncated = "{\"results\":[{\"decimalLatitude\":47".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> decode(truncated, 8)).isInstanceOf(IOException.class);
+    }
+
+    private OccurrenceBatch decode(byte[] body, int chunkSize) throws IOException {
+        return decodePage(body, chunkSize).occurrences();
+    }
+
+    private GbifOccurrencePage decodePage(byte[] body, int chunkSize) throws IOException {
+        GbifOccurrenceDecoder decoder = new GbifOccurrenceDecoder(JSON_FACTORY);
+        for (int offset = 0; offset < body.length; offset += chunkSize) {
+            int length = Math.min(chunkSize, body.length - offset);
+            decoder.feed(ByteBuffer.wrap(body, offset, length));
+        }
+        return decoder.finish();
+    }
+}
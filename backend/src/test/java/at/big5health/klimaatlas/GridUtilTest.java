@@ -1,26 +1,25 @@
 package at.big5health.klimaatlas;
 
+import at.big5health.klimaatlas.grid.AustriaLambert;
+import at.big5health.klimaatlas.grid.BoundingBox;
 import at.big5health.klimaatlas.grid.GridCellInfo;
 import at.big5health.klimaatlas.grid.GridUtil;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
-import java.util.Locale;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.within; // Use AssertJ's within for Offset
 
 class GridUtilTest {
 
     private GridUtil gridUtil;
 
-    // Constants from GridUtil for test calculations
-    private static final double METERS_PER_DEGREE_LATITUDE = 111132.954;
-    private static final double METERS_PER_DEGREE_LONGITUDE_AT_EQUATOR = 111319.488;
-    private static final double CELL_SIZE_METERS = 1000.0;
-    private static final double BUFFER_FACTOR = 1.1; // Buffer used in GridUtil
-
     @BeforeEach
     void setUp() {
         gridUtil = new GridUtil();
@@ -28,61 +27,123 @@ class GridUtilTest {
 
     @ParameterizedTest // Use parameterized test for different locations
     @CsvSource({
-            "48.2082, 16.3738", // Vienna (Example)
-            "47.2692, 11.4041", // Innsbruck (Different Latitude)
-            "46.6247, 14.3050", // Klagenfurt (Southern Austria)
-            "48.3064, 14.2858"  // Linz (Different Longitude)
+            "48.2082, 16.3738, 483, 625", // Vienna (Example)
+            "47.2692, 11.4041, 376, 254", // Innsbruck (Different Latitude)
+            "46.6247, 14.3050, 303, 474", // Klagenfurt (Southern Austria)
+            "48.3064, 14.2858, 490, 470"  // Linz (Different Longitude)
     })
-    void getGridCellForCoordinates_shouldCalculateCorrectly(double inputLat, double inputLon) {
-        // Arrange: Calculate expected values based on GridUtil's logic
+    void getGridCellForCoordinates_shouldReturnContainingSpartacusPixel(double inputLat, double inputLon,
+                                                                        int expectedRow, int expectedColumn) {
+        GridCellInfo result = gridUtil.getGridCellForCoordinates(inputLat, inputLon);
 
-        // 1. Expected spacing at input latitude
-        double latitudeRadians = Math.toRadians(inputLat);
-        double metersPerDegreeLongitude = METERS_PER_DEGREE_LONGITUDE_AT_EQUATOR * Math.cos(latitudeRadians);
-        if (metersPerDegreeLongitude < 1.0) metersPerDegreeLongitude = 1.0; // Safety check
+        assertThat(result.getRow()).isEqualTo(expectedRow);
+        assertThat(result.getColumn()).isEqualTo(expectedColumn);
+        assertThat(result.getCellId()).isEqualTo("cell_" + expectedRow + "_" + expectedColumn);
 
-        double latSpacingDegrees = CELL_SIZE_METERS / METERS_PER_DEGREE_LATITUDE;
-        double lonSpacingDegrees = CELL_SIZE_METERS / metersPerDegreeLongitude;
+        // the target is the pixel center, in the middle of the whole kilometers of the grid
+        double[] center = AustriaLambert.project(result.getTargetLatitude(), result.getTargetLongitude());
+        assertThat(center[0]).isEqualTo(expectedColumn * 1000 + 500, within(0.001));
+        assertThat(center[1]).isEqualTo(expectedRow * 1000 + 500, within(0.001));
 
-        // 2. Expected snapped center coordinates
-        double expectedSnappedCenterLat = Math.round(inputLat / latSpacingDegrees) * latSpacingDegrees;
-        double expectedSnappedCenterLon = Math.round(inputLon / lonSpacingDegrees) * lonSpacingDegrees;
+        BoundingBox bbox = result.getBbox();
+        assertThat(inputLat).isBetween(bbox.getMinLat(), bbox.getMaxLat());
+        assertThat(inputLon).isBetween(bbox.getMinLon(), bbox.getMaxLon());
+    }
 
-        // 3. Expected Cell ID
-        String expectedCellId = String.format(Locale.US, "cell_%.6f_%.6f", expectedSnappedCenterLat, expectedSnappedCenterLon);
+    @Test
+    void getGridCellForCoordinates_nearbyPointsInSamePixel_shouldShareCell() {
+        // about 150 m apart, both in the pixel spanning easting 625-626 km and northing 483-484 km
+        GridCellInfo first = gridUtil.getGridCellForCoordinates(48.2082, 16.3738);
+        GridCellInfo second = gridUtil.getGridCellForCoordinates(48.2095, 16.3745);
 
-        // 4. Expected Bbox corners (using spacing at the *snapped* center)
-        double centerLatRadians = Math.toRadians(expectedSnappedCenterLat);
-        double metersPerDegLonAtCenter = METERS_PER_DEGREE_LONGITUDE_AT_EQUATOR * Math.cos(centerLatRadians);
-        if (metersPerDegLonAtCenter < 1.0) metersPerDegLonAtCenter = 1.0;
+        assertThat(second.getCellId()).isEqualTo(first.getCellId());
+        assertThat(second.getTargetLatitude()).isEqualTo(first.getTargetLatitude());
+        assertThat(second.getTargetLongitude()).isEqualTo(first.getTargetLongitude());
+    }
 
-        double halfLatSpacing = (CELL_SIZE_METERS / 2.0) / METERS_PER_DEGREE_LATITUDE;
-        double halfLonSpacing = (CELL_SIZE_METERS / 2.0) / metersPerDegLonAtCenter;
+    @Test
+    void getGridCellForCoordinates_bboxShouldContainOnlyItsOwnPixelCenter() {
+        GridCellInfo cell = gridUtil.getGridCellForCoordinates(47.0707, 15.4395); // Graz
+        BoundingBox bbox = cell.getBbox();
+
+        for (int dRow = -1; dRow <= 1; dRow++) {
+            for (int dColumn = -1; dColumn <= 1; dColumn++) {
+                double[] center = AustriaLambert.unproject(
+                        (cell.getColumn() + dColumn) * 1000 + 500, (cell.getRow() + dRow) * 1000 + 500);
+                boolean inside = center[0] >= bbox.getMinLat() && center[0] <= bbox.getMaxLat()
+                        && center[1] >= bbox.getMinLon() && center[1] <= bbox.getMaxLon();
+                assertThat(inside).as("center of pixel (%d, %d)", dRow, dColumn).isEqualTo(dRow == 0 && dColumn == 0);
+            }
+        }
+    }
 
-        double bufferedHalfLat = halfLatSpacing * BUFFER_FACTOR;
-        double bufferedHalfLon = halfLonSpacing * BUFFER_FACTOR;
+    @Test
+    void austriaLambert_shouldMapProjectionOriginToFalseOrigin() {
+        double[] origin = AustriaLambert.project(47.5, 13.0 + 20.0 / 60.0);
 
-        double expectedMinLat = expectedSnappedCenterLat - bufferedHalfLat;
-        double expectedMaxLat = expectedSnappedCenterLat + bufferedHalfLat;
-        double expectedMinLon = expectedSnappedCenterLon - bufferedHalfLon;
-        double expectedMaxLon = expectedSnappedCenterLon + bufferedHalfLon;
+        assertThat(origin[0]).isEqualTo(400000.0, within(0.001));
+        assertThat(origin[1]).isEqualTo(400000.0, within(0.001));
+        double[] back = AustriaLambert.unproject(625863.537, 483137.488);
+        assertThat(back[0]).isEqualTo(48.2082, within(0.000001));
+        assertThat(back[1]).isEqualTo(16.3738, within(0.000001));
+    }
 
-        // Act
-        GridCellInfo result = gridUtil.getGridCellForCoordinates(inputLat, inputLon);
+    @Test
+    void cell_shouldRoundTripRowAndColumn() {
+        long cell = GridUtil.cell(483, -12);
 
-        // Assert
-        assertThat(result).isNotNull();
-        // Use AssertJ's within() for floating-point comparisons with a small tolerance
-        org.assertj.core.data.Offset<Double> tolerance = within(0.000001);
+        assertThat(GridUtil.row(cell)).isEqualTo(483);
+        assertThat(GridUtil.column(cell)).isEqualTo(-12);
+        assertThat(GridUtil.cellId(cell)).isEqualTo("cell_483_-12");
+        assertThat(gridUtil.getCellForCoordinates(48.2082, 16.3738)).isEqualTo(GridUtil.cell(483, 625));
+    }
 
-        assertThat(result.getTargetLatitude()).isEqualTo(expectedSnappedCenterLat, tolerance);
-        assertThat(result.getTargetLongitude()).isEqualTo(expectedSnappedCenterLon, tolerance);
-        assertThat(result.getCellId()).isEqualTo(expectedCellId);
+    @Test
+    void cellAt_shouldNotAllocate() {
+        // A stand-in for a JMH run with the GC profiler: after warm-up, addressing a cell
+        // must not allocate at all, so 100k calls stay far below a single byte per call.
+        // The static form is measured because Mockito's inline mock maker instruments the
+        // instance methods of GridUtil once another test has mocked it.
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long sink = 0;
+        for (int i = 0; i < 200_000; i++) {
+            sink += GridUtil.cellAt(46.5 + (i % 1000) * 0.0025, 9.6 + (i % 997) * 0.0075);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            sink += GridUtil.cellAt(46.5 + (i % 1000) * 0.0025, 9.6 + (i % 997) * 0.0075);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(sink).isNotZero();
+        assertThat(allocated).isLessThan(100_000);
+    }
+
+    @Test
+    void cellsAt_shouldMatchSingleCoordinateSnapping() {
+        // an odd count, so that a tail is left over after the last full vector
+        int count = 10_001;
+        Random random = new Random(42);
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = 46.35 + random.nextDouble() * 2.7;
+            longitudes[i] = 9.5 + random.nextDouble() * 7.7;
+        }
+        long[] cells = new long[count];
+
+        GridUtil.cellsAt(latitudes, longitudes, cells);
+
+        // the test JVM adds jdk.incubator.vector, so this covers the vectorized path
+        assertThat(GridUtil.isVectorized()).isTrue();
+        for (int i = 0; i < count; i++) {
+            assertThat(cells[i]).as("coordinate %d", i).isEqualTo(GridUtil.cellAt(latitudes[i], longitudes[i]));
+        }
+    }
 
-        assertThat(result.getBbox()).isNotNull();
-        assertThat(result.getBbox().getMinLat()).isEqualTo(expectedMinLat, tolerance);
-        assertThat(result.getBbox().getMaxLat()).isEqualTo(expectedMaxLat, tolerance);
-        assertThat(result.getBbox().getMinLon()).isEqualTo(expectedMinLon, tolerance);
-        assertThat(result.getBbox().getMaxLon()).isEqualTo(expectedMaxLon, tolerance);
+    @Test
+    void cellsAt_withMismatchedArrays_shouldThrow() {
+        assertThatThrownBy(() -> GridUtil.cellsAt(new double[2], new double[3], new long[3]))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 }
@@ -0,0 +1,91 @@
+package at.big5health.klimaatlas;
+
+import at.big5health.klimaatlas.grid.PackedRTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PackedRTreeTest {
+
+    @Test
+    void search_shouldMatchBruteForceOnRandomBoxes() {
+        Random random = new Random(42);
+        int n = 5000;
+        double[] minLat = new double[n];
+        double[] minLon = new double[n];
+        double[] maxLat = new double[n];
+        double[] maxLon = new double[n];
+        for (int i = 0; i < n; i++) {
+            minLat[i] = 46.3 + random.nextDouble() * 2.7;
+            minLon[i] = 9.5 + random.nextDouble() * 7.7;
+            maxLat[i] = minLat[i] + random.nextDouble() * 0.2;
+            maxLon[i] = minLon[i] + random.nextDouble() * 0.3;
+        }
+        PackedRTree tree = PackedRTree.build(minLat, minLon, maxLat, maxLon);
+
+        for (int q = 0; q < 200; q++) {
+            double lat = 46.3 + random.nextDouble() * 2.9;
+            double lon = 9.5 + random.nextDouble() * 7.9;
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (lat >= minLat[i] && lat <= maxLat[i] && lon >= minLon[i] && lon <= maxLon[i]) {
+                    expected.add(i);
+                }
+            }
+            List<Integer> actual = new ArrayList<>();
+            tree.search(lat, lon, actual::add);
+
+            assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void nearest_shouldMatchBruteForceOnRandomPoints() {
+        Random random = new Random(7);
+        int n = 3000;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = 46.3 + random.nextDouble() * 2.7;
+            lon[i] = 9.5 + random.nextDouble() * 7.7;
+        }
+        PackedRTree tree = PackedRTree.build(lat, lon, lat, lon);
+
+        for (int q = 0; q < 200; q++) {
+            double qLat = 46 + random.nextDouble() * 3.5;
+            double qLon = 9 + random.nextDouble() * 8.5;
+            double factor = Math.cos(Math.toRadians(qLat));
+            int expected = -1;
+            double best = Double.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                double dLat = lat[i] - qLat;
+                double dLon = (lon[i] - qLon) * factor;
+                double distance = dLat * dLat + dLon * dLon;
+                if (distance < best) {
+                    best = distance;
+                    expected = i;
+                }
+            }
+
+            assertThat(tree.nearest(qLat, qLon)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void emptyAndSingleItemTrees_shouldBeSearchable() {
+        PackedRTree empty = PackedRTree.build(new double[0], new double[0], new double[0], new double[0]);
+        List<Integer> found = new ArrayList<>();
+        empty.search(48.2, 16.3, found::add);
+        assertThat(found).isEmpty();
+        assertThat(empty.nearest(48.2, 16.3)).isEqualTo(-1);
+
+        PackedRTree single = PackedRTree.build(new double[]{48.1}, new double[]{16.1}, new double[]{48.3}, new double[]{16.5});
+        single.search(48.2, 16.3, found::add);
+        assertThat(found).containsExactly(0);
+        assertThat(single.nearest(0, 0)).isZero();
+    }
+}
@@ -0,0 +1,110 @@
+package at.big5health.klimaatlas;
+
+import at.big5health.klimaatlas.dtos.WeatherAggregateDTO;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.GridCellInfo;
+import at.big5health.klimaatlas.grid.GridUtil;
+import at.big5health.klimaatlas.grid.WeatherPyramid;
+import at.big5health.klimaatlas.grid.WeatherRaster;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class WeatherPyramidTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 4, 21);
+
+    @Test
+    void query_shouldAggregateMinMeanMaxOverTile() {
+        // three cells about 1-2 km apart around Vienna, one without precipitation
+        WeatherPyramid pyramid = WeatherRaster.builder(DATE)
+                .add(48.2082, 16.3738, 2.0, 12.0, 1.0)
+                .add(48.2172, 16.3738, 4.0, 14.0, null)
+                .add(48.2082, 16.3872, 6.0, 19.0, 3.0)
+                .build()
+                .getPyramid();
+
+        List<WeatherAggregateDTO> tiles = pyramid.query(new BoundingBox(48.20, 16.37, 48.22, 16.39), 4);
+
+        assertThat(tiles).hasSize(1);
+        WeatherAggregateDTO tile = tiles.get(0);
+        assertThat(tile.getLevel()).isEqualTo(4);
+        assertThat(tile.getCells()).isEqualTo(3);
+        assertThat(tile.getMinTempMin()).isEqualTo(2.0);
+        assertThat(tile.getMinTempMean()).isEqualTo(4.0, offset(1e-6));
+        assertThat(tile.getMinTempMax()).isEqualTo(6.0);
+        assertThat(tile.getMaxTempMean()).isEqualTo(15.0, offset(1e-6));
+        assertThat(tile.getPrecipitationMean()).isEqualTo(2.0, offset(1e-6));
+        assertThat(48.2082).isBetween(tile.getMinLat(), tile.getMaxLat());
+        assertThat(16.3738).isBetween(tile.getMinLon(), tile.getMaxLon());
+    }
+
+    @Test
+    void query_levelZeroShouldReturnNativePixels() {
+        GridCellInfo pixel = new GridUtil().getGridCellForCoordinates(48.2082, 16.3738);
+        WeatherPyramid pyramid = WeatherRaster.builder(DATE)
+                .add(pixel.getTargetLatitude(), pixel.getTargetLongitude(), 5.0, 15.0, 0.0)
+                .build()
+                .getPyramid();
+
+        List<WeatherAggregateDTO> tiles = pyramid.query(new BoundingBox(48.20, 16.36, 48.22, 16.39), 0);
+
+        assertThat(tiles).hasSize(1);
+        assertThat(tiles.get(0).getMinLat()).isEqualTo(pixel.getBbox().getMinLat());
+        assertThat(tiles.get(0).getMinLon()).isEqualTo(pixel.getBbox().getMinLon());
+        assertThat(tiles.get(0).getMaxLat()).isEqualTo(pixel.getBbox().getMaxLat());
+        assertThat(tiles.get(0).getMaxLon()).isEqualTo(pixel.getBbox().getMaxLon());
+    }
+
+    @Test
+    void query_everyLevelShouldMatchAggregatesOverAllCells() {
+        Random random = new Random(7);
+        WeatherRaster.Builder builder = WeatherRaster.builder(DATE);
+        double sum = 0;
+        int count = 0;
+        for (double lat = 46.4; lat < 49.0; lat += 0.009) {
+            for (double lon = 9.6; lon < 17.1; lon += 0.0134) {
+                if (random.nextInt(4) > 0) {
+                    double value = Math.round(random.nextGaussian() * 100) / 10.0;
+                    builder.add(lat, lon, value, null, null);
+                }
+            }
+        }
+        WeatherRaster raster = builder.build();
+        List<WeatherAggregateDTO> cells = raster.getPyramid().query(WeatherRaster.extent(), 0);
+        for (WeatherAggregateDTO cell : cells) {
+            sum += cell.getMinTempMean();
+            count++;
+        }
+        assertThat(count).isEqualTo(raster.getFilledCells());
+
+        for (int level = 1; level <= WeatherPyramid.MAX_LEVEL; level++) {
+            List<WeatherAggregateDTO> tiles = raster.getPyramid().query(WeatherRaster.extent(), level);
+            assertThat(tiles.stream().mapToInt(WeatherAggregateDTO::getCells).sum()).isEqualTo(count);
+            double levelSum = tiles.stream().mapToDouble(tile -> tile.getMinTempMean() * tile.getCells()).sum();
+            assertThat(levelSum).as("level %d", level).isEqualTo(sum, offset(0.5));
+        }
+        assertThat(raster.getPyramid().query(WeatherRaster.extent(), WeatherPyramid.MAX_LEVEL)).hasSize(1);
+        // a zoomed-out view of the whole country reads a few hundred tiles
+        assertThat(raster.getPyramid().query(WeatherRaster.extent(), 4)).hasSizeBetween(100, 1000);
+    }
+
+    @Test
+    void query_shouldSkipEmptyTilesAndAreasOutsideTheRaster() {
+        WeatherPyramid pyramid = WeatherRaster.builder(DATE)
+                .add(48.2082, 16.3738, 5.0, 15.0, 0.0)
+                .build()
+                .getPyramid();
+
+        assertThat(pyramid.query(new BoundingBox(46.4, 9.6, 47.0, 10.5), 2)).isEmpty();
+        assertThat(pyramid.query(new BoundingBox(50.0, 5.0, 51.0, 6.0), 3)).isEmpty();
+        assertThatThrownBy(() -> pyramid.query(WeatherRaster.extent(), WeatherPyramid.MAX_LEVEL + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,115 @@
+package at.big5health.klimaatlas;
+
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.GridCellInfo;
+import at.big5health.klimaatlas.grid.GridUtil;
+import at.big5health.klimaatlas.grid.WeatherRaster;
+import at.big5health.klimaatlas.grid.WeatherRasterStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class WeatherRasterTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 4, 21);
+
+    @Test
+    void lookup_shouldReturnValuesOfContainingCell() {
+        WeatherRaster raster = WeatherRaster.builder(DATE)
+                .add(48.2082, 16.3738, 5.0, 15.0, 0.4)
+                .add(47.0707, 15.4395, 3.0, 12.0, null)
+                .build();
+
+        assertThat(raster.getFilledCells()).isEqualTo(2);
+        assertThat(raster.lookup(48.2085, 16.3741))
+                .contains(new WeatherRaster.Cell(5.0, 15.0, (double) 0.4f));
+        assertThat(raster.lookup(47.0707, 15.4395))
+                .contains(new WeatherRaster.Cell(3.0, 12.0, null));
+    }
+
+    @Test
+    void lookup_shouldReturnPixelOfGridCellContainingPoint() {
+        GridUtil gridUtil = new GridUtil();
+        WeatherRaster.Builder builder = WeatherRaster.builder(DATE);
+        long vienna = GridUtil.cellAt(48.2082, 16.3738);
+        // a block of native pixels, added at their centers as Spartacus delivers them
+        for (int dRow = -2; dRow <= 2; dRow++) {
+            for (int dColumn = -2; dColumn <= 2; dColumn++) {
+                GridCellInfo pixel = gridUtil.getGridCellInfo(
+                        GridUtil.cell(GridUtil.row(vienna) + dRow, GridUtil.column(vienna) + dColumn));
+                builder.add(pixel.getTargetLatitude(), pixel.getTargetLongitude(), (double) dRow, (double) dColumn, null);
+            }
+        }
+        WeatherRaster raster = builder.build();
+
+        // no two pixels share a raster cell
+        assertThat(raster.getFilledCells()).isEqualTo(25);
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            double lat = 48.2082 + (random.nextDouble() - 0.5) * 0.03;
+            double lon = 16.3738 + (random.nextDouble() - 0.5) * 0.04;
+            long cell = GridUtil.cellAt(lat, lon);
+            double dRow = GridUtil.row(cell) - GridUtil.row(vienna);
+            double dColumn = GridUtil.column(cell) - GridUtil.column(vienna);
+            assertThat(raster.lookup(lat, lon)).contains(new WeatherRaster.Cell(dRow, dColumn, null));
+        }
+    }
+
+    @Test
+    void lookup_shouldNotFallBackToNeighbouringPixels() {
+        WeatherRaster raster = WeatherRaster.builder(DATE)
+                .add(48.2082, 16.3738, 5.0, 15.0, 0.0)
+                .build();
+
+        // ~1 km north lies in the neighbouring pixel, which has no data
+        assertThat(raster.lookup(48.2172, 16.3738)).isEmpty();
+    }
+
+    @Test
+    void builder_shouldKeepLatestValuesOfCellAndIgnorePointsOutsideAustria() {
+        WeatherRaster first = WeatherRaster.builder(DATE).add(48.2082, 16.3738, 1.0, 1.0, 1.0).build();
+        assertThat(first.getFilledCells()).isEqualTo(1);
+
+        WeatherRaster raster = WeatherRaster.builder(DATE)
+                .add(52.52, 13.40, 9.0, 9.0, 9.0)
+                .add(48.2082, 16.3738, 1.0, 1.0, 1.0)
+                .add(48.2082, 16.3738, 2.0, 2.0, 2.0)
+                .build();
+
+        assertThat(raster.getFilledCells()).isEqualTo(1);
+        assertThat(raster.lookup(48.2082, 16.3738)).contains(new WeatherRaster.Cell(2.0, 2.0, 2.0));
+        assertThat(raster.lookup(52.52, 13.40)).isEmpty();
+    }
+
+    @Test
+    void tiles_shouldCoverRasterExtentWithoutGaps() {
+        List<BoundingBox> tiles = WeatherRaster.tiles(3, 4);
+
+        assertThat(tiles).hasSize(12);
+        assertThat(tiles.getFirst().getMinLat()).isEqualTo(WeatherRaster.MIN_LAT);
+        assertThat(tiles.getFirst().getMinLon()).isEqualTo(WeatherRaster.MIN_LON);
+        assertThat(tiles.getLast().getMaxLat()).isCloseTo(WeatherRaster.MAX_LAT, offset(1e-9));
+        assertThat(tiles.getLast().getMaxLon()).isCloseTo(WeatherRaster.MAX_LON, offset(1e-9));
+        assertThat(tiles.get(1).getMinLon()).isEqualTo(tiles.get(0).getMaxLon());
+        assertThat(tiles.get(4).getMinLat()).isEqualTo(tiles.get(0).getMaxLat());
+    }
+
+    @Test
+    void store_shouldKeepOnlyMostRecentDates() {
+        WeatherRasterStore store = new WeatherRasterStore();
+        for (int i = 0; i < 5; i++) {
+            store.put(WeatherRaster.builder(DATE.plusDays(i)).add(48.2082, 16.3738, (double) i, 0.0, 0.0).build());
+        }
+
+        assertThat(store.get(DATE.plusDays(1))).isEmpty();
+        assertThat(store.get(DATE.plusDays(2))).isPresent();
+        assertThat(store.lookup(DATE.plusDays(4), 48.2082, 16.3738))
+                .hasValueSatisfying(cell -> assertThat(cell.minTemp()).isEqualTo(4.0));
+        assertThat(store.lookup(DATE, 48.2082, 16.3738)).isEmpty();
+    }
+}
@@ -0,0 +1,85 @@
+package at.big5health.klimaatlas.controllers;
+
+import at.big5health.klimaatlas.dtos.BackfillJobDTO;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.WeatherRaster;
+import at.big5health.klimaatlas.services.BackfillService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BackfillController.class)
+class BackfillControllerTest {
+
+    private static final LocalDate FROM = LocalDate.of(2020, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2022, 12, 31);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BackfillService backfillService;
+
+    @Test
+    void start_withoutScope_shouldBackfillAllOfAustria() throws Exception {
+        given(backfillService.start(eq(FROM), eq(TO), any(BoundingBox.class))).willReturn(job("RUNNING"));
+
+        mockMvc.perform(post("/backfill").param("from", "2020-01-01").param("to", "2022-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.totalBatches").value(432));
+
+        verify(backfillService).start(eq(FROM), eq(TO),
+                argThat(scope -> scope.toApiString().equals(WeatherRaster.extent().toApiString())));
+    }
+
+    @Test
+    void start_withInvalidRangeOrPartialScope_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/backfill").param("from", "2022-01-02").param("to", "2022-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/backfill").param("from", "2022-01-01").param("to", LocalDate.now().toString()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/backfill").param("from", "2022-01-01").param("to", "2022-01-31")
+                        .param("minLat", "47.0").param("minLon", "15.0"))
+                .andExpect(status().isBadRequest());
+
+        verify(backfillService, never()).start(any(), any(), any());
+    }
+
+    @Test
+    void getStatusAndCancel_shouldReturnProgress() throws Exception {
+        given(backfillService.getStatus()).willReturn(job("RUNNING"));
+        given(backfillService.cancel()).willReturn(job("CANCELLED"));
+
+        mockMvc.perform(get("/backfill"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completedBatches").value(40))
+                .andExpect(jsonPath("$.batchesPerMinute").value(30.0))
+                .andExpect(jsonPath("$.error").doesNotExist());
+        mockMvc.perform(delete("/backfill"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+
+    private static BackfillJobDTO job(String status) {
+        return new BackfillJobDTO(status, FROM, TO, WeatherRaster.extent().toApiString(), 432, 40, 1_000_000L,
+                Instant.parse("2025-06-02T08:00:00Z"), 30.0, 5000.0, 784L, null);
+    }
+}
@@ -1,5 +1,6 @@
 package at.big5health.klimaatlas.controllers;
 
+import at.big5health.klimaatlas.dtos.MosquitoClusterDTO;
 import at.big5health.klimaatlas.dtos.MosquitoOccurrenceDTO;
 import at.big5health.klimaatlas.services.MosquitoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -10,8 +11,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -36,7 +40,7 @@ class MosquitoControllerTest {
                 new MosquitoOccurrenceDTO(48.2082, 16.3738, "Aedes albopictus", "2025-05-20"),
                 new MosquitoOccurrenceDTO(47.0707, 15.4395, "Culex pipiens", "2025-05-18")
         );
-        given(mosquitoService.getOccurrences()).willReturn(mockList);
+        given(mosquitoService.getOccurrences(null, null, null)).willReturn(mockList);
 
         mockMvc.perform(get("/mosquitoes")
                         .accept(MediaType.APPLICATION_JSON))
@@ -47,4 +51,59 @@ class MosquitoControllerTest {
                 .andExpect(jsonPath("$[0].species").value("Aedes albopictus"))
                 .andExpect(jsonPath("$[0].eventDate").value("2025-05-20"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllMosquitoOccurrences_withDateRangeAndSpecies_shouldPassFilters() throws Exception {
+        given(mosquitoService.getOccurrences(LocalDate.of(2022, 1, 1), LocalDate.of(2023, 12, 31), "Aedes albopictus"))
+                .willReturn(List.of(new MosquitoOccurrenceDTO(48.2082, 16.3738, "Aedes albopictus", "2022-07-01")));
+
+        mockMvc.perform(get("/mosquitoes")
+                        .param("from", "2022-01-01")
+                        .param("to", "2023-12-31")
+                        .param("species", "Aedes albopictus")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].eventDate").value("2022-07-01"));
+    }
+
+    @Test
+    void getAllMosquitoOccurrences_withInvertedDateRange_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/mosquitoes")
+                        .param("from", "2023-01-01")
+                        .param("to", "2022-01-01")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getMosquitoClusters_shouldReturn200WithClusters() throws Exception {
+        List<MosquitoClusterDTO> clusters = List.of(
+                new MosquitoClusterDTO(48.2, 16.37, 12, null, null),
+                new MosquitoClusterDTO(47.07, 15.44, 1, "Aedes albopictus", "2025-05-18")
+        );
+        given(mosquitoService.getClusters(any(), eq(8))).willReturn(clusters);
+
+        mockMvc.perform(get("/mosquitoes/clusters")
+                        .param("minLat", "46.3")
+                        .param("minLon", "9.5")
+                        .param("maxLat", "49.0")
+                        .param("maxLon", "17.2")
+                        .param("zoom", "8")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].count").value(12))
+                .andExpect(jsonPath("$[0].species").doesNotExist())
+                .andExpect(jsonPath("$[1].species").value("Aedes albopictus"));
+    }
+
+    @Test
+    void getMosquitoClusters_withInvertedBoundingBox_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/mosquitoes/clusters")
+                        .param("minLat", "49.0")
+                        .param("minLon", "9.5")
+                        .param("maxLat", "46.3")
+                        .param("maxLon", "17.2")
+                        .param("zoom", "8"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,76 @@
+package at.big5health.klimaatlas.controllers;
+
+import at.big5health.klimaatlas.dtos.LocationSuggestionDTO;
+import at.big5health.klimaatlas.dtos.PopulationCenterDTO;
+import at.big5health.klimaatlas.dtos.PopulationCenterLocationDTO;
+import at.big5health.klimaatlas.services.PopulationCenterService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PopulationCenterController.class)
+class PopulationCenterControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PopulationCenterService populationCenterService;
+
+    @Test
+    void locate_shouldReturnContainingAndNearestCenter() throws Exception {
+        PopulationCenterDTO wien = new PopulationCenterDTO("Wien", 48.2082, 16.3738, 48.12, 16.18, 48.33, 16.58);
+        given(populationCenterService.locate(48.21, 16.37))
+                .willReturn(new PopulationCenterLocationDTO(List.of(wien), wien, 0.25));
+
+        mockMvc.perform(get("/centers/locate")
+                        .param("lat", "48.21")
+                        .param("lon", "16.37")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.containing[0].displayName").value("Wien"))
+                .andExpect(jsonPath("$.nearest.latitude").value(48.2082))
+                .andExpect(jsonPath("$.nearestDistanceKm").value(0.25));
+    }
+
+    @Test
+    void locate_withOutOfRangeLatitude_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/centers/locate")
+                        .param("lat", "95")
+                        .param("lon", "16.37"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_shouldReturnSuggestions() throws Exception {
+        given(populationCenterService.search("pöl", 5))
+                .willReturn(List.of(new LocationSuggestionDTO("CENTER", "St. Pölten", null, 48.2047, 15.6256)));
+
+        mockMvc.perform(get("/centers/search")
+                        .param("q", "pöl")
+                        .param("limit", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("St. Pölten"))
+                .andExpect(jsonPath("$[0].type").value("CENTER"))
+                .andExpect(jsonPath("$[0].postalCode").doesNotExist());
+    }
+
+    @Test
+    void search_withTooLargeLimit_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/centers/search")
+                        .param("q", "wi")
+                        .param("limit", "500"))
+                .andExpect(status().isBadRequest());
+    }
+}
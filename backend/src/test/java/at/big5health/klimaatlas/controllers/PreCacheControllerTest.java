@@ -0,0 +1,67 @@
+package at.big5health.klimaatlas.controllers;
+
+import at.big5health.klimaatlas.dtos.PreCacheJobDTO;
+import at.big5health.klimaatlas.dtos.PreCacheOutcomeDTO;
+import at.big5health.klimaatlas.dtos.WarmUpStatusDTO;
+import at.big5health.klimaatlas.services.CacheWarmUpService;
+import at.big5health.klimaatlas.services.WeatherPreCacheService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PreCacheController.class)
+class PreCacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private WeatherPreCacheService weatherPreCacheService;
+
+    @MockBean
+    private CacheWarmUpService cacheWarmUpService;
+
+    @Test
+    void getJobs_shouldReturnProgressAndOutcomes() throws Exception {
+        PreCacheJobDTO job = new PreCacheJobDTO(3, "Scheduled", LocalDate.of(2025, 6, 1), "RUNNING", 10, 1, 1, 0,
+                Instant.parse("2025-06-02T08:00:00Z"), null, List.of(new PreCacheOutcomeDTO("Wien", "SUCCESS", null, 120)));
+        given(weatherPreCacheService.getJobs()).willReturn(List.of(job));
+
+        mockMvc.perform(get("/precache/jobs").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[0].status").value("RUNNING"))
+                .andExpect(jsonPath("$[0].completed").value(1))
+                .andExpect(jsonPath("$[0].finishedAt").doesNotExist())
+                .andExpect(jsonPath("$[0].outcomes[0].center").value("Wien"));
+    }
+
+    @Test
+    void getWarmUp_shouldReturnServiceUnavailableWhileWarming() throws Exception {
+        Instant started = Instant.parse("2025-06-02T08:00:00Z");
+        given(cacheWarmUpService.getStatus())
+                .willReturn(new WarmUpStatusDTO("WARMING", false, 40, 100, 0.95, started, null))
+                .willReturn(new WarmUpStatusDTO("READY", true, 95, 100, 0.95, started, started.plusSeconds(90)));
+
+        mockMvc.perform(get("/precache/warmup"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.state").value("WARMING"))
+                .andExpect(jsonPath("$.cached").value(40))
+                .andExpect(jsonPath("$.finishedAt").doesNotExist());
+        mockMvc.perform(get("/precache/warmup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.acceptingTraffic").value(true));
+    }
+}
@@ -2,10 +2,13 @@ package at.big5health.klimaatlas.controllers;
 
 import at.big5health.klimaatlas.config.AustrianPopulationCenter;
 import at.big5health.klimaatlas.dtos.Precipitation;
+import at.big5health.klimaatlas.dtos.WeatherAggregateDTO;
 import at.big5health.klimaatlas.dtos.WeatherReportDTO;
 import at.big5health.klimaatlas.exceptions.ErrorMessages;
 import at.big5health.klimaatlas.exceptions.ExternalApiException;
 import at.big5health.klimaatlas.exceptions.WeatherDataNotFoundException;
+import at.big5health.klimaatlas.grid.WeatherPyramid;
+import at.big5health.klimaatlas.grid.WeatherRaster;
 import at.big5health.klimaatlas.services.PopulationCenterService;
 import at.big5health.klimaatlas.services.WeatherService;
 import org.junit.jupiter.api.Test;
@@ -18,8 +21,12 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.never;
@@ -241,4 +248,73 @@ class WeatherControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
     }
+
+    @Test
+    void getAggregates_withoutBoundingBox_shouldQueryWholeRasterExtent() throws Exception {
+        WeatherAggregateDTO tile = new WeatherAggregateDTO(5, 48.0, 16.0, 48.3, 16.4,
+                4.0, 6.5, 9.0, 14.0, 16.5, 19.0, null, null, null, 1024);
+        given(weatherService.getAggregates(eq(testDate), argThat(bbox -> bbox.getMinLat() == WeatherRaster.MIN_LAT
+                && bbox.getMaxLon() == WeatherRaster.MAX_LON), eq(5))).willReturn(List.of(tile));
+
+        mockMvc.perform(get(BASE_URL + "/aggregates")
+                        .param("actualDate", testDateStr)
+                        .param("level", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].level", is(5)))
+                .andExpect(jsonPath("$[0].minTempMean", is(6.5)))
+                .andExpect(jsonPath("$[0].cells", is(1024)))
+                .andExpect(jsonPath("$[0].precipitationMean").doesNotExist());
+    }
+
+    @Test
+    void getAggregates_withInvalidLevelOrPartialBoundingBox_shouldReturn400() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/aggregates")
+                        .param("actualDate", testDateStr)
+                        .param("level", "11"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(BASE_URL + "/aggregates")
+                        .param("actualDate", testDateStr)
+                        .param("level", "3")
+                        .param("minLat", "47.0"))
+                .andExpect(status().isBadRequest());
+
+        verify(weatherService, never()).getAggregates(any(), any(), eq(3));
+    }
+
+    @Test
+    void getAggregates_whenBoundingBoxSpansTooManyTiles_shouldReturn400() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/aggregates")
+                        .param("actualDate", testDateStr)
+                        .param("level", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("use level " + WeatherPyramid.minLevel(WeatherRaster.extent()))));
+        mockMvc.perform(get(BASE_URL + "/aggregates")
+                        .param("actualDate", testDateStr)
+                        .param("level", "0")
+                        .param("minLat", "47.0")
+                        .param("minLon", "15.0")
+                        .param("maxLat", "47.1")
+                        .param("maxLon", "15.1"))
+                .andExpect(status().isOk());
+
+        verify(weatherService, never()).getAggregates(any(), argThat(bbox -> bbox.getMaxLat() > 47.1), eq(0));
+        assertThat(WeatherPyramid.tileCount(WeatherRaster.extent(), WeatherPyramid.minLevel(WeatherRaster.extent())))
+                .isLessThanOrEqualTo(WeatherPyramid.MAX_TILES);
+    }
+
+    @Test
+    void getAggregates_whenDateNotPreCached_shouldReturn404() throws Exception {
+        given(weatherService.getAggregates(eq(testDate), any(), eq(4)))
+                .willThrow(new WeatherDataNotFoundException(ErrorMessages.WEATHER_DATA_NOT_FOUND));
+
+        mockMvc.perform(get(BASE_URL + "/aggregates")
+                        .param("actualDate", testDateStr)
+                        .param("level", "4")
+                        .param("minLat", "47.0")
+                        .param("minLon", "15.0")
+                        .param("maxLat", "48.0")
+                        .param("maxLon", "16.0"))
+                .andExpect(status().isNotFound());
+    }
 }
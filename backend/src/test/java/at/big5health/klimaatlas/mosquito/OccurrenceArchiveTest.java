@@ -0,0 +1,125 @@
+package at.big5health.klimaatlas.mosquito;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OccurrenceArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private OccurrenceArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new OccurrenceArchive(directory);
+        archive.open();
+    }
+
+    @Test
+    void open_withoutFiles_shouldBeEmpty() {
+        assertThat(archive.years()).isEmpty();
+        assertThat(archive.query(null, null, null).isEmpty()).isTrue();
+    }
+
+    @Test
+    void append_shouldRoundTripColumns() {
+        archive.append(2023, batch("2023-06-15T10:00:00", "Aedes albopictus", null));
+
+        OccurrenceBatch result = archive.query(null, null, null);
+
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result.latitude(0)).isEqualTo(48.2082, within(1e-5));
+        assertThat(result.longitude(0)).isEqualTo(16.3738, within(1e-5));
+        assertThat(result.species(0)).isEqualTo("Aedes albopictus");
+        assertThat(result.eventDate(0)).isEqualTo("2023-06-15");
+        assertThat(result.species(1)).isNull();
+        assertThat(result.eventDate(1)).isNull();
+    }
+
+    @Test
+    void append_sameYearTwice_shouldKeepFirstSegment() {
+        assertThat(archive.append(2023, batch("2023-06-15", "Aedes albopictus", "2023-06-16"))).isTrue();
+        assertThat(archive.append(2023, new OccurrenceBatch())).isFalse();
+
+        assertThat(archive.query(null, null, null).size()).isEqualTo(2);
+    }
+
+    @Test
+    void query_shouldFilterByDateRangeAndSpecies() {
+        archive.append(2022, batch("2022-05-01", "Aedes albopictus", "2022-09-01"));
+        archive.append(2023, batch("2023-05-01", "Aedes japonicus", "2023-09-01"));
+
+        OccurrenceBatch summer = archive.query(LocalDate.of(2022, 8, 1), LocalDate.of(2023, 6, 1), null);
+        assertThat(summer.size()).isEqualTo(2);
+        assertThat(summer.eventDate(0)).isEqualTo("2022-09-01");
+        assertThat(summer.eventDate(1)).isEqualTo("2023-05-01");
+
+        OccurrenceBatch japonicus = archive.query(null, null, "Aedes japonicus");
+        assertThat(japonicus.size()).isEqualTo(1);
+        assertThat(japonicus.eventDate(0)).isEqualTo("2023-05-01");
+
+        assertThat(archive.query(null, null, "Culex pipiens").isEmpty()).isTrue();
+    }
+
+    @Test
+    void open_shouldReloadPersistedSegmentsAndDictionary() {
+        archive.append(2021, batch("2021-07-01", "Aedes vexans", "2021-07-02"));
+        archive.append(2022, batch("2022-07-01", "Aedes albopictus", "2022-07-02"));
+
+        OccurrenceArchive reopened = new OccurrenceArchive(directory);
+        reopened.open();
+
+        assertThat(reopened.years()).containsExactly(2021, 2022);
+        assertThat(reopened.query(null, null, "Aedes albopictus").size()).isEqualTo(1);
+    }
+
+    @Test
+    void open_withTruncatedTail_shouldIgnoreIncompleteSegment() throws IOException {
+        archive.append(2021, batch("2021-07-01", "Aedes vexans", "2021-07-02"));
+        Files.write(directory.resolve(OccurrenceArchive.OCCURRENCE_FILE), new byte[]{0x31, 0x4D, 0x4C, 0x4B, 1},
+                StandardOpenOption.APPEND);
+
+        OccurrenceArchive reopened = new OccurrenceArchive(directory);
+        reopened.open();
+        assertThat(reopened.years()).containsExactly(2021);
+
+        reopened.append(2022, batch("2022-07-01", "Aedes albopictus", null));
+        OccurrenceArchive again = new OccurrenceArchive(directory);
+        again.open();
+        assertThat(again.years()).containsExactly(2021, 2022);
+        assertThat(again.query(null, null, null).size()).isEqualTo(4);
+    }
+
+    @Test
+    void append_afterInterruptedDictionaryWrite_shouldKeepCodesAlignedWithFile() throws IOException {
+        archive.append(2021, batch("2021-07-01", "Aedes vexans", null));
+        // a previous append failed halfway through writing a new name
+        Files.writeString(directory.resolve(OccurrenceArchive.SPECIES_FILE), "Aedes japo", StandardOpenOption.APPEND);
+
+        archive.append(2022, batch("2022-07-01", "Aedes albopictus", null));
+        OccurrenceArchive reopened = new OccurrenceArchive(directory);
+        reopened.open();
+
+        assertThat(reopened.query(LocalDate.of(2022, 1, 1), null, null).species(0)).isEqualTo("Aedes albopictus");
+        assertThat(reopened.query(null, null, "Aedes albopictus").size()).isEqualTo(1);
+        assertThat(reopened.query(null, null, "Aedes vexans").size()).isEqualTo(1);
+    }
+
+    private static OccurrenceBatch batch(String firstDate, String firstSpecies, String secondDate) {
+        OccurrenceBatch batch = new OccurrenceBatch();
+        batch.add(48.2082, 16.3738, firstSpecies, firstDate);
+        batch.add(47.0707, 15.4395, null, secondDate);
+        return batch;
+    }
+}
@@ -0,0 +1,55 @@
+package at.big5health.klimaatlas.mosquito;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OccurrenceBatchTest {
+
+    @Test
+    void add_shouldShareSpeciesInstancesAcrossBatches() {
+        OccurrenceBatch first = new OccurrenceBatch();
+        OccurrenceBatch second = new OccurrenceBatch();
+        first.add(47.1, 15.1, new String("Aedes albopictus"), "2024-07-01");
+        second.add(47.2, 15.2, new String("Aedes albopictus"), "2024-07-02");
+
+        assertThat(first.species(0)).isSameAs(second.species(0));
+        assertThat(first.speciesCode(0)).isEqualTo(second.speciesCode(0));
+    }
+
+    @Test
+    void add_shouldStoreEventDatesAsEventDays() {
+        OccurrenceBatch batch = new OccurrenceBatch();
+        batch.add(47.1, 15.1, null, "2024-07-01T10:15:00");
+        batch.add(47.2, 15.2, null, "2024-07");
+        batch.add(47.3, 15.3, null, "not a date");
+
+        assertThat(batch.eventDate(0)).isEqualTo("2024-07-01");
+        assertThat(batch.eventDay(0)).isEqualTo(LocalDate.of(2024, 7, 1).toEpochDay());
+        assertThat(batch.eventDate(1)).isEqualTo("2024-07");
+        assertThat(batch.eventDay(2)).isEqualTo(OccurrenceDates.UNKNOWN);
+        assertThat(batch.eventDate(2)).isNull();
+        assertThat(batch.species(0)).isNull();
+    }
+
+    @Test
+    void mergeById_shouldReplaceChangedRecordsAndAppendNewOnes() {
+        OccurrenceBatch existing = new OccurrenceBatch();
+        existing.add(1L, 47.1, 15.1, "Aedes albopictus", "2024-07-01");
+        existing.add(2L, 47.2, 15.2, "Aedes albopictus", "2024-07-02");
+        OccurrenceBatch changes = new OccurrenceBatch();
+        changes.add(1L, 47.15, 15.15, "Aedes japonicus", "2024-07-01");
+        changes.add(3L, 47.3, 15.3, "Aedes vexans", "2024-07-03");
+
+        OccurrenceBatch merged = existing.mergeById(changes);
+
+        assertThat(merged.size()).isEqualTo(3);
+        assertThat(merged.gbifId(0)).isEqualTo(2L);
+        assertThat(merged.gbifId(1)).isEqualTo(1L);
+        assertThat(merged.species(1)).isEqualTo("Aedes japonicus");
+        assertThat(merged.gbifId(2)).isEqualTo(3L);
+        assertThat(existing.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,87 @@
+package at.big5health.klimaatlas.mosquito;
+
+import at.big5health.klimaatlas.dtos.MosquitoClusterDTO;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OccurrenceClusterIndexTest {
+
+    private static final BoundingBox AUSTRIA = new BoundingBox(46.3, 9.5, 49.1, 17.2);
+
+    private OccurrenceBatch occurrences;
+
+    @BeforeEach
+    void setUp() {
+        occurrences = new OccurrenceBatch();
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            occurrences.add(46.4 + random.nextDouble() * 2.6, 9.6 + random.nextDouble() * 7.5,
+                    "Aedes albopictus", "2025-06-01");
+        }
+    }
+
+    @Test
+    void query_atEveryZoom_shouldPreserveTotalCount() {
+        OccurrenceClusterIndex index = OccurrenceClusterIndex.build(occurrences);
+
+        for (int zoom = 0; zoom <= OccurrenceClusterIndex.MAX_CLUSTER_ZOOM + 2; zoom++) {
+            int total = index.query(AUSTRIA, zoom).stream().mapToInt(MosquitoClusterDTO::getCount).sum();
+            assertThat(total).as("zoom %d", zoom).isEqualTo(10_000);
+        }
+    }
+
+    @Test
+    void query_atLowZoom_shouldReturnFewClusters() {
+        OccurrenceClusterIndex index = OccurrenceClusterIndex.build(occurrences);
+
+        assertThat(index.query(AUSTRIA, 4)).hasSizeLessThan(20);
+        assertThat(index.query(AUSTRIA, 8).size()).isLessThan(index.query(AUSTRIA, 10).size());
+    }
+
+    @Test
+    void query_shouldOnlyReturnClustersInsideBoundingBox() {
+        OccurrenceBatch batch = new OccurrenceBatch();
+        batch.add(48.2082, 16.3738, "Aedes albopictus", "2025-06-01");
+        batch.add(47.2692, 11.4041, "Aedes japonicus", "2025-06-02");
+        OccurrenceClusterIndex index = OccurrenceClusterIndex.build(batch);
+
+        List<MosquitoClusterDTO> vienna = index.query(new BoundingBox(48.0, 16.0, 48.5, 16.7), 12);
+
+        assertThat(vienna).hasSize(1);
+        assertThat(vienna.getFirst().getCount()).isEqualTo(1);
+        assertThat(vienna.getFirst().getLatitude()).isEqualTo(48.2082, within(1e-9));
+        assertThat(vienna.getFirst().getSpecies()).isEqualTo("Aedes albopictus");
+        assertThat(vienna.getFirst().getEventDate()).isEqualTo("2025-06-01");
+    }
+
+    @Test
+    void query_clusterCentroid_shouldBeMeanOfMembers() {
+        OccurrenceBatch batch = new OccurrenceBatch();
+        batch.add(48.20, 16.30, "Aedes albopictus", "2025-06-01");
+        batch.add(48.22, 16.32, "Aedes albopictus", "2025-06-02");
+        OccurrenceClusterIndex index = OccurrenceClusterIndex.build(batch);
+
+        List<MosquitoClusterDTO> clusters = index.query(AUSTRIA, 5);
+
+        assertThat(clusters).hasSize(1);
+        assertThat(clusters.getFirst().getCount()).isEqualTo(2);
+        assertThat(clusters.getFirst().getLatitude()).isEqualTo(48.21, within(1e-9));
+        assertThat(clusters.getFirst().getLongitude()).isEqualTo(16.31, within(1e-9));
+        assertThat(clusters.getFirst().getSpecies()).isNull();
+    }
+
+    @Test
+    void build_withoutOccurrences_shouldReturnEmptyResults() {
+        OccurrenceClusterIndex index = OccurrenceClusterIndex.build(new OccurrenceBatch());
+
+        assertThat(index.query(AUSTRIA, 6)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+}
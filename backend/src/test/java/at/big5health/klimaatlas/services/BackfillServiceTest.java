@@ -0,0 +1,220 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.dtos.BackfillJobDTO;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeature;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeatureCollection;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusGeometry;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusParameter;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusProperties;
+import at.big5health.klimaatlas.exceptions.ErrorMessages;
+import at.big5health.klimaatlas.exceptions.ExternalApiException;
+import at.big5health.klimaatlas.exceptions.InvalidInputException;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.WeatherArchive;
+import at.big5health.klimaatlas.grid.WeatherRaster;
+import at.big5health.klimaatlas.httpclients.ExternalWeatherApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class BackfillServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 1, 3);
+    // two 0.2 degree tiles side by side
+    private static final BoundingBox SCOPE = new BoundingBox(48.0, 16.0, 48.2, 16.4);
+
+    @TempDir
+    private Path directory;
+
+    private ExternalWeatherApiClient externalClient;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicBoolean failThirdBatch = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        externalClient = mock(ExternalWeatherApiClient.class);
+        given(externalClient.fetchGridData(any(BoundingBox.class), any(LocalDate.class), any(LocalDate.class), any(Duration.class)))
+                .willAnswer(invocation -> {
+                    int request = requests.incrementAndGet();
+                    if (failThirdBatch.get() && request == 3) {
+                        return Mono.error(new ExternalApiException(ErrorMessages.EXTERNAL_API_FAILURE));
+                    }
+                    BoundingBox tile = invocation.getArgument(0);
+                    LocalDate start = invocation.getArgument(1);
+                    LocalDate end = invocation.getArgument(2);
+                    return Mono.just(tileData(tile, start, end));
+                });
+    }
+
+    @Test
+    void start_shouldFetchEveryTileAndDayChunkAndArchiveOneSegmentPerDay() {
+        BackfillService service = newService();
+
+        BackfillJobDTO started = service.start(FROM, TO, SCOPE);
+        BackfillJobDTO finished = awaitFinished(service);
+
+        assertThat(started.getTotalBatches()).isEqualTo(4);
+        assertThat(finished.getStatus()).isEqualTo("COMPLETED");
+        assertThat(finished.getCompletedBatches()).isEqualTo(4);
+        assertThat(finished.getCellDays()).isEqualTo(2 * 2 * 3);
+        assertThat(requests.get()).isEqualTo(4);
+
+        WeatherArchive archive = new WeatherArchive(directory);
+        WeatherRaster lastDay = archive.raster(TO).orElseThrow();
+        assertThat(lastDay.getFilledCells()).isEqualTo(4);
+        // tile values encode the day: minTemp = day of month
+        assertThat(lastDay.lookup(48.05, 16.05)).hasValueSatisfying(cell -> assertThat(cell.minTemp()).isEqualTo(3.0));
+        assertThat(archive.raster(TO.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void append_shouldExtendIndexOfOpenedArchive() {
+        WeatherArchive archive = new WeatherArchive(directory);
+        archive.open();
+        assertThat(archive.raster(FROM)).isEmpty();
+
+        BackfillService service = new BackfillService(externalClient, archive);
+        configure(service);
+        service.start(FROM, TO, SCOPE);
+        awaitFinished(service);
+
+        assertThat(archive.validBytes()).isEqualTo(new WeatherArchive(directory).validBytes());
+        for (LocalDate day = FROM; !day.isAfter(TO); day = day.plusDays(1)) {
+            assertThat(archive.raster(day).orElseThrow().getFilledCells()).isEqualTo(4);
+        }
+        assertThat(archive.raster(TO)).containsSame(archive.raster(TO).orElseThrow());
+    }
+
+    @Test
+    void start_afterFailureAndCrash_shouldResumeAtFailedBatchWithoutDuplicates() throws Exception {
+        failThirdBatch.set(true);
+        BackfillService service = newService();
+        service.start(FROM, TO, SCOPE);
+        BackfillJobDTO failed = awaitFinished(service);
+
+        assertThat(failed.getStatus()).isEqualTo("FAILED");
+        assertThat(failed.getCompletedBatches()).isEqualTo(2);
+        assertThat(failed.getError()).isNotBlank();
+
+        // a crash while the next batch was being written leaves a partial segment behind
+        Files.write(directory.resolve("weather.col"), new byte[] {0x31, 0x57, 0x4C, 0x4B, 1, 2},
+                StandardOpenOption.APPEND);
+
+        BackfillService restarted = newService();
+        assertThat(restarted.getStatus().getStatus()).isEqualTo("PAUSED");
+        restarted.resumeOnStartup();
+        BackfillJobDTO finished = awaitFinished(restarted);
+
+        assertThat(finished.getStatus()).isEqualTo("COMPLETED");
+        assertThat(requests.get()).isEqualTo(5);
+        assertThat(finished.getCellDays()).isEqualTo(12);
+        WeatherArchive archive = new WeatherArchive(directory);
+        assertThat(archive.validBytes()).isEqualTo(Files.size(directory.resolve("weather.col")));
+        for (LocalDate day = FROM; !day.isAfter(TO); day = day.plusDays(1)) {
+            assertThat(archive.raster(day).orElseThrow().getFilledCells()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void start_whileRunning_shouldBeRejected() {
+        BackfillService service = newService();
+        ReflectionTestUtils.setField(service, "ratePerSecond", 0.01);
+        service.start(FROM, TO, SCOPE);
+
+        assertThatThrownBy(() -> service.start(FROM, TO, SCOPE)).isInstanceOf(InvalidInputException.class);
+
+        BackfillJobDTO cancelled = service.cancel();
+        assertThat(awaitFinished(service).getStatus()).isEqualTo("CANCELLED");
+        assertThat(cancelled.getCompletedBatches()).isLessThan(4);
+    }
+
+    @Test
+    void toDays_shouldSplitDaysAndDropCellsOwnedByNeighbouringTile() {
+        BoundingBox west = SCOPE.split(1, 2).getFirst();
+        SpartacusFeatureCollection collection = new SpartacusFeatureCollection();
+        collection.setFeatures(List.of(
+                feature(16.1, 48.1, List.of(1.0, 2.0)),
+                feature(16.2, 48.1, List.of(5.0, 6.0)), // on the shared edge, belongs to the east tile
+                feature(16.0, 48.2, List.of(7.0, 8.0)))); // on the scope edge, kept
+
+        List<WeatherArchive.Day> days = BackfillService.toDays(collection, west, SCOPE, FROM, FROM.plusDays(1));
+
+        assertThat(days).extracting(WeatherArchive.Day::getDate).containsExactly(FROM, FROM.plusDays(1));
+        assertThat(days).extracting(WeatherArchive.Day::size).containsExactly(2, 2);
+    }
+
+    private BackfillService newService() {
+        BackfillService service = new BackfillService(externalClient, new WeatherArchive(directory));
+        configure(service);
+        return service;
+    }
+
+    private void configure(BackfillService service) {
+        ReflectionTestUtils.setField(service, "directory", directory);
+        ReflectionTestUtils.setField(service, "daysPerBatch", 2);
+        ReflectionTestUtils.setField(service, "tileDegrees", 0.2);
+        ReflectionTestUtils.setField(service, "ratePerSecond", 1000.0);
+        ReflectionTestUtils.setField(service, "maxAttempts", 1);
+    }
+
+    private static BackfillJobDTO awaitFinished(BackfillService service) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        BackfillJobDTO status = service.getStatus();
+        while ("RUNNING".equals(status.getStatus()) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+            status = service.getStatus();
+        }
+        return status;
+    }
+
+    /**
+     * Two cells per tile, with one value per day; minimum temperature is the day of the month.
+     */
+    private static SpartacusFeatureCollection tileData(BoundingBox tile, LocalDate start, LocalDate end) {
+        List<Double> days = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            days.add((double) day.getDayOfMonth());
+        }
+        SpartacusFeatureCollection collection = new SpartacusFeatureCollection();
+        collection.setFeatures(List.of(
+                feature(tile.getMinLon() + 0.05, tile.getMinLat() + 0.05, days),
+                feature(tile.getMinLon() + 0.05, tile.getMinLat() + 0.15, days)));
+        return collection;
+    }
+
+    private static SpartacusFeature feature(double lon, double lat, List<Double> minTemps) {
+        SpartacusGeometry geometry = new SpartacusGeometry();
+        geometry.setCoordinates(List.of(lon, lat));
+        SpartacusParameter parameter = new SpartacusParameter();
+        parameter.setData(minTemps);
+        Map<String, SpartacusParameter> parameters = new HashMap<>();
+        parameters.put("TN", parameter);
+        SpartacusProperties properties = new SpartacusProperties();
+        properties.setParameters(parameters);
+        SpartacusFeature feature = new SpartacusFeature();
+        feature.setGeometry(geometry);
+        feature.setProperties(properties);
+        return feature;
+    }
+}
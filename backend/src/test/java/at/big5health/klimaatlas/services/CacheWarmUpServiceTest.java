@@ -0,0 +1,89 @@
+package at.big5health.klimaatlas.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CacheWarmUpServiceTest {
+
+    private ApplicationEventPublisher publisher;
+    private CacheWarmUpService service;
+
+    @BeforeEach
+    void setUp() {
+        publisher = mock(ApplicationEventPublisher.class);
+        service = new CacheWarmUpService(publisher);
+    }
+
+    @Test
+    void onReadinessChange_whileWarming_shouldRefuseTrafficUntilThresholdReached() {
+        service.onReadinessChange(new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC));
+        assertThat(publishedStates()).containsExactly(ReadinessState.REFUSING_TRAFFIC);
+
+        service.recordProgress(0, 100);
+        service.recordProgress(94, 100);
+        assertThat(service.getState()).isEqualTo(CacheWarmUpService.State.WARMING);
+        assertThat(service.getStatus().isAcceptingTraffic()).isFalse();
+
+        service.recordProgress(95, 100);
+        service.recordProgress(96, 100);
+
+        assertThat(service.getState()).isEqualTo(CacheWarmUpService.State.READY);
+        assertThat(service.getStatus().getCached()).isEqualTo(96);
+        assertThat(service.getStatus().getFinishedAt()).isNotNull();
+        assertThat(publishedStates()).containsExactly(ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC);
+
+        // Once warm, later readiness changes are left alone
+        service.onReadinessChange(new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC));
+        verify(publisher, times(2)).publishEvent(any(ApplicationEvent.class));
+    }
+
+    @Test
+    void checkTimeout_shouldAcceptTrafficWhenCacheStaysCold() {
+        service.recordProgress(10, 100);
+        service.checkTimeout();
+        assertThat(service.getState()).isEqualTo(CacheWarmUpService.State.WARMING);
+
+        ReflectionTestUtils.setField(service, "timeout", Duration.ZERO);
+        service.checkTimeout();
+
+        assertThat(service.getState()).isEqualTo(CacheWarmUpService.State.TIMED_OUT);
+        assertThat(service.getStatus().isAcceptingTraffic()).isTrue();
+        assertThat(publishedStates()).containsExactly(ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Test
+    void disabled_shouldNeverRefuseTraffic() {
+        ReflectionTestUtils.setField(service, "enabled", false);
+
+        service.onReadinessChange(new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC));
+
+        assertThat(service.getState()).isEqualTo(CacheWarmUpService.State.DISABLED);
+        verify(publisher, never()).publishEvent(any(ApplicationEvent.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ReadinessState> publishedStates() {
+        ArgumentCaptor<ApplicationEvent> events = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(publisher, atLeast(0)).publishEvent(events.capture());
+        return events.getAllValues().stream()
+                .map(event -> ((AvailabilityChangeEvent<ReadinessState>) event).getState())
+                .toList();
+    }
+}
@@ -0,0 +1,94 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.config.CacheConfig;
+import at.big5health.klimaatlas.dtos.Precipitation;
+import at.big5health.klimaatlas.dtos.WeatherReportDTO;
+import at.big5health.klimaatlas.grid.GridCellInfo;
+import at.big5health.klimaatlas.grid.GridUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Runs against the application's {@link CacheConfig}, so the cell cache must be registered there.
+ */
+@SpringJUnitConfig({CacheConfig.class, GridCellCache.class, GridUtil.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class GridCellCacheTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 4, 21);
+    private static final long CELL = GridUtil.cell(483, 625);
+
+    @Autowired
+    private GridUtil gridUtil;
+
+    @Autowired
+    private GridCellCache cellCache;
+
+    @Test
+    void get_shouldReturnValuesPutForCellAndDate() {
+        WeatherReportDTO report = report(5.0, Precipitation.NONE);
+        cellCache.put(CELL, DATE, report);
+
+        assertThat(cellCache.get(CELL, DATE)).contains(report);
+        assertThat(cellCache.get(CELL, DATE.plusDays(1))).isEmpty();
+        assertThat(cellCache.get(GridUtil.cell(483, 626), DATE)).isEmpty();
+    }
+
+    @Test
+    void estimate_shouldWeightNeighboursByInverseSquaredDistance() {
+        cellCache.put(GridUtil.cell(483, 624), DATE, report(4.0, Precipitation.NONE));
+        cellCache.put(GridUtil.cell(483, 626), DATE, report(8.0, Precipitation.RAIN));
+        cellCache.put(GridUtil.cell(484, 625), DATE, report(6.0, Precipitation.DRIZZLE));
+        GridCellInfo center = gridUtil.getGridCellInfo(CELL);
+
+        // at the cell center the west and east neighbours are equally far away
+        WeatherReportDTO estimate = cellCache.estimate(CELL, DATE, center.getTargetLatitude(),
+                center.getTargetLongitude()).orElseThrow();
+
+        assertThat(estimate.getEstimated()).isTrue();
+        assertThat(estimate.getMinTemp()).isEqualTo(6.0, offset(0.05));
+        assertThat(estimate.getMaxTemp()).isEqualTo(16.0, offset(0.05));
+        assertThat(estimate.getSunDuration()).isNull();
+
+        // close to the east neighbour its values dominate
+        GridCellInfo east = gridUtil.getGridCellInfo(GridUtil.cell(483, 626));
+        double lon = center.getTargetLongitude() + (east.getTargetLongitude() - center.getTargetLongitude()) * 0.45;
+        WeatherReportDTO nearEast = cellCache.estimate(CELL, DATE, center.getTargetLatitude(), lon).orElseThrow();
+        assertThat(nearEast.getMinTemp()).isGreaterThan(7.0);
+        assertThat(nearEast.getPrecip()).isEqualTo(Precipitation.RAIN);
+    }
+
+    @Test
+    void estimate_withTooFewCachedNeighbours_shouldReturnEmpty() {
+        cellCache.put(GridUtil.cell(483, 624), DATE, report(4.0, Precipitation.NONE));
+        cellCache.put(GridUtil.cell(483, 626), DATE, report(8.0, Precipitation.RAIN));
+        // the cell itself does not count as a neighbour
+        cellCache.put(CELL, DATE, report(6.0, Precipitation.NONE));
+
+        assertThat(cellCache.estimate(CELL, DATE, 48.2082, 16.3738)).isEmpty();
+        assertThat(cellCache.estimate(CELL, DATE.minusDays(1), 48.2082, 16.3738)).isEmpty();
+    }
+
+    @Test
+    void get_withoutConfiguredCache_shouldFail() {
+        ConcurrentMapCacheManager staticManager = new ConcurrentMapCacheManager("weatherCache");
+        GridCellCache unconfigured = new GridCellCache(staticManager, gridUtil);
+
+        assertThatThrownBy(() -> unconfigured.get(CELL, DATE))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(GridCellCache.CACHE_NAME);
+    }
+
+    private static WeatherReportDTO report(double minTemp, Precipitation precip) {
+        return new WeatherReportDTO(minTemp, minTemp + 10, precip, null, null, null, null);
+    }
+}
@@ -0,0 +1,120 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeature;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeatureCollection;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusGeometry;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusParameter;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusProperties;
+import at.big5health.klimaatlas.exceptions.ErrorMessages;
+import at.big5health.klimaatlas.exceptions.ExternalApiException;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.WeatherRaster;
+import at.big5health.klimaatlas.grid.WeatherRasterStore;
+import at.big5health.klimaatlas.httpclients.ExternalWeatherApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GridPreCacheServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 4, 21);
+
+    @Mock
+    private ExternalWeatherApiClient externalClient;
+
+    private WeatherRasterStore store;
+    private GridPreCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        store = new WeatherRasterStore();
+        service = new GridPreCacheService(externalClient, store);
+    }
+
+    @Test
+    void preCacheGrid_shouldFetchEveryTileOnceAndPublishRaster() {
+        SpartacusFeatureCollection empty = new SpartacusFeatureCollection();
+        empty.setFeatures(List.of());
+        given(externalClient.fetchGridData(any(BoundingBox.class), eq(DATE), eq(DATE), any(Duration.class)))
+                .willReturn(Mono.just(empty));
+        given(externalClient.fetchGridData(argThat(tile -> tile != null && tile.getMinLat() > 48 && tile.getMinLon() > 15), eq(DATE), eq(DATE), any(Duration.class)))
+                .willReturn(Mono.just(collection(
+                        feature(16.3738, 48.2082, 5.0, 15.0, 0.2),
+                        feature(16.3872, 48.2082, 6.0, 16.0, 7.0))));
+        given(externalClient.fetchGridData(argThat(tile -> tile != null && tile.getMinLat() == WeatherRaster.MIN_LAT
+                        && tile.getMinLon() == WeatherRaster.MIN_LON), eq(DATE), eq(DATE), any(Duration.class)))
+                .willReturn(Mono.error(new ExternalApiException(ErrorMessages.EXTERNAL_API_TIMEOUT)));
+
+        WeatherRaster raster = service.preCacheGrid(DATE);
+
+        verify(externalClient, times(12)).fetchGridData(any(BoundingBox.class), eq(DATE), eq(DATE), any(Duration.class));
+        verify(externalClient, never()).fetchGridData(any(), any());
+        assertThat(raster.getFilledCells()).isEqualTo(2);
+        assertThat(raster.getDate()).isEqualTo(DATE);
+        assertThat(store.get(DATE)).containsSame(raster);
+        assertThat(store.lookup(DATE, 48.2082, 16.3872))
+                .contains(new WeatherRaster.Cell(6.0, 16.0, 7.0));
+    }
+
+    @Test
+    void addFeature_shouldUseRequestedDayAndSkipIncompleteFeatures() {
+        WeatherRaster.Builder builder = WeatherRaster.builder(DATE);
+        SpartacusFeature multiDay = feature(14.2858, 48.3069, 1.0, 2.0, 3.0);
+        multiDay.getProperties().getParameters().get("TN").setData(List.of(1.0, -4.0));
+        SpartacusFeature noGeometry = feature(13.0, 47.8, 0.0, 0.0, 0.0);
+        noGeometry.setGeometry(null);
+
+        GridPreCacheService.addFeature(builder, multiDay, 1);
+        GridPreCacheService.addFeature(builder, noGeometry, 0);
+        WeatherRaster raster = builder.build();
+
+        assertThat(raster.getFilledCells()).isEqualTo(1);
+        assertThat(raster.lookup(48.3069, 14.2858)).contains(new WeatherRaster.Cell(-4.0, null, null));
+    }
+
+    private static SpartacusFeatureCollection collection(SpartacusFeature... features) {
+        SpartacusFeatureCollection collection = new SpartacusFeatureCollection();
+        collection.setFeatures(List.of(features));
+        return collection;
+    }
+
+    private static SpartacusFeature feature(double lon, double lat, double tn, double tx, double rr) {
+        SpartacusGeometry geometry = new SpartacusGeometry();
+        geometry.setCoordinates(List.of(lon, lat));
+        Map<String, SpartacusParameter> parameters = new HashMap<>();
+        parameters.put("TN", parameter(tn));
+        parameters.put("TX", parameter(tx));
+        parameters.put("RR", parameter(rr));
+        SpartacusProperties properties = new SpartacusProperties();
+        properties.setParameters(parameters);
+        SpartacusFeature feature = new SpartacusFeature();
+        feature.setGeometry(geometry);
+        feature.setProperties(properties);
+        return feature;
+    }
+
+    private static SpartacusParameter parameter(double value) {
+        SpartacusParameter parameter = new SpartacusParameter();
+        parameter.setData(List.of(value));
+        return parameter;
+    }
+}
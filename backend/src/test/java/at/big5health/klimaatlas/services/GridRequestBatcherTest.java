@@ -0,0 +1,134 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeatureCollection;
+import at.big5health.klimaatlas.exceptions.ErrorMessages;
+import at.big5health.klimaatlas.exceptions.ExternalApiException;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.GridCellInfo;
+import at.big5health.klimaatlas.grid.GridUtil;
+import at.big5health.klimaatlas.httpclients.ExternalWeatherApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GridRequestBatcherTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 4, 21);
+
+    @Mock
+    private ExternalWeatherApiClient externalClient;
+
+    private final GridUtil gridUtil = new GridUtil();
+    private GridRequestBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        batcher = new GridRequestBatcher(externalClient, gridUtil);
+        ReflectionTestUtils.setField(batcher, "window", Duration.ofMillis(50));
+    }
+
+    @Test
+    void fetchGridData_concurrentMissesOfAdjacentCells_shouldShareOneUpstreamCall() {
+        SpartacusFeatureCollection response = new SpartacusFeatureCollection();
+        given(externalClient.fetchGridData(any(BoundingBox.class), eq(DATE))).willReturn(Mono.just(response));
+        long[] block = {
+            GridUtil.cell(483, 625), GridUtil.cell(483, 626), GridUtil.cell(484, 625), GridUtil.cell(484, 626)
+        };
+
+        List<Mono<SpartacusFeatureCollection>> results = List.of(
+                batcher.fetchGridData(block[0], DATE),
+                batcher.fetchGridData(block[1], DATE),
+                batcher.fetchGridData(block[2], DATE),
+                batcher.fetchGridData(block[3], DATE),
+                batcher.fetchGridData(block[0], DATE), // the same cell again
+                batcher.fetchGridData(GridUtil.cell(300, 400), DATE));
+
+        results.forEach(result -> assertThat(result.block(Duration.ofSeconds(5))).isSameAs(response));
+        ArgumentCaptor<BoundingBox> bboxes = ArgumentCaptor.forClass(BoundingBox.class);
+        verify(externalClient, times(2)).fetchGridData(bboxes.capture(), eq(DATE));
+        BoundingBox merged = bboxes.getAllValues().stream()
+                .filter(bbox -> bbox.getMaxLat() - bbox.getMinLat() > 0.015)
+                .findFirst().orElseThrow();
+        for (long cell : block) {
+            GridCellInfo info = gridUtil.getGridCellInfo(cell);
+            assertThat(info.getTargetLatitude()).isBetween(merged.getMinLat(), merged.getMaxLat());
+            assertThat(info.getTargetLongitude()).isBetween(merged.getMinLon(), merged.getMaxLon());
+        }
+    }
+
+    @Test
+    void fetchGridData_whenUpstreamFails_shouldFailEveryWaitingCaller() {
+        given(externalClient.fetchGridData(any(BoundingBox.class), eq(DATE)))
+                .willReturn(Mono.error(new ExternalApiException(ErrorMessages.EXTERNAL_API_FAILURE)));
+
+        Mono<SpartacusFeatureCollection> first = batcher.fetchGridData(GridUtil.cell(483, 625), DATE);
+        Mono<SpartacusFeatureCollection> second = batcher.fetchGridData(GridUtil.cell(483, 626), DATE);
+
+        assertThatThrownBy(() -> first.block(Duration.ofSeconds(5))).isInstanceOf(ExternalApiException.class);
+        assertThatThrownBy(() -> second.block(Duration.ofSeconds(5))).isInstanceOf(ExternalApiException.class);
+        verify(externalClient, times(1)).fetchGridData(any(BoundingBox.class), eq(DATE));
+    }
+
+    @Test
+    void fetchGridData_withZeroWindow_shouldCallUpstreamDirectly() {
+        ReflectionTestUtils.setField(batcher, "window", Duration.ZERO);
+        long cell = GridUtil.cell(483, 625);
+        SpartacusFeatureCollection response = new SpartacusFeatureCollection();
+        given(externalClient.fetchGridData(any(BoundingBox.class), eq(DATE))).willReturn(Mono.just(response));
+
+        assertThat(batcher.fetchGridData(cell, DATE).block()).isSameAs(response);
+        verify(externalClient).fetchGridData(any(BoundingBox.class), eq(DATE));
+    }
+
+    @Test
+    void coalesce_shouldCoverCellsExactlyWithFewRectangles() {
+        List<Long> cells = List.of(
+                // a 3 x 2 block
+                GridUtil.cell(10, 20), GridUtil.cell(10, 21),
+                GridUtil.cell(11, 20), GridUtil.cell(11, 21),
+                GridUtil.cell(12, 20), GridUtil.cell(12, 21),
+                // an L: a run of three with one cell below its first column
+                GridUtil.cell(30, 5), GridUtil.cell(30, 6), GridUtil.cell(30, 7), GridUtil.cell(31, 5),
+                // a single cell
+                GridUtil.cell(50, 50));
+
+        List<GridRequestBatcher.Rectangle> rectangles = GridRequestBatcher.coalesce(cells, 256);
+
+        assertThat(rectangles).containsExactlyInAnyOrder(
+                new GridRequestBatcher.Rectangle(10, 20, 12, 21),
+                new GridRequestBatcher.Rectangle(30, 5, 30, 7),
+                new GridRequestBatcher.Rectangle(31, 5, 31, 5),
+                new GridRequestBatcher.Rectangle(50, 50, 50, 50));
+    }
+
+    @Test
+    void coalesce_shouldKeepRectanglesWithinMaxCells() {
+        List<Long> cells = List.of(
+                GridUtil.cell(0, 0), GridUtil.cell(0, 1), GridUtil.cell(0, 2),
+                GridUtil.cell(1, 0), GridUtil.cell(1, 1), GridUtil.cell(1, 2));
+
+        List<GridRequestBatcher.Rectangle> rectangles = GridRequestBatcher.coalesce(cells, 2);
+
+        assertThat(rectangles).allSatisfy(rectangle -> assertThat(rectangle.size()).isLessThanOrEqualTo(2));
+        assertThat(rectangles.stream().mapToInt(GridRequestBatcher.Rectangle::size).sum()).isEqualTo(6);
+        assertThat(rectangles).hasSize(3);
+    }
+}
@@ -0,0 +1,89 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+import at.big5health.klimaatlas.config.AustrianPostalCode;
+import at.big5health.klimaatlas.dtos.LocationSuggestionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocationSearchIndexTest {
+
+    private final LocationSearchIndex index = LocationSearchIndex.build(
+            List.of(
+                    new AustrianPopulationCenter("Wien", 48.2082, 16.3738, 48.12, 16.18, 48.33, 16.58),
+                    new AustrianPopulationCenter("Wiener Neustadt", 47.8139, 16.2436, 47.77, 16.15, 47.87, 16.3),
+                    new AustrianPopulationCenter("St. Pölten", 48.2047, 15.6256, 48.15, 15.55, 48.25, 15.7),
+                    new AustrianPopulationCenter("Klagenfurt am Wörthersee", 46.6247, 14.305, 46.58, 14.2, 46.68, 14.4)),
+            List.of(
+                    new AustrianPostalCode("1010", "Wien", 48.2085, 16.3721),
+                    new AustrianPostalCode("3100", "St. Pölten", 48.2047, 15.6256)));
+
+    @Test
+    void search_shouldMatchPrefixesIgnoringCaseAndAccents() {
+        assertThat(names(index.search("POL", 10))).containsExactly("St. Pölten", "St. Pölten");
+        assertThat(names(index.search("poel", 10))).containsExactly("St. Pölten", "St. Pölten");
+        assertThat(names(index.search("worther", 10))).containsExactly("Klagenfurt am Wörthersee");
+        assertThat(index.search("xyz", 10)).isEmpty();
+        assertThat(index.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void search_shouldRankWholeNamesBeforeWordsAndPostalCodes() {
+        List<LocationSuggestionDTO> result = index.search("wien", 10);
+
+        assertThat(result).extracting(LocationSuggestionDTO::getType, LocationSuggestionDTO::getName)
+                .containsExactly(
+                        org.assertj.core.groups.Tuple.tuple("CENTER", "Wien"),
+                        org.assertj.core.groups.Tuple.tuple("CENTER", "Wiener Neustadt"),
+                        org.assertj.core.groups.Tuple.tuple("POSTAL_CODE", "Wien"));
+        assertThat(index.search("wien", 1)).hasSize(1);
+    }
+
+    @Test
+    void search_shouldFindPostalCodesByPrefix() {
+        List<LocationSuggestionDTO> result = index.search("10", 10);
+
+        assertThat(result).singleElement().satisfies(suggestion -> {
+            assertThat(suggestion.getPostalCode()).isEqualTo("1010");
+            assertThat(suggestion.getName()).isEqualTo("Wien");
+        });
+    }
+
+    @Test
+    void search_withShortPrefixOnLargeDataset_shouldOnlyTouchBoundedNumberOfKeys() {
+        List<AustrianPopulationCenter> centers = new ArrayList<>();
+        List<AustrianPostalCode> postalCodes = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            centers.add(new AustrianPopulationCenter("Au Markt " + i, 47.0, 15.0, 46.9, 14.9, 47.1, 15.1));
+        }
+        for (int i = 0; i < 50_000; i++) {
+            postalCodes.add(new AustrianPostalCode(String.valueOf(10_000 + i), "Au Ort " + i, 47.0, 15.0));
+        }
+        LocationSearchIndex large = LocationSearchIndex.build(centers, postalCodes);
+
+        int[] visitedKeys = new int[1];
+        List<LocationSuggestionDTO> result = large.search("a", 10, visitedKeys);
+
+        assertThat(result).hasSize(10).allSatisfy(suggestion -> assertThat(suggestion.getType()).isEqualTo("CENTER"));
+        assertThat(visitedKeys[0]).isLessThanOrEqualTo(10);
+
+        visitedKeys[0] = 0;
+        assertThat(large.search("o", 10, visitedKeys)).hasSize(10);
+        assertThat(visitedKeys[0]).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void fold_shouldNormalizeText() {
+        assertThat(LocationSearchIndex.fold("  St. Pölten ")).isEqualTo("st polten");
+        assertThat(LocationSearchIndex.fold("Großglockner")).isEqualTo("grossglockner");
+        assertThat(LocationSearchIndex.fold("Klagenfurt am Wörthersee")).isEqualTo("klagenfurt am worthersee");
+    }
+
+    private static List<String> names(List<LocationSuggestionDTO> suggestions) {
+        return suggestions.stream().map(LocationSuggestionDTO::getName).toList();
+    }
+}
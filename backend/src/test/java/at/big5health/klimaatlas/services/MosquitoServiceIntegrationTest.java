@@ -2,13 +2,21 @@ package at.big5health.klimaatlas.services;
 
 import okhttp3.mockwebserver.MockWebServer;
 import at.big5health.klimaatlas.dtos.MosquitoOccurrenceDTO;
+import at.big5health.klimaatlas.exceptions.ExternalApiException;
+import at.big5health.klimaatlas.httpclients.GbifApiClient;
+import at.big5health.klimaatlas.mosquito.OccurrenceArchive;
+import at.big5health.klimaatlas.mosquito.OccurrenceCheckpoint;
+import at.big5health.klimaatlas.mosquito.OccurrenceStore;
+import okhttp3.mockwebserver.RecordedRequest;
 import okhttp3.mockwebserver.MockResponse;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.web.reactive.function.client.WebClient;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 
@@ -17,14 +25,18 @@ public class MosquitoServiceIntegrationTest {
     private MockWebServer mockWebServer;
     private MosquitoService mosquitoService;
 
+    @TempDir
+    Path archiveDirectory;
+
     @BeforeEach
     public void setUp() throws IOException {
         mockWebServer = new MockWebServer();
         mockWebServer.start();
 
         String baseUrl = mockWebServer.url("/").toString();
-        WebClient webClient = WebClient.builder().baseUrl(baseUrl).build();
-        mosquitoService = new MosquitoService(webClient);
+        mosquitoService = new MosquitoService(new GbifApiClient(WebClient.builder(), baseUrl),
+                new OccurrenceStore(), new OccurrenceArchive(archiveDirectory),
+                new OccurrenceCheckpoint(archiveDirectory), 2016);
     }
 
     @AfterEach
@@ -33,7 +45,7 @@ public class MosquitoServiceIntegrationTest {
     }
 
     @Test
-    public void testGetOccurrences_fromMockServer() {
+    public void testGetOccurrences_fromMockServer() throws InterruptedException {
         String jsonResponse = """
                     {
                       "results": [
@@ -58,7 +70,102 @@ public class MosquitoServiceIntegrationTest {
         Assertions.assertEquals(47.062592, dto.getLatitude(), 0.0001);
         Assertions.assertEquals(15.448713, dto.getLongitude(), 0.0001);
         Assertions.assertEquals("Aedes albopictus", dto.getSpecies());
-        Assertions.assertEquals("2025-02-27T15:55:05", dto.getEventDate());
+        Assertions.assertEquals("2025-02-27", dto.getEventDate());
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        Assertions.assertTrue(request.getPath().startsWith("/occurrence/search?country=AT&taxon_key=3346"));
+    }
+
+    @Test
+    public void testGetOccurrences_withIntegerCoordinatesAndExtraFields() {
+        String jsonResponse = """
+                    {
+                      "offset": 0,
+                      "results": [
+                        {
+                          "key": 123,
+                          "decimalLatitude": 47,
+                          "decimalLongitude": 15,
+                          "media": [{"type": "StillImage"}],
+                          "extensions": {},
+                          "species": "Aedes japonicus"
+                        }
+                      ],
+                      "facets": []
+                    }
+                """;
+
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(jsonResponse)
+                .addHeader("Content-Type", "application/json"));
+
+        List<MosquitoOccurrenceDTO> result = mosquitoService.getOccurrences();
+
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals(47.0, result.getFirst().getLatitude());
+        Assertions.assertEquals(15.0, result.getFirst().getLongitude());
+        Assertions.assertEquals("Aedes japonicus", result.getFirst().getSpecies());
+        Assertions.assertEquals("Unknown", result.getFirst().getEventDate());
+    }
+
+    @Test
+    public void testGetOccurrences_shouldFollowPagesUntilEndOfRecords() throws InterruptedException {
+        StringBuilder fullPage = new StringBuilder("{\"endOfRecords\": false, \"results\": [");
+        for (int i = 0; i < 300; i++) {
+            fullPage.append(i > 0 ? "," : "").append("{\"decimalLatitude\": 47, \"decimalLongitude\": 15}");
+        }
+        fullPage.append("]}");
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(fullPage.toString())
+                .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"endOfRecords\": true, \"results\": [{\"decimalLatitude\": 48, \"decimalLongitude\": 16}]}")
+                .addHeader("Content-Type", "application/json"));
+
+        List<MosquitoOccurrenceDTO> result = mosquitoService.getOccurrences();
+
+        Assertions.assertEquals(301, result.size());
+        Assertions.assertEquals(48.0, result.getLast().getLatitude());
+        Assertions.assertTrue(mockWebServer.takeRequest().getPath().contains("offset=0"));
+        Assertions.assertTrue(mockWebServer.takeRequest().getPath().contains("offset=300"));
+    }
+
+    @Test
+    public void testRefreshOccurrences_shouldOnlyRequestRecordsInterpretedSinceWatermark() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("""
+                        {"endOfRecords": true, "results": [
+                          {"key": 1, "decimalLatitude": 47, "decimalLongitude": 15,
+                           "lastInterpreted": "2025-06-01T10:00:00.000+00:00"},
+                          {"key": 2, "decimalLatitude": 48, "decimalLongitude": 16,
+                           "lastInterpreted": "2025-06-02T09:30:00.000+00:00"}
+                        ]}
+                        """)
+                .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("""
+                        {"endOfRecords": true, "results": [
+                          {"key": 2, "decimalLatitude": 48.5, "decimalLongitude": 16.5,
+                           "lastInterpreted": "2025-06-03T07:00:00.000+00:00"}
+                        ]}
+                        """)
+                .addHeader("Content-Type", "application/json"));
+
+        mosquitoService.refreshOccurrences();
+        mosquitoService.refreshOccurrences();
+        List<MosquitoOccurrenceDTO> result = mosquitoService.getOccurrences();
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(48.5, result.getLast().getLatitude());
+        Assertions.assertFalse(mockWebServer.takeRequest().getPath().contains("lastInterpreted"));
+        Assertions.assertTrue(mockWebServer.takeRequest().getPath().contains("lastInterpreted=2025-06-02,"));
+    }
+
+    @Test
+    public void testGetOccurrences_whenServerFails_shouldThrowExternalApiException() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+
+        Assertions.assertThrows(ExternalApiException.class, () -> mosquitoService.getOccurrences());
     }
 
 }
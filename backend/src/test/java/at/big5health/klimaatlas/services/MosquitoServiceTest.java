@@ -1,70 +1,72 @@
 package at.big5health.klimaatlas.services;
 
+import at.big5health.klimaatlas.dtos.MosquitoClusterDTO;
 import at.big5health.klimaatlas.dtos.MosquitoOccurrenceDTO;
+import at.big5health.klimaatlas.dtos.gbif.GbifOccurrencePage;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.httpclients.GbifApiClient;
+import at.big5health.klimaatlas.mosquito.OccurrenceArchive;
+import at.big5health.klimaatlas.mosquito.OccurrenceBatch;
+import at.big5health.klimaatlas.mosquito.OccurrenceCheckpoint;
+import at.big5health.klimaatlas.mosquito.OccurrenceStore;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.Mono;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.time.ZoneId;
 import java.util.List;
-import java.util.Map;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.times;
 
 
 @ExtendWith(MockitoExtension.class)
 public class MosquitoServiceTest {
 
     @Mock
-    WebClient webClient;
+    GbifApiClient gbifApiClient;
 
-    @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
-
-    @Mock
-    private WebClient.RequestHeadersSpec requestHeadersSpec;
+    MosquitoService mosquitoService;
 
-    @Mock
-    private WebClient.ResponseSpec responseSpec;
+    OccurrenceArchive occurrenceArchive;
 
-    MosquitoService mosquitoService;
+    @TempDir
+    Path archiveDirectory;
 
     @BeforeEach
     void setup() {
-        mosquitoService = new MosquitoService(webClient);
+        occurrenceArchive = new OccurrenceArchive(archiveDirectory);
+        occurrenceArchive.open();
+        mosquitoService = new MosquitoService(gbifApiClient, new OccurrenceStore(), occurrenceArchive,
+                new OccurrenceCheckpoint(archiveDirectory), LocalDate.now().getYear() - 2);
+        // late in the season, when last year is past its grace period
+        setToday(LocalDate.now().withDayOfYear(300));
     }
 
     @Test
     void getOccurrences_shouldReturnMappedResults() {
 
-        Map<String, Object> occurrence1 = new HashMap<>();
-        occurrence1.put("decimalLatitude", 47.123);
-        occurrence1.put("decimalLongitude", 15.456);
-        occurrence1.put("species", "Aedes albopictus");
-        occurrence1.put("eventDate", "2023-07-15");
+        OccurrenceBatch batch = new OccurrenceBatch();
+        batch.add(47.123, 15.456, "Aedes albopictus", "2023-07-15");
+        batch.add(48.234, 16.789, "Culex pipiens", "2023-08-20");
 
-        Map<String, Object> occurrence2 = new HashMap<>();
-        occurrence2.put("decimalLatitude", 48.234);
-        occurrence2.put("decimalLongitude", 16.789);
-        occurrence2.put("species", "Culex pipiens");
-        occurrence2.put("eventDate", "2023-08-20");
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("results", List.of(occurrence1, occurrence2));
-
-        String expectedUrl = "https://api.gbif.org/v1/occurrence/search?country=AT&taxon_key=3346&hasCoordinate=true&limit=1000&year=" + LocalDate.now().getYear();
-
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(expectedUrl)).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(response));
+        int expectedYear = LocalDate.now().getYear();
+        when(gbifApiClient.fetchOccurrences(expectedYear, null)).thenReturn(harvest(batch));
 
         List<MosquitoOccurrenceDTO> result = mosquitoService.getOccurrences();
 
@@ -82,25 +84,17 @@ public class MosquitoServiceTest {
         assertEquals("Culex pipiens", dto2.getSpecies());
         assertEquals("2023-08-20", dto2.getEventDate());
 
-        verify(webClient).get();
-        verify(requestHeadersUriSpec).uri(expectedUrl);
+        verify(gbifApiClient).fetchOccurrences(expectedYear, null);
 
     }
 
     @Test
     void getOccurrences_whenSpeciesOrEventDateMissing_shouldUseDefaultValues() {
 
-        Map<String, Object> occurrence = new HashMap<>();
-        occurrence.put("decimalLatitude", 47.123);
-        occurrence.put("decimalLongitude", 15.456);
+        OccurrenceBatch batch = new OccurrenceBatch();
+        batch.add(47.123, 15.456, null, null);
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("results", List.of(occurrence));
-
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(response));
+        when(gbifApiClient.fetchOccurrences(LocalDate.now().getYear(), null)).thenReturn(harvest(batch));
 
         List<MosquitoOccurrenceDTO> result = mosquitoService.getOccurrences();
 
@@ -114,15 +108,9 @@ public class MosquitoServiceTest {
     }
 
     @Test
-    void getOccurrences_whenResultsIsNull_shouldReturnEmptyList() {
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("results", null);
+    void getOccurrences_whenResultsAreEmpty_shouldReturnEmptyList() {
 
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(response));
+        when(gbifApiClient.fetchOccurrences(LocalDate.now().getYear(), null)).thenReturn(harvest(new OccurrenceBatch()));
 
         List<MosquitoOccurrenceDTO> result = mosquitoService.getOccurrences();
 
@@ -130,4 +118,292 @@ public class MosquitoServiceTest {
 
     }
 
+    @Test
+    void getOccurrences_whenClientFails_shouldPropagateException() {
+
+        when(gbifApiClient.fetchOccurrences(LocalDate.now().getYear(), null))
+                .thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        assertThatThrownBy(() -> mosquitoService.getOccurrences())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void getOccurrences_whenCalledTwice_shouldServeSecondCallFromStore() {
+
+        OccurrenceBatch batch = new OccurrenceBatch();
+        batch.add(47.123, 15.456, "Aedes albopictus", "2023-07-15");
+        when(gbifApiClient.fetchOccurrences(LocalDate.now().getYear(), null)).thenReturn(harvest(batch));
+
+        mosquitoService.getOccurrences();
+        List<MosquitoOccurrenceDTO> result = mosquitoService.getOccurrences();
+
+        assertEquals(1, result.size());
+        verify(gbifApiClient, times(1)).fetchOccurrences(LocalDate.now().getYear(), null);
+    }
+
+    @Test
+    void getClusters_shouldAggregateNearbyOccurrences() {
+
+        OccurrenceBatch batch = new OccurrenceBatch();
+        batch.add(48.2082, 16.3738, "Aedes albopictus", "2023-07-15");
+        batch.add(48.2083, 16.3739, "Aedes albopictus", "2023-07-16");
+        batch.add(47.0707, 15.4395, "Aedes japonicus", "2023-07-17");
+        when(gbifApiClient.fetchOccurrences(LocalDate.now().getYear(), null)).thenReturn(harvest(batch));
+
+        List<MosquitoClusterDTO> clusters = mosquitoService.getClusters(new BoundingBox(46.0, 9.0, 49.0, 17.5), 7);
+
+        assertEquals(2, clusters.size());
+        assertEquals(3, clusters.stream().mapToInt(MosquitoClusterDTO::getCount).sum());
+    }
+
+    @Test
+    void refreshOccurrences_shouldReplacePublishedSnapshot() {
+
+        OccurrenceBatch first = new OccurrenceBatch();
+        first.add(47.123, 15.456, "Aedes albopictus", "2023-07-15");
+        OccurrenceBatch second = new OccurrenceBatch();
+        when(gbifApiClient.fetchOccurrences(LocalDate.now().getYear(), null))
+                .thenReturn(harvest(first), harvest(second));
+
+        assertEquals(1, mosquitoService.getOccurrences().size());
+        mosquitoService.refreshOccurrences();
+
+        Assertions.assertTrue(mosquitoService.getOccurrences().isEmpty());
+    }
+
+    @Test
+    void getOccurrences_withDateRange_shouldCombineArchiveAndCurrentYear() {
+
+        int currentYear = LocalDate.now().getYear();
+        OccurrenceBatch archived = new OccurrenceBatch();
+        archived.add(47.5, 15.5, "Aedes albopictus", (currentYear - 1) + "-07-01");
+        archived.add(47.6, 15.6, "Aedes albopictus", (currentYear - 1) + "-01-01");
+        occurrenceArchive.append(currentYear - 1, archived);
+
+        OccurrenceBatch current = new OccurrenceBatch();
+        current.add(48.2, 16.3, "Aedes japonicus", currentYear + "-01-10T08:00:00");
+        current.add(48.3, 16.4, "Aedes japonicus", null);
+        when(gbifApiClient.fetchOccurrences(currentYear, null)).thenReturn(harvest(current));
+
+        List<MosquitoOccurrenceDTO> result = mosquitoService.getOccurrences(
+                LocalDate.of(currentYear - 1, 6, 1), LocalDate.of(currentYear, 12, 31), null);
+
+        assertEquals(2, result.size());
+        assertEquals((currentYear - 1) + "-07-01", result.getFirst().getEventDate());
+        assertEquals("Aedes japonicus", result.get(1).getSpecies());
+    }
+
+    @Test
+    void getOccurrences_withPastDateRange_shouldNotCallGbif() {
+
+        int lastYear = LocalDate.now().getYear() - 1;
+        OccurrenceBatch archived = new OccurrenceBatch();
+        archived.add(47.5, 15.5, "Aedes albopictus", lastYear + "-07-01");
+        archived.add(47.6, 15.6, "Aedes vexans", lastYear + "-07-02");
+        occurrenceArchive.append(lastYear, archived);
+
+        List<MosquitoOccurrenceDTO> result = mosquitoService.getOccurrences(
+                LocalDate.of(lastYear, 1, 1), LocalDate.of(lastYear, 12, 31), "Aedes vexans");
+
+        assertEquals(1, result.size());
+        assertEquals(47.6, result.getFirst().getLatitude(), 1e-5);
+        verify(gbifApiClient, never()).fetchOccurrences(anyInt());
+        verify(gbifApiClient, never()).fetchOccurrences(anyInt(), any());
+    }
+
+    @Test
+    void getOccurrences_withPartialEventDates_shouldMatchWholePeriodAndKeepPrecision() {
+
+        int lastYear = LocalDate.now().getYear() - 1;
+        OccurrenceBatch archived = new OccurrenceBatch();
+        archived.add(47.5, 15.5, "Aedes albopictus", String.valueOf(lastYear));
+        archived.add(47.6, 15.6, "Aedes albopictus", lastYear + "-06");
+        archived.add(47.7, 15.7, "Aedes albopictus", lastYear + "-06-01");
+        occurrenceArchive.append(lastYear, archived);
+
+        List<MosquitoOccurrenceDTO> summer = mosquitoService.getOccurrences(
+                LocalDate.of(lastYear, 6, 15), LocalDate.of(lastYear, 8, 31), null);
+        List<MosquitoOccurrenceDTO> january = mosquitoService.getOccurrences(
+                LocalDate.of(lastYear, 1, 1), LocalDate.of(lastYear, 1, 31), null);
+
+        assertEquals(List.of(String.valueOf(lastYear), lastYear + "-06"),
+                summer.stream().map(MosquitoOccurrenceDTO::getEventDate).toList());
+        assertEquals(List.of(String.valueOf(lastYear)),
+                january.stream().map(MosquitoOccurrenceDTO::getEventDate).toList());
+    }
+
+    @Test
+    void archivePastYears_shouldOnlyHarvestMissingYears() {
+
+        int currentYear = LocalDate.now().getYear();
+        occurrenceArchive.append(currentYear - 2, new OccurrenceBatch());
+        when(gbifApiClient.fetchOccurrences(currentYear - 1)).thenReturn(Mono.just(new OccurrenceBatch()));
+
+        mosquitoService.archivePastYears();
+
+        verify(gbifApiClient, never()).fetchOccurrences(currentYear - 2);
+        verify(gbifApiClient, never()).fetchOccurrences(currentYear);
+        Assertions.assertTrue(occurrenceArchive.years().contains(currentYear - 1));
+    }
+
+    @Test
+    void refreshOccurrences_afterFullHarvest_shouldMergeChangesSinceWatermark() {
+
+        int year = LocalDate.now().getYear();
+        Instant watermark = Instant.parse("2025-06-01T10:00:00Z");
+        OccurrenceBatch full = new OccurrenceBatch();
+        full.add(1L, 47.1, 15.1, "Aedes albopictus", "2025-05-01");
+        full.add(2L, 47.2, 15.2, "Aedes albopictus", "2025-05-02");
+        OccurrenceBatch changes = new OccurrenceBatch();
+        changes.add(2L, 47.25, 15.25, "Aedes japonicus", "2025-05-02");
+        changes.add(3L, 47.3, 15.3, "Aedes vexans", "2025-06-02");
+        Instant newWatermark = Instant.parse("2025-06-02T08:00:00Z");
+        when(gbifApiClient.fetchOccurrences(year, null)).thenReturn(harvest(full, watermark));
+        when(gbifApiClient.fetchOccurrences(year, watermark)).thenReturn(harvest(changes, newWatermark));
+
+        mosquitoService.getOccurrences();
+        OccurrenceStore.Snapshot snapshot = mosquitoService.refreshOccurrences();
+
+        assertEquals(3, snapshot.occurrences().size());
+        assertEquals(newWatermark, snapshot.syncedUpTo());
+        List<MosquitoOccurrenceDTO> result = mosquitoService.getOccurrences();
+        assertEquals("Aedes albopictus", result.get(0).getSpecies());
+        assertEquals("Aedes japonicus", result.get(1).getSpecies());
+        assertEquals(47.25, result.get(1).getLatitude());
+        assertEquals("Aedes vexans", result.get(2).getSpecies());
+    }
+
+    @Test
+    void refreshOccurrences_withoutChanges_shouldKeepSnapshot() {
+
+        int year = LocalDate.now().getYear();
+        Instant watermark = Instant.parse("2025-06-01T10:00:00Z");
+        OccurrenceBatch full = new OccurrenceBatch();
+        full.add(1L, 47.1, 15.1, "Aedes albopictus", "2025-05-01");
+        when(gbifApiClient.fetchOccurrences(year, null)).thenReturn(harvest(full, watermark));
+        when(gbifApiClient.fetchOccurrences(eq(year), eq(watermark))).thenReturn(harvest(new OccurrenceBatch(), null));
+
+        OccurrenceStore.Snapshot first = mosquitoService.refreshOccurrences();
+
+        Assertions.assertSame(first, mosquitoService.refreshOccurrences());
+    }
+
+    @Test
+    void getOccurrences_afterRestart_shouldResumeFromCheckpoint() {
+
+        int year = LocalDate.now().getYear();
+        Instant watermark = Instant.parse("2025-06-01T10:00:00Z");
+        OccurrenceBatch full = new OccurrenceBatch();
+        full.add(1L, 47.1, 15.1, "Aedes albopictus", "2025-05-01");
+        when(gbifApiClient.fetchOccurrences(year, null)).thenReturn(harvest(full, watermark));
+        mosquitoService.refreshOccurrences();
+
+        MosquitoService restarted = new MosquitoService(gbifApiClient, new OccurrenceStore(), occurrenceArchive,
+                new OccurrenceCheckpoint(archiveDirectory), year - 2);
+        when(gbifApiClient.fetchOccurrences(year, watermark)).thenReturn(harvest(new OccurrenceBatch(), null));
+
+        assertEquals(1, restarted.getOccurrences().size());
+        restarted.refreshOccurrences();
+        verify(gbifApiClient, times(1)).fetchOccurrences(year, null);
+        verify(gbifApiClient).fetchOccurrences(year, watermark);
+    }
+
+    @Test
+    void archivePastYears_withinGracePeriod_shouldRefreshLastYearIncrementallyInsteadOfSealing() {
+
+        int lastYear = LocalDate.now().getYear() - 1;
+        occurrenceArchive.append(lastYear - 1, new OccurrenceBatch());
+        setToday(LocalDate.of(lastYear + 1, 2, 15));
+        Instant watermark = Instant.parse("2025-01-10T00:00:00Z");
+        OccurrenceBatch season = new OccurrenceBatch();
+        season.add(1L, 47.1, 15.1, "Aedes albopictus", lastYear + "-08-01");
+        OccurrenceBatch late = new OccurrenceBatch();
+        late.add(2L, 47.2, 15.2, "Aedes albopictus", lastYear + "-09-12");
+        when(gbifApiClient.fetchOccurrences(lastYear, null)).thenReturn(harvest(season, watermark));
+        when(gbifApiClient.fetchOccurrences(lastYear, watermark)).thenReturn(harvest(late, watermark.plusSeconds(60)));
+
+        mosquitoService.archivePastYears();
+        mosquitoService.archivePastYears();
+
+        Assertions.assertFalse(occurrenceArchive.years().contains(lastYear));
+        assertEquals(2, mosquitoService.getOccurrences(
+                LocalDate.of(lastYear, 1, 1), LocalDate.of(lastYear, 12, 31), null).size());
+        verify(gbifApiClient, never()).fetchOccurrences(lastYear);
+
+        // once the grace period has passed, the year is harvested completely and sealed
+        setToday(LocalDate.of(lastYear + 1, 5, 2));
+        OccurrenceBatch sealed = new OccurrenceBatch();
+        sealed.add(47.1, 15.1, "Aedes albopictus", lastYear + "-08-01");
+        when(gbifApiClient.fetchOccurrences(lastYear)).thenReturn(Mono.just(sealed));
+
+        mosquitoService.archivePastYears();
+
+        Assertions.assertTrue(occurrenceArchive.years().contains(lastYear));
+        assertEquals(1, mosquitoService.getOccurrences(
+                LocalDate.of(lastYear, 1, 1), LocalDate.of(lastYear, 12, 31), null).size());
+    }
+
+    @Test
+    void getOccurrences_afterRestartWithinGracePeriod_shouldRestoreLastYearFromCheckpoint() {
+
+        int lastYear = LocalDate.now().getYear() - 1;
+        occurrenceArchive.append(lastYear - 1, new OccurrenceBatch());
+        setToday(LocalDate.of(lastYear + 1, 2, 15));
+        OccurrenceBatch season = new OccurrenceBatch();
+        season.add(1L, 47.1, 15.1, "Aedes albopictus", lastYear + "-08-01");
+        when(gbifApiClient.fetchOccurrences(lastYear, null))
+                .thenReturn(harvest(season, Instant.parse("2025-01-10T00:00:00Z")));
+        mosquitoService.archivePastYears();
+
+        MosquitoService restarted = new MosquitoService(gbifApiClient, new OccurrenceStore(), occurrenceArchive,
+                new OccurrenceCheckpoint(archiveDirectory), lastYear - 1);
+        setToday(restarted, LocalDate.of(lastYear + 1, 2, 16));
+
+        assertEquals(1, restarted.getOccurrences(
+                LocalDate.of(lastYear, 1, 1), LocalDate.of(lastYear, 12, 31), null).size());
+        verify(gbifApiClient, times(1)).fetchOccurrences(eq(lastYear), any());
+    }
+
+    @Test
+    void refreshOccurrences_afterYearTurnover_shouldNotRecreateSealedSeason() {
+
+        int year = LocalDate.now().getYear();
+        OccurrenceStore store = new OccurrenceStore();
+        OccurrenceBatch lastSeason = new OccurrenceBatch();
+        lastSeason.add(1L, 47.1, 15.1, "Aedes albopictus", (year - 1) + "-08-01");
+        lastSeason.add(2L, 47.2, 15.2, "Aedes albopictus", (year - 1) + "-08-02");
+        store.publish(year - 1, lastSeason, Instant.parse("2025-01-10T00:00:00Z"));
+        OccurrenceBatch sealed = new OccurrenceBatch();
+        sealed.add(47.1, 15.1, "Aedes albopictus", (year - 1) + "-08-01");
+        occurrenceArchive.append(year - 1, sealed);
+        MosquitoService service = new MosquitoService(gbifApiClient, store, occurrenceArchive,
+                new OccurrenceCheckpoint(archiveDirectory), year - 2);
+        setToday(service, LocalDate.now().withDayOfYear(300));
+        when(gbifApiClient.fetchOccurrences(year, null)).thenReturn(harvest(new OccurrenceBatch()));
+
+        service.refreshOccurrences();
+
+        assertEquals(1, service.getOccurrences(
+                LocalDate.of(year - 1, 1, 1), LocalDate.of(year - 1, 12, 31), null).size());
+        Assertions.assertTrue(new OccurrenceCheckpoint(archiveDirectory).loadPreviousSeason().isEmpty());
+    }
+
+    private void setToday(LocalDate date) {
+        setToday(mosquitoService, date);
+    }
+
+    private static void setToday(MosquitoService service, LocalDate date) {
+        ReflectionTestUtils.setField(service, "clock",
+                Clock.fixed(date.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+    }
+
+    private static Mono<GbifOccurrencePage> harvest(OccurrenceBatch batch) {
+        return harvest(batch, null);
+    }
+
+    private static Mono<GbifOccurrencePage> harvest(OccurrenceBatch batch, Instant lastInterpreted) {
+        return Mono.just(new GbifOccurrencePage(batch, batch.size(), true, lastInterpreted));
+    }
+
 }
@@ -2,6 +2,8 @@ package at.big5health.klimaatlas.services;
 
 import at.big5health.klimaatlas.Components.PopulationCenterLoader;
 import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+import at.big5health.klimaatlas.dtos.PopulationCenterDTO;
+import at.big5health.klimaatlas.dtos.PopulationCenterLocationDTO;
 import at.big5health.klimaatlas.exceptions.CsvParseException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,9 +15,12 @@ import java.util.function.Consumer;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 public class PopulationCenterServiceTest {
 
@@ -55,7 +60,7 @@ public class PopulationCenterServiceTest {
         service = new PopulationCenterService(loader);
         List<String> simulatedErrors = List.of("invalid row");
 
-        setPrivateField(service, "lastCsvErrors", simulatedErrors);
+        setPrivateField(service, "snapshot", PopulationCenterSnapshot.EMPTY.withErrors(simulatedErrors));
 
         Throwable thrown = catchThrowable(service::getAllCenters);
 
@@ -72,7 +77,7 @@ public class PopulationCenterServiceTest {
         AustrianPopulationCenter newCenter = new AustrianPopulationCenter("Graz", 47.1, 15.4, 47.0, 15.3, 47.2, 15.5);
 
         service = new PopulationCenterService(loader);
-        setPrivateField(service, "centers", List.of(oldCenter));
+        setPrivateField(service, "snapshot", PopulationCenterSnapshot.of(List.of(oldCenter)));
 
         given(loader.loadFromCSV()).willReturn(List.of(oldCenter, newCenter));
 
@@ -113,6 +118,115 @@ public class PopulationCenterServiceTest {
                 .hasMessage("unexpected");
     }
 
+    @Test
+    void refreshAndReCache_shouldEvictRemovedAndReCacheOnlyMovedCenters() {
+        AustrianPopulationCenter unchanged = new AustrianPopulationCenter("Wien", 48.2, 16.3, 48.1, 16.1, 48.3, 16.5);
+        AustrianPopulationCenter removed = new AustrianPopulationCenter("Linz", 48.3, 14.3, 48.2, 14.2, 48.4, 14.4);
+        AustrianPopulationCenter moved = new AustrianPopulationCenter("Graz", 47.1, 15.4, 47.0, 15.3, 47.2, 15.5);
+        AustrianPopulationCenter movedNew = new AustrianPopulationCenter("Graz", 47.07, 15.44, 47.0, 15.3, 47.2, 15.5);
+        AustrianPopulationCenter resized = new AustrianPopulationCenter("Salzburg", 47.8, 13.04, 47.7, 13.0, 47.9, 13.1);
+        AustrianPopulationCenter resizedNew = new AustrianPopulationCenter(" salzburg ", 47.8, 13.04, 47.6, 12.9, 47.9, 13.1);
+        AustrianPopulationCenter renamed = new AustrianPopulationCenter("Klagenfurt", 46.62, 14.31, 46.6, 14.2, 46.7, 14.4);
+        AustrianPopulationCenter renamedNew = new AustrianPopulationCenter("Klagenfurt am Wörthersee",
+                46.62, 14.31, 46.6, 14.2, 46.7, 14.4);
+
+        setPrivateField(service, "snapshot",
+                PopulationCenterSnapshot.of(List.of(unchanged, removed, moved, resized, renamed)));
+        given(loader.loadFromCSV()).willReturn(List.of(
+                new AustrianPopulationCenter("Wien", 48.2, 16.3, 48.1, 16.1, 48.3, 16.5), movedNew, resizedNew,
+                renamedNew));
+
+        Consumer<AustrianPopulationCenter> reCache = mock(Consumer.class);
+        Consumer<AustrianPopulationCenter> evict = mock(Consumer.class);
+        PopulationCenterDiff diff = service.refreshAndReCache(LocalDate.now(), reCache, evict);
+
+        assertThat(diff.added()).containsExactly(movedNew);
+        assertThat(diff.changed()).containsExactly(resizedNew, renamedNew);
+        assertThat(diff.removed()).containsExactlyInAnyOrder(removed, moved);
+        verify(evict).accept(removed);
+        verify(evict).accept(moved);
+        // only the moved center needs weather data for a new point
+        verify(reCache).accept(movedNew);
+        verify(reCache, times(1)).accept(any());
+        verify(evict, times(2)).accept(any());
+        assertThat(service.getAllCenters()).hasSize(4);
+    }
+
+    @Test
+    void refreshAndReCache_shouldNotEvictPointStillUsedByAnotherCenter() {
+        AustrianPopulationCenter first = new AustrianPopulationCenter("Wien", 48.2, 16.3, 48.1, 16.1, 48.3, 16.5);
+        AustrianPopulationCenter duplicate = new AustrianPopulationCenter("Vienna", 48.2, 16.3, 48.1, 16.1, 48.3, 16.5);
+        setPrivateField(service, "snapshot", PopulationCenterSnapshot.of(List.of(first, duplicate)));
+        given(loader.loadFromCSV()).willReturn(List.of(first));
+
+        Consumer<AustrianPopulationCenter> reCache = mock(Consumer.class);
+        Consumer<AustrianPopulationCenter> evict = mock(Consumer.class);
+        PopulationCenterDiff diff = service.refreshAndReCache(LocalDate.now(), reCache, evict);
+
+        assertThat(diff.removed()).containsExactly(duplicate);
+        verifyNoInteractions(reCache, evict);
+    }
+
+    @Test
+    void diff_withIdenticalLists_shouldBeEmpty() {
+        List<AustrianPopulationCenter> centers = List.of(
+                new AustrianPopulationCenter("Wien", 48.2, 16.3, 48.1, 16.1, 48.3, 16.5),
+                new AustrianPopulationCenter("Graz", 47.1, 15.4, 47.0, 15.3, 47.2, 15.5));
+
+        assertThat(PopulationCenterDiff.between(centers, List.copyOf(centers)).isEmpty()).isTrue();
+    }
+
+    @Test
+    void refreshAndReCache_shouldPublishIndexedSnapshot() {
+        AustrianPopulationCenter wien = new AustrianPopulationCenter("Wien", 48.2, 16.3, 48.1, 16.1, 48.3, 16.5);
+        AustrianPopulationCenter graz = new AustrianPopulationCenter("Graz", 47.1, 15.4, 47.0, 15.3, 47.2, 15.5);
+        given(loader.loadFromCSV()).willReturn(List.of(wien));
+        service.init();
+        PopulationCenterSnapshot before = service.getSnapshot();
+
+        given(loader.loadFromCSV()).willReturn(List.of(wien, graz));
+        service.refreshAndReCache(LocalDate.now(), center -> { });
+
+        assertThat(before.centers()).containsExactly(wien);
+        assertThat(before.findByName("graz")).isEmpty();
+        assertThat(service.findByName("  GRAZ ")).containsExactly(graz);
+        assertThat(service.findByCoordinates(48.2000000001, 16.3)).contains(wien);
+        assertThat(service.findByCoordinates(48.21, 16.3)).isEmpty();
+    }
+
+    @Test
+    void refreshAndReCache_whenReloadFails_shouldKeepIndexesAndReportErrors() {
+        AustrianPopulationCenter wien = new AustrianPopulationCenter("Wien", 48.2, 16.3, 48.1, 16.1, 48.3, 16.5);
+        given(loader.loadFromCSV()).willReturn(List.of(wien));
+        service.init();
+        given(loader.loadFromCSV()).willThrow(new CsvParseException(List.of("bad row")));
+
+        catchThrowable(() -> service.refreshAndReCache(LocalDate.now(), center -> { }));
+
+        assertThat(service.findByName("wien")).containsExactly(wien);
+        assertThat(service.getSnapshot().errors()).containsExactly("bad row");
+        assertThatThrownBy(service::getAllCenters).isInstanceOf(CsvParseException.class);
+    }
+
+    @Test
+    void locate_shouldReturnContainingCentersSmallestFirstAndNearestPoint() {
+        AustrianPopulationCenter region = new AustrianPopulationCenter("Wiener Umland", 48.1, 16.2, 47.9, 15.9, 48.5, 16.9);
+        AustrianPopulationCenter wien = new AustrianPopulationCenter("Wien", 48.2, 16.3, 48.1, 16.1, 48.3, 16.5);
+        AustrianPopulationCenter graz = new AustrianPopulationCenter("Graz", 47.1, 15.4, 47.0, 15.3, 47.2, 15.5);
+        given(loader.loadFromCSV()).willReturn(List.of(region, wien, graz));
+        service.init();
+
+        PopulationCenterLocationDTO inWien = service.locate(48.21, 16.31);
+        assertThat(inWien.getContaining()).extracting(PopulationCenterDTO::getDisplayName)
+                .containsExactly("Wien", "Wiener Umland");
+        assertThat(inWien.getNearest().getDisplayName()).isEqualTo("Wien");
+        assertThat(inWien.getNearestDistanceKm()).isBetween(0.5, 2.0);
+
+        PopulationCenterLocationDTO outside = service.locate(47.5, 15.0);
+        assertThat(outside.getContaining()).isEmpty();
+        assertThat(outside.getNearest().getDisplayName()).isEqualTo("Graz");
+    }
+
     // --- Helper to set any private field via reflection ---
     private <T> void setPrivateField(Object target, String fieldName, T value) {
         try {
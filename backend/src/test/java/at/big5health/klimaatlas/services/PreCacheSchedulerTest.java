@@ -0,0 +1,232 @@
+package at.big5health.klimaatlas.services;
+
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeature;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusFeatureCollection;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusParameter;
+import at.big5health.klimaatlas.dtos.spartacus.SpartacusProperties;
+import at.big5health.klimaatlas.exceptions.ErrorMessages;
+import at.big5health.klimaatlas.exceptions.ExternalApiException;
+import at.big5health.klimaatlas.grid.BoundingBox;
+import at.big5health.klimaatlas.grid.GridCellInfo;
+import at.big5health.klimaatlas.grid.GridUtil;
+import at.big5health.klimaatlas.httpclients.ExternalWeatherApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class PreCacheSchedulerTest {
+
+    private static final LocalDate YESTERDAY = LocalDate.of(2025, 6, 1);
+
+    @Mock
+    private ExternalWeatherApiClient externalClient;
+
+    @Mock
+    private GridUtil gridUtil;
+
+    @Mock
+    private WeatherPreCacheService weatherPreCacheService;
+
+    @Mock
+    private GridPreCacheService gridPreCacheService;
+
+    private PreCacheScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new PreCacheScheduler(externalClient, gridUtil, weatherPreCacheService, gridPreCacheService);
+        BoundingBox bbox = new BoundingBox(48.2, 16.37, 48.21, 16.38);
+        lenient().when(gridUtil.getGridCellForCoordinates(anyDouble(), anyDouble()))
+                .thenReturn(new GridCellInfo("cell", bbox, 48.205, 16.375, 483, 625));
+        ReflectionTestUtils.setField(scheduler, "startupDone", true);
+    }
+
+    @Test
+    void poll_beforeStartupPreCacheFinished_shouldWait() {
+        ReflectionTestUtils.setField(scheduler, "startupDone", false);
+        setTime("2025-06-02T08:00:00+02:00");
+
+        scheduler.poll();
+
+        verifyNoInteractions(externalClient, weatherPreCacheService);
+    }
+
+    @Test
+    void poll_whileStartupPreCacheRunning_shouldReturnImmediately() throws Exception {
+        ReflectionTestUtils.setField(scheduler, "startupDone", false);
+        setTime("2025-06-02T08:00:00+02:00");
+        given(externalClient.fetchGridData(any(BoundingBox.class), eq(YESTERDAY)))
+                .willReturn(Mono.just(collection(12.5)));
+        CountDownLatch startupRunning = new CountDownLatch(1);
+        CountDownLatch releaseStartup = new CountDownLatch(1);
+        given(weatherPreCacheService.startupPreCache(YESTERDAY)).willAnswer(invocation -> {
+            startupRunning.countDown();
+            releaseStartup.await();
+            return null;
+        });
+        Thread startup = new Thread(scheduler::preCacheOnStartup);
+        startup.start();
+        try {
+            assertThat(startupRunning.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(1), scheduler::poll);
+        } finally {
+            releaseStartup.countDown();
+            startup.join();
+        }
+        verify(externalClient, times(1)).fetchGridData(any(BoundingBox.class), eq(YESTERDAY));
+    }
+
+    @Test
+    void preCacheOnStartup_whenDataAvailable_shouldNotCrawlSameDateAgainOnPoll() {
+        ReflectionTestUtils.setField(scheduler, "startupDone", false);
+        given(externalClient.fetchGridData(any(BoundingBox.class), eq(YESTERDAY)))
+                .willReturn(Mono.just(collection(12.5)));
+        given(gridPreCacheService.isEnabled()).willReturn(true);
+        setTime("2025-06-02T08:00:00+02:00");
+
+        scheduler.preCacheOnStartup();
+        scheduler.poll();
+
+        verify(weatherPreCacheService, times(1)).startupPreCache(YESTERDAY);
+        verify(gridPreCacheService, times(1)).preCacheGrid(YESTERDAY);
+        verify(weatherPreCacheService, never()).scheduledPreCache(any());
+    }
+
+    @Test
+    void poll_beforeEarliestProbe_shouldNotCallApi() {
+        setTime("2025-06-02T05:30:00+02:00");
+
+        scheduler.poll();
+
+        verifyNoInteractions(externalClient, weatherPreCacheService);
+    }
+
+    @Test
+    void poll_whileDataMissing_shouldBackOffExponentially() {
+        given(externalClient.fetchGridData(any(BoundingBox.class), eq(YESTERDAY)))
+                .willReturn(Mono.just(collection((Double) null)));
+
+        setTime("2025-06-02T08:00:00+02:00");
+        scheduler.poll();
+        setTime("2025-06-02T08:04:00+02:00"); // within the first 5 minute backoff
+        scheduler.poll();
+        setTime("2025-06-02T08:05:00+02:00");
+        scheduler.poll();
+        setTime("2025-06-02T08:14:00+02:00"); // within the second, 10 minute backoff
+        scheduler.poll();
+
+        verify(externalClient, times(2)).fetchGridData(any(BoundingBox.class), eq(YESTERDAY));
+        verifyNoInteractions(weatherPreCacheService, gridPreCacheService);
+    }
+
+    @Test
+    void poll_whenApiFails_shouldTreatDataAsMissing() {
+        given(externalClient.fetchGridData(any(BoundingBox.class), eq(YESTERDAY)))
+                .willReturn(Mono.error(new ExternalApiException(ErrorMessages.EXTERNAL_API_FAILURE)));
+        setTime("2025-06-02T08:00:00+02:00");
+
+        scheduler.poll();
+
+        verifyNoInteractions(weatherPreCacheService);
+    }
+
+    @Test
+    void poll_onceDataAvailable_shouldPreCacheGridAndCentersOncePerDay() {
+        given(externalClient.fetchGridData(any(BoundingBox.class), any(LocalDate.class)))
+                .willReturn(Mono.just(collection(12.5)));
+        given(gridPreCacheService.isEnabled()).willReturn(true);
+
+        setTime("2025-06-02T07:10:00+02:00");
+        scheduler.poll();
+        setTime("2025-06-02T09:10:00+02:00");
+        scheduler.poll();
+
+        verify(gridPreCacheService, times(1)).preCacheGrid(YESTERDAY);
+        verify(weatherPreCacheService, times(1)).scheduledPreCache(YESTERDAY);
+        verify(externalClient, times(1)).fetchGridData(any(BoundingBox.class), any(LocalDate.class));
+
+        // the next morning the following day is pre-cached
+        setTime("2025-06-03T07:10:00+02:00");
+        scheduler.poll();
+        verify(weatherPreCacheService, times(1)).scheduledPreCache(YESTERDAY.plusDays(1));
+    }
+
+    @Test
+    void poll_whenGridPreCacheDisabled_shouldOnlyPreCacheCenters() {
+        given(externalClient.fetchGridData(any(BoundingBox.class), eq(YESTERDAY)))
+                .willReturn(Mono.just(collection(0.0)));
+        setTime("2025-06-02T15:00:00+02:00"); // catching up after a restart in the afternoon
+
+        scheduler.poll();
+
+        verify(gridPreCacheService, never()).preCacheGrid(any());
+        verify(weatherPreCacheService).scheduledPreCache(YESTERDAY);
+    }
+
+    @Test
+    void preCacheOnStartup_beforeDataPublished_shouldWarmWithLatestPublishedDate() {
+        ReflectionTestUtils.setField(scheduler, "startupDone", false);
+        given(externalClient.fetchGridData(any(BoundingBox.class), eq(YESTERDAY)))
+                .willReturn(Mono.just(collection((Double) null)));
+        setTime("2025-06-02T04:30:00+02:00"); // early-morning deploy
+
+        scheduler.preCacheOnStartup();
+
+        verify(weatherPreCacheService).startupPreCache(YESTERDAY.minusDays(1));
+        verify(weatherPreCacheService, never()).startupPreCache(YESTERDAY);
+        verify(gridPreCacheService, never()).preCacheGrid(any());
+
+        // yesterday is still pre-cached once it is published
+        given(externalClient.fetchGridData(any(BoundingBox.class), eq(YESTERDAY)))
+                .willReturn(Mono.just(collection(12.5)));
+        setTime("2025-06-02T07:00:00+02:00");
+        scheduler.poll();
+        verify(weatherPreCacheService).scheduledPreCache(YESTERDAY);
+    }
+
+    private void setTime(String time) {
+        ReflectionTestUtils.setField(scheduler, "clock",
+                Clock.fixed(OffsetDateTime.parse(time).toInstant(), ZoneId.of("CET")));
+    }
+
+    private static SpartacusFeatureCollection collection(Double value) {
+        SpartacusParameter parameter = new SpartacusParameter();
+        parameter.setData(Arrays.asList(value));
+        SpartacusProperties properties = new SpartacusProperties();
+        properties.setParameters(Map.of("TN", parameter));
+        SpartacusFeature feature = new SpartacusFeature();
+        feature.setProperties(properties);
+        SpartacusFeatureCollection collection = new SpartacusFeatureCollection();
+        collection.setFeatures(List.of(feature));
+        return collection;
+    }
+}
@@ -1,6 +1,7 @@
 package at.big5health.klimaatlas.services;
 
 import at.big5health.klimaatlas.config.AustrianPopulationCenter;
+import at.big5health.klimaatlas.dtos.PreCacheJobDTO;
 import at.big5health.klimaatlas.dtos.Precipitation;
 import at.big5health.klimaatlas.dtos.WeatherReportDTO;
 import at.big5health.klimaatlas.exceptions.ErrorMessages;
@@ -12,17 +13,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.doThrow;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +43,9 @@ class WeatherPreCacheServiceTest {
     @Mock
     private PopulationCenterService populationCenterService;
 
+    @Mock
+    private CacheWarmUpService cacheWarmUpService;
+
     @InjectMocks
     private WeatherPreCacheService weatherPreCacheService;
 
@@ -50,17 +60,19 @@ class WeatherPreCacheServiceTest {
     }
 
     @Test
-    void preCacheOnStartup_shouldCallPerformPreCaching() {
+    void startupPreCache_shouldCallPerformPreCaching() {
         WeatherPreCacheService spiedPreCacheService = spy(weatherPreCacheService);
-        spiedPreCacheService.preCacheOnStartup();
-        verify(spiedPreCacheService, timeout(1000).times(1)).performPreCaching(eq("Startup"));
+        LocalDate date = LocalDate.of(2025, 6, 1);
+        spiedPreCacheService.startupPreCache(date);
+        verify(spiedPreCacheService, times(1)).performPreCaching(eq("Startup"), eq(date));
     }
 
     @Test
     void scheduledPreCache_shouldCallPerformPreCaching() {
         WeatherPreCacheService spiedPreCacheService = spy(weatherPreCacheService);
-        spiedPreCacheService.scheduledPreCache();
-        verify(spiedPreCacheService, times(1)).performPreCaching(eq("Scheduled"));
+        LocalDate date = LocalDate.of(2025, 6, 1);
+        spiedPreCacheService.scheduledPreCache(date);
+        verify(spiedPreCacheService, times(1)).performPreCaching(eq("Scheduled"), eq(date));
     }
 
     @Test
@@ -154,4 +166,68 @@ class WeatherPreCacheServiceTest {
         verify(weatherService).getWeather(eq(center2.getDisplayName()), anyDouble(), anyDouble(), eq(expectedDateToFetch));
         verify(weatherService).getWeather(eq(center3.getDisplayName()), anyDouble(), anyDouble(), eq(expectedDateToFetch));
     }
+
+    @Test
+    void performPreCaching_shouldRunConcurrentlyWithinInFlightCapAndRecordOutcomes() {
+        ReflectionTestUtils.setField(weatherPreCacheService, "ratePerSecond", 1000.0);
+        ReflectionTestUtils.setField(weatherPreCacheService, "maxInFlight", 3);
+        List<AustrianPopulationCenter> testCenters = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            testCenters.add(new AustrianPopulationCenter("Center " + i, 47 + i * 0.1, 15.0, 46.9, 14.9, 48.5, 15.1));
+        }
+        when(populationCenterService.getAllCenters()).thenReturn(testCenters);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(weatherService.getWeather(anyString(), anyDouble(), anyDouble(), eq(expectedDateToFetch))).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(30);
+            running.decrementAndGet();
+            if (invocation.getArgument(0).equals("Center 5")) {
+                throw new ExternalApiException(ErrorMessages.EXTERNAL_API_FAILURE);
+            }
+            return dummySuccessDTO;
+        });
+
+        PreCacheJobDTO job = weatherPreCacheService.performPreCaching("TestParallel");
+
+        assertThat(maxRunning.get()).isBetween(2, 3);
+        assertThat(job.getStatus()).isEqualTo("COMPLETED");
+        assertThat(job.getTotal()).isEqualTo(12);
+        assertThat(job.getCompleted()).isEqualTo(12);
+        assertThat(job.getSucceeded()).isEqualTo(11);
+        assertThat(job.getOutcomes()).filteredOn(outcome -> outcome.getCenter().equals("Center 5"))
+                .singleElement()
+                .satisfies(outcome -> assertThat(outcome.getStatus()).isEqualTo("API_ERROR"));
+        assertThat(weatherPreCacheService.getJobs()).extracting(PreCacheJobDTO::getId).containsExactly(job.getId());
+    }
+
+    @Test
+    void performPreCaching_onStartup_shouldReportWarmUpProgress() {
+        ReflectionTestUtils.setField(weatherPreCacheService, "ratePerSecond", 1000.0);
+        AustrianPopulationCenter center1 = new AustrianPopulationCenter("Vienna", 48.2082, 16.3738, 48.12, 16.18, 48.33, 16.58);
+        AustrianPopulationCenter center2 = new AustrianPopulationCenter("Graz", 47.0707, 15.4395, 46.99, 15.35, 47.12, 15.52);
+        when(populationCenterService.getAllCenters()).thenReturn(List.of(center1, center2));
+        when(weatherService.getWeather(anyString(), anyDouble(), anyDouble(), eq(expectedDateToFetch))).thenReturn(dummySuccessDTO);
+
+        weatherPreCacheService.performPreCaching("Startup");
+        weatherPreCacheService.performPreCaching("Scheduled");
+
+        verify(cacheWarmUpService).recordProgress(0, 2);
+        verify(cacheWarmUpService).recordProgress(2, 2);
+        verify(cacheWarmUpService, times(3)).recordProgress(anyInt(), eq(2));
+    }
+
+    @Test
+    void tokenBucket_shouldLimitSustainedRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(50, 5);
+        long started = System.nanoTime();
+        for (int i = 0; i < 15; i++) {
+            bucket.acquire();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // 5 permits from the burst, the remaining 10 at 50 per second.
+        assertThat(elapsedMs).isBetween(180L, 1000L);
+    }
 }
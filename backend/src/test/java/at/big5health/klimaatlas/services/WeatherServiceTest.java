@@ -1,6 +1,5 @@
 package at.big5health.klimaatlas.services;
 
-import at.big5health.klimaatlas.httpclients.ExternalWeatherApiClient;
 import at.big5health.klimaatlas.dtos.Precipitation;
 import at.big5health.klimaatlas.dtos.WeatherReportDTO;
 import at.big5health.klimaatlas.dtos.spartacus.SpartacusParameter;
@@ -14,6 +13,9 @@ import at.big5health.klimaatlas.exceptions.WeatherDataNotFoundException;
 import at.big5health.klimaatlas.grid.BoundingBox;
 import at.big5health.klimaatlas.grid.GridCellInfo;
 import at.big5health.klimaatlas.grid.GridUtil;
+import at.big5health.klimaatlas.grid.WeatherArchive;
+import at.big5health.klimaatlas.grid.WeatherRaster;
+import at.big5health.klimaatlas.grid.WeatherRasterStore;
 import at.big5health.klimaatlas.models.WeatherReport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +24,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
@@ -33,12 +36,15 @@ import java.util.Map;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.anyDouble;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -46,9 +52,15 @@ class WeatherServiceTest {
 
     // Mocks for dependencies injected into the spy
     @Mock
-    private ExternalWeatherApiClient externalClient;
+    private GridRequestBatcher requestBatcher;
     @Mock
     private GridUtil gridUtil;
+    @Mock
+    private WeatherRasterStore rasterStore;
+    @Mock
+    private GridCellCache cellCache;
+    @Mock
+    private WeatherArchive archive;
 
     // Spy on the actual WeatherService instance
     // Mocks above will be injected into this instance
@@ -61,6 +73,7 @@ class WeatherServiceTest {
     private double testLon;
     private LocalDate testDate;
     private String testCity;
+    private long testCell;
     private GridCellInfo testGridCellInfo;
     private BoundingBox testBbox;
     private String testCellId;
@@ -73,14 +86,15 @@ class WeatherServiceTest {
         testLon = 16.3738;
         testDate = LocalDate.of(2025, 4, 21);
         testCity = "Vienna";
-        testCellId = "cell_48.208200_16.373800";
+        testCellId = "cell_483_625";
         targetLat = 48.2082;
         targetLon = 16.3738;
         testBbox = new BoundingBox(48.207, 16.372, 48.209, 16.375);
-        testGridCellInfo = new GridCellInfo(testCellId, testBbox, targetLat, targetLon);
+        testGridCellInfo = new GridCellInfo(testCellId, testBbox, targetLat, targetLon, 483, 625);
 
-        // --- REMOVED common mocking from here ---
-        // given(gridUtil.getGridCellForCoordinates(testLat, testLon)).willReturn(testGridCellInfo);
+        testCell = GridUtil.cell(483, 625);
+        // Only the getOrFetchGridCellData tests derive the cell info
+        lenient().when(gridUtil.getGridCellInfo(testCell)).thenReturn(testGridCellInfo);
     }
 
     // --- Tests for getWeather() method ---
@@ -88,7 +102,7 @@ class WeatherServiceTest {
     @Test
     void getWeather_whenDataFound_shouldReturnDTOWithOriginalCoords() {
         // Arrange
-        given(gridUtil.getGridCellForCoordinates(testLat, testLon)).willReturn(testGridCellInfo);
+        given(gridUtil.getCellForCoordinates(testLat, testLon)).willReturn(testCell);
 
         // Ensure this DTO matches the structure including sunDuration
         WeatherReportDTO fetchedDtoFromInternalCall = new WeatherReportDTO(
@@ -96,7 +110,7 @@ class WeatherServiceTest {
                 null, null, null // Internal DTO has null lat/lon before getWeather sets them
         );
         doReturn(Optional.of(fetchedDtoFromInternalCall))
-                .when(weatherService).getOrFetchGridCellData(testCellId, testBbox, testDate, targetLat, targetLon);
+                .when(weatherService).getOrFetchGridCellData(testCell, testDate);
 
         // Act
         WeatherReportDTO result = weatherService.getWeather(testCity, testLon, testLat, testDate);
@@ -110,65 +124,96 @@ class WeatherServiceTest {
         assertThat(result.getLatitude()).isEqualTo(testLat);
         assertThat(result.getLongitude()).isEqualTo(testLon);
 
-        verify(gridUtil).getGridCellForCoordinates(testLat, testLon);
-        verify(weatherService).getOrFetchGridCellData(testCellId, testBbox, testDate, targetLat, targetLon);
-        verify(externalClient, never()).fetchGridData(any(), any());
+        verify(gridUtil).getCellForCoordinates(testLat, testLon);
+        verify(weatherService).getOrFetchGridCellData(testCell, testDate);
+        verify(requestBatcher, never()).fetchGridData(anyLong(), any());
     }
 
+    @Test
+    void getWeather_whenGridIsPreCached_shouldAnswerFromRasterWithoutFetching() {
+        given(rasterStore.lookup(testDate, testLat, testLon))
+                .willReturn(Optional.of(new WeatherRaster.Cell(-1.5, 8.25, 6.0)));
+
+        WeatherReportDTO result = weatherService.getWeather(testCity, testLon, testLat, testDate);
+
+        assertThat(result.getMinTemp()).isEqualTo(-1.5);
+        assertThat(result.getMaxTemp()).isEqualTo(8.25);
+        assertThat(result.getPrecip()).isEqualTo(Precipitation.RAIN);
+        assertThat(result.getLatitude()).isEqualTo(testLat);
+        assertThat(result.getLongitude()).isEqualTo(testLon);
+        assertThat(result.getCityName()).isEqualTo(testCity);
+        verify(gridUtil, never()).getCellForCoordinates(anyDouble(), anyDouble());
+        verify(requestBatcher, never()).fetchGridData(anyLong(), any());
+    }
+
+    @Test
+    void getWeather_whenDateIsBackfilled_shouldAnswerFromArchiveWithoutFetching() {
+        WeatherRaster archived = WeatherRaster.builder(testDate).add(testLat, testLon, 2.0, 11.0, 0.0).build();
+        given(rasterStore.lookup(testDate, testLat, testLon)).willReturn(Optional.empty());
+        given(archive.raster(testDate)).willReturn(Optional.of(archived));
+
+        WeatherReportDTO result = weatherService.getWeather(testCity, testLon, testLat, testDate);
+
+        assertThat(result.getMinTemp()).isEqualTo(2.0);
+        assertThat(result.getMaxTemp()).isEqualTo(11.0);
+        assertThat(result.getPrecip()).isEqualTo(Precipitation.NONE);
+        verify(gridUtil, never()).getCellForCoordinates(anyDouble(), anyDouble());
+        verify(requestBatcher, never()).fetchGridData(anyLong(), any());
+    }
 
     @Test
     void getWeather_whenGridUtilFails_shouldThrowException() {
         // Arrange
         // Mock gridUtil for *this test* to throw an exception
-        given(gridUtil.getGridCellForCoordinates(testLat, testLon)).willThrow(new RuntimeException("Grid calculation failed"));
+        given(gridUtil.getCellForCoordinates(testLat, testLon)).willThrow(new RuntimeException("Grid calculation failed"));
 
         // Act & Assert
         assertThatThrownBy(() -> weatherService.getWeather(testCity, testLon, testLat, testDate))
                 .isInstanceOf(ExternalApiException.class)
                 .hasMessageContaining(ErrorMessages.GRID_UTIL_ERROR.getMessage());
 
-        verify(gridUtil).getGridCellForCoordinates(testLat, testLon);
+        verify(gridUtil).getCellForCoordinates(testLat, testLon);
         // Verify the internal fetching method was never called because gridUtil failed first
-        verify(weatherService, never()).getOrFetchGridCellData(any(), any(), any(), anyDouble(), anyDouble());
-        verify(externalClient, never()).fetchGridData(any(), any());
+        verify(weatherService, never()).getOrFetchGridCellData(anyLong(), any());
+        verify(requestBatcher, never()).fetchGridData(anyLong(), any());
     }
 
     @Test
     void getWeather_whenDataNotFound_shouldThrowNotFoundException() {
         // Arrange
         // Mock gridUtil for *this test*
-        given(gridUtil.getGridCellForCoordinates(testLat, testLon)).willReturn(testGridCellInfo);
+        given(gridUtil.getCellForCoordinates(testLat, testLon)).willReturn(testCell);
         // Stub the *internal* call to return empty Optional
         doReturn(Optional.empty())
-                .when(weatherService).getOrFetchGridCellData(testCellId, testBbox, testDate, targetLat, targetLon);
+                .when(weatherService).getOrFetchGridCellData(testCell, testDate);
 
         // Act & Assert
         assertThatThrownBy(() -> weatherService.getWeather(testCity, testLon, testLat, testDate))
                 .isInstanceOf(WeatherDataNotFoundException.class)
                 .hasMessage(ErrorMessages.WEATHER_DATA_NOT_FOUND.getMessage());
 
-        verify(gridUtil).getGridCellForCoordinates(testLat, testLon);
-        verify(weatherService).getOrFetchGridCellData(testCellId, testBbox, testDate, targetLat, targetLon);
-        verify(externalClient, never()).fetchGridData(any(), any());
+        verify(gridUtil).getCellForCoordinates(testLat, testLon);
+        verify(weatherService).getOrFetchGridCellData(testCell, testDate);
+        verify(requestBatcher, never()).fetchGridData(anyLong(), any());
     }
 
     @Test
     void getWeather_whenApiClientFailsInternally_shouldThrowExternalApiException() {
         // Arrange
         // Mock gridUtil for *this test*
-        given(gridUtil.getGridCellForCoordinates(testLat, testLon)).willReturn(testGridCellInfo);
+        given(gridUtil.getCellForCoordinates(testLat, testLon)).willReturn(testCell);
         // Stub the *internal* call to throw the exception
         doThrow(new ExternalApiException(ErrorMessages.EXTERNAL_API_FAILURE))
-                .when(weatherService).getOrFetchGridCellData(testCellId, testBbox, testDate, targetLat, targetLon);
+                .when(weatherService).getOrFetchGridCellData(testCell, testDate);
 
         // Act & Assert
         assertThatThrownBy(() -> weatherService.getWeather(testCity, testLon, testLat, testDate))
                 .isInstanceOf(ExternalApiException.class)
                 .hasMessage(ErrorMessages.EXTERNAL_API_FAILURE.getMessage());
 
-        verify(gridUtil).getGridCellForCoordinates(testLat, testLon);
-        verify(weatherService).getOrFetchGridCellData(testCellId, testBbox, testDate, targetLat, targetLon);
-        verify(externalClient, never()).fetchGridData(any(), any());
+        verify(gridUtil).getCellForCoordinates(testLat, testLon);
+        verify(weatherService).getOrFetchGridCellData(testCell, testDate);
+        verify(requestBatcher, never()).fetchGridData(anyLong(), any());
     }
 
     @Test
@@ -178,10 +223,10 @@ class WeatherServiceTest {
         SpartacusFeatureCollection mockCollection = createMockFeatureCollection(
                 targetLon, targetLat, expectedSunDuration // Pass sun duration
         );
-        given(externalClient.fetchGridData(testBbox, testDate)).willReturn(Mono.just(mockCollection));
+        given(requestBatcher.fetchGridData(testCell, testDate)).willReturn(Mono.just(mockCollection));
 
         // Act
-        Optional<WeatherReportDTO> result = weatherService.getOrFetchGridCellData(testCellId, testBbox, testDate, targetLat, targetLon);
+        Optional<WeatherReportDTO> result = weatherService.getOrFetchGridCellData(testCell, testDate);
 
         // Assert
         assertThat(result).isPresent();
@@ -194,8 +239,8 @@ class WeatherServiceTest {
         assertThat(dto.getLatitude()).isNull();
         assertThat(dto.getLongitude()).isNull();
 
-        verify(externalClient).fetchGridData(testBbox, testDate);
-        verify(gridUtil, never()).getGridCellForCoordinates(anyDouble(), anyDouble());
+        verify(requestBatcher).fetchGridData(testCell, testDate);
+        verify(gridUtil).getGridCellInfo(testCell);
     }
 
     @Test
@@ -211,10 +256,10 @@ class WeatherServiceTest {
         );
         SpartacusFeatureCollection mockCollection = new SpartacusFeatureCollection();
         mockCollection.setFeatures(List.of(farFeature, closeFeature));
-        given(externalClient.fetchGridData(testBbox, testDate)).willReturn(Mono.just(mockCollection));
+        given(requestBatcher.fetchGridData(testCell, testDate)).willReturn(Mono.just(mockCollection));
 
         // Act
-        Optional<WeatherReportDTO> result = weatherService.getOrFetchGridCellData(testCellId, testBbox, testDate, targetLat, targetLon);
+        Optional<WeatherReportDTO> result = weatherService.getOrFetchGridCellData(testCell, testDate);
 
         // Assert
         assertThat(result).isPresent();
@@ -226,8 +271,8 @@ class WeatherServiceTest {
         assertThat(dto.getLatitude()).isNull();
         assertThat(dto.getLongitude()).isNull();
 
-        verify(externalClient).fetchGridData(testBbox, testDate);
-        verify(gridUtil, never()).getGridCellForCoordinates(anyDouble(), anyDouble());
+        verify(requestBatcher).fetchGridData(testCell, testDate);
+        verify(gridUtil).getGridCellInfo(testCell);
     }
 
     @Test
@@ -235,30 +280,30 @@ class WeatherServiceTest {
         // Arrange
         SpartacusFeatureCollection mockCollection = new SpartacusFeatureCollection();
         mockCollection.setFeatures(Collections.emptyList());
-        given(externalClient.fetchGridData(testBbox, testDate)).willReturn(Mono.just(mockCollection));
+        given(requestBatcher.fetchGridData(testCell, testDate)).willReturn(Mono.just(mockCollection));
 
         // Act
-        Optional<WeatherReportDTO> result = weatherService.getOrFetchGridCellData(testCellId, testBbox, testDate, targetLat, targetLon);
+        Optional<WeatherReportDTO> result = weatherService.getOrFetchGridCellData(testCell, testDate);
 
         // Assert
         assertThat(result).isNotPresent();
-        verify(externalClient).fetchGridData(testBbox, testDate);
-        verify(gridUtil, never()).getGridCellForCoordinates(anyDouble(), anyDouble());
+        verify(requestBatcher).fetchGridData(testCell, testDate);
+        verify(gridUtil).getGridCellInfo(testCell);
     }
 
     @Test
     void getOrFetchGridCellData_whenApiClientFails_shouldThrowExternalApiException() {
         // Arrange
-        given(externalClient.fetchGridData(testBbox, testDate))
+        given(requestBatcher.fetchGridData(testCell, testDate))
                 .willReturn(Mono.error(new ExternalApiException(ErrorMessages.EXTERNAL_API_FAILURE)));
 
         // Act & Assert
-        assertThatThrownBy(() -> weatherService.getOrFetchGridCellData(testCellId, testBbox, testDate, targetLat, targetLon))
+        assertThatThrownBy(() -> weatherService.getOrFetchGridCellData(testCell, testDate))
                 .isInstanceOf(ExternalApiException.class)
                 .hasMessage(ErrorMessages.EXTERNAL_API_FAILURE.getMessage());
 
-        verify(externalClient).fetchGridData(testBbox, testDate);
-        verify(gridUtil, never()).getGridCellForCoordinates(anyDouble(), anyDouble());
+        verify(requestBatcher).fetchGridData(testCell, testDate);
+        verify(gridUtil).getGridCellInfo(testCell);
     }
 
     // Helper methods
@@ -337,10 +382,9 @@ class WeatherServiceTest {
         SpartacusFeatureCollection collection = new SpartacusFeatureCollection();
         collection.setFeatures(List.of());
 
-        given(externalClient.fetchGridData(testBbox, testDate)).willReturn(Mono.just(collection));
+        given(requestBatcher.fetchGridData(testCell, testDate)).willReturn(Mono.just(collection));
 
-        Optional<WeatherReportDTO> result = weatherService.getOrFetchGridCellData(
-                testCellId, testBbox, testDate, targetLat, targetLon);
+        Optional<WeatherReportDTO> result = weatherService.getOrFetchGridCellData(testCell, testDate);
 
         assertThat(result).isEmpty();
     }
@@ -371,4 +415,72 @@ class WeatherServiceTest {
         assertThat(weatherService.mapPrecipitation(5.1)).isEqualTo(Precipitation.RAIN);
     }
 
+    @Test
+    void getAggregates_shouldQueryPyramidOfPreCachedRasterOrThrow() {
+        WeatherRaster raster = WeatherRaster.builder(testDate).add(testLat, testLon, 5.0, 15.0, 0.0).build();
+        given(rasterStore.get(testDate)).willReturn(Optional.of(raster));
+        given(rasterStore.get(testDate.minusDays(1))).willReturn(Optional.empty());
+
+        assertThat(weatherService.getAggregates(testDate, WeatherRaster.extent(), 6))
+                .singleElement()
+                .satisfies(tile -> assertThat(tile.getMaxTempMax()).isEqualTo(15.0));
+        assertThatThrownBy(() -> weatherService.getAggregates(testDate.minusDays(1), WeatherRaster.extent(), 6))
+                .isInstanceOf(WeatherDataNotFoundException.class);
+    }
+
+    @Test
+    void getAggregates_whenDateIsBackfilled_shouldQueryPyramidOfArchivedRaster() {
+        LocalDate past = testDate.minusYears(3);
+        WeatherRaster archived = WeatherRaster.builder(past).add(testLat, testLon, -3.0, 4.0, 0.0).build();
+        given(rasterStore.get(past)).willReturn(Optional.empty());
+        given(archive.raster(past)).willReturn(Optional.of(archived));
+
+        assertThat(weatherService.getAggregates(past, WeatherRaster.extent(), 6))
+                .singleElement()
+                .satisfies(tile -> assertThat(tile.getMinTempMin()).isEqualTo(-3.0));
+    }
+
+    @Test
+    void getWeather_whenCellCached_shouldNotFetch() {
+        given(gridUtil.getCellForCoordinates(testLat, testLon)).willReturn(testCell);
+        given(cellCache.get(testCell, testDate))
+                .willReturn(Optional.of(new WeatherReportDTO(5.0, 15.0, Precipitation.NONE, null, null, null, null)));
+
+        WeatherReportDTO result = weatherService.getWeather(testCity, testLon, testLat, testDate);
+
+        assertThat(result.getMaxTemp()).isEqualTo(15.0);
+        assertThat(result.getEstimated()).isNull();
+        verify(weatherService, never()).getOrFetchGridCellData(anyLong(), any());
+    }
+
+    @Test
+    void getWeather_withEstimationAndCachedNeighbours_shouldReturnEstimateAndFetchInBackground() {
+        ReflectionTestUtils.setField(weatherService, "estimationEnabled", true);
+        given(gridUtil.getCellForCoordinates(testLat, testLon)).willReturn(testCell);
+        given(cellCache.estimate(testCell, testDate, testLat, testLon))
+                .willReturn(Optional.of(new WeatherReportDTO(4.0, 14.0, Precipitation.DRIZZLE, null, null, null, null, true)));
+        WeatherReportDTO exact = new WeatherReportDTO(5.0, 15.0, Precipitation.NONE, null, null, null, null);
+        doReturn(Optional.of(exact)).when(weatherService).getOrFetchGridCellData(testCell, testDate);
+
+        WeatherReportDTO result = weatherService.getWeather(testCity, testLon, testLat, testDate);
+
+        assertThat(result.getEstimated()).isTrue();
+        assertThat(result.getMinTemp()).isEqualTo(4.0);
+        assertThat(result.getLatitude()).isEqualTo(testLat);
+        verify(cellCache, timeout(5000)).put(testCell, testDate, exact);
+    }
+
+    @Test
+    void getWeather_withoutEstimation_shouldFetchAndCacheCell() {
+        given(gridUtil.getCellForCoordinates(testLat, testLon)).willReturn(testCell);
+        WeatherReportDTO exact = new WeatherReportDTO(5.0, 15.0, Precipitation.NONE, null, null, null, null);
+        doReturn(Optional.of(exact)).when(weatherService).getOrFetchGridCellData(testCell, testDate);
+
+        WeatherReportDTO result = weatherService.getWeather(testCity, testLon, testLat, testDate);
+
+        assertThat(result.getEstimated()).isNull();
+        verify(cellCache, never()).estimate(anyLong(), any(), anyDouble(), anyDouble());
+        verify(cellCache).put(testCell, testDate, exact);
+    }
+
 }
@@ -0,0 +1,62 @@
+package at.big5health.klimaatlas.grid;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link AustriaLambert} projection and cell snapping of {@link GridUtil#cellAt(double, double)}
+ * evaluated for several coordinates at once with the incubating Vector API.
+ * <p>
+ * This class lives in the {@code vector} source set, the only one compiled against the
+ * incubator module. {@link GridUtil} instantiates it reflectively, and only when the
+ * {@code jdk.incubator.vector} module is present, see
+ * {@link GridUtil#cellsAt(double[], double[], long[])}.
+ */
+final class VectorCellSnapper implements BulkCellSnapper {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final double RADIANS_PER_DEGREE = Math.PI / 180;
+
+    VectorCellSnapper() {
+    }
+
+    @Override
+    public int cellsAt(double[] latitudes, double[] longitudes, long[] cells, int count) {
+        double e = AustriaLambert.ECCENTRICITY;
+        double radiusScale = AustriaLambert.SEMI_MAJOR_AXIS * AustriaLambert.SCALE;
+        int bound = DOUBLES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector latitude = DoubleVector.fromArray(DOUBLES, latitudes, i).mul(RADIANS_PER_DEGREE);
+            DoubleVector esin = latitude.lanewise(VectorOperators.SIN).mul(e);
+            DoubleVector t = latitude.mul(-0.5).add(Math.PI / 4).lanewise(VectorOperators.TAN)
+                    .div(esin.neg().add(1).div(esin.add(1)).pow(e / 2));
+            DoubleVector radius = t.pow(AustriaLambert.CONE).mul(radiusScale);
+            DoubleVector angle = DoubleVector.fromArray(DOUBLES, longitudes, i).mul(RADIANS_PER_DEGREE)
+                    .sub(AustriaLambert.ORIGIN_LONGITUDE).mul(AustriaLambert.CONE);
+
+            DoubleVector easting = radius.mul(angle.lanewise(VectorOperators.SIN)).add(AustriaLambert.FALSE_EASTING);
+            DoubleVector northing = radius.mul(angle.lanewise(VectorOperators.COS)).neg()
+                    .add(AustriaLambert.FALSE_NORTHING + AustriaLambert.ORIGIN_RADIUS);
+
+            LongVector column = floor(easting.div(GridUtil.CELL_SIZE_METERS));
+            LongVector row = floor(northing.div(GridUtil.CELL_SIZE_METERS));
+            row.lanewise(VectorOperators.LSHL, 32)
+                    .or(column.and(0xFFFFFFFFL))
+                    .intoArray(cells, i);
+        }
+        return i;
+    }
+
+    private static LongVector floor(DoubleVector value) {
+        LongVector truncated = (LongVector) value.convertShape(VectorOperators.D2L, LONGS, 0);
+        VectorMask<Long> negativeFraction = ((DoubleVector) truncated.convertShape(VectorOperators.L2D, DOUBLES, 0))
+                .compare(VectorOperators.GT, value)
+                .cast(LONGS);
+        return truncated.sub(1, negativeFraction);
+    }
+}